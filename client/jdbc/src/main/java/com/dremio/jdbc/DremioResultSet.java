@@ -18,6 +18,7 @@ package com.dremio.jdbc;
 import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import org.apache.arrow.vector.VectorSchemaRoot;
 
 /**
  * Dremio-specific {@link ResultSet}.
@@ -33,6 +34,21 @@ public interface DremioResultSet extends ResultSet {
    */
   String getQueryId() throws SQLException;
 
+  /**
+   * Advances this result set to the next batch of rows and returns it as Arrow vectors, without the
+   * per value conversions of the row by row getters. Rows of the current batch that were not read
+   * yet with {@link #next()} are skipped. While a batch is returned, the following one is received
+   * and decoded in the background.
+   *
+   * <p>The returned root is owned by this result set: it must not be closed, and it is only valid
+   * until the next call to {@code nextBatch()} or {@link #next()}, or until this result set is
+   * closed.
+   *
+   * @return the next batch of rows, possibly empty, or {@code null} once all rows were read
+   * @throws SQLException if this method is called on a closed result set, or if the query failed
+   */
+  VectorSchemaRoot nextBatch() throws SQLException;
+
   /**
    * {@inheritDoc}
    *
@@ -17,6 +17,7 @@ package com.dremio.jdbc.impl;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+import com.dremio.common.concurrent.NamedThreadFactory;
 import com.dremio.common.exceptions.UserException;
 import com.dremio.common.utils.protos.QueryIdHelper;
 import com.dremio.exec.client.DremioClient;
@@ -27,23 +28,31 @@ import com.dremio.exec.proto.UserBitShared.QueryType;
 import com.dremio.exec.proto.UserProtos.PreparedStatement;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.record.RecordBatchLoader;
+import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.rpc.ConnectionThrottle;
 import com.dremio.jdbc.SchemaChangeListener;
 import com.dremio.jdbc.SqlTimeoutException;
 import com.dremio.sabot.rpc.user.QueryDataBatch;
 import com.dremio.sabot.rpc.user.UserResultsListener;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Queues;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.calcite.avatica.AvaticaStatement;
 import org.apache.calcite.avatica.ColumnMetaData;
 import org.apache.calcite.avatica.Meta;
@@ -58,6 +67,10 @@ class DremioCursor implements Cursor {
   public static final String JDBC_BATCH_QUEUE_THROTTLING_THRESHOLD =
       "dremio.jdbc.batch_queue_throttling_threshold";
 
+  /** Size of JDBC batch queue (in bytes) above which throttling begins. */
+  public static final String JDBC_BATCH_QUEUE_THROTTLING_THRESHOLD_BYTES =
+      "dremio.jdbc.batch_queue_throttling_threshold_bytes";
+
   public static final String IS_CATALOG_NAME = "DREMIO";
   // END_OF_STREAM_MESSAGE gets added to batchQueue to signal the waiting threads
   // that there is no more data in the queue, therefore aborting the operations waiting
@@ -79,6 +92,11 @@ class DremioCursor implements Cursor {
 
     private final int batchQueueThrottlingThreshold;
 
+    private final long batchQueueThrottlingThresholdBytes;
+
+    /** Size of the data of the batches in the queue. */
+    private final AtomicLong queuedBytes = new AtomicLong(0);
+
     /** (Just for logging.) */
     private volatile QueryId queryId;
 
@@ -114,12 +132,18 @@ class DremioCursor implements Cursor {
      * ...
      *
      * @param batchQueueThrottlingThreshold queue size threshold for throttling server
+     * @param batchQueueThrottlingThresholdBytes queue size threshold, in bytes, for throttling
+     *     server
      * @param batchQueuePollTimeoutMs timeout for batchQueue.Poll() in ms
      */
     @VisibleForTesting
-    ResultsListener(int batchQueueThrottlingThreshold, long batchQueuePollTimeoutMs) {
+    ResultsListener(
+        int batchQueueThrottlingThreshold,
+        long batchQueueThrottlingThresholdBytes,
+        long batchQueuePollTimeoutMs) {
       instanceId = INSTANCE_ID_COUNTER.getAndIncrement();
       this.batchQueueThrottlingThreshold = batchQueueThrottlingThreshold;
+      this.batchQueueThrottlingThresholdBytes = batchQueueThrottlingThresholdBytes;
       this.batchQueuePollTimeoutMs = batchQueuePollTimeoutMs;
       logger.debug("[#{}] Query listener created.", instanceId);
     }
@@ -128,9 +152,29 @@ class DremioCursor implements Cursor {
      * ...
      *
      * @param batchQueueThrottlingThreshold queue size threshold for throttling server
+     * @param batchQueueThrottlingThresholdBytes queue size threshold, in bytes, for throttling
+     *     server
      */
-    ResultsListener(int batchQueueThrottlingThreshold) {
-      this(batchQueueThrottlingThreshold, 50);
+    ResultsListener(int batchQueueThrottlingThreshold, long batchQueueThrottlingThresholdBytes) {
+      this(batchQueueThrottlingThreshold, batchQueueThrottlingThresholdBytes, 50);
+    }
+
+    private static long sizeOf(QueryDataBatch batch) {
+      return batch.getData() == null ? 0 : batch.getData().capacity();
+    }
+
+    /** Whether the queue exceeds either of the throttling thresholds. */
+    private boolean isAboveThrottlingThreshold() {
+      return batchQueue.size() > batchQueueThrottlingThreshold
+          || queuedBytes.get() > batchQueueThrottlingThresholdBytes;
+    }
+
+    /** Whether the queue has dropped enough below both of the throttling thresholds. */
+    private boolean isBelowUnthrottlingThreshold() {
+      final boolean belowCount =
+          batchQueue.size() < batchQueueThrottlingThreshold / 2
+              || batchQueue.size() == 0; // (in case threshold < 2)
+      return belowCount && queuedBytes.get() <= batchQueueThrottlingThresholdBytes / 2;
     }
 
     /**
@@ -208,12 +252,17 @@ class DremioCursor implements Cursor {
       }
 
       // We're active; let's add to the queue.
+      queuedBytes.addAndGet(sizeOf(result));
       batchQueue.add(result);
 
       // Throttle server if queue size has exceed threshold.
-      if (batchQueue.size() > batchQueueThrottlingThreshold) {
+      if (isAboveThrottlingThreshold()) {
         if (startThrottlingIfNot(throttle)) {
-          logger.debug("[#{}] Throttling started at queue size {}.", instanceId, batchQueue.size());
+          logger.debug(
+              "[#{}] Throttling started at queue size {} ({} bytes).",
+              instanceId,
+              batchQueue.size(),
+              queuedBytes.get());
         }
       }
 
@@ -264,6 +313,7 @@ class DremioCursor implements Cursor {
             return null;
           }
           if (qdb != null) {
+            queuedBytes.addAndGet(-sizeOf(qdb));
             lastDequeuedBatchNumber++;
             logger.debug(
                 "[#{}] Dequeued query data batch #{}: {}.",
@@ -272,12 +322,13 @@ class DremioCursor implements Cursor {
                 qdb);
 
             // Unthrottle server if queue size has dropped enough below threshold:
-            if (batchQueue.size() < batchQueueThrottlingThreshold / 2
-                || batchQueue.size() == 0 // (in case threshold < 2)
-            ) {
+            if (isBelowUnthrottlingThreshold()) {
               if (stopThrottlingIfSo()) {
                 logger.debug(
-                    "[#{}] Throttling stopped at queue size {}.", instanceId, batchQueue.size());
+                    "[#{}] Throttling stopped at queue size {} ({} bytes).",
+                    instanceId,
+                    batchQueue.size(),
+                    queuedBytes.get());
               }
             }
             return qdb;
@@ -306,6 +357,7 @@ class DremioCursor implements Cursor {
           qdb.getData().close();
         }
       }
+      queuedBytes.set(0);
 
       completed = true;
       // Add an END_OF_STREAM_MESSAGE batch to the queue to signify no more data in a race condition
@@ -324,6 +376,10 @@ class DremioCursor implements Cursor {
 
   private static final Logger logger = getLogger(DremioCursor.class);
 
+  /** Receives and decodes the next batches of result sets read with {@link #nextBatch()}. */
+  private static final ExecutorService PREFETCH_EXECUTOR =
+      Executors.newCachedThreadPool(new NamedThreadFactory("jdbc-batch-prefetch-"));
+
   /** JDBC-specified string for unknown catalog, schema, and table names. */
   private static final String UNKNOWN_NAME_STRING = "";
 
@@ -332,7 +388,16 @@ class DremioCursor implements Cursor {
   private final Meta.Signature signature;
 
   /** Holds current batch of records (none before first load). */
-  private final RecordBatchLoader currentBatchHolder;
+  private RecordBatchLoader currentBatchHolder;
+
+  /** Holds the batch decoded in the background while the current one is read (if any). */
+  private RecordBatchLoader prefetchBatchHolder;
+
+  /**
+   * Completes once the next batch is loaded in {@link #prefetchBatchHolder}, with {@code null}
+   * after the last batch (null if no batch is being prefetched).
+   */
+  private Future<Boolean> prefetchedBatch;
 
   private final ResultsListener resultsListener;
   private SchemaChangeListener changeListener;
@@ -383,8 +448,12 @@ class DremioCursor implements Cursor {
     DremioClient client = connection.getClient();
     final int batchQueueThrottlingThreshold =
         client.getConfig().getInt(JDBC_BATCH_QUEUE_THROTTLING_THRESHOLD);
-    resultsListener = new ResultsListener(batchQueueThrottlingThreshold);
+    final long batchQueueThrottlingThresholdBytes =
+        client.getConfig().getBytes(JDBC_BATCH_QUEUE_THROTTLING_THRESHOLD_BYTES);
+    resultsListener =
+        new ResultsListener(batchQueueThrottlingThreshold, batchQueueThrottlingThresholdBytes);
     currentBatchHolder = new RecordBatchLoader(client.getRecordAllocator());
+    prefetchBatchHolder = new RecordBatchLoader(client.getRecordAllocator());
   }
 
   protected int getCurrentRecordNumber() {
@@ -423,7 +492,24 @@ class DremioCursor implements Cursor {
       connection.getClient().cancelQuery(resultsListener.getQueryId());
     }
     resultsListener.close();
+    // (The listener being closed, a pending prefetch is about to complete.)
+    awaitPrefetchQuietly();
     currentBatchHolder.clear();
+    prefetchBatchHolder.clear();
+  }
+
+  private void awaitPrefetchQuietly() {
+    if (prefetchedBatch == null) {
+      return;
+    }
+    try {
+      prefetchedBatch.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      logger.debug("Prefetch of next batch failed while closing cursor", e.getCause());
+    }
+    prefetchedBatch = null;
   }
 
   /** Updates column accessors and metadata from current record batch. */
@@ -472,25 +558,14 @@ class DremioCursor implements Cursor {
       // (First call always takes this branch.)
 
       try {
-        QueryDataBatch qrb = resultsListener.getNext();
-
-        // (Apparently:)  Skip any spurious empty batches (batches that have
-        // zero rows and/or null data, other than the first batch (which carries
-        // the (initial) schema but no rows)).
-        if (afterFirstBatch) {
-          while (qrb != null && (qrb.getHeader().getRowCount() == 0 || qrb.getData() == null)) {
-            // Empty message--dispose of and try to get another.
-            logger.warn("Spurious batch read: {}", qrb);
-
-            qrb.release();
-
-            qrb = resultsListener.getNext();
-          }
+        final Boolean schemaChanged;
+        if (prefetchedBatch != null) {
+          schemaChanged = takePrefetchedBatch();
+        } else {
+          schemaChanged = loadNextBatch(currentBatchHolder);
         }
 
-        afterFirstBatch = true;
-
-        if (qrb == null) {
+        if (schemaChanged == null) {
           // End of batches--clean up, set state to done, report after last row.
 
           currentBatchHolder.clear(); // (We load it so we clear it.)
@@ -503,12 +578,6 @@ class DremioCursor implements Cursor {
 
           currentRecordNumber = 0;
 
-          final boolean schemaChanged;
-          try {
-            schemaChanged = currentBatchHolder.load(qrb.getHeader().getDef(), qrb.getData());
-          } finally {
-            qrb.release();
-          }
           schema = currentBatchHolder.getSchema();
           if (schemaChanged) {
             updateColumns();
@@ -546,6 +615,126 @@ class DremioCursor implements Cursor {
     }
   }
 
+  /**
+   * Gets the next batch of query results and loads it into the given batch holder.
+   *
+   * @return whether the schema of the batch holder changed, or {@code null} after last batch
+   */
+  private Boolean loadNextBatch(RecordBatchLoader batchHolder)
+      throws UserException, TimeoutException, InterruptedException, SchemaChangeException {
+    QueryDataBatch qrb = resultsListener.getNext();
+
+    // (Apparently:)  Skip any spurious empty batches (batches that have
+    // zero rows and/or null data, other than the first batch (which carries
+    // the (initial) schema but no rows)).
+    if (afterFirstBatch) {
+      while (qrb != null && (qrb.getHeader().getRowCount() == 0 || qrb.getData() == null)) {
+        // Empty message--dispose of and try to get another.
+        logger.warn("Spurious batch read: {}", qrb);
+
+        qrb.release();
+
+        qrb = resultsListener.getNext();
+      }
+    }
+
+    afterFirstBatch = true;
+
+    if (qrb == null) {
+      return null;
+    }
+    try {
+      return batchHolder.load(qrb.getHeader().getDef(), qrb.getData());
+    } finally {
+      qrb.release();
+    }
+  }
+
+  /** Starts receiving and decoding the next batch in the background. */
+  private void startPrefetch() {
+    assert prefetchedBatch == null : "a batch is already being prefetched";
+    final RecordBatchLoader batchHolder = prefetchBatchHolder;
+    prefetchedBatch = PREFETCH_EXECUTOR.submit(() -> loadNextBatch(batchHolder));
+  }
+
+  /**
+   * Waits for the batch being prefetched and makes it the current batch.
+   *
+   * @return whether the schema changed, or {@code null} after last batch
+   */
+  private Boolean takePrefetchedBatch()
+      throws UserException, TimeoutException, InterruptedException, SchemaChangeException {
+    final Future<Boolean> prefetched = prefetchedBatch;
+    prefetchedBatch = null;
+    final Boolean loaded;
+    try {
+      loaded = prefetched.get();
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      Throwables.throwIfInstanceOf(cause, TimeoutException.class);
+      Throwables.throwIfInstanceOf(cause, InterruptedException.class);
+      Throwables.throwIfInstanceOf(cause, SchemaChangeException.class);
+      // (Also rethrows UserException.)
+      Throwables.throwIfUnchecked(cause);
+      throw new RuntimeException(cause);
+    }
+    if (loaded == null) {
+      return null;
+    }
+
+    // The batch holders are swapped, accessors have to be bound to the vectors of the new one.
+    final RecordBatchLoader previous = currentBatchHolder;
+    currentBatchHolder = prefetchBatchHolder;
+    prefetchBatchHolder = previous;
+    final boolean schemaChanged = schema == null || !schema.equals(currentBatchHolder.getSchema());
+    if (!schemaChanged) {
+      accessors.generateAccessors(this, currentBatchHolder, this.connection.getTimeZone());
+    }
+    return schemaChanged;
+  }
+
+  /**
+   * Advances to the next batch, skipping any row of the current batch not read yet, and returns it
+   * as a {@link VectorSchemaRoot} sharing the vectors of the batch. Then starts decoding the
+   * following batch in the background.
+   *
+   * @return the next batch, or {@code null} when after end of results
+   * @see com.dremio.jdbc.DremioResultSet#nextBatch()
+   */
+  VectorSchemaRoot nextBatch() throws SQLException {
+    if (!initialSchemaLoaded) {
+      throw new IllegalStateException("nextBatch() called but loadInitialSchema() was not called");
+    }
+
+    if (afterLastRow) {
+      return null;
+    } else if (returnTrueForNextCallToNext) {
+      // The first batch was loaded by loadInitialSchema() but none of its rows were read yet.
+      returnTrueForNextCallToNext = false;
+    } else {
+      // Skip the rest of the current batch.
+      final int lastRecordNumber = currentBatchHolder.getRecordCount() - 1;
+      if (currentRecordNumber < lastRecordNumber) {
+        currentRowNumber += lastRecordNumber - currentRecordNumber;
+        currentRecordNumber = lastRecordNumber;
+      }
+      if (!nextRowInternally()) {
+        return null;
+      }
+    }
+
+    final int recordCount = currentBatchHolder.getRecordCount();
+    final int unreadRecords = recordCount - Math.max(currentRecordNumber, 0);
+    // Position the cursor on the last row of the batch.
+    currentRowNumber += unreadRecords;
+    currentRecordNumber = recordCount - 1;
+    accessors.clearLastColumnIndexedInRow();
+
+    startPrefetch();
+    return new VectorSchemaRoot(
+        schema.getFields(), VectorContainer.getFieldVectors(currentBatchHolder), recordCount);
+  }
+
   /**
    * Advances to first batch to load schema data into result set metadata.
    *
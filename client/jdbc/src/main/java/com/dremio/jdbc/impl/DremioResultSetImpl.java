@@ -43,6 +43,7 @@ import java.sql.Types;
 import java.util.Calendar;
 import java.util.Map;
 import java.util.TimeZone;
+import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.calcite.avatica.AvaticaResultSet;
 import org.apache.calcite.avatica.AvaticaSite;
 import org.apache.calcite.avatica.AvaticaStatement;
@@ -1729,6 +1730,19 @@ class DremioResultSetImpl extends AvaticaResultSet implements DremioResultSet {
     return null;
   }
 
+  @Override
+  public VectorSchemaRoot nextBatch() throws SQLException {
+    throwIfClosed();
+    // (See next() re cursor being set to null on cancellation.)
+    if (cursor == null) {
+      return null;
+    }
+    if (!(cursor instanceof DremioCursor)) {
+      throw new SQLFeatureNotSupportedException("nextBatch() is not supported on this result set");
+    }
+    return ((DremioCursor) cursor).nextBatch();
+  }
+
   ////////////////////////////////////////
 
   @Override
@@ -21,6 +21,9 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.arrow.vector.VectorSchemaRoot;
 import org.junit.Test;
 
 public class DremioResultSetTest extends JdbcWithServerTestBase {
@@ -99,6 +102,40 @@ public class DremioResultSetTest extends JdbcWithServerTestBase {
     assertThat(resultSet.getRow()).isEqualTo(0);
   }
 
+  @Test
+  public void test_nextBatch_returnsAllRows() throws Exception {
+    Statement statement = getConnection().createStatement();
+    DremioResultSet resultSet =
+        statement.executeQuery("VALUES (1), (2), (3)").unwrap(DremioResultSet.class);
+
+    List<Object> values = new ArrayList<>();
+    VectorSchemaRoot root;
+    while ((root = resultSet.nextBatch()) != null) {
+      assertThat(root.getFieldVectors()).hasSize(1);
+      for (int i = 0; i < root.getRowCount(); i++) {
+        values.add(root.getFieldVectors().get(0).getObject(i));
+      }
+    }
+
+    assertThat(values).containsExactly(1, 2, 3);
+    assertThat(resultSet.next()).isFalse();
+    assertThat(resultSet.nextBatch()).isNull();
+  }
+
+  @Test
+  public void test_nextBatch_skipsUnreadRowsOfCurrentBatch() throws Exception {
+    Statement statement = getConnection().createStatement();
+    DremioResultSet resultSet =
+        statement.executeQuery("VALUES (1), (2), (3)").unwrap(DremioResultSet.class);
+
+    assertThat(resultSet.next()).isTrue();
+    assertThat(resultSet.getInt(1)).isEqualTo(1);
+
+    // The remaining rows belong to the current batch.
+    assertThat(resultSet.nextBatch()).isNull();
+    assertThat(resultSet.next()).isFalse();
+  }
+
   // TODO:  Ideally, test other methods.
 
 }
@@ -17,13 +17,19 @@ package com.dremio.jdbc.impl;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import com.dremio.exec.proto.UserBitShared.QueryData;
 import com.dremio.exec.proto.UserBitShared.QueryResult.QueryState;
+import com.dremio.exec.rpc.ConnectionThrottle;
 import com.dremio.jdbc.impl.DremioCursor.ResultsListener;
 import com.dremio.sabot.rpc.user.QueryDataBatch;
 import com.dremio.test.DremioTest;
 import java.util.function.Consumer;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
 import org.junit.Test;
 
 /** Class-level unit test for {@link ResultsListener}. */
@@ -49,9 +55,35 @@ public class ResultsListenerTest extends DremioTest {
     runTest(resultsListener -> resultsListener.close());
   }
 
+  @Test
+  public void testThrottlingOnQueuedBytes() throws Exception {
+    final ConnectionThrottle throttle = mock(ConnectionThrottle.class);
+    final ResultsListener resultsListener =
+        new ResultsListener(THROTTLING_THRESHOLD, 768, BATCH_QUEUE_POLL_TIMEOUT_MS);
+
+    try (BufferAllocator allocator = new RootAllocator()) {
+      resultsListener.dataArrived(newBatch(allocator, 512), throttle);
+      verify(throttle, never()).setAutoRead(false);
+      resultsListener.dataArrived(newBatch(allocator, 512), throttle);
+      verify(throttle).setAutoRead(false);
+
+      // 512 bytes are still queued, more than half of the threshold
+      resultsListener.getNext().release();
+      verify(throttle, never()).setAutoRead(true);
+      resultsListener.getNext().release();
+      verify(throttle).setAutoRead(true);
+
+      resultsListener.close();
+    }
+  }
+
+  private static QueryDataBatch newBatch(BufferAllocator allocator, int size) {
+    return new QueryDataBatch(QueryData.getDefaultInstance(), allocator.buffer(size));
+  }
+
   private void runTest(Consumer<ResultsListener> resultsListenerConsumer) throws Exception {
     final ResultsListener resultsListener =
-        new ResultsListener(THROTTLING_THRESHOLD, BATCH_QUEUE_POLL_TIMEOUT_MS);
+        new ResultsListener(THROTTLING_THRESHOLD, Long.MAX_VALUE, BATCH_QUEUE_POLL_TIMEOUT_MS);
 
     final Thread resultsListenerThread =
         new Thread(
@@ -16,7 +16,6 @@
 package com.dremio.dac.server.admin.profile;
 
 import com.dremio.common.utils.ProtobufUtils;
-import com.dremio.common.utils.protos.AttemptId;
 import com.dremio.common.utils.protos.AttemptIdUtils;
 import com.dremio.dac.proto.model.source.ClusterIdentity;
 import com.dremio.dac.resource.ExportProfilesParams;
@@ -29,7 +28,6 @@ import com.dremio.dac.util.ZipUtil;
 import com.dremio.datastore.SearchQueryUtils;
 import com.dremio.datastore.SearchTypes.SearchQuery;
 import com.dremio.datastore.api.LegacyIndexedStore;
-import com.dremio.datastore.api.LegacyKVStore;
 import com.dremio.datastore.api.LegacyKVStoreProvider;
 import com.dremio.exec.hadoop.HadoopFileSystem;
 import com.dremio.exec.proto.UserBitShared;
@@ -159,8 +157,6 @@ public final class ProfilesExporter {
 
   private ExportProfilesStats exportJSON(FileSystem fs, LegacyKVStoreProvider provider)
       throws IOException {
-    final LegacyKVStore<AttemptId, UserBitShared.QueryProfile> profilesStore =
-        provider.getStore(LocalProfileStore.KVProfileStoreCreator.class);
     final LegacyIndexedStore<JobId, JobResult> jobsStore =
         provider.getStore(JobsStoreCreator.class);
 
@@ -179,7 +175,9 @@ public final class ProfilesExporter {
           continue;
         }
         UserBitShared.QueryProfile profile =
-            profilesStore.get(AttemptIdUtils.fromString(attempt.getAttemptId()));
+            LocalProfileStore.getOldProfile(
+                    provider, AttemptIdUtils.fromString(attempt.getAttemptId()))
+                .orElse(null);
         if (profile == null) {
           logger.debug("Profile for attempt id: '{}' was not found", attempt.getAttemptId());
           continue;
@@ -212,8 +210,6 @@ public final class ProfilesExporter {
 
   private ExportProfilesStats exportChunk(FileSystem fs, LegacyKVStoreProvider provider)
       throws IOException {
-    final LegacyKVStore<AttemptId, UserBitShared.QueryProfile> profilesStore =
-        provider.getStore(LocalProfileStore.KVProfileStoreCreator.class);
     final LegacyIndexedStore<JobId, JobResult> jobsStore =
         provider.getStore(JobsStoreCreator.class);
 
@@ -235,7 +231,9 @@ public final class ProfilesExporter {
           continue;
         }
         UserBitShared.QueryProfile profile =
-            profilesStore.get(AttemptIdUtils.fromString(attempt.getAttemptId()));
+            LocalProfileStore.getOldProfile(
+                    provider, AttemptIdUtils.fromString(attempt.getAttemptId()))
+                .orElse(null);
         if (profile == null) {
           logger.debug("Profile for attempt id: '{}' was not found", attempt.getAttemptId());
           continue;
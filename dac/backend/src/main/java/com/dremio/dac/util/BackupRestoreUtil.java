@@ -567,11 +567,18 @@ public final class BackupRestoreUtil {
               return;
             }
 
-            if (LocalProfileStore.PROFILES_NAME.equals(kvstoreInfo.getTablename())
+            if ((LocalProfileStore.PROFILES_NAME.equals(kvstoreInfo.getTablename())
+                    || LocalProfileStore.COMPACT_PROFILES_NAME.equals(kvstoreInfo.getTablename()))
                 && !options.isIncludeProfiles()) {
               return;
             }
 
+            if (LocalProfileStore.SPILLED_EXECUTOR_PROFILES_NAME.equals(
+                kvstoreInfo.getTablename())) {
+              // Spilled executor profiles only live as long as their query
+              return;
+            }
+
             if (!options.table.isEmpty() && !options.table.equals(kvstoreInfo.getTablename())) {
               return;
             }
@@ -2120,12 +2120,11 @@ public class TestJobService extends BaseTestServer {
             + System.lineSeparator();
     assertEquals(expectedReport, report);
 
-    LegacyKVStore<AttemptId, UserBitShared.QueryProfile> profileStore =
-        provider.getStore(LocalProfileStore.KVProfileStoreCreator.class);
-    UserBitShared.QueryProfile queryProfile =
-        profileStore.get(
-            AttemptIdUtils.fromString(JobsProtoUtil.getLastAttempt(jobDetails1).getAttemptId()));
-    assertEquals(null, queryProfile);
+    assertFalse(
+        LocalProfileStore.getOldProfile(
+                provider,
+                AttemptIdUtils.fromString(JobsProtoUtil.getLastAttempt(jobDetails1).getAttemptId()))
+            .isPresent());
 
     final JobDetailsRequest request0 =
         JobDetailsRequest.newBuilder().setJobId(jobDetails0.getJobId()).build();
@@ -42,7 +42,9 @@ import com.dremio.service.job.proto.JobResult;
 import com.dremio.service.jobs.JobsStoreCreator;
 import com.dremio.service.jobs.cleanup.ExternalCleaner;
 import com.dremio.service.jobs.cleanup.JobsAndDependenciesCleanerImpl;
+import com.dremio.service.jobtelemetry.server.store.CompactQueryProfile;
 import com.dremio.service.jobtelemetry.server.store.LocalProfileStore;
+import com.dremio.service.jobtelemetry.server.store.LocalProfileStore.KVCompactProfileStoreCreator;
 import com.dremio.service.jobtelemetry.server.store.LocalProfileStore.KVProfileStoreCreator;
 import com.dremio.service.namespace.NamespaceException;
 import com.dremio.service.namespace.NamespaceKey;
@@ -364,24 +366,33 @@ public class Clean {
    */
   private static void deleteOrphanProfiles(LegacyKVStoreProvider provider) {
     AdminLogger.log("Deleting orphan profiles... ");
-    long profilesDeleted = 0;
     final LegacyKVStore<AttemptId, QueryProfile> legacyProfileStore =
         provider.getStore(KVProfileStoreCreator.class);
+    final LegacyKVStore<AttemptId, CompactQueryProfile> compactProfileStore =
+        provider.getStore(KVCompactProfileStoreCreator.class);
     final LegacyIndexedStore<JobId, JobResult> legacyJobStore =
         provider.getStore(JobsStoreCreator.class);
 
+    long profilesDeleted = deleteOrphanProfiles(legacyProfileStore, legacyJobStore);
+    profilesDeleted += deleteOrphanProfiles(compactProfileStore, legacyJobStore);
+    AdminLogger.log("Completed. Deleted {} orphan profiles.", profilesDeleted);
+  }
+
+  private static <V> long deleteOrphanProfiles(
+      LegacyKVStore<AttemptId, V> profileStore, LegacyIndexedStore<JobId, JobResult> jobStore) {
+    long profilesDeleted = 0;
     // full scan of the profile store
-    for (Entry<AttemptId, QueryProfile> entry : legacyProfileStore.find()) {
+    for (Entry<AttemptId, V> entry : profileStore.find()) {
       // convert attempt id to job id (attemptId = "{jobId}/{indexOfAttempt}")
       AttemptId attemptId = entry.getKey();
       JobId jobId = new JobId(AttemptIdUtils.toString(attemptId));
       // if the corresponding job id is not in job store, then it's an orphan
-      if (!legacyJobStore.contains(jobId)) {
-        legacyProfileStore.delete(attemptId);
+      if (!jobStore.contains(jobId)) {
+        profileStore.delete(attemptId);
         profilesDeleted++;
       }
     }
-    AdminLogger.log("Completed. Deleted {} orphan profiles.", profilesDeleted);
+    return profilesDeleted;
   }
 
   private static void deleteSplitOrphans(LegacyKVStoreProvider provider) {
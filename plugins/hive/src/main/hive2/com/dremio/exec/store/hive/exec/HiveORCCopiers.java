@@ -667,16 +667,13 @@ public class HiveORCCopiers {
         for (int i = 0; i < count; i++, outputIdx++) {
           outputVector.set(outputIdx, value);
         }
-      } else if (inputVector.noNulls) {
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          outputVector.set(outputIdx, input[inputIdx]);
-        }
       } else {
-        final boolean[] isNull = inputVector.isNull;
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          if (!isNull[inputIdx]) {
-            outputVector.set(outputIdx, input[inputIdx]);
-          }
+        HiveORCBulkCopy.copyLongs(input, inputIdx, count, outputVector.getDataBuffer(), outputIdx);
+        if (inputVector.noNulls) {
+          HiveORCBulkCopy.setValid(outputVector.getValidityBuffer(), outputIdx, count);
+        } else {
+          HiveORCBulkCopy.setValid(
+              inputVector.isNull, inputIdx, count, outputVector.getValidityBuffer(), outputIdx);
         }
       }
     }
@@ -772,16 +769,13 @@ public class HiveORCCopiers {
         for (int i = 0; i < count; i++, outputIdx++) {
           outputVector.set(outputIdx, value);
         }
-      } else if (inputVector.noNulls) {
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          outputVector.set(outputIdx, input[inputIdx]);
-        }
       } else {
-        final boolean[] isNull = inputVector.isNull;
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          if (!isNull[inputIdx]) {
-            outputVector.set(outputIdx, input[inputIdx]);
-          }
+        HiveORCBulkCopy.copyLongs(input, inputIdx, count, outputVector.getDataBuffer(), outputIdx);
+        if (inputVector.noNulls) {
+          HiveORCBulkCopy.setValid(outputVector.getValidityBuffer(), outputIdx, count);
+        } else {
+          HiveORCBulkCopy.setValid(
+              inputVector.isNull, inputIdx, count, outputVector.getValidityBuffer(), outputIdx);
         }
       }
     }
@@ -1398,16 +1392,14 @@ public class HiveORCCopiers {
         for (int i = 0; i < count; i++, outputIdx++) {
           outputVector.set(outputIdx, value);
         }
-      } else if (inputVector.noNulls) {
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          outputVector.set(outputIdx, input[inputIdx]);
-        }
       } else {
-        final boolean[] isNull = inputVector.isNull;
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          if (!isNull[inputIdx]) {
-            outputVector.set(outputIdx, input[inputIdx]);
-          }
+        HiveORCBulkCopy.copyDoubles(
+            input, inputIdx, count, outputVector.getDataBuffer(), outputIdx);
+        if (inputVector.noNulls) {
+          HiveORCBulkCopy.setValid(outputVector.getValidityBuffer(), outputIdx, count);
+        } else {
+          HiveORCBulkCopy.setValid(
+              inputVector.isNull, inputIdx, count, outputVector.getValidityBuffer(), outputIdx);
         }
       }
     }
@@ -97,6 +97,12 @@ public class HiveORCVectorizedReader extends HiveAbstractReader {
    */
   private VectorizedRowBatch hiveBatch;
 
+  /**
+   * Number of records ORC decodes per call, the target size of the batches of this reader, so that
+   * each output batch is filled by a single call.
+   */
+  private int hiveBatchSize = VectorizedRowBatch.DEFAULT_SIZE;
+
   // non-zero value indicates partially read batch in previous iteration.
   private int offset;
 
@@ -486,6 +492,7 @@ public class HiveORCVectorizedReader extends HiveAbstractReader {
                   .get(TRANS_ROW_COLUMN_INDEX)
                   .getFieldObjectInspector();
     }
+    hiveBatchSize = Math.max(1, (int) numRowsPerBatch);
     hiveBatch = createVectorizedRowBatch(orcFileRootOI, fSplit.isOriginal());
 
     final List<Integer> projectedColOrdinals = ColumnProjectionUtils.getReadColumnIDs(jobConf);
@@ -609,13 +616,13 @@ public class HiveORCVectorizedReader extends HiveAbstractReader {
       vectors.add(getColumnVector("$data$", unionField));
     }
     ColumnVector[] columnVectors = vectors.toArray(new ColumnVector[0]);
-    return new UnionColumnVector(VectorizedRowBatch.DEFAULT_SIZE, columnVectors);
+    return new UnionColumnVector(hiveBatchSize, columnVectors);
   }
 
   private ColumnVector getMapColumnVector(MapObjectInspector moi) {
     ColumnVector keys = getColumnVector("key", moi.getMapKeyObjectInspector());
     ColumnVector values = getColumnVector("value", moi.getMapValueObjectInspector());
-    return new MapColumnVector(VectorizedRowBatch.DEFAULT_SIZE, keys, values);
+    return new MapColumnVector(hiveBatchSize, keys, values);
   }
 
   private ColumnVector getStructColumnVector(StructObjectInspector soi) {
@@ -626,12 +633,12 @@ public class HiveORCVectorizedReader extends HiveAbstractReader {
           getColumnVector(structField.getFieldName(), structField.getFieldObjectInspector()));
     }
     ColumnVector[] columnVectors = vectors.toArray(new ColumnVector[0]);
-    return new StructColumnVector(VectorizedRowBatch.DEFAULT_SIZE, columnVectors);
+    return new StructColumnVector(hiveBatchSize, columnVectors);
   }
 
   private ColumnVector getListColumnVector(ListObjectInspector loi) {
     ColumnVector lecv = getColumnVector("$data$", loi.getListElementObjectInspector());
-    return new ListColumnVector(VectorizedRowBatch.DEFAULT_SIZE, lecv);
+    return new ListColumnVector(hiveBatchSize, lecv);
   }
 
   private ColumnVector getPrimitiveColumnVector(PrimitiveObjectInspector poi) {
@@ -642,21 +649,20 @@ public class HiveORCVectorizedReader extends HiveAbstractReader {
       case INT:
       case LONG:
       case DATE:
-        return new LongColumnVector(VectorizedRowBatch.DEFAULT_SIZE);
+        return new LongColumnVector(hiveBatchSize);
       case TIMESTAMP:
-        return new TimestampColumnVector(VectorizedRowBatch.DEFAULT_SIZE);
+        return new TimestampColumnVector(hiveBatchSize);
       case FLOAT:
       case DOUBLE:
-        return new DoubleColumnVector(VectorizedRowBatch.DEFAULT_SIZE);
+        return new DoubleColumnVector(hiveBatchSize);
       case BINARY:
       case STRING:
       case CHAR:
       case VARCHAR:
-        return new BytesColumnVector(VectorizedRowBatch.DEFAULT_SIZE);
+        return new BytesColumnVector(hiveBatchSize);
       case DECIMAL:
         DecimalTypeInfo tInfo = (DecimalTypeInfo) poi.getTypeInfo();
-        return new DecimalColumnVector(
-            VectorizedRowBatch.DEFAULT_SIZE, tInfo.precision(), tInfo.scale());
+        return new DecimalColumnVector(hiveBatchSize, tInfo.precision(), tInfo.scale());
       default:
         throw UserException.unsupportedError()
             .message(
@@ -679,7 +685,7 @@ public class HiveORCVectorizedReader extends HiveAbstractReader {
     final List<? extends StructField> fieldRefs = rowOI.getAllStructFieldRefs();
     final List<ColumnVector> vectors = getVectors(rowOI);
 
-    final VectorizedRowBatch result = new VectorizedRowBatch(fieldRefs.size());
+    final VectorizedRowBatch result = new VectorizedRowBatch(fieldRefs.size(), hiveBatchSize);
 
     ColumnVector[] vectorArray = vectors.toArray(new ColumnVector[0]);
 
@@ -696,11 +702,11 @@ public class HiveORCVectorizedReader extends HiveAbstractReader {
   private ColumnVector[] createTransactionalVectors(ColumnVector[] dataVectors) {
     ColumnVector[] transVectors = new ColumnVector[6];
 
-    transVectors[0] = new LongColumnVector(VectorizedRowBatch.DEFAULT_SIZE);
-    transVectors[1] = new LongColumnVector(VectorizedRowBatch.DEFAULT_SIZE);
-    transVectors[2] = new LongColumnVector(VectorizedRowBatch.DEFAULT_SIZE);
-    transVectors[3] = new LongColumnVector(VectorizedRowBatch.DEFAULT_SIZE);
-    transVectors[4] = new LongColumnVector(VectorizedRowBatch.DEFAULT_SIZE);
+    transVectors[0] = new LongColumnVector(hiveBatchSize);
+    transVectors[1] = new LongColumnVector(hiveBatchSize);
+    transVectors[2] = new LongColumnVector(hiveBatchSize);
+    transVectors[3] = new LongColumnVector(hiveBatchSize);
+    transVectors[4] = new LongColumnVector(hiveBatchSize);
 
     transVectors[5] = new StructColumnVector(dataVectors.length, dataVectors);
 
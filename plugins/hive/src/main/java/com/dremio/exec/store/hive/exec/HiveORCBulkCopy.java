@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.hive.exec;
+
+import java.nio.ByteOrder;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.BitVectorHelper;
+
+/**
+ * Copies ranges of values of Hive column vectors into Arrow buffers at once, instead of one value
+ * at a time through the Arrow vector setters. Used by the ORC copiers for fixed width columns.
+ *
+ * <p>Callers must make sure the Arrow buffers are large enough, and that the validity buffer is
+ * cleared at the positions of null values.
+ */
+final class HiveORCBulkCopy {
+  private static final int LONG_WIDTH = Long.BYTES;
+  private static final int DOUBLE_WIDTH = Double.BYTES;
+
+  private HiveORCBulkCopy() {}
+
+  /** Copies {@code count} longs starting at {@code inputIdx} to the data buffer of a vector. */
+  static void copyLongs(long[] input, int inputIdx, int count, ArrowBuf data, int outputIdx) {
+    data.nioBuffer((long) outputIdx * LONG_WIDTH, count * LONG_WIDTH)
+        .order(ByteOrder.LITTLE_ENDIAN)
+        .asLongBuffer()
+        .put(input, inputIdx, count);
+  }
+
+  /** Copies {@code count} doubles starting at {@code inputIdx} to the data buffer of a vector. */
+  static void copyDoubles(double[] input, int inputIdx, int count, ArrowBuf data, int outputIdx) {
+    data.nioBuffer((long) outputIdx * DOUBLE_WIDTH, count * DOUBLE_WIDTH)
+        .order(ByteOrder.LITTLE_ENDIAN)
+        .asDoubleBuffer()
+        .put(input, inputIdx, count);
+  }
+
+  /** Marks {@code count} values starting at {@code outputIdx} as set. */
+  static void setValid(ArrowBuf validity, int outputIdx, int count) {
+    int index = outputIdx;
+    final int end = outputIdx + count;
+    // leading bits up to a byte boundary
+    while (index < end && (index & 7) != 0) {
+      BitVectorHelper.setBit(validity, index++);
+    }
+    // whole bytes
+    final int bytes = (end - index) >>> 3;
+    if (bytes > 0) {
+      validity.setOne(index >>> 3, bytes);
+      index += bytes << 3;
+    }
+    // trailing bits
+    while (index < end) {
+      BitVectorHelper.setBit(validity, index++);
+    }
+  }
+
+  /**
+   * Marks the values that are not null among {@code count} values starting at {@code inputIdx} as
+   * set, starting at {@code outputIdx}.
+   */
+  static void setValid(
+      boolean[] isNull, int inputIdx, int count, ArrowBuf validity, int outputIdx) {
+    for (int i = 0; i < count; i++) {
+      if (!isNull[inputIdx + i]) {
+        BitVectorHelper.setBit(validity, outputIdx + i);
+      }
+    }
+  }
+}
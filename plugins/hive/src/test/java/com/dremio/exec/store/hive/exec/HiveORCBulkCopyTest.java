@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.hive.exec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.dremio.test.AllocatorRule;
+import com.dremio.test.DremioTest;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class HiveORCBulkCopyTest extends DremioTest {
+  private static final int COUNT = 100;
+
+  @Rule public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void setup() {
+    allocator = allocatorRule.newAllocator("test-hive-orc-bulk-copy", 0, Long.MAX_VALUE);
+  }
+
+  @After
+  public void cleanup() {
+    allocator.close();
+  }
+
+  @Test
+  public void testCopyLongs() {
+    final long[] input = new long[COUNT];
+    for (int i = 0; i < COUNT; i++) {
+      input[i] = i * 1_000_000_007L - 50;
+    }
+
+    try (BigIntVector output = new BigIntVector("l", allocator)) {
+      output.allocateNew(COUNT);
+      // unaligned on both sides
+      HiveORCBulkCopy.copyLongs(input, 3, 90, output.getDataBuffer(), 5);
+      HiveORCBulkCopy.setValid(output.getValidityBuffer(), 5, 90);
+      output.setValueCount(COUNT);
+
+      for (int i = 0; i < COUNT; i++) {
+        if (i < 5 || i >= 95) {
+          assertTrue(output.isNull(i));
+        } else {
+          assertEquals(input[i - 2], output.get(i));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCopyDoublesWithNulls() {
+    final double[] input = new double[COUNT];
+    final boolean[] isNull = new boolean[COUNT];
+    for (int i = 0; i < COUNT; i++) {
+      input[i] = i / 3.0;
+      isNull[i] = i % 7 == 0;
+    }
+
+    try (Float8Vector output = new Float8Vector("d", allocator)) {
+      output.allocateNew(COUNT);
+      HiveORCBulkCopy.copyDoubles(input, 0, COUNT, output.getDataBuffer(), 0);
+      HiveORCBulkCopy.setValid(isNull, 0, COUNT, output.getValidityBuffer(), 0);
+      output.setValueCount(COUNT);
+
+      for (int i = 0; i < COUNT; i++) {
+        if (isNull[i]) {
+          assertTrue(output.isNull(i));
+        } else {
+          assertEquals(input[i], output.get(i), 0);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSetValidWithinByte() {
+    try (BigIntVector output = new BigIntVector("l", allocator)) {
+      output.allocateNew(16);
+      HiveORCBulkCopy.setValid(output.getValidityBuffer(), 2, 3);
+      output.setValueCount(16);
+
+      assertEquals(13, output.getNullCount());
+      for (int i = 2; i < 5; i++) {
+        assertFalse(output.isNull(i));
+      }
+    }
+  }
+}
@@ -97,6 +97,30 @@ public interface ExecConstants {
           "dremio.exec.spill.sweep.threshold",
           Long.MAX_VALUE,
           DefaultSpillServiceOptions.SPILL_SWEEP_THRESHOLD);
+  PositiveLongValidator SPILL_SPOOLING_QUOTA_PER_QUERY_BYTES =
+      new PositiveLongValidator(
+          "dremio.exec.spill.spooling.query_quota.bytes",
+          Long.MAX_VALUE,
+          DefaultSpillServiceOptions.SPOOLING_QUOTA_PER_QUERY_BYTES);
+  PositiveLongValidator SPILL_QUOTA_PER_QUERY_BYTES =
+      new PositiveLongValidator(
+          "dremio.exec.spill.query_quota.bytes",
+          Long.MAX_VALUE,
+          DefaultSpillServiceOptions.SPILL_QUOTA_PER_QUERY_BYTES);
+  PositiveLongValidator SPILL_QUOTA_PER_NODE_BYTES =
+      new PositiveLongValidator(
+          "dremio.exec.spill.node_quota.bytes",
+          Long.MAX_VALUE,
+          DefaultSpillServiceOptions.SPILL_QUOTA_PER_NODE_BYTES);
+
+  /* Spooling exchange buffer configurations */
+  // spool on a shared pool of I/O threads instead of the fragment thread
+  BooleanValidator SPOOLING_BUFFER_ASYNC =
+      new BooleanValidator("dremio.exec.buffer.spooling.async.enabled", true);
+  BooleanValidator SPOOLING_BUFFER_COMPRESSION =
+      new BooleanValidator("dremio.exec.buffer.spooling.compression.enabled", true);
+  BooleanValidator SPOOLING_BUFFER_READ_AHEAD =
+      new BooleanValidator("dremio.exec.buffer.spooling.read_ahead.enabled", true);
 
   // Set this value to set the execution preference
   // Default value to use in the operators (for now, only projector and filter use this default)
@@ -117,6 +141,16 @@ public interface ExecConstants {
   String SPLIT_CACHING_ENABLED_KEY = "exec.expression.splits_cache.enabled";
   BooleanValidator SPLIT_CACHING_ENABLED = new BooleanValidator(SPLIT_CACHING_ENABLED_KEY, true);
 
+  // Evaluate expressions that can be evaluated entirely in Java or in Gandiva in the engine
+  // measured to be the fastest for them, instead of always in the preferred engine
+  BooleanValidator ADAPTIVE_ENGINE_SELECTION_ENABLED =
+      new BooleanValidator("exec.expression.adaptive_engine_selection.enabled", false);
+
+  // Evaluate filters made of comparisons of numeric and date columns with constants, combined with
+  // AND and OR, directly on the incoming buffers a batch at a time instead of with generated code
+  BooleanValidator VECTORIZED_FILTER_ENABLED =
+      new BooleanValidator("exec.expression.vectorized_filter.enabled", false);
+
   String MAX_SPLITS_PER_EXPR_KEY = "exec.expression.split.max_splits_per_expression";
   PositiveLongValidator MAX_SPLITS_PER_EXPRESSION =
       new PositiveLongValidator(MAX_SPLITS_PER_EXPR_KEY, Long.MAX_VALUE, 10);
@@ -261,6 +295,8 @@ public interface ExecConstants {
   LongValidator ORC_SPLIT_SIZE_VALIDATOR = new LongValidator(ORC_SPLIT_SIZE, 256 * 1024 * 1024);
   String AVRO_SPLIT_SIZE = "exec.avro.split-size";
   LongValidator AVRO_SPLIT_SIZE_VALIDATOR = new LongValidator(AVRO_SPLIT_SIZE, 256 * 1024 * 1024);
+  String TEXT_SPLIT_SIZE = "exec.text.split-size";
+  LongValidator TEXT_SPLIT_SIZE_VALIDATOR = new LongValidator(TEXT_SPLIT_SIZE, 256 * 1024 * 1024);
   String PARQUET_PAGE_SIZE = "store.parquet.page-size";
   LongValidator PARQUET_PAGE_SIZE_VALIDATOR = new LongValidator(PARQUET_PAGE_SIZE, 100000);
   String PARQUET_DICT_PAGE_SIZE = "store.parquet.dictionary.page-size";
@@ -326,6 +362,18 @@ public interface ExecConstants {
       new BooleanValidator("store.parquet.vectorize.detailed.stats", false);
   BooleanValidator USE_COPIER_IN_PARQUET_READER =
       new BooleanValidator("store.parquet.use_copier", true);
+  // read the columns of the filters pushed into a parquet scan first, and the other columns only
+  // for the rows that pass the filters
+  BooleanValidator PARQUET_LATE_MATERIALIZATION =
+      new BooleanValidator("store.parquet.late_materialization.enabled", true);
+  // decode the dictionary of a dictionary encoded parquet string column once per column chunk,
+  // and copy the decoded values by dictionary id instead of decoding each value
+  BooleanValidator PARQUET_DICTIONARY_DECODE_ONCE =
+      new BooleanValidator("store.parquet.dictionary_decode_once.enabled", true);
+  // maximum number of data pages of a row group decompressed ahead on a helper pool by the rowwise
+  // reader of a fragment, while the current pages are decoded; 0 disables it
+  RangeLongValidator PARQUET_MAX_PAGES_DECOMPRESSED_AHEAD =
+      new RangeLongValidator("store.parquet.max_pages_decompressed_ahead", 0, 64, 4);
 
   String PARQUET_READER_INT96_AS_TIMESTAMP = "store.parquet.reader.int96_as_timestamp";
   BooleanValidator PARQUET_READER_INT96_AS_TIMESTAMP_VALIDATOR =
@@ -341,6 +389,10 @@ public interface ExecConstants {
   BooleanValidator JSON_WRITER_UGLIFY = new BooleanValidator("store.json.writer.uglify", false);
   DoubleValidator TEXT_ESTIMATED_ROW_SIZE =
       new RangeDoubleValidator("store.text.estimated_row_size_bytes", 1, Long.MAX_VALUE, 10.0);
+  // Split large uncompressed text files into blocks of exec.text.split-size when loaded by COPY
+  // INTO
+  BooleanValidator TEXT_BLOCK_SPLIT_ENABLED =
+      new BooleanValidator("store.text.block_split.enabled", true);
 
   /**
    * The column label (for directory levels) in results when querying files in a directory E.g.
@@ -354,6 +406,10 @@ public interface ExecConstants {
   String JSON_READ_NUMBERS_AS_DOUBLE = "store.json.read_numbers_as_double";
   BooleanValidator JSON_READ_NUMBERS_AS_DOUBLE_VALIDATOR =
       new BooleanValidator(JSON_READ_NUMBERS_AS_DOUBLE, false);
+  // Read UTF-8 JSON files through a structural index instead of the token stream. Comments and
+  // unquoted field names are not supported by the indexed reader.
+  BooleanValidator JSON_INDEXED_READER_ENABLED =
+      new BooleanValidator("store.json.indexed_reader.enabled", false);
 
   /* Mongo configurations */
   // option used to enable/disable conversions of complex types or incompatible data types to
@@ -542,6 +598,16 @@ public interface ExecConstants {
   BooleanValidator DYNAMICALLY_TRACK_ALLOCATIONS =
       new BooleanValidator("exec.spillable.operators.dynamically_track_allocations", true);
 
+  // if true, memory grants are checked against a share of the executor's direct memory, tasks are
+  // blocked when it is oversubscribed and the largest shrinkable operators are asked to spill
+  BooleanValidator ENABLE_MEMORY_ARBITER_BUDGET =
+      new BooleanValidator("exec.spillable.operators.memory_arbiter.budget.enabled", false);
+
+  // share of the executor's direct memory, in percent, that memory grants may use
+  LongValidator MEMORY_ARBITER_BUDGET_PERCENTAGE =
+      new RangeLongValidator(
+          "exec.spillable.operators.memory_arbiter.budget_percentage", 10, 100, 90);
+
   BooleanValidator ENABLE_SPILLABLE_OPERATORS_STATIC_MEMLIMIT =
       new BooleanValidator("exec.spillable.operators.static_memory_limit.enabled", true);
 
@@ -564,6 +630,24 @@ public interface ExecConstants {
       new LongValidator("store.parquet.multi_stream_limit", 1024 * 1024);
   BooleanValidator PARQUET_MULTI_STREAM_SIZE_LIMIT_ENABLE =
       new BooleanValidator("store.parquet.multi_stream_limit.enable", true);
+  // on file systems with async reads, read the projected column chunks of a row group with a few
+  // coalesced ranged reads, started when the row group is read along with the ones of the next
+  // row group, instead of a stream per column. Only applies where a stream per column would be
+  // used.
+  BooleanValidator PARQUET_COALESCED_READS =
+      new BooleanValidator("store.parquet.coalesced_reads.enabled", false);
+  // maximum number of unused bytes between two column chunks read together
+  RangeLongValidator PARQUET_COALESCED_READS_MAX_GAP =
+      new RangeLongValidator("store.parquet.coalesced_reads.max_gap", 0, 64 * 1024 * 1024, 1 << 20);
+  // maximum size of a coalesced read, larger column chunks are read on their own
+  RangeLongValidator PARQUET_COALESCED_READS_MAX_RANGE_SIZE =
+      new RangeLongValidator(
+          "store.parquet.coalesced_reads.max_range_size", 1 << 20, Integer.MAX_VALUE, 8 << 20);
+  // maximum number of bytes buffered by the coalesced reads of the split being read, the column
+  // chunks that do not fit are read with a stream of their own
+  RangeLongValidator PARQUET_COALESCED_READS_MAX_BUFFERED_BYTES =
+      new RangeLongValidator(
+          "store.parquet.coalesced_reads.max_buffered_bytes", 0, Integer.MAX_VALUE, 64 << 20);
   LongValidator PARQUET_FULL_FILE_READ_THRESHOLD =
       new RangeLongValidator("store.parquet.full_file_read.threshold", 0, Integer.MAX_VALUE, 0);
   DoubleValidator PARQUET_FULL_FILE_READ_COLUMN_RATIO =
@@ -633,6 +717,12 @@ public interface ExecConstants {
       new RangeDoubleValidator(
           "exec.operator.sort.external.spill.allocation_density", 0.0, Double.MAX_VALUE, 0.01);
 
+  // spill the sorted records of TopN once its memory use goes over this ratio of its limit
+  BooleanValidator TOPN_ENABLE_SPILL =
+      new BooleanValidator("exec.operator.topn.spill.enabled", true);
+  DoubleValidator TOPN_SPILL_MEMORY_RATIO =
+      new RangeDoubleValidator("exec.operator.topn.spill.memory_ratio", 0.0, 1.0, 0.8);
+
   PositiveLongValidator EXTERNAL_SORT_BATCHSIZE_MULTIPLIER =
       new PositiveLongValidator(
           "exec.operator.sort.external.batchsize_multiplier", Character.MAX_VALUE, 3);
@@ -744,6 +834,10 @@ public interface ExecConstants {
       new BooleanValidator("dremio.iceberg.merge_on_read_scan.enabled", true);
   BooleanValidator ENABLE_ICEBERG_MERGE_ON_READ_SCAN_WITH_EQUALITY_DELETE =
       new BooleanValidator("dremio.iceberg.merge_on_read_scan_with_equality_delete.enabled", true);
+  // build the hash table of an equality delete file once per query on each executor, and share it
+  // between the fragments that apply the delete file
+  BooleanValidator ENABLE_ICEBERG_SHARED_EQUALITY_DELETE_TABLES =
+      new BooleanValidator("dremio.iceberg.equality_delete.shared_tables.enabled", true);
   BooleanValidator ENABLE_ICEBERG_MERGE_ON_READ_WRITER_WITH_POSITIONAL_DELETE =
       new BooleanValidator(
           "dremio.iceberg.merge_on_read_writer_with_positional_delete.enabled", false);
@@ -784,6 +878,18 @@ public interface ExecConstants {
   BooleanValidator ENABLE_ICEBERG_CONCURRENCY =
       new BooleanValidator("dremio.iceberg.concurrency.enabled", true);
 
+  // executor-wide cache of decoded Iceberg manifest entries, shared across queries
+  BooleanValidator ICEBERG_MANIFEST_CACHE_ENABLED =
+      new BooleanValidator("dremio.iceberg.manifest_cache.enabled", true);
+  PositiveLongValidator ICEBERG_MANIFEST_CACHE_MAX_SIZE_MB =
+      new PositiveLongValidator("dremio.iceberg.manifest_cache.max_size_mb", 64 * 1024, 128);
+  // local directory used to spill manifests evicted from memory; spilling is off when empty
+  StringValidator ICEBERG_MANIFEST_CACHE_SPILL_PATH =
+      new StringValidator("dremio.iceberg.manifest_cache.spill_path", "");
+  PositiveLongValidator ICEBERG_MANIFEST_CACHE_SPILL_MAX_SIZE_MB =
+      new PositiveLongValidator(
+          "dremio.iceberg.manifest_cache.spill_max_size_mb", 1024 * 1024, 1024);
+
   BooleanValidator ENABLE_HIVE_DATABASE_LOCATION =
       new BooleanValidator("dremio.hive.database.location", true);
   BooleanValidator ENABLE_QUERY_LABEL = new BooleanValidator("dremio.query.label.enabled", true);
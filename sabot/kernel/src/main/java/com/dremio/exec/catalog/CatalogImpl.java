@@ -234,6 +234,16 @@ public class CatalogImpl implements Catalog {
     return datasets.getTable(key, options, true);
   }
 
+  @Override
+  public void prefetchDatasets(List<NamespaceKey> keys) {
+    datasets.prefetchConfigs(keys);
+  }
+
+  @Override
+  public void discardPrefetchedDatasets(List<NamespaceKey> keys) {
+    datasets.discardPrefetchedConfigs(keys);
+  }
+
   @Override
   @WithSpan
   public DremioTable getTable(NamespaceKey key) {
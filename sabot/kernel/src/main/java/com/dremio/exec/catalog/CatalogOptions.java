@@ -55,6 +55,13 @@ public final class CatalogOptions {
   public static final LongValidator ORC_DELTA_LEAF_COLUMN_FACTOR =
       new PositiveLongValidator("store.hive.orc_delta_leaf_column_factor", Integer.MAX_VALUE, 5);
 
+  // Number of datasets a background metadata refresh synchronizes concurrently, unless the
+  // source's metadata policy sets its own limit. Either is capped at the maximum
+  public static final int MAX_METADATA_SYNC_PARALLELISM = 64;
+  public static final LongValidator METADATA_SYNC_PARALLELISM =
+      new PositiveLongValidator(
+          "store.plugin.metadata_sync_parallelism", MAX_METADATA_SYNC_PARALLELISM, 1);
+
   // Maximum number of single split partitions allowed to be saved together
   public static final LongValidator SINGLE_SPLIT_PARTITION_MAX =
       new PositiveLongValidator("store.plugin.max_single_split_partitions", Long.MAX_VALUE, 500);
@@ -91,6 +98,9 @@ public final class CatalogOptions {
   // View delegation for a versioned source
   public static final BooleanValidator VERSIONED_SOURCE_VIEW_DELEGATION_ENABLED =
       new BooleanValidator("versioned.source.view_delegation.enabled", false);
+  // Share the metadata derived from dataset configs across the queries of a coordinator
+  public static final BooleanValidator DATASET_METADATA_CACHE_ENABLED =
+      new BooleanValidator("catalog.dataset_metadata_cache.enabled", true);
 
   // Do not instantiate
   private CatalogOptions() {}
@@ -62,6 +62,8 @@ import com.dremio.service.namespace.dataset.proto.DatasetConfig;
 import com.dremio.service.namespace.dataset.proto.DatasetType;
 import com.dremio.service.namespace.proto.EntityId;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
@@ -78,6 +80,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -94,6 +97,9 @@ class DatasetManager {
 
   private static final Logger logger = LoggerFactory.getLogger(DatasetManager.class);
 
+  private static final int MAX_PREFETCHED_CONFIGS = 1000;
+  private static final long PREFETCHED_CONFIG_TTL_SECONDS = 5;
+
   private final PluginRetriever plugins;
   private final NamespaceService userNamespaceService;
   private final OptionManager optionManager;
@@ -102,6 +108,15 @@ class DatasetManager {
   private final VersionContextResolver versionContextResolver;
   private final VersionedDatasetAdapterFactory versionedDatasetAdapterFactory;
 
+  // Configs of the datasets that are about to be looked up, read from the namespace at once, by
+  // path. An absent config is cached as empty. Each entry is used by a single lookup, entries that
+  // are not looked up are discarded by the caller that prefetched them, the expiry is a backstop.
+  private final Cache<NamespaceKey, Optional<DatasetConfig>> prefetchedConfigs =
+      Caffeine.newBuilder()
+          .maximumSize(MAX_PREFETCHED_CONFIGS)
+          .expireAfterWrite(PREFETCHED_CONFIG_TTL_SECONDS, TimeUnit.SECONDS)
+          .build();
+
   public DatasetManager(
       PluginRetriever plugins,
       NamespaceService userNamespaceService,
@@ -139,8 +154,42 @@ class DatasetManager {
     return key.getRoot().contains(".");
   }
 
+  /** Reads the configs of the given datasets at once, ahead of their lookups. */
+  void prefetchConfigs(List<NamespaceKey> keys) {
+    final List<NamespaceKey> toRead =
+        keys.stream()
+            .filter(key -> !isAmbiguousKey(key))
+            .filter(key -> prefetchedConfigs.getIfPresent(key) == null)
+            .distinct()
+            .collect(Collectors.toList());
+    if (toRead.size() < 2) {
+      // nothing to gain over reading it when it is looked up
+      return;
+    }
+
+    final List<DatasetConfig> configs;
+    try {
+      configs = userNamespaceService.getDatasets(toRead);
+    } catch (RuntimeException e) {
+      logger.debug("Failed to prefetch the configs of {}", toRead, e);
+      return;
+    }
+    for (int i = 0; i < toRead.size(); i++) {
+      prefetchedConfigs.put(toRead.get(i), Optional.ofNullable(configs.get(i)));
+    }
+  }
+
+  /** Drops the prefetched configs of the given datasets that have not been looked up. */
+  void discardPrefetchedConfigs(List<NamespaceKey> keys) {
+    prefetchedConfigs.invalidateAll(keys);
+  }
+
   private DatasetConfig getConfig(final NamespaceKey key) {
     if (!isAmbiguousKey(key)) {
+      final Optional<DatasetConfig> prefetched = prefetchedConfigs.asMap().remove(key);
+      if (prefetched != null) {
+        return prefetched.orElse(null);
+      }
       try {
         return userNamespaceService.getDataset(key);
       } catch (NamespaceNotFoundException ex) {
@@ -348,13 +397,39 @@ class DatasetManager {
                   .buildSilently());
     }
 
-    final TableMetadata tableMetadata =
-        new TableMetadataImpl(
-            plugin.getId(),
-            datasetConfig,
-            accessUserName,
-            DatasetSplitsPointer.of(userNamespaceService, datasetConfig),
-            getPrimaryKey(plugin.getPlugin(), datasetConfig, options.getSchemaConfig(), key, true));
+    final TableMetadata tableMetadata;
+    if (optionManager.getOption(CatalogOptions.DATASET_METADATA_CACHE_ENABLED)) {
+      // access was checked above for this user, only the user independent metadata is shared: the
+      // primary key is looked up with the user's schema config and is never cached
+      final DatasetMetadataCache.Entry cached =
+          plugin
+              .getDatasetMetadataCache()
+              .get(
+                  plugin.getName().getRoot(),
+                  datasetConfig,
+                  config ->
+                      new DatasetMetadataCache.Entry(
+                          config,
+                          DatasetSplitsPointer.getSplitsCount(userNamespaceService, config)));
+      tableMetadata =
+          new TableMetadataImpl(
+              plugin.getId(),
+              datasetConfig,
+              accessUserName,
+              DatasetSplitsPointer.of(userNamespaceService, datasetConfig, cached.getSplitsCount()),
+              getPrimaryKey(
+                  plugin.getPlugin(), datasetConfig, options.getSchemaConfig(), key, true),
+              cached.getSchema());
+    } else {
+      tableMetadata =
+          new TableMetadataImpl(
+              plugin.getId(),
+              datasetConfig,
+              accessUserName,
+              DatasetSplitsPointer.of(userNamespaceService, datasetConfig),
+              getPrimaryKey(
+                  plugin.getPlugin(), datasetConfig, options.getSchemaConfig(), key, true));
+    }
     return new NamespaceTable(
         tableMetadata,
         plugin.getDatasetMetadataState(datasetConfig),
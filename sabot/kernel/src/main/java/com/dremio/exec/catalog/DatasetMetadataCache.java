@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.catalog;
+
+import com.dremio.exec.planner.sql.CalciteArrowHelper;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.service.namespace.DatasetHelper;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.protobuf.ByteString;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Coordinator wide cache of the table metadata derived from a dataset config: its deserialized
+ * schema and its number of splits.
+ *
+ * <p>Entries are keyed by source, dataset id and dataset tag. Since every change to a dataset saves
+ * a config with a new tag, an entry can never be stale: lookups for a new version of a dataset
+ * simply miss. Entries of a source are dropped eagerly when its metadata is refreshed, locally or
+ * on another coordinator, so that the memory they use is not only reclaimed by eviction.
+ *
+ * <p>Nothing user specific is cached: permission checks and lookups that depend on the querying
+ * user, such as the primary key, are still done for every lookup by the caller. Failed loads are
+ * not cached.
+ */
+class DatasetMetadataCache {
+  static final long MAX_WEIGHT_BYTES =
+      Long.getLong("dremio.catalog.dataset_metadata_cache.max_bytes", 256L * 1024 * 1024);
+
+  // rough size of an entry besides its schema, used to bound the cache by memory
+  private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+  private final Cache<Key, Entry> cache;
+
+  DatasetMetadataCache(long maxWeightBytes) {
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumWeight(maxWeightBytes)
+            .weigher((Key key, Entry entry) -> entry.weight)
+            .build();
+  }
+
+  /**
+   * Returns the cached metadata of the given dataset config, computing it with the loader if it is
+   * not cached yet. Configs without an id or a tag are not cached.
+   */
+  Entry get(String sourceName, DatasetConfig config, Function<DatasetConfig, Entry> loader) {
+    if (config.getId() == null || config.getTag() == null) {
+      return loader.apply(config);
+    }
+    final Key key = new Key(sourceName, config.getId().getId(), config.getTag());
+    return cache.get(key, k -> loader.apply(config));
+  }
+
+  /** Drops all the entries of the given source. */
+  void invalidateSource(String sourceName) {
+    cache.asMap().keySet().removeIf(key -> key.sourceName.equalsIgnoreCase(sourceName));
+  }
+
+  @VisibleForTesting
+  long size() {
+    cache.cleanUp();
+    return cache.estimatedSize();
+  }
+
+  /** Metadata derived from a dataset config. */
+  static final class Entry {
+    private final BatchSchema schema;
+    private final int splitsCount;
+    private final int weight;
+
+    Entry(DatasetConfig config, int splitsCount) {
+      final ByteString schemaBytes = DatasetHelper.getSchemaBytes(config);
+      this.schema = schemaBytes == null ? null : CalciteArrowHelper.fromDataset(config);
+      this.splitsCount = splitsCount;
+      this.weight = ENTRY_OVERHEAD_BYTES + (schemaBytes == null ? 0 : schemaBytes.size());
+    }
+
+    BatchSchema getSchema() {
+      return schema;
+    }
+
+    int getSplitsCount() {
+      return splitsCount;
+    }
+  }
+
+  private static final class Key {
+    private final String sourceName;
+    private final String datasetId;
+    private final String tag;
+
+    private Key(String sourceName, String datasetId, String tag) {
+      this.sourceName = sourceName;
+      this.datasetId = datasetId;
+      this.tag = tag;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return sourceName.equals(key.sourceName)
+          && datasetId.equals(key.datasetId)
+          && tag.equals(key.tag);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(sourceName, datasetId, tag);
+    }
+  }
+}
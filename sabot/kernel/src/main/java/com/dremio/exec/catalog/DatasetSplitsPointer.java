@@ -44,28 +44,39 @@ public final class DatasetSplitsPointer extends LazySplitsPointer {
   }
 
   public static SplitsPointer of(NamespaceService namespaceService, DatasetConfig datasetConfig) {
+    return of(namespaceService, datasetConfig, getSplitsCount(namespaceService, datasetConfig));
+  }
+
+  /** Creates a pointer to the splits of the given dataset, whose number of splits is known. */
+  public static SplitsPointer of(
+      NamespaceService namespaceService, DatasetConfig datasetConfig, int splitsCount) {
     final EntityId datasetId = Preconditions.checkNotNull(datasetConfig.getId());
+    return new DatasetSplitsPointer(
+        namespaceService, datasetId, getSplitVersion(datasetConfig), splitsCount);
+  }
+
+  /** Returns the total number of splits of the given dataset. */
+  public static int getSplitsCount(NamespaceService namespaceService, DatasetConfig datasetConfig) {
+    Preconditions.checkNotNull(datasetConfig.getId());
+    getSplitVersion(datasetConfig);
+    if (datasetConfig.getTotalNumSplits() != null) {
+      return datasetConfig.getTotalNumSplits();
+    }
+    // Backwards compatibility: if the total number of splits is not set, then this datasetConfig
+    // must be from
+    // before the connector metadata API. At that time, each PartitionChunk represented a single
+    // split
+    return namespaceService.getPartitionChunkCount(
+        new LegacyFindByCondition().setCondition(PartitionChunkId.getSplitsQuery(datasetConfig)));
+  }
+
+  private static long getSplitVersion(DatasetConfig datasetConfig) {
     final ReadDefinition readDefinition =
         Preconditions.checkNotNull(
             datasetConfig.getReadDefinition(),
             "extended metadata (read definition) is not available");
-    final long splitVersion =
-        Preconditions.<Long>checkNotNull(readDefinition.getSplitVersion(), "split version is null");
-
-    final int splitsCount;
-    if (datasetConfig.getTotalNumSplits() != null) {
-      splitsCount = datasetConfig.getTotalNumSplits();
-    } else {
-      // Backwards compatibility: if the total number of splits is not set, then this datasetConfig
-      // must be from
-      // before the connector metadata API. At that time, each PartitionChunk represented a single
-      // split
-      splitsCount =
-          namespaceService.getPartitionChunkCount(
-              new LegacyFindByCondition()
-                  .setCondition(PartitionChunkId.getSplitsQuery(datasetConfig)));
-    }
-    return new DatasetSplitsPointer(namespaceService, datasetId, splitVersion, splitsCount);
+    return Preconditions.<Long>checkNotNull(
+        readDefinition.getSplitVersion(), "split version is null");
   }
 
   @Override
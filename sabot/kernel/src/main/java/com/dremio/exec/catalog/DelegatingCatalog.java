@@ -78,6 +78,16 @@ public abstract class DelegatingCatalog implements Catalog {
     return delegate.getTableNoResolve(key);
   }
 
+  @Override
+  public void prefetchDatasets(List<NamespaceKey> keys) {
+    delegate.prefetchDatasets(keys);
+  }
+
+  @Override
+  public void discardPrefetchedDatasets(List<NamespaceKey> keys) {
+    delegate.discardPrefetchedDatasets(keys);
+  }
+
   @Override
   public DremioTable getTableNoResolve(CatalogEntityKey catalogEntityKey) {
     return delegate.getTableNoResolve(catalogEntityKey);
@@ -51,6 +51,22 @@ public interface EntityExplorer {
    */
   DremioTable getTableNoColumnCount(NamespaceKey key);
 
+  /**
+   * Read the given datasets at once, ahead of their lookups, so that looking them up afterwards
+   * does not read them one by one. This is only a hint, catalogs may ignore it.
+   *
+   * @param keys Paths of the datasets about to be looked up.
+   */
+  default void prefetchDatasets(List<NamespaceKey> keys) {}
+
+  /**
+   * Drop what {@link #prefetchDatasets(List)} read for the given datasets and was not looked up
+   * since, once the caller is done looking them up.
+   *
+   * @param keys Paths of the datasets passed to prefetchDatasets.
+   */
+  default void discardPrefetchedDatasets(List<NamespaceKey> keys) {}
+
   /**
    * Determine whether the container at the given path exists. Note that this first looks to see if
    * the container exists directly via a lookup. However, in the case of sources, we have to do two
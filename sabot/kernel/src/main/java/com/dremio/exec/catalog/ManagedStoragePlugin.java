@@ -150,6 +150,7 @@ public class ManagedStoragePlugin implements AutoCloseable {
   private final ReentrantReadWriteLock.WriteLock writeLock;
 
   private final PermissionCheckCache permissionsCache;
+  private final DatasetMetadataCache datasetMetadataCache;
   private final SourceMetadataManager metadataManager;
   private final OptionManager options;
   private final NamespaceService systemUserNamespaceService;
@@ -184,7 +185,8 @@ public class ManagedStoragePlugin implements AutoCloseable {
       ConnectionReader reader,
       CatalogServiceMonitor monitor,
       Provider<MetadataRefreshInfoBroadcaster> broadcasterProvider,
-      Predicate<String> influxSourcePred) {
+      Predicate<String> influxSourcePred,
+      DatasetMetadataCache datasetMetadataCache) {
     this.rwlock = new ReentrantReadWriteLock(true);
     this.executor = executor;
     this.readLock = rwlock.readLock();
@@ -208,6 +210,7 @@ public class ManagedStoragePlugin implements AutoCloseable {
     this.permissionsCache =
         new PermissionCheckCache(
             this::getPlugin, getAuthTtlMsProvider(options, sourceConfig), 2500);
+    this.datasetMetadataCache = datasetMetadataCache;
 
     this.influxSourcePred = influxSourcePred;
 
@@ -246,6 +249,10 @@ public class ManagedStoragePlugin implements AutoCloseable {
     return permissionsCache;
   }
 
+  DatasetMetadataCache getDatasetMetadataCache() {
+    return datasetMetadataCache;
+  }
+
   protected StoragePlugin getPlugin() {
     return plugin;
   }
@@ -1045,6 +1052,8 @@ public class ManagedStoragePlugin implements AutoCloseable {
   }
 
   void setMetadataSyncInfo(UpdateLastRefreshDateRequest request) {
+    // the source was refreshed by another coordinator
+    datasetMetadataCache.invalidateSource(name);
     metadataManager.setMetadataSyncInfo(request);
   }
 
@@ -1439,6 +1448,7 @@ public class ManagedStoragePlugin implements AutoCloseable {
       try {
         closed = true;
         state = SourceState.badState("Source is being shutdown.");
+        datasetMetadataCache.invalidateSource(name);
         AutoCloseables.close(metadataManager, plugin);
       } finally {
         runUnderLock.accept(this);
@@ -1609,6 +1619,10 @@ public class ManagedStoragePlugin implements AutoCloseable {
       }
     }
 
+    void invalidateCachedMetadata() {
+      datasetMetadataCache.invalidateSource(name);
+    }
+
     public Orphanage getOrphanage() {
       return orphanage;
     }
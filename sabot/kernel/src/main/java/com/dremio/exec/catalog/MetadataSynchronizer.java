@@ -16,6 +16,8 @@
 package com.dremio.exec.catalog;
 
 import com.dremio.common.collections.Tuple;
+import com.dremio.common.concurrent.ContextMigratingExecutorService;
+import com.dremio.common.concurrent.NamedThreadFactory;
 import com.dremio.common.utils.PathUtils;
 import com.dremio.connector.ConnectorException;
 import com.dremio.connector.metadata.BytesOutput;
@@ -47,13 +49,20 @@ import com.google.common.base.Stopwatch;
 import com.google.common.collect.Sets;
 import io.protostuff.ByteString;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 /** Synchronizes metadata from the connector to the namespace. */
@@ -62,6 +71,7 @@ public class MetadataSynchronizer {
       org.slf4j.LoggerFactory.getLogger(MetadataSynchronizer.class);
 
   private static final int NUM_RETRIES = 1;
+  private static final long PROGRESS_LOG_INTERVAL = 10_000;
   private final SyncStatus syncStatus = new SyncStatus(true);
 
   private final NamespaceService systemNamespace;
@@ -76,8 +86,11 @@ public class MetadataSynchronizer {
   private final List<Tuple<String, String>> failedDatasets;
   private final OptionManager optionManager;
   private final Orphanage orphanage;
+  private final int parallelism;
 
   private Set<NamespaceKey> orphanedDatasets;
+  // set once the listing has no more datasets, read by concurrent syncs for diagnostics
+  private volatile boolean listingExhausted;
 
   MetadataSynchronizer(
       NamespaceService systemNamespace,
@@ -96,9 +109,23 @@ public class MetadataSynchronizer {
 
     this.updateMode = metadataPolicy.getDatasetUpdateMode();
     this.ancestorsToKeep = new HashSet<>();
-    this.failedDatasets = new ArrayList<>();
+    this.failedDatasets = Collections.synchronizedList(new ArrayList<>());
     this.optionManager = optionManager;
     this.orphanage = bridge.getOrphanage();
+    this.parallelism = getSyncParallelism(metadataPolicy, optionManager);
+  }
+
+  /**
+   * Number of datasets synchronized concurrently, as set in the source's metadata policy or else by
+   * the system option. The policy is not validated like the option, so it is capped at the same
+   * maximum.
+   */
+  static int getSyncParallelism(MetadataPolicy metadataPolicy, OptionManager optionManager) {
+    final Integer configured = metadataPolicy.getDatasetSyncParallelism();
+    if (configured != null && configured > 0) {
+      return Math.min(configured, CatalogOptions.MAX_METADATA_SYNC_PARALLELISM);
+    }
+    return (int) optionManager.getOption(CatalogOptions.METADATA_SYNC_PARALLELISM);
   }
 
   /** Set up the synchronizer. */
@@ -155,6 +182,7 @@ public class MetadataSynchronizer {
                 .limit(10)
                 .collect(Collectors.joining("\n")));
       }
+      syncStatus.setDuration(stopwatch.elapsed(TimeUnit.MILLISECONDS));
       if (logger.isDebugEnabled()) {
         logger.debug(
             "Source '{}' sync ended. Took {} milliseconds",
@@ -177,15 +205,17 @@ public class MetadataSynchronizer {
 
   /**
    * Brings the namespace up to date by gathering metadata from the source about existing and new
-   * datasets.
+   * datasets. The listing is iterated and the orphan and ancestor bookkeeping done on the calling
+   * thread, while the datasets themselves are synchronized on up to {@link #parallelism} threads.
    *
    * @throws NamespaceException if it cannot be handled due to namespace error
    * @throws ConnectorException if it cannot be handled due to an error in the source connection
    */
   private void synchronizeDatasets() throws NamespaceException, ConnectorException {
-    logger.debug("Source '{}' syncing datasets", sourceKey);
+    logger.debug("Source '{}' syncing datasets, {} at a time", sourceKey, parallelism);
     try (DatasetHandleListing datasetListing =
-        getDatasetHandleListing(options.asGetDatasetOptions(null))) {
+            getDatasetHandleListing(options.asGetDatasetOptions(null));
+        DatasetSyncExecutor syncExecutor = new DatasetSyncExecutor()) {
       if (datasetListing instanceof UnsupportedDatasetHandleListing) {
         logger.debug(
             "Source '{}' does not support listing datasets, assuming all are valid", sourceKey);
@@ -193,6 +223,8 @@ public class MetadataSynchronizer {
         return;
       }
       final Iterator<? extends DatasetHandle> iterator = datasetListing.iterator();
+      final BooleanSupplier hasMoreDatasets =
+          parallelism > 1 ? () -> !listingExhausted : iterator::hasNext;
       long entityCount = 0L;
       do {
         try {
@@ -203,6 +235,7 @@ public class MetadataSynchronizer {
           // handleExistingDataset when something bad happened to see if we still have datasets to
           // be refreshed.
           if (!iterator.hasNext()) {
+            listingExhausted = true;
             break;
           }
           ++entityCount;
@@ -216,10 +249,8 @@ public class MetadataSynchronizer {
           }
           if (existing) {
             addAncestors(datasetKey, ancestorsToKeep);
-            handleExistingDataset(datasetKey, handle, iterator);
-          } else {
-            handleNewDataset(datasetKey, handle);
           }
+          syncExecutor.submit(() -> syncDataset(datasetKey, handle, existing, hasMoreDatasets));
         } catch (DatasetMetadataTooLargeException e) {
           final boolean existing =
               orphanedDatasets.remove(new NamespaceKey(PathUtils.parseFullPath(e.getMessage())));
@@ -229,20 +260,55 @@ public class MetadataSynchronizer {
               existing ? "existing" : "new");
         }
       } while (true);
+      syncExecutor.awaitCompletion();
       logger.info("Source '{}' iterated through {} entities", sourceKey, entityCount);
     }
     // Intentionally leave without a catch block.
   }
 
+  /**
+   * Synchronize a single dataset, which has already been removed from the orphans.
+   *
+   * @param datasetKey dataset key
+   * @param handle dataset handle
+   * @param existing whether the dataset is already in the namespace
+   * @param hasMoreDatasets whether the listing has more datasets, for diagnostics
+   * @throws NamespaceException if a new dataset cannot be added
+   */
+  private void syncDataset(
+      NamespaceKey datasetKey,
+      DatasetHandle handle,
+      boolean existing,
+      BooleanSupplier hasMoreDatasets)
+      throws NamespaceException {
+    try {
+      if (existing) {
+        handleExistingDataset(datasetKey, handle, hasMoreDatasets);
+      } else {
+        handleNewDataset(datasetKey, handle);
+      }
+    } catch (DatasetMetadataTooLargeException e) {
+      logger.error(
+          "Dataset {} sync failed ({}) due to Metadata too large. Please check.",
+          e.getMessage(),
+          existing ? "existing" : "new");
+    } finally {
+      final long synced = syncStatus.incrementDatasetsSynced();
+      if (synced % PROGRESS_LOG_INTERVAL == 0) {
+        logger.info("Source '{}' synced {} datasets so far", sourceKey, synced);
+      }
+    }
+  }
+
   /**
    * Handle metadata sync for the given existing dataset.
    *
    * @param datasetKey dataset key
    * @param handle dataset handle
-   * @param iterator dataset handle iterator
+   * @param hasMoreDatasets whether the listing has more datasets, for diagnostics
    */
   private void handleExistingDataset(
-      NamespaceKey datasetKey, DatasetHandle handle, Iterator<? extends DatasetHandle> iterator) {
+      NamespaceKey datasetKey, DatasetHandle handle, BooleanSupplier hasMoreDatasets) {
     int tryCount = 0;
     while (true) {
       if (tryCount++ > NUM_RETRIES) {
@@ -265,7 +331,7 @@ public class MetadataSynchronizer {
         logger.debug(
             "Dataset '{}' is no longer valid, skipping sync. Has next? {}",
             datasetKey,
-            iterator.hasNext(),
+            hasMoreDatasets.getAsBoolean(),
             e);
         failedDatasets.add(Tuple.of(datasetKey.getSchemaPath(), e.getMessage()));
         syncStatus.incrementExtendedUnreadable();
@@ -277,7 +343,7 @@ public class MetadataSynchronizer {
         logger.debug(
             "Dataset '{}' sync failed unexpectedly. Will retry next sync. Has next? {}",
             datasetKey,
-            iterator.hasNext(),
+            hasMoreDatasets.getAsBoolean(),
             e);
         failedDatasets.add(Tuple.of(datasetKey.getSchemaPath(), e.getMessage()));
         syncStatus.incrementExtendedUnreadable();
@@ -506,4 +572,86 @@ public class MetadataSynchronizer {
       }
     };
   }
+
+  /** Synchronization of a single dataset. */
+  @FunctionalInterface
+  private interface DatasetSync {
+    void run() throws NamespaceException;
+  }
+
+  /**
+   * Runs dataset syncs on a pool of {@link #parallelism} threads, or on the calling thread when the
+   * parallelism is one. Submitting blocks while every thread is busy, so the listing is not read
+   * further ahead than the syncs in flight. The first failure of a sync is rethrown on the calling
+   * thread, and closing waits for syncs in flight so none outlives the synchronizer's run.
+   */
+  private final class DatasetSyncExecutor implements AutoCloseable {
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    private DatasetSyncExecutor() {
+      if (parallelism > 1) {
+        this.executor =
+            new ContextMigratingExecutorService<>(
+                Executors.newFixedThreadPool(
+                    parallelism, new NamedThreadFactory("metadata-sync-" + sourceKey.getRoot())));
+        this.permits = new Semaphore(parallelism);
+      } else {
+        this.executor = null;
+        this.permits = null;
+      }
+    }
+
+    void submit(DatasetSync sync) throws NamespaceException {
+      if (executor == null) {
+        sync.run();
+        return;
+      }
+      rethrowFailure();
+      permits.acquireUninterruptibly();
+      try {
+        executor.execute(
+            () -> {
+              try {
+                sync.run();
+              } catch (Exception e) {
+                failure.compareAndSet(null, e);
+              } finally {
+                permits.release();
+              }
+            });
+      } catch (RejectedExecutionException e) {
+        permits.release();
+        throw e;
+      }
+    }
+
+    void awaitCompletion() throws NamespaceException {
+      if (executor != null) {
+        permits.acquireUninterruptibly(parallelism);
+        permits.release(parallelism);
+        rethrowFailure();
+      }
+    }
+
+    private void rethrowFailure() throws NamespaceException {
+      final Exception e = failure.get();
+      if (e instanceof NamespaceException) {
+        throw (NamespaceException) e;
+      } else if (e instanceof RuntimeException) {
+        throw (RuntimeException) e;
+      } else if (e != null) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    public void close() {
+      if (executor != null) {
+        permits.acquireUninterruptibly(parallelism);
+        executor.shutdown();
+      }
+    }
+  }
 }
@@ -102,6 +102,8 @@ public class PluginsManager implements AutoCloseable, Iterable<StoragePlugin> {
   protected final NamespaceService systemNamespace;
   private final Orphanage orphanage;
   protected final Provider<MetadataRefreshInfoBroadcaster> broadcasterProvider;
+  private final DatasetMetadataCache datasetMetadataCache =
+      new DatasetMetadataCache(DatasetMetadataCache.MAX_WEIGHT_BYTES);
   private final Predicate<String> influxSourcePred;
   protected final ModifiableSchedulerService modifiableScheduler;
   private final Provider<LegacyKVStoreProvider> legacyKvStoreProvider;
@@ -433,7 +435,8 @@ public class PluginsManager implements AutoCloseable, Iterable<StoragePlugin> {
         reader,
         monitor.forPlugin(config.getName()),
         broadcasterProvider,
-        influxSourcePred);
+        influxSourcePred,
+        datasetMetadataCache);
   }
 
   /**
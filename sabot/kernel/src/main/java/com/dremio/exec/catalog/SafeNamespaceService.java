@@ -325,6 +325,11 @@ class SafeNamespaceService implements NamespaceService {
     return runner.doSafe(() -> delegate.getDatasets());
   }
 
+  @Override
+  public List<DatasetConfig> getDatasets(List<NamespaceKey> arg0) {
+    return runner.doSafe(() -> delegate.getDatasets(arg0));
+  }
+
   @Override
   public SpaceConfig getSpace(NamespaceKey arg0) throws NamespaceException {
     return runner.doSafe(() -> delegate.getSpace(arg0));
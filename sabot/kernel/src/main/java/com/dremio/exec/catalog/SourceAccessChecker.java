@@ -64,6 +64,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import org.apache.arrow.vector.types.pojo.Field;
 
@@ -132,6 +133,17 @@ final class SourceAccessChecker implements Catalog {
     return delegate.getTableNoResolve(catalogEntityKey);
   }
 
+  @Override
+  public void prefetchDatasets(List<NamespaceKey> keys) {
+    delegate.prefetchDatasets(
+        keys.stream().filter(key -> !isInvisible(key)).collect(Collectors.toList()));
+  }
+
+  @Override
+  public void discardPrefetchedDatasets(List<NamespaceKey> keys) {
+    delegate.discardPrefetchedDatasets(keys);
+  }
+
   @Override
   public DremioTable getTableNoColumnCount(NamespaceKey key) {
     return getIfVisible(key, () -> delegate.getTableNoColumnCount(key));
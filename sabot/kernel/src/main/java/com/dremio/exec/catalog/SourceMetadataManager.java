@@ -573,6 +573,7 @@ class SourceMetadataManager implements AutoCloseable {
               .setLastFullRefreshDateMs(fullRefresh.getLastStart())
               .setPluginName(sourceKey.getName())
               .build();
+      bridge.invalidateCachedMetadata();
       try {
         broadcasterProvider.get().communicateChange(refreshRequest);
       } catch (Exception e) {
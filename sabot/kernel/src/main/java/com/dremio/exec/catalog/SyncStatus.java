@@ -15,7 +15,7 @@
  */
 package com.dremio.exec.catalog;
 
-/** Metadata sync status. */
+/** Metadata sync status. Counters may be updated by concurrent dataset syncs. */
 class SyncStatus {
 
   private final boolean fullRefresh;
@@ -29,41 +29,62 @@ class SyncStatus {
   private long extendedUnreadable;
   private long extendedDeleted;
 
-  private boolean refreshed;
-  private boolean interrupted;
+  private long datasetsSynced;
+  private long durationMillis;
+
+  private volatile boolean refreshed;
+  private volatile boolean interrupted;
 
   SyncStatus(boolean fullRefresh) {
     this.fullRefresh = fullRefresh;
   }
 
-  void incrementShallowAdded() {
+  synchronized void incrementShallowAdded() {
     shallowAdded++;
   }
 
-  void incrementShallowDeleted() {
+  synchronized void incrementShallowDeleted() {
     shallowDeleted++;
   }
 
-  void incrementShallowUnchanged() {
+  synchronized void incrementShallowUnchanged() {
     shallowUnchanged++;
   }
 
-  void incrementExtendedChanged() {
+  synchronized void incrementExtendedChanged() {
     extendedChanged++;
   }
 
-  void incrementExtendedUnchanged() {
+  synchronized void incrementExtendedUnchanged() {
     extendedUnchanged++;
   }
 
-  void incrementExtendedUnreadable() {
+  synchronized void incrementExtendedUnreadable() {
     extendedUnreadable++;
   }
 
-  void incrementExtendedDeleted() {
+  synchronized void incrementExtendedDeleted() {
     extendedDeleted++;
   }
 
+  /** Counts a dataset whose sync completed and returns the number of such datasets so far. */
+  synchronized long incrementDatasetsSynced() {
+    return ++datasetsSynced;
+  }
+
+  synchronized long getDatasetsSynced() {
+    return datasetsSynced;
+  }
+
+  synchronized void setDuration(long durationMillis) {
+    this.durationMillis = durationMillis;
+  }
+
+  /** Datasets synced per second over the duration of the sync, zero if not known. */
+  synchronized double getDatasetsPerSecond() {
+    return durationMillis == 0 ? 0 : datasetsSynced * 1000.0 / durationMillis;
+  }
+
   void setRefreshed() {
     this.refreshed = true;
   }
@@ -81,7 +102,7 @@ class SyncStatus {
   }
 
   @Override
-  public String toString() {
+  public synchronized String toString() {
     final StringBuilder builder = new StringBuilder();
     builder.append(
         String.format(
@@ -100,6 +121,12 @@ class SyncStatus {
               extendedDeleted,
               extendedUnreadable));
     }
+    if (datasetsSynced > 0) {
+      builder.append(
+          String.format(
+              "Synced %d datasets in %d ms (%.1f datasets/s)\n",
+              datasetsSynced, durationMillis, getDatasetsPerSecond()));
+    }
     return builder.toString();
   }
 }
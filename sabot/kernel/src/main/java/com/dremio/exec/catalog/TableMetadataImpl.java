@@ -57,6 +57,18 @@ public class TableMetadataImpl implements TableMetadata {
     this.primaryKey = primaryKey;
   }
 
+  /** Creates a table metadata whose schema was already deserialized from the config. */
+  public TableMetadataImpl(
+      StoragePluginId pluginId,
+      DatasetConfig config,
+      String user,
+      SplitsPointer splits,
+      List<String> primaryKey,
+      BatchSchema schema) {
+    this(pluginId, config, user, splits, primaryKey);
+    this.schema = schema;
+  }
+
   @Override
   public String getVersion() {
     if (config.getTag() == null) {
@@ -29,6 +29,9 @@ public class ExpAndCodeGenEngineHolder {
 
   private final SupportedEngines.CodeGenOption codeGenOption;
 
+  // engine picked from the measured evaluation costs of the expression, if any
+  private final SupportedEngines.Engine selectedEngine;
+
   public ExpressionSplitter getExpressionSplitter() {
     return expressionSplitter;
   }
@@ -45,6 +48,14 @@ public class ExpAndCodeGenEngineHolder {
       NamedExpression namedExpression,
       SupportedEngines.CodeGenOption codeGenOption,
       ExpressionSplitter expressionSplitter) {
+    this(namedExpression, codeGenOption, null, expressionSplitter);
+  }
+
+  public ExpAndCodeGenEngineHolder(
+      NamedExpression namedExpression,
+      SupportedEngines.CodeGenOption codeGenOption,
+      SupportedEngines.Engine selectedEngine,
+      ExpressionSplitter expressionSplitter) {
     // the expression we store in cache shouldn't be annotated with CodeGenContextInfo
     if (namedExpression.getExpr() instanceof CodeGenContext) {
       this.namedExpression =
@@ -55,6 +66,7 @@ public class ExpAndCodeGenEngineHolder {
       this.namedExpression = namedExpression;
     }
     this.codeGenOption = codeGenOption;
+    this.selectedEngine = selectedEngine;
     this.expressionSplitter = expressionSplitter;
   }
 
@@ -68,6 +80,7 @@ public class ExpAndCodeGenEngineHolder {
     }
     ExpAndCodeGenEngineHolder that = (ExpAndCodeGenEngineHolder) o;
     return this.codeGenOption == that.codeGenOption
+        && this.selectedEngine == that.selectedEngine
         && this.namedExpression
             .getExpr()
             .accept(new EqualityVisitor(), that.namedExpression.getExpr());
@@ -75,7 +88,7 @@ public class ExpAndCodeGenEngineHolder {
 
   @Override
   public int hashCode() {
-    return Objects.hash(codeGenOption)
+    return Objects.hash(codeGenOption, selectedEngine)
         + this.namedExpression.getExpr().accept(new HashVisitor(), null);
   }
 
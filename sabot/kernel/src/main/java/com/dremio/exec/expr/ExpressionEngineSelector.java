@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.expr;
+
+import com.dremio.common.expression.SupportedEngines;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Picks the engine an expression that can be evaluated entirely in Java or in Gandiva is evaluated
+ * in, based on the evaluation cost measured by the operators that evaluated it before.
+ *
+ * <p>An expression is first evaluated in the preferred engine. Once enough records were evaluated
+ * in it, the next operators evaluate it in the other engine, and once both engines were measured
+ * the other engine is only used if it is faster by a margin. Costs are kept per expression and
+ * preferred code generation option, across queries.
+ */
+class ExpressionEngineSelector {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(ExpressionEngineSelector.class);
+
+  static final ExpressionEngineSelector INSTANCE =
+      new ExpressionEngineSelector(
+          Integer.getInteger("dremio.exec.expression.engine_selector.max_entries", 10_000),
+          Long.getLong("dremio.exec.expression.engine_selector.min_records", 100_000));
+
+  // the other engine must be at least this much faster to be picked over the preferred one
+  private static final double SWITCH_RATIO = 1.2;
+
+  private final Cache<ExpAndCodeGenEngineHolder, EngineCosts> costs;
+  private final long minRecords;
+
+  @VisibleForTesting
+  ExpressionEngineSelector(int maxEntries, long minRecords) {
+    this.costs = Caffeine.newBuilder().maximumSize(maxEntries).build();
+    this.minRecords = minRecords;
+  }
+
+  /** Returns the engine to evaluate the expression in. */
+  SupportedEngines.Engine select(
+      ExpAndCodeGenEngineHolder expression, SupportedEngines.Engine preferred) {
+    final EngineCosts engineCosts = costs.getIfPresent(expression);
+    if (engineCosts == null) {
+      return preferred;
+    }
+    final SupportedEngines.Engine other = flip(preferred);
+    synchronized (engineCosts) {
+      if (engineCosts.records(preferred) < minRecords) {
+        return preferred;
+      }
+      if (engineCosts.records(other) < minRecords) {
+        // measure the other engine
+        return other;
+      }
+      if (engineCosts.nanosPerRecord(other) * SWITCH_RATIO
+          < engineCosts.nanosPerRecord(preferred)) {
+        return other;
+      }
+      return preferred;
+    }
+  }
+
+  /** Records the time spent evaluating some records of the expression in the given engine. */
+  void record(
+      ExpAndCodeGenEngineHolder expression,
+      SupportedEngines.Engine engine,
+      long nanos,
+      long records) {
+    if (records <= 0) {
+      return;
+    }
+    final EngineCosts engineCosts = costs.get(expression, k -> new EngineCosts());
+    synchronized (engineCosts) {
+      engineCosts.add(engine, nanos, records);
+    }
+    logger.trace(
+        "Evaluated {} records of {} in {} in {} ns",
+        records,
+        expression.getNamedExpression().getExpr(),
+        engine,
+        nanos);
+  }
+
+  @VisibleForTesting
+  void invalidateAll() {
+    costs.invalidateAll();
+  }
+
+  static SupportedEngines.Engine flip(SupportedEngines.Engine engine) {
+    return engine == SupportedEngines.Engine.JAVA
+        ? SupportedEngines.Engine.GANDIVA
+        : SupportedEngines.Engine.JAVA;
+  }
+
+  private static final class EngineCosts {
+    private long javaNanos;
+    private long javaRecords;
+    private long gandivaNanos;
+    private long gandivaRecords;
+
+    void add(SupportedEngines.Engine engine, long nanos, long records) {
+      if (engine == SupportedEngines.Engine.JAVA) {
+        javaNanos += nanos;
+        javaRecords += records;
+      } else {
+        gandivaNanos += nanos;
+        gandivaRecords += records;
+      }
+    }
+
+    long records(SupportedEngines.Engine engine) {
+      return engine == SupportedEngines.Engine.JAVA ? javaRecords : gandivaRecords;
+    }
+
+    double nanosPerRecord(SupportedEngines.Engine engine) {
+      return engine == SupportedEngines.Engine.JAVA
+          ? (double) javaNanos / javaRecords
+          : (double) gandivaNanos / gandivaRecords;
+    }
+  }
+}
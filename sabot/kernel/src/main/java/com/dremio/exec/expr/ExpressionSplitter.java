@@ -39,6 +39,7 @@ import com.dremio.exec.record.TypedFieldId;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
+import com.dremio.exec.record.selection.SelectionVector2;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.op.llvm.GandivaSecondaryCacheWithStats;
 import com.dremio.sabot.op.llvm.expr.GandivaPushdownSieve;
@@ -63,6 +64,11 @@ public class ExpressionSplitter implements AutoCloseable {
       org.slf4j.LoggerFactory.getLogger(ExpressionSplitter.class);
   private static final String DEFAULT_TMP_OUTPUT_NAME = "_split_expr";
 
+  // The first batch pays for the warm up of the generated code, and is not measured
+  private static final int WARMUP_BATCHES = 1;
+  // Number of batches the evaluation cost of the expressions is measured on
+  private static final int MEASURED_BATCHES = 10;
+
   // The various splits in the expression
   final List<ExpressionSplit> splitExpressions;
 
@@ -120,6 +126,24 @@ public class ExpressionSplitter implements AutoCloseable {
 
   private final ExpressionSplitCache expressionSplitCache;
 
+  // Picks the engine of expressions that can be evaluated entirely in either engine based on their
+  // measured evaluation cost, null if adaptive engine selection is disabled
+  private final ExpressionEngineSelector engineSelector;
+
+  // Engine picked for the expression being split, if any
+  private SupportedEngines.Engine selectedEngine;
+
+  // Expressions evaluated entirely in one engine, whose evaluation cost is measured
+  private final List<MeasuredExpression> measuredExpressions = Lists.newArrayList();
+
+  private int batchesEvaluated = 0;
+  private int numExprsInSelectedEngine = 0;
+
+  // Evaluates the filter condition directly on the incoming buffers instead of the pipeline, if the
+  // condition is simple enough
+  private VectorizedFilter vectorizedFilter;
+  private SelectionVector2 filterSelectionVector;
+
   public ExpressionSplitter(
       OperatorContext context,
       VectorAccessible incoming,
@@ -203,6 +227,15 @@ public class ExpressionSplitter implements AutoCloseable {
     this.maxSplitsPerExpression =
         context.getOptions().getOption(ExecConstants.MAX_SPLITS_PER_EXPRESSION);
     this.checkExcessiveSplits = checkExcessiveSplits;
+    final boolean hasPreferredEngine =
+        codeGenOption == SupportedEngines.CodeGenOption.Java
+            || codeGenOption == SupportedEngines.CodeGenOption.Gandiva;
+    this.engineSelector =
+        checkExcessiveSplits
+                && hasPreferredEngine
+                && context.getOptions().getOption(ExecConstants.ADAPTIVE_ENGINE_SELECTION_ENABLED)
+            ? ExpressionEngineSelector.INSTANCE
+            : null;
   }
 
   public int getNumExprsInGandiva() {
@@ -221,6 +254,14 @@ public class ExpressionSplitter implements AutoCloseable {
     return splitExpressions.size() - (numExprsInGandiva + numExprsInJava);
   }
 
+  public int getNumExprsInSelectedEngine() {
+    return numExprsInSelectedEngine;
+  }
+
+  public int getNumExprsVectorized() {
+    return vectorizedFilter == null ? 0 : 1;
+  }
+
   public ExpressionSplitCache.ExpressionSplitsHolder splitExpressionWhenCacheIsEnabled(
       NamedExpression namedExpression) throws Exception {
     ExpressionEvaluationOptions expressionEvaluationOptions =
@@ -293,7 +334,11 @@ public class ExpressionSplitter implements AutoCloseable {
 
     boolean shouldSplit = isSplitEnabled;
 
-    if (!isSplitEnabled) {
+    if (selectedEngine != null && isExecutableInBothEngines(expr)) {
+      // evaluate it entirely in the engine picked from its measured evaluation cost
+      executionEngine.add(selectedEngine);
+      shouldSplit = false;
+    } else if (!isSplitEnabled) {
       if (expr.isSubExpressionExecutableInEngine(preferredEngine)) {
         executionEngine.add(preferredEngine);
       } else if (expr.isSubExpressionExecutableInEngine(nonPreferredEngine)) {
@@ -388,6 +433,11 @@ public class ExpressionSplitter implements AutoCloseable {
           }
 
           splitStageExecutor.addSplit(split);
+          for (MeasuredExpression measuredExpression : measuredExpressions) {
+            if (measuredExpression.split == split) {
+              measuredExpression.stage = splitStageExecutor;
+            }
+          }
         }
       }
 
@@ -469,6 +519,43 @@ public class ExpressionSplitter implements AutoCloseable {
   private ExpressionSplit addToSplitter(VectorAccessible incoming, NamedExpression namedExpression)
       throws Exception {
     logger.debug("Splitting expression {}", namedExpression.getExpr());
+    final ExpAndCodeGenEngineHolder measuredExpression =
+        engineSelector == null
+            ? null
+            : new ExpAndCodeGenEngineHolder(namedExpression, options.getCodeGenOption(), null);
+    final int numSplitsBefore = splitExpressions.size();
+    final ExpressionSplit split;
+    try {
+      selectedEngine =
+          measuredExpression == null
+              ? null
+              : engineSelector.select(measuredExpression, preferredEngine);
+      split = splitAndAddExpression(incoming, namedExpression);
+    } finally {
+      selectedEngine = null;
+    }
+
+    if (measuredExpression != null
+        && splitExpressions.size() == numSplitsBefore + 1
+        && isExecutableInBothEngines(split.getNamedExpression().getExpr())) {
+      // evaluated entirely in one engine, and could be evaluated in the other one
+      measuredExpressions.add(new MeasuredExpression(measuredExpression, split));
+      if (split.getExecutionEngine() != preferredEngine) {
+        numExprsInSelectedEngine++;
+      }
+    }
+    return split;
+  }
+
+  private static boolean isExecutableInBothEngines(LogicalExpression expr) {
+    return expr instanceof CodeGenContext
+        && ((CodeGenContext) expr).isSubExpressionExecutableInEngine(SupportedEngines.Engine.JAVA)
+        && ((CodeGenContext) expr)
+            .isSubExpressionExecutableInEngine(SupportedEngines.Engine.GANDIVA);
+  }
+
+  private ExpressionSplit splitAndAddExpression(
+      VectorAccessible incoming, NamedExpression namedExpression) throws Exception {
     if (!context.getOptions().getOption(ExecConstants.SPLIT_CACHING_ENABLED)) {
       expressionSplitCache.invalidateCache();
       return addToSplitterWhenCacheIsDisabled(incoming, namedExpression);
@@ -476,7 +563,8 @@ public class ExpressionSplitter implements AutoCloseable {
 
     ExpressionSplitCache.ExpressionSplitsHolder expressionSplitsHolder =
         expressionSplitCache.getSplitsFromCache(
-            new ExpAndCodeGenEngineHolder(namedExpression, options.getCodeGenOption(), this));
+            new ExpAndCodeGenEngineHolder(
+                namedExpression, options.getCodeGenOption(), selectedEngine, this));
 
     List<CachableExpressionSplit> splitsFromTheCache = new ArrayList<>();
     splitsFromTheCache.addAll(expressionSplitsHolder.getExpressionSplits());
@@ -708,6 +796,14 @@ public class ExpressionSplitter implements AutoCloseable {
       Stopwatch gandivaCodeGenWatch,
       GandivaSecondaryCacheWithStats secondaryCache)
       throws Exception {
+    if (codeGenOption != SupportedEngines.CodeGenOption.GandivaOnly
+        && context.getOptions().getOption(ExecConstants.VECTORIZED_FILTER_ENABLED)) {
+      vectorizedFilter = VectorizedFilter.create(namedExpression.getExpr(), incoming);
+      if (vectorizedFilter != null) {
+        filterSelectionVector = outgoing.getSelectionVector2();
+        return;
+      }
+    }
     addToSplitter(incoming, namedExpression);
     verifySplitsInGandiva();
     createPipeline();
@@ -730,6 +826,7 @@ public class ExpressionSplitter implements AutoCloseable {
         SplitStageExecutor executor = execPipeline.get(i);
         executor.evaluateProjector(recordsToConsume, javaCodeGenWatch, gandivaCodeGenWatch);
       }
+      recordEvaluationCosts(recordsToConsume);
     } catch (Exception e) {
       releaseAllBuffers();
       throw e;
@@ -739,6 +836,14 @@ public class ExpressionSplitter implements AutoCloseable {
   // filter data
   public int filterData(int records, Stopwatch javaCodeGenWatch, Stopwatch gandivaCodeGenWatch)
       throws Exception {
+    if (vectorizedFilter != null) {
+      javaCodeGenWatch.start();
+      try {
+        return vectorizedFilter.filterBatch(records, filterSelectionVector);
+      } finally {
+        javaCodeGenWatch.stop();
+      }
+    }
     try {
       for (int i = 0; i < execPipeline.size() - 1; i++) {
         SplitStageExecutor executor = execPipeline.get(i);
@@ -746,15 +851,39 @@ public class ExpressionSplitter implements AutoCloseable {
       }
 
       // The last stage is the filter operation
-      return execPipeline
-          .get(execPipeline.size() - 1)
-          .evaluateFilter(records, javaCodeGenWatch, gandivaCodeGenWatch);
+      final int filteredRecords =
+          execPipeline
+              .get(execPipeline.size() - 1)
+              .evaluateFilter(records, javaCodeGenWatch, gandivaCodeGenWatch);
+      recordEvaluationCosts(records);
+      return filteredRecords;
     } catch (Exception e) {
       releaseAllBuffers();
       throw e;
     }
   }
 
+  // Reports the evaluation cost of the expressions evaluated entirely in one engine, for the first
+  // batches after the warm up
+  private void recordEvaluationCosts(int records) {
+    batchesEvaluated++;
+    if (measuredExpressions.isEmpty()
+        || batchesEvaluated <= WARMUP_BATCHES
+        || batchesEvaluated > WARMUP_BATCHES + MEASURED_BATCHES) {
+      return;
+    }
+    for (MeasuredExpression measuredExpression : measuredExpressions) {
+      if (measuredExpression.stage == null) {
+        continue;
+      }
+      engineSelector.record(
+          measuredExpression.expression,
+          measuredExpression.split.getExecutionEngine(),
+          measuredExpression.stage.getLastEvaluateNanos(measuredExpression.split),
+          records);
+    }
+  }
+
   @Override
   public void close() throws Exception {
     AutoCloseables.close(execPipeline, splitExpressions);
@@ -1114,4 +1243,16 @@ public class ExpressionSplitter implements AutoCloseable {
       return new ConvertExpression(e.getConvertFunction(), e.getEncodingType(), inputExp);
     }
   }
+
+  private static final class MeasuredExpression {
+    private final ExpAndCodeGenEngineHolder expression;
+    private final ExpressionSplit split;
+    // stage the split is evaluated in, set once the pipeline is created
+    private SplitStageExecutor stage;
+
+    private MeasuredExpression(ExpAndCodeGenEngineHolder expression, ExpressionSplit split) {
+      this.expression = expression;
+      this.split = split;
+    }
+  }
 }
@@ -35,6 +35,7 @@ import com.google.common.base.Stopwatch;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.apache.arrow.gandiva.exceptions.GandivaException;
 import org.apache.arrow.vector.AllocationHelper;
 import org.apache.arrow.vector.FixedWidthVector;
@@ -97,6 +98,10 @@ class SplitStageExecutor implements AutoCloseable {
 
   final SupportedEngines.Engine preferredEngine;
 
+  // Time spent in each engine evaluating the last batch
+  long lastJavaEvaluateNanos;
+  long lastGandivaEvaluateNanos;
+
   // Helper references for adding splits to correct list.
   final List<ExpressionSplit> splitsForPreferredCodeGen;
   final List<ExpressionSplit> splitsForNonPreferredCodeGen;
@@ -350,12 +355,16 @@ class SplitStageExecutor implements AutoCloseable {
     try {
       allocateNew(recordsToConsume);
 
+      final long gandivaNanosBefore = gandivaWatch.elapsed(TimeUnit.NANOSECONDS);
       gandivaWatch.start();
       nativeProjectEvaluator.evaluate(recordsToConsume);
       gandivaWatch.stop();
+      lastGandivaEvaluateNanos = gandivaWatch.elapsed(TimeUnit.NANOSECONDS) - gandivaNanosBefore;
+      final long javaNanosBefore = javaWatch.elapsed(TimeUnit.NANOSECONDS);
       javaWatch.start();
       javaProjector.projectRecords(recordsToConsume);
       javaWatch.stop();
+      lastJavaEvaluateNanos = javaWatch.elapsed(TimeUnit.NANOSECONDS) - javaNanosBefore;
 
       setValueCount(recordsToConsume);
       transferOut();
@@ -377,13 +386,33 @@ class SplitStageExecutor implements AutoCloseable {
 
   int evaluateFilter(int recordsToConsume, Stopwatch javaWatch, Stopwatch gandivaWatch)
       throws Exception {
+    final long javaNanosBefore = javaWatch.elapsed(TimeUnit.NANOSECONDS);
+    final long gandivaNanosBefore = gandivaWatch.elapsed(TimeUnit.NANOSECONDS);
     try {
       return this.filterFunction.apply(recordsToConsume, javaWatch, gandivaWatch);
     } finally {
+      lastJavaEvaluateNanos = javaWatch.elapsed(TimeUnit.NANOSECONDS) - javaNanosBefore;
+      lastGandivaEvaluateNanos = gandivaWatch.elapsed(TimeUnit.NANOSECONDS) - gandivaNanosBefore;
       markSplitOutputAsRead();
     }
   }
 
+  // Time spent evaluating the given split in the last batch, estimated as its share of the work
+  // done by the splits of this stage evaluated in the same engine
+  long getLastEvaluateNanos(ExpressionSplit split) {
+    final boolean inGandiva = gandivaSplits.contains(split);
+    final List<ExpressionSplit> engineSplits = inGandiva ? gandivaSplits : javaSplits;
+    final long engineNanos = inGandiva ? lastGandivaEvaluateNanos : lastJavaEvaluateNanos;
+    double totalWork = 0;
+    for (ExpressionSplit engineSplit : engineSplits) {
+      totalWork += engineSplit.getWork();
+    }
+    if (totalWork <= 0) {
+      return engineNanos / engineSplits.size();
+    }
+    return (long) (engineNanos * (split.getWork() / totalWork));
+  }
+
   @Override
   public void close() throws Exception {
     if (nativeProjectEvaluator != null) {
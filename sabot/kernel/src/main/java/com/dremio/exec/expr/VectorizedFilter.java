@@ -0,0 +1,527 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.expr;
+
+import com.dremio.common.expression.BooleanOperator;
+import com.dremio.common.expression.FunctionCall;
+import com.dremio.common.expression.FunctionHolderExpression;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.ValueExpressions.DateExpression;
+import com.dremio.common.expression.ValueExpressions.DoubleExpression;
+import com.dremio.common.expression.ValueExpressions.IntExpression;
+import com.dremio.common.expression.ValueExpressions.LongExpression;
+import com.dremio.common.expression.ValueExpressions.TimeStampExpression;
+import com.dremio.exec.record.TypedFieldId;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.selection.SelectionVector2;
+import io.netty.util.internal.PlatformDependent;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+
+/**
+ * Evaluates a filter condition made of comparisons of INT, BIGINT, FLOAT8, DATE or TIMESTAMP
+ * columns with constants, combined with AND and OR, directly on the Arrow buffers of the incoming
+ * batch.
+ *
+ * <p>Instead of evaluating the whole condition record by record, every comparison is evaluated for
+ * the whole batch into a mask, in a loop without branches that the JIT can compile to SIMD
+ * instructions. The comparisons of a column with several constants that BETWEEN and short IN lists
+ * are made of are evaluated in a single pass over the column. Since the condition has no NOT, a
+ * comparison with a null value can be treated as false.
+ */
+final class VectorizedFilter {
+  // maximum number of comparisons in an eligible condition
+  static final int MAX_COMPARISONS = 16;
+
+  private final Predicate predicate;
+  private byte[] matches = new byte[0];
+
+  private VectorizedFilter(Predicate predicate) {
+    this.predicate = predicate;
+  }
+
+  /**
+   * Returns a filter evaluating the given materialized condition over the incoming batches, or null
+   * if the condition is not simple enough.
+   */
+  static VectorizedFilter create(LogicalExpression condition, VectorAccessible incoming) {
+    final Predicate predicate = toPredicate(condition, incoming);
+    if (predicate == null || predicate.getNumComparisons() > MAX_COMPARISONS) {
+      return null;
+    }
+    return new VectorizedFilter(predicate);
+  }
+
+  /**
+   * Filters the given number of incoming records into the selection vector, and returns the number
+   * of records selected.
+   */
+  int filterBatch(int records, SelectionVector2 selectionVector) {
+    selectionVector.allocateNew(records);
+    if (matches.length < records) {
+      matches = new byte[records];
+    }
+    predicate.evaluate(records, matches);
+
+    // write every index, but only move past the ones that match
+    final long indexes = selectionVector.memoryAddress();
+    int count = 0;
+    for (int i = 0; i < records; i++) {
+      PlatformDependent.putShort(indexes + ((long) count << 1), (short) i);
+      count += matches[i];
+    }
+    selectionVector.setRecordCount(count);
+    return count;
+  }
+
+  private static Predicate toPredicate(LogicalExpression expr, VectorAccessible incoming) {
+    if (expr instanceof CodeGenContext) {
+      return toPredicate(((CodeGenContext) expr).getChild(), incoming);
+    }
+    if (expr instanceof BooleanOperator) {
+      final BooleanOperator operator = (BooleanOperator) expr;
+      if (!operator.isAnd() && !operator.isOr()) {
+        return null;
+      }
+      final List<Predicate> children = new ArrayList<>();
+      for (LogicalExpression arg : operator.args) {
+        final Predicate child = toPredicate(arg, incoming);
+        if (child == null) {
+          return null;
+        }
+        add(children, child, operator.isAnd());
+      }
+      return children.size() == 1
+          ? children.get(0)
+          : new Combination(children.toArray(new Predicate[0]), operator.isAnd());
+    }
+    if (expr instanceof FunctionHolderExpression) {
+      final FunctionHolderExpression function = (FunctionHolderExpression) expr;
+      return toComparison(function.getName(), function.args, incoming);
+    }
+    if (expr instanceof FunctionCall) {
+      final FunctionCall function = (FunctionCall) expr;
+      return toComparison(function.getName(), function.args, incoming);
+    }
+    return null;
+  }
+
+  // Adds a child to an AND or an OR, merging the comparisons of the same column when possible
+  private static void add(List<Predicate> children, Predicate child, boolean and) {
+    if (child instanceof Comparison) {
+      for (int i = 0; i < children.size(); i++) {
+        if (children.get(i) instanceof Comparison) {
+          final Comparison merged = ((Comparison) children.get(i)).merge((Comparison) child, and);
+          if (merged != null) {
+            children.set(i, merged);
+            return;
+          }
+        }
+      }
+    }
+    children.add(child);
+  }
+
+  private static Comparison toComparison(
+      String name, List<LogicalExpression> args, VectorAccessible incoming) {
+    if (args.size() != 2) {
+      return null;
+    }
+    Operator operator = Operator.of(name);
+    if (operator == null) {
+      return null;
+    }
+    LogicalExpression column = args.get(0);
+    LogicalExpression constant = args.get(1);
+    if (!(column instanceof ValueVectorReadExpression)) {
+      column = args.get(1);
+      constant = args.get(0);
+      operator = operator.flip();
+    }
+    if (!(column instanceof ValueVectorReadExpression)) {
+      return null;
+    }
+    final ValueVectorReadExpression read = (ValueVectorReadExpression) column;
+    final TypedFieldId fieldId = read.getFieldId();
+    if (read.hasReadPath() || fieldId.isHyperReader() || fieldId.getFieldIds().length != 1) {
+      return null;
+    }
+    final FieldVector vector =
+        incoming.getValueAccessorById(FieldVector.class, fieldId.getFieldIds()).getValueVector();
+
+    if (vector instanceof IntVector && constant instanceof IntExpression) {
+      return LongComparison.of(vector, 4, operator, ((IntExpression) constant).getInt());
+    } else if (vector instanceof BigIntVector && constant instanceof LongExpression) {
+      return LongComparison.of(vector, 8, operator, ((LongExpression) constant).getLong());
+    } else if (vector instanceof DateMilliVector && constant instanceof DateExpression) {
+      return LongComparison.of(vector, 8, operator, ((DateExpression) constant).getDate());
+    } else if (vector instanceof TimeStampMilliVector && constant instanceof TimeStampExpression) {
+      return LongComparison.of(
+          vector, 8, operator, ((TimeStampExpression) constant).getTimeStamp());
+    } else if (vector instanceof Float8Vector && constant instanceof DoubleExpression) {
+      return DoubleComparison.of(vector, operator, ((DoubleExpression) constant).getDouble());
+    }
+    return null;
+  }
+
+  private enum Operator {
+    LESS_THAN,
+    LESS_THAN_OR_EQUAL,
+    GREATER_THAN,
+    GREATER_THAN_OR_EQUAL,
+    EQUAL,
+    NOT_EQUAL;
+
+    static Operator of(String name) {
+      switch (name) {
+        case "less_than":
+        case "<":
+          return LESS_THAN;
+        case "less_than_or_equal_to":
+        case "<=":
+          return LESS_THAN_OR_EQUAL;
+        case "greater_than":
+        case ">":
+          return GREATER_THAN;
+        case "greater_than_or_equal_to":
+        case ">=":
+          return GREATER_THAN_OR_EQUAL;
+        case "equal":
+        case "==":
+        case "=":
+          return EQUAL;
+        case "not_equal":
+        case "<>":
+        case "!=":
+          return NOT_EQUAL;
+        default:
+          return null;
+      }
+    }
+
+    // operator to use when the constant is on the left
+    Operator flip() {
+      switch (this) {
+        case LESS_THAN:
+          return GREATER_THAN;
+        case LESS_THAN_OR_EQUAL:
+          return GREATER_THAN_OR_EQUAL;
+        case GREATER_THAN:
+          return LESS_THAN;
+        case GREATER_THAN_OR_EQUAL:
+          return LESS_THAN_OR_EQUAL;
+        default:
+          return this;
+      }
+    }
+  }
+
+  private abstract static class Predicate {
+    /** Sets the mask of the given records to 1 if they match, 0 otherwise. */
+    abstract void evaluate(int records, byte[] matches);
+
+    abstract int getNumComparisons();
+  }
+
+  /** AND or OR of predicates. */
+  private static final class Combination extends Predicate {
+    private final Predicate[] children;
+    private final boolean and;
+    private byte[] childMatches = new byte[0];
+
+    private Combination(Predicate[] children, boolean and) {
+      this.children = children;
+      this.and = and;
+    }
+
+    @Override
+    void evaluate(int records, byte[] matches) {
+      if (childMatches.length < records) {
+        childMatches = new byte[records];
+      }
+      children[0].evaluate(records, matches);
+      for (int c = 1; c < children.length; c++) {
+        children[c].evaluate(records, childMatches);
+        if (and) {
+          for (int i = 0; i < records; i++) {
+            matches[i] &= childMatches[i];
+          }
+        } else {
+          for (int i = 0; i < records; i++) {
+            matches[i] |= childMatches[i];
+          }
+        }
+      }
+    }
+
+    @Override
+    int getNumComparisons() {
+      int comparisons = 0;
+      for (Predicate child : children) {
+        comparisons += child.getNumComparisons();
+      }
+      return comparisons;
+    }
+  }
+
+  /**
+   * Checks if the non null values of a column are in one of a few closed ranges, or in none of them
+   * when negated.
+   */
+  private abstract static class Comparison extends Predicate {
+    final FieldVector vector;
+    final boolean negated;
+
+    Comparison(FieldVector vector, boolean negated) {
+      this.vector = vector;
+      this.negated = negated;
+    }
+
+    /**
+     * Returns the comparison matching the values that match this one and (or) the other one, if it
+     * can be evaluated in a single pass, null otherwise.
+     */
+    abstract Comparison merge(Comparison other, boolean and);
+
+    boolean canMerge(Comparison other, boolean and) {
+      return other.getClass() == getClass()
+          && other.vector == vector
+          && !negated
+          && !other.negated
+          && (!and || (getNumComparisons() == 1 && other.getNumComparisons() == 1));
+    }
+
+    @Override
+    void evaluate(int records, byte[] matches) {
+      evaluateRanges(records, matches, vector.getDataBufferAddress());
+      if (negated) {
+        for (int i = 0; i < records; i++) {
+          matches[i] ^= 1;
+        }
+      }
+      final long validity = vector.getValidityBufferAddress();
+      for (int i = 0; i < records; i++) {
+        matches[i] &= (byte) (PlatformDependent.getByte(validity + (i >>> 3)) >>> (i & 7));
+      }
+    }
+
+    abstract void evaluateRanges(int records, byte[] matches, long data);
+  }
+
+  /** Comparison of an integer, date or timestamp column. */
+  private static final class LongComparison extends Comparison {
+    private final int width;
+    private final long[] lows;
+    private final long[] highs;
+
+    private LongComparison(
+        FieldVector vector, int width, boolean negated, long[] lows, long[] highs) {
+      super(vector, negated);
+      this.width = width;
+      this.lows = lows;
+      this.highs = highs;
+    }
+
+    static LongComparison of(FieldVector vector, int width, Operator operator, long constant) {
+      // empty ranges are represented as [1, 0]
+      long low = Long.MIN_VALUE;
+      long high = Long.MAX_VALUE;
+      switch (operator) {
+        case LESS_THAN:
+          if (constant == Long.MIN_VALUE) {
+            low = 1;
+            high = 0;
+          } else {
+            high = constant - 1;
+          }
+          break;
+        case LESS_THAN_OR_EQUAL:
+          high = constant;
+          break;
+        case GREATER_THAN:
+          if (constant == Long.MAX_VALUE) {
+            low = 1;
+            high = 0;
+          } else {
+            low = constant + 1;
+          }
+          break;
+        case GREATER_THAN_OR_EQUAL:
+          low = constant;
+          break;
+        default:
+          low = constant;
+          high = constant;
+          break;
+      }
+      return new LongComparison(
+          vector, width, operator == Operator.NOT_EQUAL, new long[] {low}, new long[] {high});
+    }
+
+    @Override
+    Comparison merge(Comparison other, boolean and) {
+      if (!canMerge(other, and)) {
+        return null;
+      }
+      final LongComparison that = (LongComparison) other;
+      if (and) {
+        return new LongComparison(
+            vector,
+            width,
+            false,
+            new long[] {Math.max(lows[0], that.lows[0])},
+            new long[] {Math.min(highs[0], that.highs[0])});
+      }
+      return new LongComparison(
+          vector, width, false, concat(lows, that.lows), concat(highs, that.highs));
+    }
+
+    @Override
+    int getNumComparisons() {
+      return lows.length;
+    }
+
+    @Override
+    void evaluateRanges(int records, byte[] matches, long data) {
+      for (int r = 0; r < lows.length; r++) {
+        final long low = lows[r];
+        final long high = highs[r];
+        final boolean first = r == 0;
+        if (width == 4) {
+          for (int i = 0; i < records; i++) {
+            final long value = PlatformDependent.getInt(data + ((long) i << 2));
+            final byte match = (byte) (value >= low & value <= high ? 1 : 0);
+            matches[i] = first ? match : (byte) (matches[i] | match);
+          }
+        } else {
+          for (int i = 0; i < records; i++) {
+            final long value = PlatformDependent.getLong(data + ((long) i << 3));
+            final byte match = (byte) (value >= low & value <= high ? 1 : 0);
+            matches[i] = first ? match : (byte) (matches[i] | match);
+          }
+        }
+      }
+    }
+
+    private static long[] concat(long[] left, long[] right) {
+      final long[] result = new long[left.length + right.length];
+      System.arraycopy(left, 0, result, 0, left.length);
+      System.arraycopy(right, 0, result, left.length, right.length);
+      return result;
+    }
+  }
+
+  /**
+   * Comparison of a double column. NaN is in no range, which matches the Java comparison operators
+   * the generated code uses.
+   */
+  private static final class DoubleComparison extends Comparison {
+    private final double[] lows;
+    private final double[] highs;
+
+    private DoubleComparison(FieldVector vector, boolean negated, double[] lows, double[] highs) {
+      super(vector, negated);
+      this.lows = lows;
+      this.highs = highs;
+    }
+
+    static DoubleComparison of(FieldVector vector, Operator operator, double constant) {
+      // empty ranges are represented as [1, 0]
+      double low = Double.NEGATIVE_INFINITY;
+      double high = Double.POSITIVE_INFINITY;
+      switch (operator) {
+        case LESS_THAN:
+          if (constant == Double.NEGATIVE_INFINITY) {
+            low = 1;
+            high = 0;
+          } else {
+            high = Math.nextDown(constant);
+          }
+          break;
+        case LESS_THAN_OR_EQUAL:
+          high = constant;
+          break;
+        case GREATER_THAN:
+          if (constant == Double.POSITIVE_INFINITY) {
+            low = 1;
+            high = 0;
+          } else {
+            low = Math.nextUp(constant);
+          }
+          break;
+        case GREATER_THAN_OR_EQUAL:
+          low = constant;
+          break;
+        default:
+          low = constant;
+          high = constant;
+          break;
+      }
+      return new DoubleComparison(
+          vector, operator == Operator.NOT_EQUAL, new double[] {low}, new double[] {high});
+    }
+
+    @Override
+    Comparison merge(Comparison other, boolean and) {
+      if (!canMerge(other, and)) {
+        return null;
+      }
+      final DoubleComparison that = (DoubleComparison) other;
+      if (and) {
+        return new DoubleComparison(
+            vector,
+            false,
+            new double[] {Math.max(lows[0], that.lows[0])},
+            new double[] {Math.min(highs[0], that.highs[0])});
+      }
+      return new DoubleComparison(
+          vector, false, concat(lows, that.lows), concat(highs, that.highs));
+    }
+
+    @Override
+    int getNumComparisons() {
+      return lows.length;
+    }
+
+    @Override
+    void evaluateRanges(int records, byte[] matches, long data) {
+      for (int r = 0; r < lows.length; r++) {
+        final double low = lows[r];
+        final double high = highs[r];
+        final boolean first = r == 0;
+        for (int i = 0; i < records; i++) {
+          final double value =
+              Double.longBitsToDouble(PlatformDependent.getLong(data + ((long) i << 3)));
+          final byte match = (byte) (value >= low & value <= high ? 1 : 0);
+          matches[i] = first ? match : (byte) (matches[i] | match);
+        }
+      }
+    }
+
+    private static double[] concat(double[] left, double[] right) {
+      final double[] result = new double[left.length + right.length];
+      System.arraycopy(left, 0, result, 0, left.length);
+      System.arraycopy(right, 0, result, left.length, right.length);
+      return result;
+    }
+  }
+}
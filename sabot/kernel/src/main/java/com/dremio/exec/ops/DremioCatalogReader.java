@@ -386,6 +386,9 @@ public class DremioCatalogReader
     if (aClass.isInstance(this)) {
       return aClass.cast(this);
     }
+    if (aClass.isInstance(plannerCatalog)) {
+      return aClass.cast(plannerCatalog);
+    }
     return null;
   }
 }
@@ -39,6 +39,7 @@ import com.dremio.sabot.op.sender.partition.PartitionSenderOperator;
 import com.dremio.sabot.op.sender.roundrobin.RoundRobinOperator;
 import com.dremio.sabot.op.sender.single.SingleSenderOperator;
 import com.dremio.sabot.op.sort.external.ExternalSortStats;
+import com.dremio.sabot.op.sort.topn.TopNOperator;
 import com.dremio.sabot.op.tablefunction.TableFunctionOperator;
 import com.dremio.sabot.op.writer.WriterCommitterOperator;
 import com.dremio.sabot.op.writer.WriterOperator;
@@ -74,6 +75,7 @@ public class OperatorMetricRegistry {
     register(builder, CoreOperatorType.HASH_AGGREGATE_VALUE, HashAggStats.Metric.class);
     register(builder, CoreOperatorType.HASH_JOIN_VALUE, HashJoinStats.Metric.class);
     register(builder, CoreOperatorType.EXTERNAL_SORT_VALUE, ExternalSortStats.Metric.class);
+    register(builder, CoreOperatorType.TOP_N_SORT_VALUE, TopNOperator.Metric.class);
     register(builder, CoreOperatorType.HIVE_SUB_SCAN_VALUE, ScanOperator.Metric.class);
     register(builder, CoreOperatorType.MONGO_SUB_SCAN_VALUE, MongoStats.Metric.class);
     register(builder, CoreOperatorType.PARQUET_ROW_GROUP_SCAN_VALUE, ScanOperator.Metric.class);
@@ -37,6 +37,8 @@ public class HashAggregate extends AbstractSingle {
   private final boolean useSpill;
   private final float cardinality;
   private final int hashTableBatchSize;
+  // true for the first phase of a two phase aggregation, whose output is aggregated again
+  private final boolean partialAggregation;
 
   /* testing related parameters */
   private VectorizedHashAggSpillStats spillStats;
@@ -50,7 +52,8 @@ public class HashAggregate extends AbstractSingle {
       @JsonProperty("vectorize") boolean vectorize,
       @JsonProperty("useSpill") boolean useSpill,
       @JsonProperty("cardinality") float cardinality,
-      @JsonProperty("hashTableBatchSize") int hashTableBatchSize) {
+      @JsonProperty("hashTableBatchSize") int hashTableBatchSize,
+      @JsonProperty("partialAggregation") boolean partialAggregation) {
     super(props, child);
     this.groupByExprs = groupByExprs;
     this.aggrExprs = aggrExprs;
@@ -58,6 +61,28 @@ public class HashAggregate extends AbstractSingle {
     this.useSpill = useSpill;
     this.cardinality = cardinality;
     this.hashTableBatchSize = hashTableBatchSize;
+    this.partialAggregation = partialAggregation;
+  }
+
+  public HashAggregate(
+      OpProps props,
+      PhysicalOperator child,
+      List<NamedExpression> groupByExprs,
+      List<NamedExpression> aggrExprs,
+      boolean vectorize,
+      boolean useSpill,
+      float cardinality,
+      int hashTableBatchSize) {
+    this(
+        props,
+        child,
+        groupByExprs,
+        aggrExprs,
+        vectorize,
+        useSpill,
+        cardinality,
+        hashTableBatchSize,
+        false);
   }
 
   // for testing only
@@ -101,7 +126,15 @@ public class HashAggregate extends AbstractSingle {
   @Override
   protected PhysicalOperator getNewWithChild(PhysicalOperator child) {
     return new HashAggregate(
-        props, child, groupByExprs, aggrExprs, vectorize, useSpill, cardinality);
+        props,
+        child,
+        groupByExprs,
+        aggrExprs,
+        vectorize,
+        useSpill,
+        cardinality,
+        hashTableBatchSize,
+        partialAggregation);
   }
 
   @Override
@@ -113,6 +146,10 @@ public class HashAggregate extends AbstractSingle {
     return hashTableBatchSize;
   }
 
+  public boolean isPartialAggregation() {
+    return partialAggregation;
+  }
+
   @VisibleForTesting
   public VectorizedHashAggSpillStats getSpillStats() {
     return spillStats;
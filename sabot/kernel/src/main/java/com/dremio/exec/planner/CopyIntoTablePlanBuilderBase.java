@@ -136,6 +136,7 @@ public abstract class CopyIntoTablePlanBuilderBase {
   protected final ExtendedFormatOptions extendedFormatOptions;
   protected final CopyIntoQueryProperties queryProperties;
   protected final SimpleQueryContext queryContext;
+  private final boolean textBlockSplitEnabled;
 
   /***
    * Expand plans for 'COPY INTO' command
@@ -158,6 +159,8 @@ public abstract class CopyIntoTablePlanBuilderBase {
     this.copyIntoTableContext = copyIntoTableContext;
     this.userName = tableMetadata.getUser();
     this.queryContext = getQueryContext(context);
+    this.textBlockSplitEnabled =
+        context.getPlannerSettings().getOptions().getOption(ExecConstants.TEXT_BLOCK_SPLIT_ENABLED);
     final Catalog catalog =
         context
             .getCatalogService()
@@ -569,20 +572,23 @@ public abstract class CopyIntoTablePlanBuilderBase {
    * provided dir listing {@link Prel}.
    *
    * <p>The function type of the table function depends on the file type configured for the COPY
-   * INTO command. For text formats, the function will produce one split per file, for parquet we
-   * support intra-file splits via {@link
-   * com.dremio.sabot.exec.store.parquet.proto.ParquetProtobuf.ParquetBlockBasedSplitXAttr}.
+   * INTO command. For parquet we support intra-file splits via {@link
+   * com.dremio.sabot.exec.store.parquet.proto.ParquetProtobuf.ParquetBlockBasedSplitXAttr}. Large
+   * uncompressed text files are split into blocks when ON_ERROR is 'abort', the other modes and
+   * copy_errors report errors and load history per file and need the whole file in a single reader.
+   * JSON is always read one split per file.
    *
    * @param dirListingPrel dir listing predecessor operator
    * @return {@link TableFunctionPrel} representing a physical plan executing a dir listing followed
    *     by split generation.
    */
   private TableFunctionPrel buildSplitGenTableFunction(Prel dirListingPrel) {
-    boolean oneBlockSplitForWholeParquetFile = isSkipFile();
+    boolean oneSplitPerFile =
+        format.getType() == FileType.PARQUET ? isSkipFile() : !isTextBlockSplittable();
 
     TableFunctionContext tableFunctionContext =
         TableFunctionUtil.getSplitProducerTableFunctionContext(
-            tableMetadata, null, false, oneBlockSplitForWholeParquetFile);
+            tableMetadata, null, false, oneSplitPerFile);
     TableFunctionConfig.FunctionType functionType =
         format.getType() == FileType.PARQUET
             ? TableFunctionConfig.FunctionType.DIR_LISTING_SPLIT_GENERATION
@@ -937,6 +943,13 @@ public abstract class CopyIntoTablePlanBuilderBase {
     }
   }
 
+  private boolean isTextBlockSplittable() {
+    return format.getType() == FileType.TEXT
+        && CopyIntoQueryProperties.OnErrorOption.ABORT.equals(queryProperties.getOnErrorOption())
+        && !copyIntoTableContext.isValidationMode()
+        && textBlockSplitEnabled;
+  }
+
   private boolean isSkipFile() {
     return CopyIntoQueryProperties.OnErrorOption.SKIP_FILE.equals(
         queryProperties.getOnErrorOption());
@@ -44,6 +44,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiPredicate;
 import java.util.stream.Collectors;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rex.RexInputRef;
@@ -52,6 +53,7 @@ import org.apache.calcite.rex.RexVisitorImpl;
 import org.apache.calcite.sql.fun.SqlStdOperatorTable;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.PartitionStatsEntry;
 import org.apache.iceberg.PartitionStatsReader;
 import org.apache.iceberg.io.CloseableIterator;
 import org.apache.iceberg.io.InputFile;
@@ -149,6 +151,41 @@ public class PartitionStatsBasedPrunerCache implements RecordPrunerCache {
     return survivingRecords;
   }
 
+  /**
+   * Visits all the entries of the partition stats file of the table, until the visitor returns
+   * false. Returns true if there were entries and all of them were visited.
+   */
+  public boolean visitPartitionStats(BiPredicate<PartitionSpec, PartitionStatsEntry> visitor)
+      throws Exception {
+    if (storagePluginId == null
+        || partitionColumns == null
+        || StringUtils.isEmpty(partitionStatsFile)
+        || !(plugin instanceof SupportsIcebergRootPointer)) {
+      return false;
+    }
+
+    try (OperatorContextImpl operatorContext = newOperatorContext(context, scan)) {
+      PartitionSpec spec =
+          getCurrentPartitionSpec(tableMetadata.getDatasetConfig().getPhysicalDataset());
+      if (spec == null) {
+        spec = IcebergUtils.getIcebergPartitionSpec(batchSchema, partitionColumns, null);
+      }
+      InputFile inputFile = createInputFile(operatorContext);
+
+      boolean empty = true;
+      try (CloseableIterator<PartitionStatsEntry> entries =
+          new PartitionStatsReader(inputFile, spec).iterator()) {
+        while (entries.hasNext()) {
+          empty = false;
+          if (!visitor.test(spec, entries.next())) {
+            return false;
+          }
+        }
+      }
+      return !empty;
+    }
+  }
+
   private boolean shouldPrune() {
     boolean pruneConditionExists =
         pruneCondition != null
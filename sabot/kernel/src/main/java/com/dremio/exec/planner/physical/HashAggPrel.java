@@ -412,7 +412,8 @@ public class HashAggPrel extends AggregatePrel implements Prel {
         canVectorize,
         canSpill,
         1.0f,
-        hashTableBatchSize);
+        hashTableBatchSize,
+        getOperatorPhase() == OperatorPhase.PHASE_1of2);
   }
 
   // options.getOption(AGG_BOUNDED) &&
@@ -181,6 +181,12 @@ public class PlannerSettings implements Context {
       new BooleanValidator("planner.enable_hep_opt", true);
   public static final BooleanValidator ENABLE_PARTITION_PRUNING =
       new BooleanValidator("planner.enable_partition_pruning", true);
+  // answer COUNT, MIN and MAX aggregates grouped by partition columns of file system tables from
+  // their partition stats, without scanning them
+  public static final BooleanValidator ENABLE_PARTITION_STATS_AGGREGATE =
+      new BooleanValidator("planner.enable_partition_stats_aggregate", true);
+  public static final LongValidator PARTITION_STATS_AGGREGATE_MAX_GROUPS =
+      new RangeLongValidator("planner.partition_stats_aggregate.max_groups", 0, 1_000_000, 10_000);
   public static final String UNIONALL_DISTRIBUTE_KEY = "planner.enable_unionall_distribute";
   public static final BooleanValidator UNIONALL_DISTRIBUTE =
       new BooleanValidator(UNIONALL_DISTRIBUTE_KEY, true);
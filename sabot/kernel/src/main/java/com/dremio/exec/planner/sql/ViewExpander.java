@@ -22,6 +22,7 @@ import com.dremio.common.exceptions.ErrorHelper;
 import com.dremio.common.exceptions.UserException;
 import com.dremio.exec.catalog.CatalogIdentity;
 import com.dremio.exec.catalog.CatalogUser;
+import com.dremio.exec.ops.PlannerCatalog;
 import com.dremio.exec.ops.ViewExpansionContext;
 import com.dremio.exec.planner.acceleration.DremioMaterialization;
 import com.dremio.exec.planner.acceleration.ExpansionNode;
@@ -31,9 +32,14 @@ import com.dremio.exec.planner.logical.ViewTable;
 import com.dremio.exec.planner.sql.handlers.SqlToRelTransformer;
 import com.dremio.sabot.exec.context.ContextInformation;
 import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.ParentDataset;
 import com.dremio.service.users.SystemUser;
 import com.dremio.service.users.UserNotFoundException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.RelRoot;
 import org.apache.calcite.sql.SqlNode;
@@ -163,8 +169,16 @@ public class ViewExpander {
       builder = builder.withVersionContext(viewPath.getRoot(), viewTable.getVersionContext());
     }
     SqlValidatorAndToRelContext sqlValidatorAndToRelContext = builder.build();
-    final SqlNode parsedNode = sqlValidatorAndToRelContext.parse(queryString);
-    final SqlNode validatedNode = sqlValidatorAndToRelContext.validate(parsedNode);
+    final List<NamespaceKey> prefetchedParents =
+        prefetchParents(viewTable, sqlValidatorAndToRelContext);
+    final SqlNode validatedNode;
+    try {
+      final SqlNode parsedNode = sqlValidatorAndToRelContext.parse(queryString);
+      validatedNode = sqlValidatorAndToRelContext.validate(parsedNode);
+    } finally {
+      // the parents are looked up during validation, drop those the view no longer reads
+      discardPrefetchedParents(prefetchedParents, sqlValidatorAndToRelContext);
+    }
     Optional<RelRoot> defaultReflectionRoot =
         generateDefaultReflectionRelRoot(viewTable, sqlValidatorAndToRelContext, validatedNode);
     if (defaultReflectionRoot.isPresent()) {
@@ -177,6 +191,52 @@ public class ViewExpander {
     return RelRoot.of(expansionNode, root.validatedRowType, root.kind);
   }
 
+  /**
+   * Reads the datasets the view was saved with as parents at once, instead of one by one as the
+   * view is validated. Versioned parents are not in the namespace and are left out.
+   *
+   * @return the parents that were prefetched
+   */
+  private static List<NamespaceKey> prefetchParents(
+      final ViewTable viewTable, final SqlValidatorAndToRelContext sqlValidatorAndToRelContext) {
+    final DatasetConfig config = viewTable.getDatasetConfig();
+    if (config == null
+        || config.getVirtualDataset() == null
+        || config.getVirtualDataset().getParentsList() == null) {
+      return Collections.emptyList();
+    }
+    final List<NamespaceKey> parents =
+        config.getVirtualDataset().getParentsList().stream()
+            .filter(parent -> parent.getVersionContext() == null)
+            .map(ParentDataset::getDatasetPathList)
+            .filter(path -> path != null && !path.isEmpty())
+            .map(NamespaceKey::new)
+            .collect(Collectors.toList());
+    if (parents.size() < 2) {
+      return Collections.emptyList();
+    }
+    final PlannerCatalog plannerCatalog =
+        sqlValidatorAndToRelContext.getDremioCatalogReader().unwrap(PlannerCatalog.class);
+    if (plannerCatalog == null) {
+      return Collections.emptyList();
+    }
+    plannerCatalog.getMetadataCatalog().prefetchDatasets(parents);
+    return parents;
+  }
+
+  private static void discardPrefetchedParents(
+      final List<NamespaceKey> parents,
+      final SqlValidatorAndToRelContext sqlValidatorAndToRelContext) {
+    if (parents.isEmpty()) {
+      return;
+    }
+    final PlannerCatalog plannerCatalog =
+        sqlValidatorAndToRelContext.getDremioCatalogReader().unwrap(PlannerCatalog.class);
+    if (plannerCatalog != null) {
+      plannerCatalog.getMetadataCatalog().discardPrefetchedDatasets(parents);
+    }
+  }
+
   private Optional<RelRoot> generateDefaultReflectionRelRoot(
       final ViewTable viewTable,
       final SqlValidatorAndToRelContext sqlValidatorAndToRelContext,
@@ -19,12 +19,16 @@ package com.dremio.exec.store.dfs;
 import com.dremio.common.JSONOptions;
 import com.dremio.datastore.LegacyProtobufSerializer;
 import com.dremio.exec.catalog.conf.SourceType;
+import com.dremio.exec.ops.OptimizerRulesContext;
 import com.dremio.exec.physical.base.GroupScan;
 import com.dremio.exec.planner.logical.AggregateRel;
 import com.dremio.exec.planner.logical.ProjectRel;
 import com.dremio.exec.planner.logical.RelOptHelper;
+import com.dremio.exec.planner.logical.ValuesRel;
 import com.dremio.exec.planner.physical.DistributionTrait;
+import com.dremio.exec.planner.physical.PlannerSettings;
 import com.dremio.exec.planner.physical.Prel;
+import com.dremio.exec.planner.physical.PrelUtil;
 import com.dremio.exec.planner.physical.ProjectPrel;
 import com.dremio.exec.planner.physical.Prule;
 import com.dremio.exec.planner.physical.ValuesPrel;
@@ -40,6 +44,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.protobuf.InvalidProtocolBufferException;
 import java.io.IOException;
@@ -49,12 +54,14 @@ import java.util.Objects;
 import org.apache.calcite.plan.RelOptRuleCall;
 import org.apache.calcite.plan.RelOptRuleOperand;
 import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.rel.logical.LogicalValues;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
 import org.apache.calcite.rel.type.RelDataTypeField;
 import org.apache.calcite.rel.type.RelDataTypeFieldImpl;
 import org.apache.calcite.rel.type.RelRecordType;
 import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.sql.type.SqlTypeName;
 
@@ -69,6 +76,10 @@ import org.apache.calcite.sql.type.SqlTypeName;
  *
  * <p>Currently, only parquet group scan has the exact row count and column value count, obtained
  * from parquet row group info. This will save the cost to scan the whole parquet files.
+ *
+ * <p>Aggregates grouped by partition columns, with COUNT aggregates and MIN and MAX aggregates on
+ * partition columns, are converted into a ValuesPrel holding their results, computed from the
+ * partition stats of the table.
  */
 public class ConvertCountToDirectScan extends Prule {
 
@@ -76,30 +87,40 @@ public class ConvertCountToDirectScan extends Prule {
 
   private final SourceType type;
   private final int scanIndex;
+  private final OptimizerRulesContext context;
 
-  public static ConvertCountToDirectScan getAggProjOnScan(SourceType type) {
+  public static ConvertCountToDirectScan getAggProjOnScan(
+      SourceType type, OptimizerRulesContext context) {
     return new ConvertCountToDirectScan(
         RelOptHelper.some(
             AggregateRel.class,
             RelOptHelper.some(ProjectRel.class, RelOptHelper.any(FilesystemScanDrel.class))),
         type.value() + "Agg_on_proj_on_scan",
         2,
-        type);
+        type,
+        context);
   }
 
-  public static ConvertCountToDirectScan getAggOnScan(SourceType type) {
+  public static ConvertCountToDirectScan getAggOnScan(
+      SourceType type, OptimizerRulesContext context) {
     return new ConvertCountToDirectScan(
         RelOptHelper.some(AggregateRel.class, RelOptHelper.any(FilesystemScanDrel.class)),
         type.value() + "Agg_on_scan",
         1,
-        type);
+        type,
+        context);
   }
 
   private ConvertCountToDirectScan(
-      RelOptRuleOperand rule, String id, int scanIndex, SourceType type) {
+      RelOptRuleOperand rule,
+      String id,
+      int scanIndex,
+      SourceType type,
+      OptimizerRulesContext context) {
     super(rule, "ConvertCountToDirectScan:" + id);
     this.type = type;
     this.scanIndex = scanIndex;
+    this.context = context;
   }
 
   @Override
@@ -138,27 +159,40 @@ public class ConvertCountToDirectScan extends Prule {
         && tableMetadata.getDatasetConfig().getPhysicalDataset().getIcebergMetadataEnabled()) {
       return GroupScan.NO_COLUMN_STATS;
     }
+    long def = 0;
+    while (partitionChunks.hasNext()) {
+      long count = getAccurateColumnCount(name, partitionChunks.next());
+      if (count == GroupScan.NO_COLUMN_STATS) {
+        return GroupScan.NO_COLUMN_STATS;
+      }
+      def += count;
+    }
+    return def;
+  }
+
+  /**
+   * Returns the number of non null values of the given column in the given partition chunk, or
+   * {@link GroupScan#NO_COLUMN_STATS} if one of its splits has no value count for the column.
+   */
+  static long getAccurateColumnCount(String name, PartitionChunkMetadata partitionChunk) {
     long def = 0;
     int splitCount = 0;
     int columnObservation = 0;
-    while (partitionChunks.hasNext()) {
-      PartitionChunkMetadata partitionChunk = partitionChunks.next();
-      for (DatasetSplit split : partitionChunk.getDatasetSplits()) {
-        splitCount++;
-        ParquetDatasetSplitXAttr xattr;
-        try {
-          xattr =
-              LegacyProtobufSerializer.parseFrom(
-                  ParquetDatasetSplitXAttr.PARSER, split.getSplitExtendedProperty());
-        } catch (InvalidProtocolBufferException e) {
-          throw new RuntimeException("Could not deserialize Parquet split info", e);
-        }
-        for (ColumnValueCount c : xattr.getColumnValueCountsList()) {
-          if (c.getColumn().equalsIgnoreCase(name)) {
-            def += c.getCount();
-            columnObservation++;
-            break;
-          }
+    for (DatasetSplit split : partitionChunk.getDatasetSplits()) {
+      splitCount++;
+      ParquetDatasetSplitXAttr xattr;
+      try {
+        xattr =
+            LegacyProtobufSerializer.parseFrom(
+                ParquetDatasetSplitXAttr.PARSER, split.getSplitExtendedProperty());
+      } catch (InvalidProtocolBufferException e) {
+        throw new RuntimeException("Could not deserialize Parquet split info", e);
+      }
+      for (ColumnValueCount c : xattr.getColumnValueCountsList()) {
+        if (c.getColumn().equalsIgnoreCase(name)) {
+          def += c.getCount();
+          columnObservation++;
+          break;
         }
       }
     }
@@ -183,6 +217,7 @@ public class ConvertCountToDirectScan extends Prule {
     if (!(agg.getGroupCount() == 0
         && agg.getAggCallList().size() == 1
         && !agg.containsDistinctCall())) {
+      convertToPartitionStatsValues(call, agg, proj, scan);
       return;
     }
 
@@ -254,6 +289,46 @@ public class ConvertCountToDirectScan extends Prule {
               exprs,
               agg.getRowType());
       call.transformTo(newProj);
+    } else {
+      convertToPartitionStatsValues(call, agg, proj, scan);
+    }
+  }
+
+  /**
+   * Converts aggregates grouped by partition columns, such as " select dir0, count(*), max(dir1)
+   * from table group by dir0 ", into a ValuesPrel holding their results, see {@link
+   * PartitionStatsAggregates}.
+   */
+  private void convertToPartitionStatsValues(
+      RelOptRuleCall call, AggregateRel agg, ProjectRel proj, FilesystemScanDrel scan) {
+    final PlannerSettings settings = PrelUtil.getPlannerSettings(call.getPlanner());
+    if (!settings.getOptions().getOption(PlannerSettings.ENABLE_PARTITION_STATS_AGGREGATE)) {
+      return;
+    }
+
+    final ImmutableList<ImmutableList<RexLiteral>> tuples =
+        PartitionStatsAggregates.evaluate(
+            context,
+            agg,
+            proj,
+            scan,
+            settings.getOptions().getOption(PlannerSettings.PARTITION_STATS_AGGREGATE_MAX_GROUPS));
+    if (tuples == null) {
+      return;
+    }
+
+    final ValuesRel values =
+        ValuesRel.from(LogicalValues.create(agg.getCluster(), agg.getRowType(), tuples));
+    try {
+      call.transformTo(
+          new ValuesPrel(
+              agg.getCluster(),
+              agg.getTraitSet().plus(Prel.PHYSICAL).plus(DistributionTrait.SINGLETON),
+              values.getRowType(),
+              values.getTuplesAsJsonOptions(),
+              tuples.size()));
+    } catch (IOException e) {
+      throw Throwables.propagate(e);
     }
   }
 
@@ -15,9 +15,13 @@
  */
 package com.dremio.exec.store.dfs;
 
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.hadoop.HadoopCompressionCodecFactory;
 import com.dremio.exec.physical.config.TableFunctionConfig;
 import com.dremio.exec.store.SplitAndPartitionInfo;
 import com.dremio.exec.store.SplitIdentity;
+import com.dremio.io.CompressionCodecFactory;
+import com.dremio.io.file.Path;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.fragment.FragmentExecutionContext;
 import com.dremio.sabot.exec.store.easy.proto.EasyProtobuf;
@@ -30,13 +34,21 @@ import org.slf4j.LoggerFactory;
 /**
  * Table function converts input data file path and file size, and generates a VarBinary, which
  * contains serialised SplitAndPartitionInfo
+ *
+ * <p>Unless the function is configured to produce one split per file, uncompressed files are split
+ * into blocks of {@link ExecConstants#TEXT_SPLIT_SIZE}. Only formats whose readers can find the
+ * next record boundary on their own, i.e. text, should be planned that way.
  */
 public class EasySplitGenTableFunction extends DirListingSplitGenTableFunction {
   private static final Logger logger = LoggerFactory.getLogger(EasySplitGenTableFunction.class);
 
+  private final CompressionCodecFactory codecFactory = HadoopCompressionCodecFactory.DEFAULT;
+  private final long textBlockSize;
+
   public EasySplitGenTableFunction(
       FragmentExecutionContext fec, OperatorContext context, TableFunctionConfig functionConfig) {
     super(fec, context, functionConfig);
+    textBlockSize = context.getOptions().getOption(ExecConstants.TEXT_SPLIT_SIZE_VALIDATOR);
   }
 
   @Override
@@ -48,26 +60,39 @@ public class EasySplitGenTableFunction extends DirListingSplitGenTableFunction {
 
     PartitionProtobuf.NormalizedPartitionInfo partitionInfo = partitionInfoBuilder.build();
     final List<SplitAndPartitionInfo> splits = new ArrayList<>();
-    final EasyProtobuf.EasyDatasetSplitXAttr splitExtended =
-        EasyProtobuf.EasyDatasetSplitXAttr.newBuilder()
-            .setStart(this.currentStart)
-            .setPath(path)
-            .setLength(fileSize)
-            .build();
+    final boolean blockSplit = isBlockSplittable(path);
+    while (remainingSize > 0 && splits.size() < maxRecords) {
+      long splitSize = blockSplit ? Math.min(textBlockSize, remainingSize) : remainingSize;
+      final EasyProtobuf.EasyDatasetSplitXAttr splitExtended =
+          EasyProtobuf.EasyDatasetSplitXAttr.newBuilder()
+              .setStart(this.currentStart)
+              .setPath(path)
+              .setLength(splitSize)
+              .build();
 
-    splitsIdentity.add(
-        new SplitIdentity(
-            splitExtended.getPath(),
-            splitExtended.getStart(),
-            splitExtended.getLength(),
-            fileSize));
+      splitsIdentity.add(
+          new SplitIdentity(
+              splitExtended.getPath(),
+              splitExtended.getStart(),
+              splitExtended.getLength(),
+              fileSize));
 
-    final PartitionProtobuf.NormalizedDatasetSplitInfo.Builder splitInfo =
-        PartitionProtobuf.NormalizedDatasetSplitInfo.newBuilder()
-            .setPartitionId(partitionInfo.getId())
-            .setExtendedProperty(splitExtended.toByteString());
-    splits.add(new SplitAndPartitionInfo(partitionInfo, splitInfo.build()));
-    remainingSize = 0;
+      final PartitionProtobuf.NormalizedDatasetSplitInfo.Builder splitInfo =
+          PartitionProtobuf.NormalizedDatasetSplitInfo.newBuilder()
+              .setPartitionId(partitionInfo.getId())
+              .setExtendedProperty(splitExtended.toByteString());
+      splits.add(new SplitAndPartitionInfo(partitionInfo, splitInfo.build()));
+      remainingSize -= splitSize;
+      this.currentStart += splitSize;
+    }
     return splits;
   }
+
+  private boolean isBlockSplittable(String path) {
+    if (isOneSplitPerFile || fileSize <= textBlockSize) {
+      return false;
+    }
+    // compressed streams can only be read from the beginning
+    return codecFactory.getCodec(Path.of(path)) == null;
+  }
 }
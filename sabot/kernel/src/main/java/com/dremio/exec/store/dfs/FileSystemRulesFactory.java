@@ -338,8 +338,8 @@ public class FileSystemRulesFactory extends StoragePluginTypeRulesFactory {
             new IcebergFilesystemScanPrule(pluginType, optimizerContext),
             new DeltaLakeFilesystemScanPrule(pluginType, optimizerContext),
             new DeltaLakeFilesystemHistoryScanPrule(pluginType),
-            ConvertCountToDirectScan.getAggOnScan(pluginType),
-            ConvertCountToDirectScan.getAggProjOnScan(pluginType),
+            ConvertCountToDirectScan.getAggOnScan(pluginType, optimizerContext),
+            ConvertCountToDirectScan.getAggProjOnScan(pluginType, optimizerContext),
             new TableFilesFunctionScanPrule(pluginType),
             new FileSystemTableOptimizePrule(optimizerContext),
             new FileSystemVacuumTablePrule(optimizerContext),
@@ -0,0 +1,510 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs;
+
+import com.dremio.exec.ops.OptimizerRulesContext;
+import com.dremio.exec.physical.base.GroupScan;
+import com.dremio.exec.planner.logical.AggregateRel;
+import com.dremio.exec.planner.logical.ProjectRel;
+import com.dremio.exec.planner.logical.partition.PartitionStatsBasedPrunerCache;
+import com.dremio.exec.store.TableMetadata;
+import com.dremio.exec.store.iceberg.IcebergUtils;
+import com.dremio.service.namespace.DatasetHelper;
+import com.dremio.service.namespace.PartitionChunkMetadata;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.PartitionProtobuf.PartitionValue;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.UnsignedBytes;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+import org.apache.calcite.rel.core.Aggregate;
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeField;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.iceberg.PartitionField;
+import org.apache.iceberg.PartitionSpec;
+
+/**
+ * Evaluates an aggregate on a file system table from the statistics of its partitions, instead of
+ * scanning them. This is possible when the aggregate only groups by partition columns, and only has
+ * COUNT aggregates, or MIN and MAX aggregates on partition columns, as the partition values hold
+ * for all the rows of a partition.
+ *
+ * <p>The statistics are the partition values and column value counts of the partition chunks of the
+ * table, or for tables with Iceberg metadata, the entries of their partition stats file.
+ */
+final class PartitionStatsAggregates {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(PartitionStatsAggregates.class);
+
+  private static final Set<SqlTypeName> SUPPORTED_TYPES =
+      EnumSet.of(
+          SqlTypeName.BOOLEAN,
+          SqlTypeName.INTEGER,
+          SqlTypeName.BIGINT,
+          SqlTypeName.FLOAT,
+          SqlTypeName.DOUBLE,
+          SqlTypeName.CHAR,
+          SqlTypeName.VARCHAR);
+
+  private static final Object UNSUPPORTED_VALUE = new Object();
+
+  private PartitionStatsAggregates() {}
+
+  /**
+   * Returns the rows of the given aggregate, or null if they can't be evaluated from the partition
+   * stats, or if there are more than maxGroups groups.
+   */
+  static ImmutableList<ImmutableList<RexLiteral>> evaluate(
+      OptimizerRulesContext context,
+      AggregateRel agg,
+      ProjectRel proj,
+      FilesystemScanDrel scan,
+      long maxGroups) {
+    if (agg.getGroupType() != Aggregate.Group.SIMPLE || agg.containsDistinctCall()) {
+      return null;
+    }
+
+    // the data files of Iceberg and Delta Lake tables may have deleted rows
+    final DatasetConfig config = scan.getTableMetadata().getDatasetConfig();
+    if (DatasetHelper.isIcebergDataset(config) || DatasetHelper.isDeltaLakeDataset(config)) {
+      return null;
+    }
+
+    final List<String> partitionColumns = scan.getTableMetadata().validPartitionColumns();
+    final List<String> keyColumns = new ArrayList<>();
+    for (int key : agg.getGroupSet()) {
+      final RelDataTypeField field = toScanField(key, proj, scan);
+      if (!isSupportedPartitionColumn(field, partitionColumns)) {
+        return null;
+      }
+      keyColumns.add(field.getName().toLowerCase());
+    }
+
+    final List<AggregateSpec> specs = new ArrayList<>();
+    for (AggregateCall aggCall : agg.getAggCallList()) {
+      final AggregateSpec spec = toAggregateSpec(aggCall, agg, proj, scan, partitionColumns);
+      if (spec == null) {
+        return null;
+      }
+      specs.add(spec);
+    }
+
+    final Groups groups = new Groups(keyColumns, specs, maxGroups);
+    final boolean complete =
+        DatasetHelper.isInternalIcebergTable(config)
+            ? addPartitionStatsEntries(context, scan, groups)
+            : addPartitionChunks(scan.getTableMetadata(), groups);
+    if (!complete) {
+      return null;
+    }
+    return groups.toTuples(agg);
+  }
+
+  /** Adds the partition chunks of the table to the groups, returns false if a chunk can't be. */
+  private static boolean addPartitionChunks(TableMetadata tableMetadata, Groups groups) {
+    final Iterator<PartitionChunkMetadata> chunks = tableMetadata.getSplits();
+    while (chunks.hasNext()) {
+      final PartitionChunkMetadata chunk = chunks.next();
+      final Map<String, Object> partitionValues = new HashMap<>();
+      for (PartitionValue value : chunk.getPartitionValues()) {
+        partitionValues.put(value.getColumn().toLowerCase(), toJavaValue(value));
+      }
+      if (!groups.add(
+          chunk.getRowCount(),
+          partitionValues,
+          column -> ConvertCountToDirectScan.getAccurateColumnCount(column, chunk))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Adds the entries of the partition stats file of the table to the groups, returns false if the
+   * table has no partition stats or if an entry can't be added.
+   */
+  private static boolean addPartitionStatsEntries(
+      OptimizerRulesContext context, FilesystemScanDrel scan, Groups groups) {
+    if (context == null) {
+      return false;
+    }
+
+    final Map<String, Integer> positions = new HashMap<>();
+    try {
+      return new PartitionStatsBasedPrunerCache(context, scan, null, null)
+          .visitPartitionStats(
+              (spec, entry) -> {
+                if (positions.isEmpty() && !findIdentityPartitions(spec, positions)) {
+                  return false;
+                }
+                final Map<String, Object> partitionValues = new HashMap<>();
+                for (Map.Entry<String, Integer> position : positions.entrySet()) {
+                  partitionValues.put(
+                      position.getKey(),
+                      toJavaValue(entry.getPartition().get(position.getValue(), Object.class)));
+                }
+                return entry.getRecordCount() >= 0
+                    && groups.add(
+                        entry.getRecordCount(),
+                        partitionValues,
+                        column -> GroupScan.NO_COLUMN_STATS);
+              });
+    } catch (Exception e) {
+      logger.warn("Unable to read the partition stats of {}", scan.getTableMetadata().getName(), e);
+      return false;
+    }
+  }
+
+  /**
+   * Finds the positions of the partition columns in the given spec, returns false if a column is
+   * not partitioned by its values.
+   */
+  private static boolean findIdentityPartitions(
+      PartitionSpec spec, Map<String, Integer> positions) {
+    final List<PartitionField> fields = spec.fields();
+    for (int i = 0; i < fields.size(); i++) {
+      if (!fields.get(i).transform().isIdentity()) {
+        return false;
+      }
+      positions.put(IcebergUtils.getColumnName(fields.get(i), spec.schema()).toLowerCase(), i);
+    }
+    return !positions.isEmpty();
+  }
+
+  private static AggregateSpec toAggregateSpec(
+      AggregateCall aggCall,
+      AggregateRel agg,
+      ProjectRel proj,
+      FilesystemScanDrel scan,
+      List<String> partitionColumns) {
+    if (aggCall.isDistinct() || aggCall.filterArg >= 0) {
+      return null;
+    }
+
+    switch (aggCall.getAggregation().getKind()) {
+      case COUNT:
+        if (aggCall.getArgList().isEmpty()) {
+          return new AggregateSpec(AggregateKind.ROW_COUNT, null);
+        }
+        if (aggCall.getArgList().size() != 1) {
+          return null;
+        }
+        final int arg = aggCall.getArgList().get(0);
+        if (!agg.getInput().getRowType().getFieldList().get(arg).getType().isNullable()) {
+          return new AggregateSpec(AggregateKind.ROW_COUNT, null);
+        }
+        final RelDataTypeField countField = toScanField(arg, proj, scan);
+        if (countField == null) {
+          return null;
+        }
+        return new AggregateSpec(
+            isSupportedPartitionColumn(countField, partitionColumns)
+                ? AggregateKind.PARTITION_VALUE_COUNT
+                : AggregateKind.COLUMN_VALUE_COUNT,
+            countField.getName().toLowerCase());
+      case MIN:
+      case MAX:
+        final RelDataTypeField field = toScanField(aggCall.getArgList().get(0), proj, scan);
+        if (!isSupportedPartitionColumn(field, partitionColumns)) {
+          return null;
+        }
+        return new AggregateSpec(
+            aggCall.getAggregation().getKind() == SqlKind.MIN
+                ? AggregateKind.MIN
+                : AggregateKind.MAX,
+            field.getName().toLowerCase());
+      default:
+        return null;
+    }
+  }
+
+  /** Returns the scan field the given field of the aggregate input refers to, if any. */
+  private static RelDataTypeField toScanField(int index, ProjectRel proj, FilesystemScanDrel scan) {
+    if (proj != null) {
+      final RexNode expr = proj.getProjects().get(index);
+      if (!(expr instanceof RexInputRef)) {
+        return null;
+      }
+      index = ((RexInputRef) expr).getIndex();
+    }
+    return scan.getRowType().getFieldList().get(index);
+  }
+
+  private static boolean isSupportedPartitionColumn(
+      RelDataTypeField field, List<String> partitionColumns) {
+    return field != null
+        && SUPPORTED_TYPES.contains(field.getType().getSqlTypeName())
+        && partitionColumns.stream().anyMatch(c -> c.equalsIgnoreCase(field.getName()));
+  }
+
+  private static Object toJavaValue(PartitionValue value) {
+    if (value.hasBitValue()) {
+      return value.getBitValue();
+    } else if (value.hasIntValue()) {
+      return (long) value.getIntValue();
+    } else if (value.hasLongValue()) {
+      return value.getLongValue();
+    } else if (value.hasFloatValue()) {
+      return (double) value.getFloatValue();
+    } else if (value.hasDoubleValue()) {
+      return value.getDoubleValue();
+    } else if (value.hasStringValue()) {
+      return value.getStringValue();
+    } else if (value.hasBinaryValue()) {
+      return UNSUPPORTED_VALUE;
+    }
+    return null;
+  }
+
+  private static Object toJavaValue(Object value) {
+    if (value == null || value instanceof Boolean || value instanceof Long) {
+      return value;
+    } else if (value instanceof Integer) {
+      return ((Integer) value).longValue();
+    } else if (value instanceof Float) {
+      return ((Float) value).doubleValue();
+    } else if (value instanceof Double) {
+      return value;
+    } else if (value instanceof CharSequence) {
+      return value.toString();
+    }
+    return UNSUPPORTED_VALUE;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static int compare(Object left, Object right) {
+    if (left instanceof String) {
+      // strings are compared by their UTF-8 bytes, as VARCHAR values are
+      return UnsignedBytes.lexicographicalComparator()
+          .compare(
+              ((String) left).getBytes(StandardCharsets.UTF_8),
+              ((String) right).getBytes(StandardCharsets.UTF_8));
+    }
+    return ((Comparable<Object>) left).compareTo(right);
+  }
+
+  /** Returns the literal of the given value, or null if it doesn't match the given type. */
+  private static RexLiteral toLiteral(Object value, RelDataType type, RexBuilder rexBuilder) {
+    if (value == null) {
+      return type.isNullable() ? (RexLiteral) rexBuilder.makeNullLiteral(type) : null;
+    }
+
+    final boolean matches;
+    switch (type.getSqlTypeName()) {
+      case BOOLEAN:
+        matches = value instanceof Boolean;
+        break;
+      case INTEGER:
+      case BIGINT:
+        matches = value instanceof Long;
+        break;
+      case FLOAT:
+      case DOUBLE:
+        matches = value instanceof Double;
+        break;
+      case CHAR:
+      case VARCHAR:
+        matches = value instanceof String;
+        break;
+      default:
+        matches = false;
+    }
+    return matches ? (RexLiteral) rexBuilder.makeLiteral(value, type, false) : null;
+  }
+
+  /** The groups of the aggregate, and the values of their aggregates. */
+  private static final class Groups {
+    private final List<String> keyColumns;
+    private final List<AggregateSpec> specs;
+    private final long maxGroups;
+    private final Map<List<Object>, Object[]> groups = new LinkedHashMap<>();
+
+    private Groups(List<String> keyColumns, List<AggregateSpec> specs, long maxGroups) {
+      this.keyColumns = keyColumns;
+      this.specs = specs;
+      this.maxGroups = maxGroups;
+    }
+
+    /**
+     * Adds a partition to its group, returns false if its stats are missing or if there are too
+     * many groups.
+     *
+     * @param rowCount number of rows of the partition
+     * @param partitionValues values of the partition, by lower case column name
+     * @param columnValueCounts number of non null values of a column in the partition, or {@link
+     *     GroupScan#NO_COLUMN_STATS}
+     */
+    private boolean add(
+        long rowCount,
+        Map<String, Object> partitionValues,
+        ToLongFunction<String> columnValueCounts) {
+      if (rowCount == 0) {
+        // empty partitions don't form a group of their own
+        return true;
+      }
+
+      final List<Object> key = new ArrayList<>(keyColumns.size());
+      for (String column : keyColumns) {
+        final Object value = getPartitionValue(partitionValues, column);
+        if (value == UNSUPPORTED_VALUE) {
+          return false;
+        }
+        key.add(value);
+      }
+
+      Object[] accumulators = groups.get(key);
+      if (accumulators == null) {
+        if (groups.size() >= maxGroups) {
+          return false;
+        }
+        accumulators = newAccumulators();
+        groups.put(key, accumulators);
+      }
+
+      for (int i = 0; i < specs.size(); i++) {
+        final AggregateSpec spec = specs.get(i);
+        switch (spec.kind) {
+          case ROW_COUNT:
+            accumulators[i] = (Long) accumulators[i] + rowCount;
+            break;
+          case PARTITION_VALUE_COUNT:
+            {
+              final Object value = getPartitionValue(partitionValues, spec.column);
+              if (value == UNSUPPORTED_VALUE) {
+                return false;
+              }
+              if (value != null) {
+                accumulators[i] = (Long) accumulators[i] + rowCount;
+              }
+              break;
+            }
+          case COLUMN_VALUE_COUNT:
+            {
+              final long count = columnValueCounts.applyAsLong(spec.column);
+              if (count == GroupScan.NO_COLUMN_STATS) {
+                return false;
+              }
+              accumulators[i] = (Long) accumulators[i] + count;
+              break;
+            }
+          case MIN:
+          case MAX:
+            {
+              final Object value = getPartitionValue(partitionValues, spec.column);
+              if (value == UNSUPPORTED_VALUE) {
+                return false;
+              }
+              final Object current = accumulators[i];
+              if (value != null
+                  && (current == null
+                      || (spec.kind == AggregateKind.MIN
+                          ? compare(value, current) < 0
+                          : compare(value, current) > 0))) {
+                accumulators[i] = value;
+              }
+              break;
+            }
+          default:
+            throw new IllegalStateException("Unexpected aggregate " + spec.kind);
+        }
+      }
+      return true;
+    }
+
+    /** Returns the rows of the aggregate, or null if a value doesn't match its type. */
+    private ImmutableList<ImmutableList<RexLiteral>> toTuples(AggregateRel agg) {
+      if (groups.isEmpty()) {
+        if (!keyColumns.isEmpty()) {
+          // a Values with no rows has no schema, leave it to the scan
+          return null;
+        }
+        groups.put(Collections.emptyList(), newAccumulators());
+      }
+
+      final RexBuilder rexBuilder = agg.getCluster().getRexBuilder();
+      final List<RelDataTypeField> fields = agg.getRowType().getFieldList();
+      final ImmutableList.Builder<ImmutableList<RexLiteral>> tuples = ImmutableList.builder();
+      for (Map.Entry<List<Object>, Object[]> group : groups.entrySet()) {
+        final List<Object> row = new ArrayList<>(group.getKey());
+        row.addAll(Arrays.asList(group.getValue()));
+        final ImmutableList.Builder<RexLiteral> tuple = ImmutableList.builder();
+        for (int i = 0; i < row.size(); i++) {
+          final RexLiteral literal = toLiteral(row.get(i), fields.get(i).getType(), rexBuilder);
+          if (literal == null) {
+            return null;
+          }
+          tuple.add(literal);
+        }
+        tuples.add(tuple.build());
+      }
+      return tuples.build();
+    }
+
+    private Object[] newAccumulators() {
+      final Object[] accumulators = new Object[specs.size()];
+      for (int i = 0; i < specs.size(); i++) {
+        if (specs.get(i).kind.isCount()) {
+          accumulators[i] = 0L;
+        }
+      }
+      return accumulators;
+    }
+
+    /** Returns the value of the given column, or UNSUPPORTED_VALUE if the partition has none. */
+    private static Object getPartitionValue(Map<String, Object> partitionValues, String column) {
+      return partitionValues.containsKey(column) ? partitionValues.get(column) : UNSUPPORTED_VALUE;
+    }
+  }
+
+  private enum AggregateKind {
+    ROW_COUNT,
+    PARTITION_VALUE_COUNT,
+    COLUMN_VALUE_COUNT,
+    MIN,
+    MAX;
+
+    boolean isCount() {
+      return this == ROW_COUNT || this == PARTITION_VALUE_COUNT || this == COLUMN_VALUE_COUNT;
+    }
+  }
+
+  private static final class AggregateSpec {
+    private final AggregateKind kind;
+    private final String column;
+
+    private AggregateSpec(AggregateKind kind, String column) {
+      this.kind = kind;
+      this.column = column;
+    }
+  }
+}
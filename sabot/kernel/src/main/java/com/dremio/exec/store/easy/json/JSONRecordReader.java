@@ -37,6 +37,7 @@ import com.dremio.exec.store.easy.json.JsonProcessor.ReadState;
 import com.dremio.exec.store.easy.json.reader.CountingJsonReader;
 import com.dremio.exec.tablefunctions.copyerrors.ValidationErrorRowWriter;
 import com.dremio.exec.util.ColumnUtils;
+import com.dremio.exec.vector.complex.fn.IndexedJsonReader;
 import com.dremio.exec.vector.complex.fn.JsonReader;
 import com.dremio.exec.vector.complex.fn.JsonReaderIOException;
 import com.dremio.exec.vector.complex.fn.TransformationException;
@@ -330,6 +331,18 @@ public class JSONRecordReader extends AbstractRecordReader {
                   validationErrorRowWriter);
           setupParser(preValidatorJsonReader);
           recordBatchReadingStatus = RecordBatchReadingStatus.PRE_VALIDATION;
+        } else if (canUseIndexedReader()) {
+          this.jsonReader =
+              new IndexedJsonReader(
+                  context.getManagedBuffer(),
+                  ImmutableList.copyOf(getColumns()),
+                  sizeLimit,
+                  maxLeafLimit,
+                  readNumbersAsDouble,
+                  context
+                      .getOptions()
+                      .getOption(PlannerSettings.ENFORCE_VALID_JSON_DATE_FORMAT_ENABLED));
+          setupParser(jsonReader);
         } else {
           this.jsonReader =
               new JsonReader(
@@ -373,6 +386,19 @@ public class JSONRecordReader extends AbstractRecordReader {
     }
   }
 
+  /**
+   * The indexed reader covers plain reads of files. All text mode and the schema imposed reads of
+   * COPY INTO go through the token based reader.
+   */
+  private boolean canUseIndexedReader() {
+    return fsPath != null
+        && !enableAllTextMode
+        && !schemaImposedMode
+        && copyIntoQueryProperties == null
+        && !isValidationMode
+        && context.getOptions().getOption(ExecConstants.JSON_INDEXED_READER_ENABLED);
+  }
+
   private void setupParser(JsonProcessor jsonProcessor) throws IOException {
     if (fsPath != null) {
       jsonProcessor.setSource(stream);
@@ -44,6 +44,10 @@ public abstract class BaseJsonProcessor implements JsonProcessor {
     parser = MAPPER.getFactory().createParser(bytes);
   }
 
+  protected JsonParser createParser(byte[] bytes, int offset, int length) throws IOException {
+    return MAPPER.getFactory().createParser(bytes, offset, length);
+  }
+
   @Override
   public void setSource(JsonNode node) {
     this.parser = new TreeTraversingParser(node);
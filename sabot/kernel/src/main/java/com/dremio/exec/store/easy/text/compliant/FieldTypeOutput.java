@@ -17,6 +17,7 @@ package com.dremio.exec.store.easy.text.compliant;
 
 import com.dremio.common.exceptions.FieldSizeLimitExceptionHelper;
 import com.dremio.exec.exception.SchemaChangeException;
+import io.netty.util.internal.PlatformDependent;
 import java.util.List;
 import org.apache.arrow.vector.ValueVector;
 
@@ -97,6 +98,19 @@ abstract class FieldTypeOutput extends TextOutput {
     rowHasData = true;
   }
 
+  @Override
+  public void append(long address, int length) {
+    if (!collect) {
+      return;
+    }
+
+    FieldSizeLimitExceptionHelper.checkSizeLimit(
+        currentDataPointer + length, maxCellLimit, currentFieldIndex, logger);
+    PlatformDependent.copyMemory(address, fieldBytes, currentDataPointer, length);
+    currentDataPointer += length;
+    rowHasData = true;
+  }
+
   @Override
   public boolean endField() {
     fieldOpen = false;
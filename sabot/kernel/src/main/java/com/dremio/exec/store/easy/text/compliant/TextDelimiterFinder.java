@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.text.compliant;
+
+import io.netty.util.internal.PlatformDependent;
+import java.nio.ByteOrder;
+
+/**
+ * Locates the next occurrence of any of a small set of marker bytes (delimiters, quotes, line
+ * separators) in native memory. Eight bytes are tested at a time using SWAR arithmetic so that long
+ * runs of plain field content can be handed to the output in bulk rather than byte by byte.
+ */
+final class TextDelimiterFinder {
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGHS = 0x8080808080808080L;
+  private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+  private final byte[] markers;
+  private final long[] patterns;
+
+  TextDelimiterFinder(byte... markers) {
+    this.markers = markers.clone();
+    this.patterns = new long[markers.length];
+    for (int i = 0; i < markers.length; i++) {
+      patterns[i] = (markers[i] & 0xFFL) * ONES;
+    }
+  }
+
+  /**
+   * Finds the first marker byte in the given region.
+   *
+   * @param address start address of the region
+   * @param length number of bytes in the region
+   * @return offset of the first marker byte, or {@code length} if the region contains none
+   */
+  int find(long address, int length) {
+    int i = 0;
+    for (; i + Long.BYTES <= length; i += Long.BYTES) {
+      long word = PlatformDependent.getLong(address + i);
+      if (!LITTLE_ENDIAN) {
+        word = Long.reverseBytes(word);
+      }
+      long matches = 0;
+      for (long pattern : patterns) {
+        matches |= zeroBytes(word ^ pattern);
+      }
+      if (matches != 0) {
+        // the lowest flagged byte is always an exact match, borrows only spill towards higher bytes
+        return i + (Long.numberOfTrailingZeros(matches) >>> 3);
+      }
+    }
+    for (; i < length; i++) {
+      if (isMarker(PlatformDependent.getByte(address + i))) {
+        return i;
+      }
+    }
+    return length;
+  }
+
+  boolean isMarker(byte b) {
+    for (byte marker : markers) {
+      if (b == marker) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Sets the high bit of every byte of {@code word} that is zero. */
+  private static long zeroBytes(long word) {
+    return (word - ONES) & ~word & HIGHS;
+  }
+}
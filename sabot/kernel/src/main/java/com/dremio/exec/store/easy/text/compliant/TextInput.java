@@ -52,6 +52,8 @@ final class TextInput {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(TextInput.class);
 
   //  private static final int READ_CHARS_LIMIT = 1024*64;
+  private static final int LOOKAHEAD_BUFFER_SIZE = 64 * 1024;
+
   private final byte[] lineSeparator;
   private final byte normalizedLineSeparator;
   private final TextParsingSettings settings;
@@ -62,7 +64,13 @@ final class TextInput {
   /** The starting position in the file. */
   private final long startPos;
 
-  private final long endPos;
+  /**
+   * The end position of the split. Until {@link #endResolved} is set this is the nominal split end,
+   * afterwards the first record boundary at or after it.
+   */
+  private long endPos;
+
+  private boolean endResolved;
 
   private long streamPos;
 
@@ -73,11 +81,18 @@ final class TextInput {
   private final long bStart;
   private final long bStartMinus1;
 
-  /**
-   * Whether there was a possible partial line separator on the previous read so we dropped it and
-   * it should be appended to next read.
-   */
-  private int remByte = -1;
+  /** Locates record boundaries for splits that don't start or end at the file boundaries. */
+  private final TextRecordBoundaryFinder boundaryFinder;
+
+  private ByteBuffer lookaheadBuffer;
+
+  /** Markers ending a run of bytes that can be appended as is to an unquoted value. */
+  private final TextDelimiterFinder unquotedRunFinder;
+
+  /** Markers ending a run of bytes that can be appended as is to a quoted value. */
+  private final TextDelimiterFinder quotedRunFinder;
+
+  private final byte[] byteNType = new byte[2];
 
   /**
    * The current position in the buffer. (bufferPtr - 1) indicates the number of bytes that have
@@ -123,8 +138,19 @@ final class TextInput {
 
     this.startPos = startPos;
     this.endPos = endPos;
+    this.endResolved = isCompressed || endPos == Long.MAX_VALUE;
+    this.boundaryFinder = isCompressed ? null : new TextRecordBoundaryFinder(settings);
 
     this.normalizedLineSeparator = normalizedLineSeparator;
+    this.unquotedRunFinder =
+        new TextDelimiterFinder(
+            firstByte(settings.getDelimiter()), lineSeparator[0], normalizedLineSeparator);
+    this.quotedRunFinder =
+        new TextDelimiterFinder(
+            firstByte(settings.getQuote()),
+            firstByte(settings.getQuoteEscape()),
+            lineSeparator[0],
+            normalizedLineSeparator);
 
     this.buffer = readBuffer;
     this.bStart = buffer.memoryAddress();
@@ -133,28 +159,41 @@ final class TextInput {
         buffer.nioBuffer(0, LargeMemoryUtil.checkedCastToInt(buffer.capacity()));
   }
 
+  private byte firstByte(byte[] value) {
+    return value.length > 0 ? value[0] : normalizedLineSeparator;
+  }
+
   /**
-   * Test the input to position for read start. If the input is a non-zero split or splitFirstLine
-   * is enabled, input will move to appropriate complete line.
+   * Position the input for read start. A non-zero split moves to the first record boundary at or
+   * after its start, the same boundary the preceding split reads up to.
    *
    * @throws IOException
    */
-  final boolean start() throws IOException {
+  final void start() throws IOException {
     lineCount = 0;
     if (startPos > 0) {
-      input.setPosition(startPos);
+      long recordStart = findRecordBoundary(startPos);
+      if (!endResolved && recordStart >= endPos) {
+        // no record starts within this split, the preceding split reads all of them
+        length = -1;
+        endFound = true;
+        return;
+      }
+      input.setPosition(recordStart);
     }
 
     updateBuffer();
     if (startPos == 0) {
       skipOptionalBOM();
     }
-    if (length > 0) {
-      if (startPos > 0) {
-        return true;
-      }
-    }
-    return false;
+  }
+
+  /**
+   * @return true if this input starts at the beginning of the file, i.e. header and skipped lines
+   *     apply to it.
+   */
+  boolean isFileStart() {
+    return startPos == 0;
   }
 
   /**
@@ -179,12 +218,6 @@ final class TextInput {
    * @throws IOException
    */
   private void read() throws IOException {
-    if (remByte != -1) {
-      for (int i = 0; i <= remByte; i++) {
-        underlyingBuffer.put(lineSeparator[i]);
-      }
-      remByte = -1;
-    }
     length = input.read(underlyingBuffer);
   }
 
@@ -205,8 +238,12 @@ final class TextInput {
     read();
 
     // check our data read allowance.
-    if (streamPos + length >= this.endPos) {
-      updateLengthBasedOnConstraint();
+    if (!endResolved && streamPos + length > endPos) {
+      resolveEndPos();
+    }
+    if (endResolved && streamPos + length >= endPos) {
+      length = endPos > streamPos ? (int) (endPos - streamPos) : -1;
+      endFound = true;
     }
 
     charCount += bufferPtr;
@@ -217,30 +254,42 @@ final class TextInput {
   }
 
   /**
-   * Checks to see if we can go over the end of our bytes constraint on the data. If so, adjusts so
-   * that we can only read to the last character of the first line that crosses the split boundary.
+   * Moves the end of the split to the first record boundary at or after it, so that we read up to
+   * the end of the last record starting in this split, and no further. The bytes past the nominal
+   * end already in the buffer are examined first, anything beyond is read ahead without moving the
+   * stream.
    */
-  private void updateLengthBasedOnConstraint() {
-    final long max = bStart + length;
-    for (long m = bStart + (endPos - streamPos); m < max; m++) {
-      for (int i = 0; i < lineSeparator.length; i++) {
-        long mPlus = m + i;
-        if (mPlus < max) {
-          // we found a line separator and don't need to consult the next byte.
-          if (lineSeparator[i] == PlatformDependent.getByte(mPlus)
-              && i == lineSeparator.length - 1) {
-            length = (int) (mPlus - bStart) + 1;
-            endFound = true;
-            return;
-          }
-        } else {
-          // the last N characters of the read were remnant bytes. We'll hold off on dealing with
-          // these bytes until the next read.
-          remByte = i;
-          length = length - i;
-          return;
-        }
+  private void resolveEndPos() throws IOException {
+    int offset = (int) (endPos - streamPos);
+    boundaryFinder.reset();
+    long boundary = boundaryFinder.scan(bStart + offset, length - offset);
+    if (boundary < 0) {
+      boundary = continueBoundarySearch(streamPos + length);
+    }
+    endPos += boundary;
+    endResolved = true;
+  }
+
+  private long findRecordBoundary(long pos) throws IOException {
+    boundaryFinder.reset();
+    return pos + continueBoundarySearch(pos);
+  }
+
+  private long continueBoundarySearch(long readPos) throws IOException {
+    if (lookaheadBuffer == null) {
+      lookaheadBuffer = ByteBuffer.allocate(LOOKAHEAD_BUFFER_SIZE);
+    }
+    while (true) {
+      lookaheadBuffer.clear();
+      int read = input.read(readPos, lookaheadBuffer);
+      if (read <= 0) {
+        return boundaryFinder.finish();
+      }
+      long boundary = boundaryFinder.scan(lookaheadBuffer.array(), 0, read);
+      if (boundary >= 0) {
+        return boundary;
       }
+      readPos += read;
     }
   }
 
@@ -277,7 +326,7 @@ final class TextInput {
    * @throws IOException Reached End of Input
    */
   public byte[] nextChar() throws IOException {
-    byte[] byteNType = new byte[2];
+    byteNType[0] = 0;
     byte byteChar = nextCharNoNewLineCheck();
     byteNType[1] = byteChar;
     byte[] fieldSeparator = settings.getDelimiter();
@@ -295,6 +344,46 @@ final class TextInput {
     return byteNType;
   }
 
+  /**
+   * Hands the run of bytes from the current position up to the next field delimiter or line
+   * separator to the output in a single call. The returned run never includes the last byte of the
+   * buffer, refills and separator matching are left to {@link #nextChar()}.
+   *
+   * @param output output to append to, or null to skip the run
+   */
+  void consumeUnquotedRun(TextOutput output) {
+    consumeRun(unquotedRunFinder, output);
+  }
+
+  /**
+   * Same as {@link #consumeUnquotedRun(TextOutput)} for the content of a quoted value, the run ends
+   * at the next quote, quote escape or line separator.
+   *
+   * @param output output to append to, or null to skip the run
+   */
+  void consumeQuotedRun(TextOutput output) {
+    consumeRun(quotedRunFinder, output);
+  }
+
+  private void consumeRun(TextDelimiterFinder finder, TextOutput output) {
+    final int available = length - bufferPtr;
+    if (available <= 0) {
+      return;
+    }
+    final long address = bStartMinus1 + bufferPtr;
+    final int run = finder.find(address, available);
+    if (run == 0) {
+      return;
+    }
+    if (BoundsChecking.BOUNDS_CHECKING_ENABLED) {
+      buffer.checkBytes(bufferPtr - 1, bufferPtr - 1 + run);
+    }
+    if (output != null) {
+      output.append(address, run);
+    }
+    bufferPtr += run;
+  }
+
   /**
    * Get next byte from stream. Do no maintain any line count Will throw a
    * StreamFinishedPseudoException when the stream has run out of bytes.
@@ -168,6 +168,16 @@ final class TextReader implements AutoCloseable {
       }
     }
 
+    /** Appends the plain bytes following the current one in an unquoted value. */
+    public void appendUnquotedRun(TextInput input) {
+      input.consumeUnquotedRun(canAppend ? output : null);
+    }
+
+    /** Appends the plain bytes following the current one in a quoted value. */
+    public void appendQuotedRun(TextInput input) {
+      input.consumeQuotedRun(canAppend ? output : null);
+    }
+
     public void appendIgnoringWhitespace(byte cur) {
       if (canAppend) {
         output.appendIgnoringWhitespace(cur);
@@ -350,6 +360,7 @@ final class TextReader implements AutoCloseable {
           }
         } else {
           output.append(ch);
+          output.appendUnquotedRun(input);
         }
         parseNextChar();
       }
@@ -431,9 +442,11 @@ final class TextReader implements AutoCloseable {
           } else {
             isPrevQuoteEscape = false;
             output.append(ch);
+            output.appendQuotedRun(input);
           }
         } else {
           output.append(ch);
+          output.appendQuotedRun(input);
         }
       } else {
         if (!quoteNescapeSame) {
@@ -579,7 +592,13 @@ final class TextReader implements AutoCloseable {
    */
   public void start() throws IOException {
     context.stopped = false;
-    if (input.start() || settings.isSkipFirstLine()) {
+    input.start();
+    if (!input.isFileStart()) {
+      // a split past the beginning of the file is positioned on a record boundary by the input,
+      // header and skipped lines only apply to the first split
+      return;
+    }
+    if (settings.isSkipFirstLine()) {
       if (settings.isHeaderExtractionEnabled()) {
         // *also* ignore up empty Lines when isSkipFirstLine is set
         skipEmptyLine = true;
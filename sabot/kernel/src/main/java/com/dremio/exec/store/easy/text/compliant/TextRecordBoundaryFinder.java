@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.text.compliant;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Finds the first record boundary at or after an arbitrary offset of an uncompressed text file.
+ * Both the split ending at that offset and the split starting there run the same search over the
+ * same bytes, so they agree on which records each of them owns.
+ *
+ * <p>The offset may fall inside a quoted value, so the bytes are scanned under two hypotheses at
+ * once: the offset is outside quotes, or it is inside a quoted value. The boundary is the first
+ * line end that starts a record under every remaining hypothesis. If both remain plausible for too
+ * long the unquoted one wins, which is how split starts were resolved before.
+ *
+ * <p>When unescaped quotes are rejected, a hypothesis is dropped once it reaches input that is not
+ * well-formed under it, a quote inside an unquoted value or a closing quote followed by something
+ * other than whitespace or a delimiter. When they are allowed, which is the default, the reader
+ * accepts both as part of the value, so they are no evidence against a hypothesis: the search then
+ * relies on both hypotheses reaching the same record start, which happens at the first quote that
+ * one of them reads as an ordinary byte and the other one as a closing quote.
+ */
+final class TextRecordBoundaryFinder {
+  /** How far past the unquoted candidate to look for evidence against it. */
+  static final int DEFAULT_LOOKAHEAD = 64 * 1024;
+
+  private static final int NONE = Integer.MIN_VALUE;
+
+  private static final int DEAD = 0;
+  private static final int RECORD_START = 1;
+  private static final int FIELD_START = 2;
+  private static final int UNQUOTED = 3;
+  private static final int COMMENT = 4;
+  private static final int QUOTED = 5;
+  private static final int QUOTE_SEEN = 6;
+  private static final int ESCAPED = 7;
+  private static final int CLOSED = 8;
+
+  private final byte[] lineSeparator;
+  private final int normalizedLineSeparator;
+  private final int delimiter;
+  private final int quote;
+  private final int quoteEscape;
+  private final int comment;
+  private final boolean parseUnescapedQuotes;
+  private final int lookahead;
+
+  private long position;
+  private int separatorMatched;
+  private long firstNewLine;
+  private int outside;
+  private long outsideCandidate;
+  private int inside;
+  private long insideCandidate;
+  private long decided;
+
+  TextRecordBoundaryFinder(TextParsingSettings settings) {
+    this(settings, DEFAULT_LOOKAHEAD);
+  }
+
+  TextRecordBoundaryFinder(TextParsingSettings settings, int lookahead) {
+    this.lineSeparator = settings.getNewLineDelimiter();
+    this.normalizedLineSeparator = settings.getNormalizedNewLine();
+    this.delimiter = singleByte(settings.getDelimiter());
+    this.comment = singleByte(settings.getComment());
+    this.parseUnescapedQuotes = settings.isParseUnescapedQuotes();
+    this.lookahead = lookahead;
+    int quote = singleByte(settings.getQuote());
+    int quoteEscape = singleByte(settings.getQuoteEscape());
+    if (delimiter == NONE || quoteEscape == NONE) {
+      // multi-byte markers are not tracked, fall back to a quote unaware search
+      quote = NONE;
+    }
+    this.quote = quote;
+    this.quoteEscape = quoteEscape;
+    reset();
+  }
+
+  private static int singleByte(byte[] value) {
+    return value != null && value.length == 1 ? value[0] : NONE;
+  }
+
+  /** Starts a new search, offsets returned from here on are relative to the next byte scanned. */
+  void reset() {
+    position = 0;
+    separatorMatched = 0;
+    firstNewLine = -1;
+    outside = RECORD_START;
+    outsideCandidate = -1;
+    inside = quote == NONE ? DEAD : QUOTED;
+    insideCandidate = -1;
+  }
+
+  /**
+   * Scans bytes in native memory.
+   *
+   * @return offset of the record boundary if it could be decided, -1 if more input is needed
+   */
+  long scan(long address, int length) {
+    for (int i = 0; i < length; i++) {
+      if (step(PlatformDependent.getByte(address + i))) {
+        return decided;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Scans bytes from a heap array.
+   *
+   * @return offset of the record boundary if it could be decided, -1 if more input is needed
+   */
+  long scan(byte[] bytes, int offset, int length) {
+    for (int i = offset; i < offset + length; i++) {
+      if (step(bytes[i])) {
+        return decided;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Decides on a boundary once the end of the input has been reached.
+   *
+   * @return offset of the record boundary, the end of the input if no record starts after the
+   *     search offset
+   */
+  long finish() {
+    if (outside != DEAD && outsideCandidate >= 0) {
+      return outsideCandidate;
+    }
+    if (inside != DEAD && insideCandidate >= 0) {
+      return insideCandidate;
+    }
+    // the rest of the input belongs to the record in progress
+    return position;
+  }
+
+  /** Consumes one byte, returns true once the boundary is decided. */
+  private boolean step(byte b) {
+    final boolean newLine = isNewLine(b);
+    position++;
+    if (newLine && firstNewLine < 0) {
+      firstNewLine = position;
+    }
+
+    if (outside != DEAD) {
+      outside = advance(outside, b, newLine);
+      if (outside == RECORD_START && newLine && outsideCandidate < 0) {
+        outsideCandidate = position;
+      }
+    }
+    if (inside != DEAD) {
+      inside = advance(inside, b, newLine);
+      if (inside == RECORD_START && newLine && insideCandidate < 0) {
+        insideCandidate = position;
+      }
+    }
+
+    if (outside == DEAD && inside == DEAD) {
+      return decide(anyCandidate());
+    }
+    if (inside == DEAD) {
+      return decide(outsideCandidate);
+    }
+    if (outside == DEAD) {
+      return decide(insideCandidate);
+    }
+    if (newLine && outside == RECORD_START && inside == RECORD_START) {
+      // a record starts here whichever hypothesis holds
+      return decide(position);
+    }
+    if (outsideCandidate >= 0 && position - outsideCandidate >= lookahead) {
+      return decide(outsideCandidate);
+    }
+    return false;
+  }
+
+  private boolean decide(long candidate) {
+    if (candidate < 0) {
+      return false;
+    }
+    decided = candidate;
+    return true;
+  }
+
+  private long anyCandidate() {
+    if (outsideCandidate >= 0) {
+      return outsideCandidate;
+    }
+    return insideCandidate >= 0 ? insideCandidate : firstNewLine;
+  }
+
+  private boolean isNewLine(byte b) {
+    if (b == lineSeparator[separatorMatched]) {
+      separatorMatched++;
+    } else {
+      separatorMatched = b == lineSeparator[0] ? 1 : 0;
+    }
+    if (separatorMatched == lineSeparator.length) {
+      separatorMatched = 0;
+      return true;
+    }
+    return b == normalizedLineSeparator;
+  }
+
+  private int advance(int state, byte b, boolean newLine) {
+    switch (state) {
+      case RECORD_START:
+        if (!newLine && b == comment) {
+          return COMMENT;
+        }
+        if (!newLine && b != delimiter && TextReader.isWhite(b)) {
+          return RECORD_START;
+        }
+        return fieldStart(b, newLine);
+      case FIELD_START:
+        return fieldStart(b, newLine);
+      case UNQUOTED:
+        if (newLine) {
+          return RECORD_START;
+        }
+        if (b == quote && !parseUnescapedQuotes) {
+          return DEAD;
+        }
+        return b == delimiter ? FIELD_START : UNQUOTED;
+      case COMMENT:
+        return newLine ? RECORD_START : COMMENT;
+      case QUOTED:
+        if (b == quote) {
+          return QUOTE_SEEN;
+        }
+        return b == quoteEscape ? ESCAPED : QUOTED;
+      case QUOTE_SEEN:
+        if (b == quote) {
+          // doubled quote is an escaped quote
+          return QUOTED;
+        }
+        return closed(b, newLine);
+      case ESCAPED:
+        return b == quoteEscape ? ESCAPED : QUOTED;
+      case CLOSED:
+        return closed(b, newLine);
+      default:
+        return DEAD;
+    }
+  }
+
+  private int fieldStart(byte b, boolean newLine) {
+    if (newLine) {
+      return RECORD_START;
+    }
+    if (b == delimiter) {
+      return FIELD_START;
+    }
+    if (b == quote) {
+      return QUOTED;
+    }
+    return TextReader.isWhite(b) ? FIELD_START : UNQUOTED;
+  }
+
+  private int closed(byte b, boolean newLine) {
+    if (newLine) {
+      return RECORD_START;
+    }
+    if (b == delimiter) {
+      return FIELD_START;
+    }
+    if (TextReader.isWhite(b)) {
+      return CLOSED;
+    }
+    // an unescaped quote followed by other bytes is kept in the quoted value
+    return parseUnescapedQuotes ? advance(QUOTED, b, false) : DEAD;
+  }
+}
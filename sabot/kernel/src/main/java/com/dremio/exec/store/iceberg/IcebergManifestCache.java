@@ -0,0 +1,530 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.iceberg;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.tablefunction.TableFunctionOperator;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.apache.iceberg.ContentFile;
+import org.apache.iceberg.DremioManifestReaderUtils.ManifestEntryWrapper;
+import org.apache.iceberg.ManifestContent;
+import org.apache.iceberg.ManifestFile;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.io.CloseableIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executor-wide cache of decoded manifest entries.
+ *
+ * <p>Manifest files are immutable once written, so the live entries decoded for one query can be
+ * reused by any later scan of the same manifest read through the same source. Entries are keyed by
+ * source, manifest path and length and the cache is bounded by an estimate of their heap footprint.
+ * When a spill path is configured, manifests evicted from memory are written to local disk and
+ * restored from there on the next access instead of being re-read from the table's storage.
+ *
+ * <p>Manifests are read by the thread that first requests them, outside of any lock of the cache;
+ * concurrent requests for the same manifest wait for that read, and a failed read is not cached.
+ */
+public final class IcebergManifestCache {
+  private static final Logger logger = LoggerFactory.getLogger(IcebergManifestCache.class);
+
+  private static final long MB = 1024L * 1024L;
+
+  // A single manifest may take at most this fraction of the cache; larger ones are streamed.
+  private static final int MAX_ENTRY_FRACTION = 8;
+
+  private static final IcebergManifestCache INSTANCE =
+      new IcebergManifestCache(
+          ExecConstants.ICEBERG_MANIFEST_CACHE_MAX_SIZE_MB.getDefault().getNumVal() * MB,
+          ForkJoinPool.commonPool());
+
+  // Manifest lists are small and read once per scan, so they are only bounded by count.
+  private static final int MAX_MANIFEST_LISTS = 1_000;
+
+  private final AsyncCache<Key, CachedManifest> cache;
+  private final AsyncCache<ManifestListKey, List<ManifestFile>> manifestLists;
+  private volatile long maxSizeBytes;
+  private volatile SpillStore spillStore;
+  private String spillPath = "";
+  private long spillMaxSizeBytes;
+
+  @VisibleForTesting
+  IcebergManifestCache(long maxSizeBytes, Executor executor) {
+    this.maxSizeBytes = maxSizeBytes;
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumWeight(maxSizeBytes)
+            .weigher((Key key, CachedManifest value) -> value.getWeight())
+            .removalListener(this::onRemoval)
+            .executor(executor)
+            .buildAsync();
+    this.manifestLists =
+        Caffeine.newBuilder().maximumSize(MAX_MANIFEST_LISTS).executor(executor).buildAsync();
+  }
+
+  public static IcebergManifestCache getInstance() {
+    return INSTANCE;
+  }
+
+  /** Applies the current option values. Cheap to call for every operator that uses the cache. */
+  public void configure(OptionManager options) {
+    configure(
+        options.getOption(ExecConstants.ICEBERG_MANIFEST_CACHE_MAX_SIZE_MB) * MB,
+        options.getOption(ExecConstants.ICEBERG_MANIFEST_CACHE_SPILL_PATH),
+        options.getOption(ExecConstants.ICEBERG_MANIFEST_CACHE_SPILL_MAX_SIZE_MB) * MB);
+  }
+
+  @VisibleForTesting
+  synchronized void configure(long maxSizeBytes, String spillPath, long spillMaxSizeBytes) {
+    if (this.maxSizeBytes != maxSizeBytes) {
+      this.maxSizeBytes = maxSizeBytes;
+      cache
+          .synchronous()
+          .policy()
+          .eviction()
+          .ifPresent(eviction -> eviction.setMaximum(maxSizeBytes));
+    }
+
+    spillPath = Strings.nullToEmpty(spillPath);
+    if (!this.spillPath.equals(spillPath) || this.spillMaxSizeBytes != spillMaxSizeBytes) {
+      SpillStore previous = this.spillStore;
+      this.spillStore = null;
+      if (previous != null) {
+        previous.clear();
+      }
+      if (!spillPath.isEmpty()) {
+        try {
+          this.spillStore = new SpillStore(Paths.get(spillPath), spillMaxSizeBytes);
+        } catch (IOException e) {
+          logger.warn("Unable to use {} for spilling Iceberg manifests", spillPath, e);
+        }
+      }
+      this.spillPath = spillPath;
+      this.spillMaxSizeBytes = spillMaxSizeBytes;
+    }
+  }
+
+  /**
+   * Whether a manifest is small enough to be cached. Larger manifests should be streamed directly
+   * from storage so that a single one can't flush the whole cache.
+   */
+  public boolean isCacheable(ManifestFile manifestFile) {
+    return manifestFile.length() <= maxSizeBytes / MAX_ENTRY_FRACTION;
+  }
+
+  /**
+   * Returns the decoded entries of the given manifest, read through the given source, invoking the
+   * loader only if they are neither in memory nor in the local spill. Concurrent requests for the
+   * same manifest wait for a single load.
+   */
+  public CachedManifest get(
+      String pluginId,
+      ManifestFile manifestFile,
+      Function<ManifestFile, CachedManifest> loader,
+      OperatorStats operatorStats) {
+    Key key = new Key(pluginId, manifestFile.path(), manifestFile.length(), manifestFile.content());
+    AtomicBoolean spillHit = new AtomicBoolean(false);
+    AtomicBoolean loaded = new AtomicBoolean(false);
+    CachedManifest manifest =
+        getOrLoad(
+            cache,
+            key,
+            () -> {
+              SpillStore store = spillStore;
+              CachedManifest restored = store != null ? store.get(key) : null;
+              if (restored != null) {
+                spillHit.set(true);
+                return restored;
+              }
+              loaded.set(true);
+              return loader.apply(manifestFile);
+            });
+
+    TableFunctionOperator.Metric metric;
+    if (spillHit.get()) {
+      metric = TableFunctionOperator.Metric.NUM_MANIFEST_CACHE_SPILL_HITS;
+    } else if (loaded.get()) {
+      metric = TableFunctionOperator.Metric.NUM_MANIFEST_CACHE_MISSES;
+    } else {
+      metric = TableFunctionOperator.Metric.NUM_MANIFEST_CACHE_HITS;
+    }
+    operatorStats.addLongStat(metric, 1);
+    return manifest;
+  }
+
+  /**
+   * Returns the manifests of the given content type listed in a snapshot's manifest list, read
+   * through the given source, invoking the loader only on the first request for that manifest list.
+   */
+  public List<ManifestFile> getManifestList(
+      String pluginId,
+      String manifestListLocation,
+      ManifestContentType contentType,
+      Supplier<List<ManifestFile>> loader) {
+    return getOrLoad(
+        manifestLists,
+        new ManifestListKey(pluginId, manifestListLocation, contentType),
+        () -> Collections.unmodifiableList(loader.get()));
+  }
+
+  @VisibleForTesting
+  void invalidateAll() {
+    cache.synchronous().invalidateAll();
+    cache.synchronous().cleanUp();
+    manifestLists.synchronous().invalidateAll();
+  }
+
+  @VisibleForTesting
+  void cleanUp() {
+    cache.synchronous().cleanUp();
+  }
+
+  /**
+   * Returns the cached value of the key, or loads it on the calling thread. The load runs outside
+   * of the cache's compute so that slow reads never hold a lock shared with other keys. If the load
+   * fails, its future is completed exceptionally, which removes it from the cache, and threads that
+   * were waiting for it load the value themselves.
+   */
+  private static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Supplier<V> loader) {
+    CompletableFuture<V> future = new CompletableFuture<>();
+    CompletableFuture<V> existing = cache.asMap().putIfAbsent(key, future);
+    if (existing != null) {
+      try {
+        return existing.join();
+      } catch (CompletionException | CancellationException e) {
+        logger.debug("Concurrent load failed, loading without the cache", e);
+        return loader.get();
+      }
+    }
+
+    try {
+      V value = loader.get();
+      future.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      future.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private void onRemoval(Key key, CachedManifest value, RemovalCause cause) {
+    SpillStore store = spillStore;
+    if (store == null || key == null || value == null || cause != RemovalCause.SIZE) {
+      return;
+    }
+    store.put(key, value);
+  }
+
+  /** Live entries of one manifest, copied out of the reader so they can be shared read-only. */
+  public static final class CachedManifest {
+    private static final int ENTRY_OVERHEAD = 256;
+    private static final int MAP_ENTRY_OVERHEAD = 48;
+
+    private final PartitionSpec spec;
+    private final List<ManifestEntryWrapper<?>> entries;
+    private final int weight;
+
+    public CachedManifest(PartitionSpec spec, List<ManifestEntryWrapper<?>> entries) {
+      this.spec = Preconditions.checkNotNull(spec);
+      this.entries = Collections.unmodifiableList(entries);
+      long size = ENTRY_OVERHEAD;
+      for (ManifestEntryWrapper<?> entry : entries) {
+        size += estimateSize(entry.file());
+      }
+      this.weight = (int) Math.min(Integer.MAX_VALUE, size);
+    }
+
+    public PartitionSpec getSpec() {
+      return spec;
+    }
+
+    public int size() {
+      return entries.size();
+    }
+
+    public int getWeight() {
+      return weight;
+    }
+
+    public CloseableIterator<ManifestEntryWrapper<?>> iterator() {
+      return CloseableIterator.withClose(entries.iterator());
+    }
+
+    private static long estimateSize(ContentFile<?> file) {
+      long size = ENTRY_OVERHEAD + 2L * file.path().length();
+      size += estimateMapSize(file.columnSizes());
+      size += estimateMapSize(file.valueCounts());
+      size += estimateMapSize(file.nullValueCounts());
+      size += estimateMapSize(file.nanValueCounts());
+      size += estimateBoundsSize(file.lowerBounds());
+      size += estimateBoundsSize(file.upperBounds());
+      if (file.splitOffsets() != null) {
+        size += 24L * file.splitOffsets().size();
+      }
+      if (file.equalityFieldIds() != null) {
+        size += 16L * file.equalityFieldIds().size();
+      }
+      return size;
+    }
+
+    private static long estimateMapSize(Map<Integer, Long> map) {
+      return map == null ? 0 : (long) MAP_ENTRY_OVERHEAD * map.size();
+    }
+
+    private static long estimateBoundsSize(Map<Integer, ByteBuffer> bounds) {
+      if (bounds == null) {
+        return 0;
+      }
+      long size = 0;
+      for (ByteBuffer bound : bounds.values()) {
+        size += MAP_ENTRY_OVERHEAD + (bound == null ? 0 : bound.remaining());
+      }
+      return size;
+    }
+  }
+
+  private static final class Key {
+    private final String pluginId;
+    private final String path;
+    private final long length;
+    private final ManifestContent content;
+
+    private Key(String pluginId, String path, long length, ManifestContent content) {
+      this.pluginId = pluginId;
+      this.path = path;
+      this.length = length;
+      this.content = content;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return length == key.length
+          && content == key.content
+          && Objects.equals(pluginId, key.pluginId)
+          && Objects.equals(path, key.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(pluginId, path, length, content);
+    }
+  }
+
+  private static final class ManifestListKey {
+    private final String pluginId;
+    private final String location;
+    private final ManifestContentType contentType;
+
+    private ManifestListKey(String pluginId, String location, ManifestContentType contentType) {
+      this.pluginId = pluginId;
+      this.location = location;
+      this.contentType = contentType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      ManifestListKey key = (ManifestListKey) o;
+      return contentType == key.contentType
+          && Objects.equals(pluginId, key.pluginId)
+          && Objects.equals(location, key.location);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(pluginId, location, contentType);
+    }
+  }
+
+  /** Serialized form of a {@link CachedManifest}, as written to the local spill. */
+  private static final class SpilledManifest implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final PartitionSpec spec;
+    private final List<ContentFile<?>> files;
+    private final Long[] dataSequenceNumbers;
+    private final Long[] fileSequenceNumbers;
+
+    private SpilledManifest(CachedManifest manifest) {
+      this.spec = manifest.spec;
+      this.files = new ArrayList<>(manifest.entries.size());
+      this.dataSequenceNumbers = new Long[manifest.entries.size()];
+      this.fileSequenceNumbers = new Long[manifest.entries.size()];
+      int i = 0;
+      for (ManifestEntryWrapper<?> entry : manifest.entries) {
+        files.add(entry.file());
+        dataSequenceNumbers[i] = entry.sequenceNumber();
+        fileSequenceNumbers[i] = entry.fileSequenceNumber();
+        i++;
+      }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private CachedManifest restore() {
+      List<ManifestEntryWrapper<?>> entries = new ArrayList<>(files.size());
+      for (int i = 0; i < files.size(); i++) {
+        entries.add(
+            ManifestEntryWrapper.existing(
+                (ContentFile) files.get(i), dataSequenceNumbers[i], fileSequenceNumbers[i]));
+      }
+      return new CachedManifest(spec, entries);
+    }
+  }
+
+  /** Size-bounded, least-recently-used store of spilled manifests on local disk. */
+  private static final class SpillStore {
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final LinkedHashMap<Key, SpillFile> files = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeBytes;
+
+    private SpillStore(Path root, long maxSizeBytes) throws IOException {
+      // each executor process gets its own directory so restarts never pick up stale files
+      this.directory = Files.createDirectories(root.resolve("manifest-cache-" + UUID.randomUUID()));
+      this.maxSizeBytes = maxSizeBytes;
+    }
+
+    private CachedManifest get(Key key) {
+      SpillFile file;
+      synchronized (this) {
+        file = files.get(key);
+      }
+      if (file == null) {
+        return null;
+      }
+      try (ObjectInputStream in =
+          new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file.path)))) {
+        return ((SpilledManifest) in.readObject()).restore();
+      } catch (IOException | ClassNotFoundException | RuntimeException e) {
+        logger.debug("Unable to restore spilled manifest {}", key.path, e);
+        remove(key);
+        return null;
+      }
+    }
+
+    private void put(Key key, CachedManifest manifest) {
+      Path path = directory.resolve(UUID.randomUUID().toString());
+      Path tmp = directory.resolve(path.getFileName() + ".tmp");
+      try {
+        try (ObjectOutputStream out =
+            new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+          out.writeObject(new SpilledManifest(manifest));
+        }
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+        long size = Files.size(path);
+        synchronized (this) {
+          SpillFile previous = files.put(key, new SpillFile(path, size));
+          sizeBytes += size;
+          if (previous != null) {
+            sizeBytes -= previous.size;
+            delete(previous.path);
+          }
+          Iterator<SpillFile> it = files.values().iterator();
+          while (sizeBytes > maxSizeBytes && it.hasNext()) {
+            SpillFile eldest = it.next();
+            it.remove();
+            sizeBytes -= eldest.size;
+            delete(eldest.path);
+          }
+        }
+      } catch (IOException | RuntimeException e) {
+        logger.debug("Unable to spill manifest {}", key.path, e);
+        delete(tmp);
+        delete(path);
+      }
+    }
+
+    private synchronized void remove(Key key) {
+      SpillFile file = files.remove(key);
+      if (file != null) {
+        sizeBytes -= file.size;
+        delete(file.path);
+      }
+    }
+
+    private synchronized void clear() {
+      files.values().forEach(file -> delete(file.path));
+      files.clear();
+      sizeBytes = 0;
+      delete(directory);
+    }
+
+    private static void delete(Path path) {
+      try {
+        Files.deleteIfExists(path);
+      } catch (IOException e) {
+        logger.debug("Unable to delete {}", path, e);
+      }
+    }
+  }
+
+  private static final class SpillFile {
+    private final Path path;
+    private final long size;
+
+    private SpillFile(Path path, long size) {
+      this.path = path;
+      this.size = size;
+    }
+  }
+}
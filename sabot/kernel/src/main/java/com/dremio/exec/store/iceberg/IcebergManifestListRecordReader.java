@@ -17,6 +17,7 @@ package com.dremio.exec.store.iceberg;
 
 import static com.dremio.exec.ExecConstants.ENABLE_ICEBERG_MERGE_ON_READ_SCAN;
 import static com.dremio.exec.ExecConstants.ENABLE_ICEBERG_MERGE_ON_READ_SCAN_WITH_EQUALITY_DELETE;
+import static com.dremio.exec.ExecConstants.ICEBERG_MANIFEST_CACHE_ENABLED;
 import static com.dremio.exec.store.iceberg.IcebergUtils.createFileIOForIcebergMetadata;
 import static com.dremio.exec.store.iceberg.IcebergUtils.getValueFromByteBuffer;
 import static com.dremio.exec.store.iceberg.IcebergUtils.isNonAddOnField;
@@ -228,6 +229,20 @@ public class IcebergManifestListRecordReader implements RecordReader {
   }
 
   private List<ManifestFile> getManifests(Snapshot snapshot, FileIO io) {
+    if (snapshot.manifestListLocation() != null
+        && context.getOptions().getOption(ICEBERG_MANIFEST_CACHE_ENABLED)) {
+      // manifest lists are immutable, so the decoded list can be shared across scans
+      return IcebergManifestCache.getInstance()
+          .getManifestList(
+              datasourcePluginUID,
+              snapshot.manifestListLocation(),
+              manifestContent,
+              () -> readManifests(snapshot, io));
+    }
+    return readManifests(snapshot, io);
+  }
+
+  private List<ManifestFile> readManifests(Snapshot snapshot, FileIO io) {
     try {
       switch (manifestContent) {
         case DATA:
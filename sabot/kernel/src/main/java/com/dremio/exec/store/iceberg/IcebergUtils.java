@@ -264,7 +264,8 @@ public class IcebergUtils {
       return null;
     }
     Object value;
-    byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+    // read through a duplicate, bounds may be shared by scans reusing cached manifest entries
+    byteBuffer = byteBuffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
     switch (fieldType.typeId()) {
       case INTEGER:
       case DATE:
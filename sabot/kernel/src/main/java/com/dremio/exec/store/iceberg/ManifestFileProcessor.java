@@ -20,6 +20,7 @@ import static com.dremio.exec.store.iceberg.IcebergSerDe.deserializedJsonAsSchem
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.catalog.StoragePluginId;
 import com.dremio.exec.physical.base.OpProps;
 import com.dremio.exec.physical.config.ManifestScanFilters;
@@ -28,6 +29,7 @@ import com.dremio.exec.physical.config.TableFunctionConfig;
 import com.dremio.exec.physical.config.TableFunctionContext;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.store.iceberg.IcebergManifestCache.CachedManifest;
 import com.dremio.io.file.FileSystem;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
@@ -36,6 +38,7 @@ import com.dremio.sabot.op.tablefunction.TableFunctionOperator;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -50,6 +53,7 @@ import org.apache.iceberg.ManifestFile;
 import org.apache.iceberg.ManifestFiles;
 import org.apache.iceberg.ManifestReader;
 import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.io.CloseableIterator;
 import org.apache.iceberg.io.FileIO;
 import org.apache.iceberg.io.FilterIterator;
@@ -67,6 +71,7 @@ public class ManifestFileProcessor implements AutoCloseable {
   private final OperatorStats operatorStats;
   private final ManifestEntryProcessor manifestEntryProcessor;
   private final Configuration conf;
+  private final IcebergManifestCache manifestCache;
   private ManifestEntryWrapper<?> currentManifestEntry;
   private CloseableIterator<? extends ManifestEntryWrapper<?>> iterator;
   private ManifestReader<?> manifestReader;
@@ -104,6 +109,12 @@ public class ManifestFileProcessor implements AutoCloseable {
     this.manifestScanFilters =
         ((ManifestScanTableFunctionContext) functionConfig.getFunctionContext())
             .getManifestScanFilters();
+    if (context.getOptions().getOption(ExecConstants.ICEBERG_MANIFEST_CACHE_ENABLED)) {
+      this.manifestCache = IcebergManifestCache.getInstance();
+      this.manifestCache.configure(context.getOptions());
+    } else {
+      this.manifestCache = null;
+    }
   }
 
   public void setup(VectorAccessible incoming, VectorContainer outgoing) {
@@ -111,6 +122,17 @@ public class ManifestFileProcessor implements AutoCloseable {
   }
 
   public void setupManifestFile(ManifestFile manifestFile, int row) {
+    if (isManifestCacheable(manifestFile)) {
+      CachedManifest cachedManifest =
+          manifestCache.get(datasourcePluginUID, manifestFile, this::readManifest, operatorStats);
+      manifestReader = null;
+      iterator = cachedManifest.iterator();
+      applyManifestScanFilters(manifestFile);
+
+      manifestEntryProcessor.initialise(cachedManifest.getSpec(), row);
+      return;
+    }
+
     manifestReader = getManifestReader(manifestFile);
     if (manifestScanFilters.doesIcebergAnyColExpressionExists()) {
       manifestReader.filterRows(manifestScanFilters.getIcebergAnyColExpressionDeserialized());
@@ -122,6 +144,32 @@ public class ManifestFileProcessor implements AutoCloseable {
     manifestEntryProcessor.initialise(manifestReader.spec(), row);
   }
 
+  /**
+   * Row filters are evaluated by the manifest reader while decoding, so cached entries, which are
+   * decoded unfiltered, are only used when no row filter is pushed into the manifest scan.
+   */
+  private boolean isManifestCacheable(ManifestFile manifestFile) {
+    return manifestCache != null
+        && (manifestScanFilters == null || !manifestScanFilters.doesIcebergAnyColExpressionExists())
+        && manifestCache.isCacheable(manifestFile);
+  }
+
+  private CachedManifest readManifest(ManifestFile manifestFile) {
+    try (ManifestReader<?> reader = getManifestReader(manifestFile);
+        CloseableIterable<? extends ManifestEntryWrapper<?>> entries =
+            DremioManifestReaderUtils.liveManifestEntriesIterator(reader)) {
+      List<ManifestEntryWrapper<?>> copies = new ArrayList<>();
+      for (ManifestEntryWrapper<?> entry : entries) {
+        copies.add(entry.copy());
+      }
+      return new CachedManifest(reader.spec(), copies);
+    } catch (IOException e) {
+      throw UserException.ioExceptionError(e)
+          .message("Unable to read manifest file %s", manifestFile.path())
+          .buildSilently();
+    }
+  }
+
   private void applyManifestScanFilters(ManifestFile manifestFile) {
     // Primarily used by the compaction operation (OPTIMIZE TABLE), to filter down rewritable files.
     if (manifestScanFilters == null) {
@@ -45,6 +45,7 @@ public class EqualityDeleteFileReader implements AutoCloseable {
 
   private RecordReader reader;
   private SampleMutator mutator;
+  private boolean isSetup;
 
   public EqualityDeleteFileReader(
       OperatorContext context,
@@ -66,6 +67,7 @@ public class EqualityDeleteFileReader implements AutoCloseable {
 
   public void setup() throws ExecutionSetupException {
     reader.setup(mutator);
+    isSetup = true;
   }
 
   public List<SchemaPath> getEqualityFields() {
@@ -73,7 +75,16 @@ public class EqualityDeleteFileReader implements AutoCloseable {
   }
 
   public EqualityDeleteHashTable buildHashTable() {
+    return buildHashTable(context.getAllocator());
+  }
+
+  /** Builds the hash table of the delete file, allocating it from the given allocator. */
+  public EqualityDeleteHashTable buildHashTable(BufferAllocator tableAllocator) {
     try {
+      if (!isSetup) {
+        // setup is skipped when the table is expected to be shared by another fragment
+        setup();
+      }
       reader.allocate(mutator.getFieldVectorMap());
 
       List<FieldVector> equalityVectors =
@@ -81,7 +92,7 @@ public class EqualityDeleteFileReader implements AutoCloseable {
 
       try (EqualityDeleteHashTable.Builder builder =
               new EqualityDeleteHashTable.Builder(
-                  context.getAllocator(),
+                  tableAllocator,
                   equalityFields,
                   equalityVectors,
                   tableSize,
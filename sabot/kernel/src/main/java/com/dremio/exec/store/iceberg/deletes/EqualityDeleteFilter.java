@@ -168,7 +168,7 @@ public class EqualityDeleteFilter implements AutoCloseable {
 
       // then probe each table
       for (EqualityDeleteHashTable table : tableGroup.tables) {
-        table.find(records, fbv, vbv, outOrdinals);
+        table.find(allocator, records, fbv, vbv, outOrdinals);
 
         // for each row, if the key was found in the table, mark the row as invalid
         for (int i = 0; i < records; i++) {
@@ -15,6 +15,8 @@
  */
 package com.dremio.exec.store.iceberg.deletes;
 
+import static com.dremio.sabot.op.common.ht2.LBlockHashTable.ORDINAL_SIZE;
+
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.expression.SchemaPath;
 import com.dremio.sabot.op.common.ht2.FieldVectorPair;
@@ -28,6 +30,7 @@ import com.dremio.sabot.op.common.ht2.VariableBlockVector;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
 import com.koloboke.collect.hash.HashConfig;
+import io.netty.util.internal.PlatformDependent;
 import java.util.List;
 import java.util.stream.Collectors;
 import javax.annotation.concurrent.NotThreadSafe;
@@ -39,20 +42,52 @@ import org.apache.arrow.vector.FieldVector;
 /**
  * A simple wrapper around an Arrow-based hash table used to store equality delete keys. Both
  * insertions and lookups are done at a record-batch granularity.
+ *
+ * <p>Lookups first check a bloom filter over the hashes of the keys, so that the keys of most
+ * probed rows, which are not deleted, are not searched in the hash table. Once built, a table may
+ * be probed by several threads as long as each of them provides its own allocator, see {@link
+ * SharedEqualityDeleteTables}.
  */
 @NotThreadSafe
 public class EqualityDeleteHashTable implements AutoCloseable {
 
+  // bits of the bloom filter per key, and number of bits set per key
+  private static final int BLOOM_FILTER_BITS_PER_KEY = 8;
+  private static final int BLOOM_FILTER_NUM_HASHES = 2;
+
   private final BufferAllocator allocator;
   private final List<SchemaPath> equalityFields;
+  private final AutoCloseable owner;
 
   private LBlockHashTable table;
+  private ArrowBuf bloomFilter;
 
   public EqualityDeleteHashTable(
       BufferAllocator allocator, LBlockHashTable table, List<SchemaPath> equalityFields) {
+    this(allocator, table, null, equalityFields, null);
+  }
+
+  private EqualityDeleteHashTable(
+      BufferAllocator allocator,
+      LBlockHashTable table,
+      ArrowBuf bloomFilter,
+      List<SchemaPath> equalityFields,
+      AutoCloseable owner) {
     this.allocator = allocator;
     this.table = Preconditions.checkNotNull(table);
+    this.bloomFilter = bloomFilter;
     this.equalityFields = Preconditions.checkNotNull(equalityFields);
+    this.owner = owner;
+  }
+
+  /**
+   * Returns a view of this table whose close releases the given reference instead of closing the
+   * table.
+   */
+  EqualityDeleteHashTable newReference(AutoCloseable reference) {
+    Preconditions.checkState(table != null, "Table has been closed");
+    return new EqualityDeleteHashTable(
+        allocator, table, bloomFilter, equalityFields, Preconditions.checkNotNull(reference));
   }
 
   public List<SchemaPath> getEqualityFields() {
@@ -63,18 +98,90 @@ public class EqualityDeleteHashTable implements AutoCloseable {
     return table.size();
   }
 
+  /** Returns the memory held by the hash table and its bloom filter. */
+  public long getSizeInBytes() {
+    return table.getSizeInBytes() + (bloomFilter != null ? bloomFilter.capacity() : 0);
+  }
+
   public void find(
       int records, FixedBlockVector fbv, VariableBlockVector vbv, ArrowBuf outOrdinals) {
-    try (ArrowBuf hashValues = allocator.buffer(records * 8L)) {
+    find(allocator, records, fbv, vbv, outOrdinals);
+  }
+
+  /**
+   * Looks up the given pivoted keys, and writes the ordinal of each key in the table, or -1, to
+   * outOrdinals. The hash values of the keys are allocated from the given allocator.
+   */
+  public void find(
+      BufferAllocator probeAllocator,
+      int records,
+      FixedBlockVector fbv,
+      VariableBlockVector vbv,
+      ArrowBuf outOrdinals) {
+    try (ArrowBuf hashValues = probeAllocator.buffer(records * 8L)) {
       table.computeHash(records, fbv.getBuf(), vbv.getBuf(), 0, hashValues);
-      table.find(records, fbv.getBuf(), vbv.getBuf(), hashValues, outOrdinals);
+      if (bloomFilter == null) {
+        table.find(records, fbv.getBuf(), vbv.getBuf(), hashValues, outOrdinals);
+        return;
+      }
+
+      final long keyFixedAddr = fbv.getBuf().memoryAddress();
+      final long keyVarAddr = vbv.getBuf() == null ? 0 : vbv.getBuf().memoryAddress();
+      final long keyVarSize = vbv.getBuf() == null ? 0 : vbv.getBuf().capacity();
+      final long bloomAddr = bloomFilter.memoryAddress();
+      final long bloomMask = bloomFilter.capacity() * 8 - 1;
+      long hashAddr = hashValues.memoryAddress();
+      long outputAddr = outOrdinals.memoryAddress();
+      for (int i = 0; i < records; i++, hashAddr += 8, outputAddr += ORDINAL_SIZE) {
+        final long hash = PlatformDependent.getLong(hashAddr);
+        final int ordinal =
+            mightContain(bloomAddr, bloomMask, hash)
+                ? table.find(keyFixedAddr, keyVarAddr, keyVarSize, i, (int) hash)
+                : -1;
+        PlatformDependent.putInt(outputAddr, ordinal);
+      }
     }
   }
 
   @Override
   public void close() throws Exception {
-    AutoCloseables.close(table);
+    if (owner != null) {
+      // a reference to a shared table
+      if (table != null) {
+        table = null;
+        bloomFilter = null;
+        owner.close();
+      }
+      return;
+    }
+    AutoCloseables.close(table, bloomFilter);
     table = null;
+    bloomFilter = null;
+  }
+
+  private static boolean mightContain(long bloomAddr, long bloomMask, long hash) {
+    // the low bits of the hash pick the slot of the key in the table, so the filter uses the
+    // high bits
+    final long hash1 = hash >>> 32;
+    final long hash2 = hash >>> 16;
+    for (int i = 0; i < BLOOM_FILTER_NUM_HASHES; i++) {
+      final long bit = (hash1 + i * hash2) & bloomMask;
+      if ((PlatformDependent.getByte(bloomAddr + (bit >>> 3)) & (1 << (bit & 7))) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void put(long bloomAddr, long bloomMask, long hash) {
+    final long hash1 = hash >>> 32;
+    final long hash2 = hash >>> 16;
+    for (int i = 0; i < BLOOM_FILTER_NUM_HASHES; i++) {
+      final long bit = (hash1 + i * hash2) & bloomMask;
+      final long byteAddr = bloomAddr + (bit >>> 3);
+      PlatformDependent.putByte(
+          byteAddr, (byte) (PlatformDependent.getByte(byteAddr) | (1 << (bit & 7))));
+    }
   }
 
   public static class Builder implements AutoCloseable {
@@ -87,6 +194,7 @@ public class EqualityDeleteHashTable implements AutoCloseable {
     private final Stopwatch insertTimer = Stopwatch.createUnstarted();
 
     private LBlockHashTable table;
+    private ArrowBuf bloomFilter;
 
     public Builder(
         BufferAllocator allocator,
@@ -117,11 +225,18 @@ public class EqualityDeleteHashTable implements AutoCloseable {
                   batchSize,
                   null, // we want IS DISTINCT FROM comparison semantics
                   false));
+
+      // size of the bloom filter, a power of 2 number of bytes
+      final long bloomFilterBytes =
+          Long.highestOneBit(
+              Math.max(8L, (long) tableSize * BLOOM_FILTER_BITS_PER_KEY / 8) * 2 - 1);
+      this.bloomFilter = allocator.buffer(bloomFilterBytes);
+      bloomFilter.setZero(0, bloomFilter.capacity());
     }
 
     @Override
     public void close() throws Exception {
-      AutoCloseables.close(table);
+      AutoCloseables.close(table, bloomFilter);
     }
 
     public void insertBatch(int records, ArrowBuf outOrdinals) {
@@ -147,6 +262,14 @@ public class EqualityDeleteHashTable implements AutoCloseable {
                     "Only %d records out of %d were added to the HashTable",
                     recordsAdded, records));
           }
+
+          // STEP 4: finally we add the hashes of the keys to the bloom filter
+          final long bloomAddr = bloomFilter.memoryAddress();
+          final long bloomMask = bloomFilter.capacity() * 8 - 1;
+          final long hashAddr = hashValues.memoryAddress();
+          for (int i = 0; i < records; i++) {
+            put(bloomAddr, bloomMask, PlatformDependent.getLong(hashAddr + i * 8L));
+          }
         }
 
         insertTimer.stop();
@@ -155,9 +278,10 @@ public class EqualityDeleteHashTable implements AutoCloseable {
 
     public EqualityDeleteHashTable build() {
       EqualityDeleteHashTable resultTable =
-          new EqualityDeleteHashTable(allocator, table, equalityFields);
-      // null out table ref - resultTable now owns it
+          new EqualityDeleteHashTable(allocator, table, bloomFilter, equalityFields, null);
+      // null out table refs - resultTable now owns them
       table = null;
+      bloomFilter = null;
       return resultTable;
     }
   }
@@ -17,8 +17,12 @@ package com.dremio.exec.store.iceberg.deletes;
 
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.expression.SchemaPath;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.annotation.concurrent.NotThreadSafe;
@@ -26,18 +30,42 @@ import javax.annotation.concurrent.NotThreadSafe;
 /**
  * A closeable Supplier of {@link EqualityDeleteHashTable EqualityDeleteHashTable(s)} sourced from
  * one or more {@link EqualityDeleteFileReader} instances. Hash tables will not be built until get()
- * is called.
+ * is called. When {@link SharedEqualityDeleteTables} are provided, the tables are taken from them,
+ * and only built if no other fragment of the query has.
  */
 @NotThreadSafe
 public class LazyEqualityDeleteTableSupplier
     implements Supplier<List<EqualityDeleteHashTable>>, AutoCloseable {
 
   private final List<SchemaPath> allEqualityFields;
+  private final List<String> tableKeys;
+  private final SharedEqualityDeleteTables sharedTables;
+  private final OperatorStats stats;
   private List<EqualityDeleteFileReader> readers;
   private List<EqualityDeleteHashTable> tables;
 
   public LazyEqualityDeleteTableSupplier(List<EqualityDeleteFileReader> readers) {
+    this(readers, null, null, null);
+  }
+
+  /**
+   * @param tableKeys the key of the table of each reader in sharedTables
+   * @param sharedTables the tables shared by the fragments of the query, or null if the tables are
+   *     only used by this fragment
+   * @param stats stats to report the tables built to, may be null
+   */
+  public LazyEqualityDeleteTableSupplier(
+      List<EqualityDeleteFileReader> readers,
+      List<String> tableKeys,
+      SharedEqualityDeleteTables sharedTables,
+      OperatorStats stats) {
+    Preconditions.checkArgument(
+        sharedTables == null || (tableKeys != null && tableKeys.size() == readers.size()),
+        "A key is required for each shared table");
     this.readers = Preconditions.checkNotNull(readers);
+    this.tableKeys = tableKeys;
+    this.sharedTables = sharedTables;
+    this.stats = stats;
     this.tables = null;
     this.allEqualityFields =
         readers.stream()
@@ -50,17 +78,18 @@ public class LazyEqualityDeleteTableSupplier
   public List<EqualityDeleteHashTable> get() {
     Preconditions.checkState(readers != null || tables != null, "Instance has been closed");
     if (tables == null) {
-      tables =
-          readers.stream()
-              .map(
-                  reader -> {
-                    try {
-                      return reader.buildHashTable();
-                    } finally {
-                      AutoCloseables.close(RuntimeException.class, reader);
-                    }
-                  })
-              .collect(Collectors.toList());
+      final List<EqualityDeleteHashTable> builtTables = new ArrayList<>();
+      try {
+        for (int i = 0; i < readers.size(); i++) {
+          builtTables.add(buildOrGetSharedTable(i));
+        }
+      } catch (RuntimeException e) {
+        AutoCloseables.close(e, builtTables);
+        throw e;
+      } finally {
+        AutoCloseables.close(RuntimeException.class, readers);
+      }
+      tables = builtTables;
       readers = null;
     }
 
@@ -71,6 +100,19 @@ public class LazyEqualityDeleteTableSupplier
     return allEqualityFields;
   }
 
+  private EqualityDeleteHashTable buildOrGetSharedTable(int index) {
+    final EqualityDeleteFileReader reader = readers.get(index);
+    if (sharedTables != null) {
+      return sharedTables.getOrBuild(tableKeys.get(index), reader, stats);
+    }
+
+    final Stopwatch buildWatch = Stopwatch.createStarted();
+    final EqualityDeleteHashTable table = reader.buildHashTable();
+    SharedEqualityDeleteTables.addStats(
+        stats, buildWatch.elapsed(TimeUnit.NANOSECONDS), table.getSizeInBytes());
+    return table;
+  }
+
   @Override
   public void close() throws Exception {
     AutoCloseables.close(readers);
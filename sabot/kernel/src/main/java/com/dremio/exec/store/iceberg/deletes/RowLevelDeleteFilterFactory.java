@@ -21,10 +21,12 @@ import static com.dremio.sabot.op.tablefunction.TableFunctionOperator.Metric.PAR
 
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.exceptions.ExecutionSetupException;
+import com.dremio.exec.ExecConstants;
 import com.dremio.io.file.Path;
 import com.dremio.sabot.exec.context.DelegatingOperatorContext;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.exec.context.QuerySharedObjects;
 import com.dremio.sabot.exec.store.iceberg.proto.IcebergProtobuf;
 import com.google.common.base.Preconditions;
 import java.util.ArrayList;
@@ -74,9 +76,11 @@ import org.apache.iceberg.FileContent;
  * instance is cached. This instance will be used for subsequent row groups scanned for that data
  * file in the batch.
  *
- * <p>For equality deletes, neither filters nor the {@link EqualityDeleteHashTable} instances they
- * wrap are shared across data files. This is currently done to minimize memory use, as well as to
- * keep the implementation simple.
+ * <p>For equality deletes, filters are not shared across data files. The {@link
+ * EqualityDeleteHashTable} instances they wrap are taken from the {@link
+ * SharedEqualityDeleteTables} of the query on this node, so that the table of a delete file is
+ * built once and probed by all the data files, and fragments, that apply it. If sharing is
+ * disabled, each filter builds its own tables.
  *
  * <p>
  *
@@ -113,6 +117,7 @@ public class RowLevelDeleteFilterFactory implements AutoCloseable {
       new HashMap<>();
   private final Map<String, PositionalDeleteFilter> positionalDeleteFilters = new HashMap<>();
   private final Map<String, EqualityDeleteFilter> equalityDeleteFilters = new HashMap<>();
+  private final SharedEqualityDeleteTables sharedEqualityDeleteTables;
 
   private Map<String, DataFileInfo> dataFileInfo;
 
@@ -128,6 +133,7 @@ public class RowLevelDeleteFilterFactory implements AutoCloseable {
     this.context = createDeleteFileStatsContext(context);
     this.baseStats = context.getStats();
     this.readerFactory = Preconditions.checkNotNull(readerFactory);
+    this.sharedEqualityDeleteTables = getSharedEqualityDeleteTables(context);
   }
 
   public PositionalDeleteFilter createPositionalDeleteFilter(String dataFilePath) {
@@ -326,6 +332,12 @@ public class RowLevelDeleteFilterFactory implements AutoCloseable {
             deleteFile.getRecordCount(),
             deleteFile.getEqualityIds(),
             icebergColumnIds);
+    if (sharedEqualityDeleteTables != null
+        && sharedEqualityDeleteTables.isBuilt(getSharedTableKey(deleteFile))) {
+      // the table was built by another fragment, the reader is not setup so that the file is not
+      // prefetched, and is only used for its equality fields
+      return reader;
+    }
     try {
       reader.setup();
       baseStats.addLongStat(NUM_DELETE_FILE_READERS, 1);
@@ -356,14 +368,35 @@ public class RowLevelDeleteFilterFactory implements AutoCloseable {
           // built until EqualityDeleteFilter.setup is called once the associated data file has
           // started processing
           int initialRefCount = dataFileInfo.get(path).getNumRowGroups();
+          List<String> tableKeys =
+              deleteFiles.stream()
+                  .map(RowLevelDeleteFilterFactory::getSharedTableKey)
+                  .collect(Collectors.toList());
           return new EqualityDeleteFilter(
               context.getAllocator(),
-              new LazyEqualityDeleteTableSupplier(readers),
+              new LazyEqualityDeleteTableSupplier(
+                  readers, tableKeys, sharedEqualityDeleteTables, baseStats),
               initialRefCount,
               baseStats);
         });
   }
 
+  private static String getSharedTableKey(DeleteFileInfo deleteFile) {
+    return deleteFile.getPath() + ":" + deleteFile.getEqualityIds();
+  }
+
+  private static SharedEqualityDeleteTables getSharedEqualityDeleteTables(OperatorContext context) {
+    final QuerySharedObjects sharedObjects = context.getQuerySharedObjects();
+    if (sharedObjects == null
+        || !context
+            .getOptions()
+            .getOption(ExecConstants.ENABLE_ICEBERG_SHARED_EQUALITY_DELETE_TABLES)) {
+      return null;
+    }
+    return sharedObjects.getOrCreate(
+        SharedEqualityDeleteTables.class, SharedEqualityDeleteTables::new);
+  }
+
   private void updateBaseStats() {
     OperatorStats deleteStats = context.getStats();
     long bytesRead = deleteStats.getLongStat(PARQUET_BYTES_READ);
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.iceberg.deletes;
+
+import static com.dremio.sabot.op.tablefunction.TableFunctionOperator.Metric.EQ_DELETE_TABLE_BUILD_TIME_NS;
+import static com.dremio.sabot.op.tablefunction.TableFunctionOperator.Metric.EQ_DELETE_TABLE_MEMORY_BYTES;
+import static com.dremio.sabot.op.tablefunction.TableFunctionOperator.Metric.NUM_EQ_DELETE_TABLES_BUILT;
+import static com.dremio.sabot.op.tablefunction.TableFunctionOperator.Metric.NUM_EQ_DELETE_TABLES_SHARED;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.arrow.memory.BufferAllocator;
+
+/**
+ * The {@link EqualityDeleteHashTable EqualityDeleteHashTable(s)} of the equality delete files
+ * applied by the fragments of a query that run on this node. The table of a delete file is built
+ * once, by the first fragment that needs it, and is then probed by all of them.
+ *
+ * <p>Each fragment gets its own reference to a table, and the table is closed when the last
+ * reference is closed. The tables are allocated from a child of the query allocator, as they may
+ * outlive the fragment that built them.
+ */
+@ThreadSafe
+public class SharedEqualityDeleteTables implements AutoCloseable {
+
+  private final BufferAllocator allocator;
+  private final Map<String, Entry> entries = new HashMap<>();
+
+  public SharedEqualityDeleteTables(BufferAllocator queryAllocator) {
+    this.allocator =
+        queryAllocator.newChildAllocator("shared-equality-delete-tables", 0, Long.MAX_VALUE);
+  }
+
+  /** Returns true if the table with the given key has been built and is still referenced. */
+  public synchronized boolean isBuilt(String key) {
+    final Entry entry = entries.get(key);
+    return entry != null && entry.table != null;
+  }
+
+  /**
+   * Returns a new reference to the table with the given key, building it with the given reader if
+   * no other fragment has. The reader is closed in any case.
+   */
+  public EqualityDeleteHashTable getOrBuild(
+      String key, EqualityDeleteFileReader reader, OperatorStats stats) {
+    final Entry entry;
+    synchronized (this) {
+      entry = entries.computeIfAbsent(key, k -> new Entry());
+      entry.refCount++;
+    }
+
+    try {
+      // other fragments that need the table wait for it to be built
+      synchronized (entry) {
+        if (entry.table == null) {
+          final Stopwatch buildWatch = Stopwatch.createStarted();
+          entry.table = reader.buildHashTable(allocator);
+          addStats(stats, buildWatch.elapsed(TimeUnit.NANOSECONDS), entry.table.getSizeInBytes());
+        } else if (stats != null) {
+          stats.addLongStat(NUM_EQ_DELETE_TABLES_SHARED, 1);
+        }
+        return entry.table.newReference(() -> release(key, entry));
+      }
+    } catch (RuntimeException e) {
+      release(key, entry);
+      throw e;
+    } finally {
+      AutoCloseables.close(RuntimeException.class, reader);
+    }
+  }
+
+  static void addStats(OperatorStats stats, long buildTimeNanos, long tableSizeInBytes) {
+    if (stats != null) {
+      stats.addLongStat(NUM_EQ_DELETE_TABLES_BUILT, 1);
+      stats.addLongStat(EQ_DELETE_TABLE_BUILD_TIME_NS, buildTimeNanos);
+      stats.addLongStat(EQ_DELETE_TABLE_MEMORY_BYTES, tableSizeInBytes);
+    }
+  }
+
+  @VisibleForTesting
+  synchronized int size() {
+    return entries.size();
+  }
+
+  @Override
+  public void close() throws Exception {
+    final List<AutoCloseable> tables = new ArrayList<>();
+    synchronized (this) {
+      entries.values().forEach(e -> tables.add(e.table));
+      entries.clear();
+    }
+    AutoCloseables.close(tables);
+    allocator.close();
+  }
+
+  private void release(String key, Entry entry) {
+    final EqualityDeleteHashTable table;
+    synchronized (this) {
+      Preconditions.checkState(entry.refCount > 0);
+      if (--entry.refCount > 0 || entries.get(key) != entry) {
+        return;
+      }
+      entries.remove(key);
+      table = entry.table;
+    }
+    AutoCloseables.close(RuntimeException.class, table);
+  }
+
+  private static final class Entry {
+    private int refCount;
+    private volatile EqualityDeleteHashTable table;
+  }
+}
@@ -0,0 +1,401 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.util.ColumnUtils;
+import com.dremio.io.ArrowBufFSInputStream;
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.FSInputStream;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.scan.ScanOperator;
+import com.google.common.util.concurrent.Uninterruptibles;
+import io.netty.buffer.NettyArrowBuf;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.OutOfMemoryException;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+
+/**
+ * An InputStreamProvider for file systems with async reads, such as object stores, that reads the
+ * projected column chunks of a row group with a few large ranged reads instead of a stream per
+ * column, see {@link ColumnChunkRangePlanner}.
+ *
+ * <p>The reads of a row group are started by the first stream requested for one of its column
+ * chunks, so a provider that is created ahead of its split buffers nothing until the split is read.
+ * The reads of the next row group are started at the same time, if they fit in the buffer budget,
+ * so that they are done by the time the current row group is decoded. A provider buffers at most
+ * the configured number of bytes, the buffers of a row group are released once the reader moves two
+ * row groups past it. Column chunks that are not covered by a read, such as the ones of columns
+ * that are not projected or that did not fit in the buffer budget, are read with a stream of their
+ * own.
+ */
+public class CoalescingStreamProvider extends StreamPerColumnProvider {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(CoalescingStreamProvider.class);
+
+  private final Path path;
+  private final OperatorContext context;
+  private final BufferAllocator allocator;
+  private final ParquetScanProjectedColumns projectedColumns;
+  private final long maxGap;
+  private final long maxRangeSize;
+  private final long maxBufferedBytes;
+  private final AsyncByteReader reader;
+  // reads of the row groups, by row group index
+  private final Map<Integer, List<RangeRead>> rowGroupReads = new HashMap<>();
+  private long bufferedBytes;
+
+  public CoalescingStreamProvider(
+      FileSystem fs,
+      Path path,
+      long length,
+      long maxFooterLen,
+      MutableParquetMetadata footer,
+      OperatorContext context,
+      boolean readColumnOffsetIndexes,
+      ParquetFilters parquetFilters,
+      ParquetFilterCreator parquetFilterCreator,
+      ParquetScanProjectedColumns projectedColumns,
+      List<String> dataset,
+      long mTime)
+      throws IOException {
+    super(
+        fs,
+        path,
+        length,
+        maxFooterLen,
+        footer,
+        context,
+        readColumnOffsetIndexes,
+        parquetFilters,
+        parquetFilterCreator);
+    this.path = path;
+    this.context = context;
+    this.allocator = context.getAllocator();
+    this.projectedColumns = projectedColumns;
+    final OptionManager options = context.getOptions();
+    this.maxGap = options.getOption(ExecConstants.PARQUET_COALESCED_READS_MAX_GAP);
+    this.maxRangeSize = options.getOption(ExecConstants.PARQUET_COALESCED_READS_MAX_RANGE_SIZE);
+    this.maxBufferedBytes =
+        options.getOption(ExecConstants.PARQUET_COALESCED_READS_MAX_BUFFERED_BYTES);
+    this.reader =
+        fs.getAsyncByteReader(
+            AsyncByteReader.FileKey.of(
+                path, Long.toString(mTime), AsyncByteReader.FileKey.FileType.PARQUET, dataset),
+            Collections.emptyMap());
+  }
+
+  @Override
+  public BulkInputStream getStream(ColumnChunkMetaData column) throws IOException {
+    if (column == null) {
+      return super.getStream(null);
+    }
+
+    final MutableParquetMetadata footer = getFooter();
+    final int rowGroupIndex = findRowGroup(footer, column);
+    if (rowGroupIndex >= 0) {
+      // the row groups of a file are read in order, so the buffers of the row groups before the
+      // previous one are no longer needed
+      releaseRowGroupsBefore(rowGroupIndex - 1);
+      final List<RangeRead> reads = readRowGroup(footer, rowGroupIndex);
+      prefetchRowGroup(footer, rowGroupIndex + 1);
+      for (RangeRead read : reads) {
+        if (read.range.contains(column.getStartingPos(), column.getTotalSize())) {
+          return read.newStream(column);
+        }
+      }
+    }
+    return super.getStream(column);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      final List<AutoCloseable> toClose = new ArrayList<>();
+      rowGroupReads.values().forEach(toClose::addAll);
+      rowGroupReads.clear();
+      AutoCloseables.close(toClose, Collections.singletonList(reader));
+    } catch (IOException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    } finally {
+      super.close();
+    }
+  }
+
+  private static int findRowGroup(MutableParquetMetadata footer, ColumnChunkMetaData column) {
+    final List<BlockMetaData> blocks = footer.getBlocks();
+    for (int i = 0; i < blocks.size(); i++) {
+      final BlockMetaData block = blocks.get(i);
+      if (block != null
+          && column.getStartingPos() >= block.getStartingPos()
+          && column.getStartingPos() < block.getStartingPos() + block.getCompressedSize()) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** Starts the reads of the projected column chunks of the given row group, if not started yet. */
+  private List<RangeRead> readRowGroup(MutableParquetMetadata footer, int rowGroupIndex)
+      throws IOException {
+    List<RangeRead> reads = rowGroupReads.get(rowGroupIndex);
+    if (reads != null) {
+      return reads;
+    }
+
+    reads = new ArrayList<>();
+    rowGroupReads.put(rowGroupIndex, reads);
+    for (ColumnChunkRangePlanner.Range range : planRowGroup(footer, rowGroupIndex)) {
+      if (bufferedBytes + range.getLength() > maxBufferedBytes) {
+        // the column chunks of this range are read with a stream of their own
+        continue;
+      }
+      final ArrowBuf buf;
+      try {
+        buf = allocator.buffer(range.getLength());
+      } catch (OutOfMemoryException e) {
+        logger.debug(
+            "Unable to allocate {} bytes to read {} of {}", range.getLength(), range, path);
+        continue;
+      }
+      bufferedBytes += range.getLength();
+      reads.add(new RangeRead(range, buf));
+      addStats(range);
+    }
+    return reads;
+  }
+
+  /**
+   * Starts the reads of the given row group ahead of its first stream, if it has not been started
+   * yet and all its reads fit in the buffer budget. Otherwise its reads are left to its first
+   * stream, when the buffers of the row groups before it may have been released.
+   */
+  private void prefetchRowGroup(MutableParquetMetadata footer, int rowGroupIndex)
+      throws IOException {
+    if (rowGroupReads.containsKey(rowGroupIndex)) {
+      return;
+    }
+    final List<ColumnChunkRangePlanner.Range> ranges = planRowGroup(footer, rowGroupIndex);
+    if (ranges.isEmpty()) {
+      return;
+    }
+    long length = 0;
+    for (ColumnChunkRangePlanner.Range range : ranges) {
+      length += range.getLength();
+    }
+    if (bufferedBytes + length > maxBufferedBytes) {
+      return;
+    }
+    readRowGroup(footer, rowGroupIndex);
+  }
+
+  /** Returns the ranges to read the projected column chunks of the given row group with. */
+  private List<ColumnChunkRangePlanner.Range> planRowGroup(
+      MutableParquetMetadata footer, int rowGroupIndex) {
+    final BlockMetaData block =
+        rowGroupIndex < footer.getBlocks().size() ? footer.getBlocks().get(rowGroupIndex) : null;
+    if (block == null) {
+      return Collections.emptyList();
+    }
+
+    final Set<String> columns = projectedColumnNames(footer);
+    final List<ColumnChunkRangePlanner.Range> chunks = new ArrayList<>();
+    for (ColumnChunkMetaData column : block.getColumns()) {
+      if (columns == null || columns.contains(column.getPath().toArray()[0].toLowerCase())) {
+        chunks.add(ColumnChunkRangePlanner.of(column));
+      }
+    }
+    return ColumnChunkRangePlanner.coalesce(chunks, maxGap, maxRangeSize);
+  }
+
+  /** Returns the lower case names of the projected top-level columns, or null to read them all. */
+  private Set<String> projectedColumnNames(MutableParquetMetadata footer) {
+    final List<SchemaPath> columns =
+        projectedColumns
+            .getColumnResolver(footer.getFileMetaData().getSchema())
+            .getProjectedParquetColumns();
+    if (ColumnUtils.isStarQuery(columns)) {
+      return null;
+    }
+    return columns.stream()
+        .map(c -> c.getRootSegment().getNameSegment().getPath().toLowerCase())
+        .collect(Collectors.toSet());
+  }
+
+  private void releaseRowGroupsBefore(int rowGroupIndex) throws IOException {
+    final List<AutoCloseable> toClose = new ArrayList<>();
+    final Iterator<Map.Entry<Integer, List<RangeRead>>> it = rowGroupReads.entrySet().iterator();
+    while (it.hasNext()) {
+      final Map.Entry<Integer, List<RangeRead>> entry = it.next();
+      if (entry.getKey() < rowGroupIndex) {
+        toClose.addAll(entry.getValue());
+        it.remove();
+      }
+    }
+    try {
+      AutoCloseables.close(toClose);
+    } catch (IOException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+  }
+
+  private void addStats(ColumnChunkRangePlanner.Range range) {
+    final OperatorStats stats = context.getStats();
+    if (stats != null) {
+      stats.addLongStat(ScanOperator.Metric.PARQUET_COALESCED_READS, 1);
+      stats.addLongStat(ScanOperator.Metric.PARQUET_COALESCED_READ_BYTES, range.getLength());
+      stats.addLongStat(ScanOperator.Metric.PARQUET_COALESCED_WASTED_BYTES, range.getWastedBytes());
+    }
+  }
+
+  /** An asynchronous read of a range of the file, and the streams over its column chunks. */
+  private final class RangeRead implements AutoCloseable {
+    private final ColumnChunkRangePlanner.Range range;
+    private final ArrowBuf buf;
+    private final CompletableFuture<Void> future;
+    private final List<BulkInputStream> streams = new ArrayList<>();
+
+    private RangeRead(ColumnChunkRangePlanner.Range range, ArrowBuf buf) {
+      this.range = range;
+      this.buf = buf;
+      this.future =
+          reader.readFully(
+              range.getOffset(), NettyArrowBuf.unwrapBuffer(buf), 0, (int) range.getLength());
+    }
+
+    private BulkInputStream newStream(ColumnChunkMetaData column) throws IOException {
+      try (OperatorStats.WaitRecorder waitRecorder =
+          OperatorStats.getWaitRecorder(context.getStats())) {
+        Uninterruptibles.getUninterruptibly(future);
+      } catch (ExecutionException e) {
+        throw new IOException(
+            String.format("Failed to read range %s of %s", range, path), e.getCause());
+      }
+
+      final ArrowBuf slice =
+          buf.slice(column.getStartingPos() - range.getOffset(), column.getTotalSize());
+      // the stream releases the slice when closed
+      slice.getReferenceManager().retain();
+      final BulkInputStream stream =
+          BulkInputStream.wrap(
+              Streams.wrap(
+                  new OffsetInputStream(
+                      new ArrowBufFSInputStream(slice), column.getStartingPos())));
+      streams.add(stream);
+      return stream;
+    }
+
+    @Override
+    public void close() throws Exception {
+      try {
+        // the buffer can't be released while it is being read into
+        Uninterruptibles.getUninterruptibly(future);
+      } catch (ExecutionException e) {
+        // the read failure is reported to the stream that needs it, if any
+      }
+      bufferedBytes -= range.getLength();
+      AutoCloseables.close(streams, Collections.singletonList(buf));
+    }
+  }
+
+  /** A stream over the bytes of a file starting at a given offset, positioned in file offsets. */
+  private static final class OffsetInputStream extends FSInputStream {
+    private final FSInputStream in;
+    private final long offset;
+
+    private OffsetInputStream(FSInputStream in, long offset) {
+      this.in = in;
+      this.offset = offset;
+    }
+
+    @Override
+    public int read() throws IOException {
+      return in.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      return in.read(b, off, len);
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      return in.read(dst);
+    }
+
+    @Override
+    public int read(long position, ByteBuffer dst) throws IOException {
+      return in.read(toStreamPosition(position), dst);
+    }
+
+    @Override
+    public long getPosition() throws IOException {
+      return in.getPosition() + offset;
+    }
+
+    @Override
+    public void setPosition(long position) throws IOException {
+      in.setPosition(toStreamPosition(position));
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      return in.skip(n);
+    }
+
+    @Override
+    public int available() throws IOException {
+      return in.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+
+    private long toStreamPosition(long position) throws IOException {
+      if (position < offset) {
+        throw new EOFException("Cannot move before the start of the range");
+      }
+      return position - offset;
+    }
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+
+/**
+ * Plans the ranged reads of the column chunks of a row group. Column chunks that are close to each
+ * other in the file are coalesced into a single read, as on object stores the cost of a request
+ * dominates the cost of reading the bytes between two chunks.
+ */
+public final class ColumnChunkRangePlanner {
+
+  private ColumnChunkRangePlanner() {}
+
+  /** Returns the range of the file that holds the given column chunk. */
+  public static Range of(ColumnChunkMetaData column) {
+    return new Range(column.getStartingPos(), column.getTotalSize(), column.getTotalSize());
+  }
+
+  /**
+   * Coalesces the given ranges into the ranges to read. Two ranges are read together if the gap
+   * between them is at most maxGap bytes, and the coalesced range is at most maxRangeSize bytes. A
+   * range larger than maxRangeSize is read on its own.
+   *
+   * @param ranges ranges of the column chunks, in any order
+   * @param maxGap maximum number of bytes read but not used between two coalesced ranges
+   * @param maxRangeSize maximum size of a coalesced range
+   * @return the ranges to read, ordered by offset
+   */
+  public static List<Range> coalesce(List<Range> ranges, long maxGap, long maxRangeSize) {
+    Preconditions.checkArgument(maxGap >= 0, "maxGap must not be negative");
+    final List<Range> sorted = new ArrayList<>(ranges);
+    sorted.sort(Comparator.comparingLong(Range::getOffset));
+
+    final List<Range> coalesced = new ArrayList<>();
+    Range current = null;
+    for (Range range : sorted) {
+      if (current != null
+          && range.getOffset() - current.getEnd() <= maxGap
+          && Math.max(current.getEnd(), range.getEnd()) - current.getOffset() <= maxRangeSize) {
+        current = current.merge(range);
+      } else {
+        if (current != null) {
+          coalesced.add(current);
+        }
+        current = range;
+      }
+    }
+    if (current != null) {
+      coalesced.add(current);
+    }
+    return coalesced;
+  }
+
+  /** A range of a file, and how many of its bytes belong to the column chunks read. */
+  public static final class Range {
+    private final long offset;
+    private final long length;
+    private final long usedBytes;
+
+    public Range(long offset, long length, long usedBytes) {
+      Preconditions.checkArgument(offset >= 0 && length >= 0, "Invalid range");
+      this.offset = offset;
+      this.length = length;
+      this.usedBytes = usedBytes;
+    }
+
+    public long getOffset() {
+      return offset;
+    }
+
+    public long getLength() {
+      return length;
+    }
+
+    public long getEnd() {
+      return offset + length;
+    }
+
+    /** Returns the number of bytes of the range that do not belong to any column chunk read. */
+    public long getWastedBytes() {
+      return length - usedBytes;
+    }
+
+    /** Returns true if this range holds the given range. */
+    public boolean contains(long otherOffset, long otherLength) {
+      return otherOffset >= offset && otherOffset + otherLength <= getEnd();
+    }
+
+    private Range merge(Range other) {
+      final long end = Math.max(getEnd(), other.getEnd());
+      // bytes of overlapping ranges are only counted once
+      final long overlap = Math.max(0, Math.min(getEnd(), other.getEnd()) - other.getOffset());
+      return new Range(offset, end - offset, usedBytes + other.usedBytes - overlap);
+    }
+
+    @Override
+    public String toString() {
+      return "[" + offset + ", " + getEnd() + ")";
+    }
+  }
+}
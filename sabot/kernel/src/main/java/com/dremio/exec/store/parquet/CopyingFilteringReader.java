@@ -259,7 +259,7 @@ public class CopyingFilteringReader implements RecordReader {
     }
   }
 
-  private static class SV2Holder implements VectorAccessible {
+  static class SV2Holder implements VectorAccessible {
 
     private final SelectionVector2 sv2;
 
@@ -93,6 +93,23 @@ public interface InputStreamProviderFactory {
 
           final long maxFooterLen =
               context.getOptions().getOption(ExecConstants.PARQUET_MAX_FOOTER_LEN_VALIDATOR);
+          if (!useSingleStream
+              && options.getOption(ExecConstants.PARQUET_COALESCED_READS)
+              && fs.supportsAsync()) {
+            return new CoalescingStreamProvider(
+                fs,
+                path,
+                fileLength,
+                maxFooterLen,
+                footerIfKnown,
+                context,
+                readColumnIndices,
+                parquetFilters,
+                parquetFilterCreator,
+                projectedColumns,
+                dataset,
+                mTime);
+          }
           return useSingleStream
               ? new SingleStreamProvider(
                   fs,
@@ -38,5 +38,12 @@ public class ParquetReaderStats {
   public long timeDictPagesDecompressed;
   public long timePagesDecompressed;
 
+  // data pages skipped without being decompressed, as none of their rows were selected
+  public long numPagesSkipped;
+  public long totalPageSkippedBytes;
+
+  // data pages decompressed ahead on the helper pool, while the previous pages were read
+  public long numPagesDecompressedAhead;
+
   public ParquetReaderStats() {}
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.exec.expr.ClassGenerator;
+import com.dremio.exec.expr.ReturnValueExpression;
+import com.dremio.exec.expr.TypeHelper;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.exec.store.RecordReader;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.filter.Filterer;
+import com.dremio.sabot.op.scan.MutatorSchemaChangeCallBack;
+import com.dremio.sabot.op.scan.ScanOperator;
+import com.dremio.sabot.op.scan.ScanOperator.ScanMutator;
+import com.google.common.base.Stopwatch;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.types.pojo.Field;
+
+/**
+ * Finds the rows of a row group that pass the filters pushed down into the scan, by reading only
+ * the columns the filters refer to and evaluating the filters on them. The other projected columns
+ * are then only decoded for these rows, see {@link
+ * com.dremio.exec.store.parquet2.ParquetRowiseReader#setRowSelector(ParquetRowSelector)}.
+ */
+public class ParquetRowSelector implements AutoCloseable {
+  private final OperatorContext context;
+  private final RecordReader filterColumnsReader;
+  private final List<Field> filterFields;
+  private final LogicalExpression filterCondition;
+
+  private boolean closed;
+
+  /**
+   * @param filterColumnsReader reads the filter columns of the row group
+   * @param filterFields fields of the filter columns
+   * @param filterCondition the filters, which must only refer to the filter columns
+   */
+  public ParquetRowSelector(
+      OperatorContext context,
+      RecordReader filterColumnsReader,
+      List<Field> filterFields,
+      LogicalExpression filterCondition) {
+    this.context = context;
+    this.filterColumnsReader = filterColumnsReader;
+    this.filterFields = filterFields;
+    this.filterCondition = filterCondition;
+  }
+
+  /** Reads the filter columns of the row group, and returns the positions of the rows that pass. */
+  public BitSet select() throws Exception {
+    final BitSet selectedRows = new BitSet();
+    final Map<String, ValueVector> fieldVectorMap = new HashMap<>();
+    final Stopwatch filterWatch = Stopwatch.createUnstarted();
+    try (VectorContainer readerOutput = new VectorContainer(context.getAllocator());
+        SelectionVector2 filteredSV2 = new SelectionVector2(context.getAllocator())) {
+      final ScanMutator mutator =
+          new ScanMutator(readerOutput, fieldVectorMap, context, new MutatorSchemaChangeCallBack());
+      for (Field field : filterFields) {
+        mutator.addField(
+            field, (Class<? extends ValueVector>) TypeHelper.getValueVectorClass(field));
+      }
+      readerOutput.buildSchema();
+      filterColumnsReader.setup(mutator);
+
+      final ClassGenerator<Filterer> cg =
+          context.getClassProducer().createGenerator(Filterer.TEMPLATE_DEFINITION2).getRoot();
+      final LogicalExpression expr =
+          context.getClassProducer().materializeAndAllowComplex(filterCondition, readerOutput);
+      cg.addExpr(new ReturnValueExpression(expr), ClassGenerator.BlockCreateMode.MERGE);
+      final Filterer filter = cg.getCodeGenerator().getImplementationClass();
+      filter.setup(
+          context.getClassProducer().getFunctionContext(),
+          readerOutput,
+          new CopyingFilteringReader.SV2Holder(filteredSV2));
+
+      int firstRow = 0;
+      int recordCount;
+      filterColumnsReader.allocate(fieldVectorMap);
+      while ((recordCount = filterColumnsReader.next()) > 0) {
+        filterWatch.start();
+        final int selected = filter.filterBatch(recordCount);
+        filterWatch.stop();
+        for (int i = 0; i < selected; i++) {
+          selectedRows.set(firstRow + filteredSV2.getIndex(i));
+        }
+        firstRow += recordCount;
+        filterColumnsReader.allocate(fieldVectorMap);
+      }
+    } finally {
+      close();
+    }
+
+    if (context.getStats() != null) {
+      context
+          .getStats()
+          .addLongStat(ScanOperator.Metric.FILTER_NS, filterWatch.elapsed(TimeUnit.NANOSECONDS));
+    }
+    return selectedRows;
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (!closed) {
+      closed = true;
+      AutoCloseables.close(filterColumnsReader);
+    }
+  }
+}
@@ -75,6 +75,7 @@ import org.apache.arrow.vector.complex.ListVector;
 import org.apache.arrow.vector.complex.MapVector;
 import org.apache.arrow.vector.complex.StructVector;
 import org.apache.arrow.vector.complex.UnionVector;
+import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.parquet.compression.CompressionCodecFactory;
 import org.apache.parquet.hadoop.CodecFactory;
@@ -384,11 +385,76 @@ public class UnifiedParquetReader implements RecordReader {
       return delegate;
     }
 
-    final LogicalExpression filterExpr =
-        logicalExpressions.size() == 1
-            ? logicalExpressions.get(0)
-            : FunctionCallFactory.createBooleanOperator("and", logicalExpressions);
-    return new CopyingFilteringReader(delegate, context, filterExpr);
+    return new CopyingFilteringReader(delegate, context, and(logicalExpressions));
+  }
+
+  /**
+   * Returns a selector that evaluates the exact pushed down filters on the columns they refer to
+   * ahead of the read of the row group, if there are other projected columns that then only need to
+   * be decoded for the rows that pass the filters. Returns null otherwise.
+   */
+  private ParquetRowSelector newRowSelectorIfNecessary() {
+    if (!context.getOptions().getOption(ExecConstants.PARQUET_LATE_MATERIALIZATION)
+        || !filters.hasPushdownFilters()
+        || filterCreator.filterMayChange()
+        || filters.hasPositionalDeleteFilter()
+        || (tableSchema != null
+            && tableSchema.findFieldIgnoreCase(ColumnUtils.ROW_INDEX_COLUMN_NAME).isPresent())
+        || footer.getBlocks().get(readEntry.getRowGroupIndex()).getRowCount() > Integer.MAX_VALUE) {
+      return null;
+    }
+    final List<ParquetFilterCondition> exactFilters =
+        filters.getPushdownFilters().stream()
+            .filter(f -> f.getFilter().exact())
+            .collect(Collectors.toList());
+    final List<SchemaPath> readerColumns = new ArrayList<>(vectorizableReaderColumns);
+    readerColumns.addAll(nonVectorizableReaderColumns);
+    final List<SchemaPath> filterColumns =
+        readerColumns.stream()
+            .filter(c -> exactFilters.stream().anyMatch(f -> f.getPath().equals(c)))
+            .collect(Collectors.toList());
+    if (exactFilters.isEmpty()
+        || filterColumns.size() == readerColumns.size()
+        || !exactFilters.stream().allMatch(f -> filterColumns.contains(f.getPath()))) {
+      // no other column to read later, or a filter on a column that is not read from the file
+      return null;
+    }
+
+    final List<SchemaPath> batchSchemaColumns = columnResolver.getBatchSchemaColumns(filterColumns);
+    final List<Field> filterFields = new ArrayList<>();
+    for (SchemaPath column : batchSchemaColumns) {
+      final ValueVector vector = outputMutator.getVector(column.getRootSegment().getPath());
+      if (vector == null) {
+        return null;
+      }
+      filterFields.add(vector.getField());
+    }
+    final RecordReader filterColumnsReader =
+        new ParquetRowiseReader(
+            context,
+            footer,
+            readEntry.getRowGroupIndex(),
+            readEntry.getPath(),
+            projectedColumns.cloneForSchemaPaths(batchSchemaColumns, isConvertedIcebergDataset),
+            fs,
+            schemaHelper,
+            inputStreamProvider,
+            codecFactory,
+            true);
+    return new ParquetRowSelector(
+        context,
+        filterColumnsReader,
+        filterFields,
+        and(
+            exactFilters.stream()
+                .map(ParquetFilterCondition::getExpr)
+                .collect(Collectors.toList())));
+  }
+
+  private static LogicalExpression and(List<LogicalExpression> expressions) {
+    return expressions.size() == 1
+        ? expressions.get(0)
+        : FunctionCallFactory.createBooleanOperator("and", expressions);
   }
 
   @Override
@@ -836,7 +902,7 @@ public class UnifiedParquetReader implements RecordReader {
                   unifiedReader.filters.getPositionalDeleteFilter()));
         }
 
-        RecordReader reader =
+        ParquetRowiseReader reader =
             new ParquetRowiseReader(
                 unifiedReader.context,
                 unifiedReader.getFooter(),
@@ -851,6 +917,14 @@ public class UnifiedParquetReader implements RecordReader {
                 false,
                 unifiedReader.tableSchema);
 
+        // the reader only reads the rows that pass the filters if they are evaluated ahead
+        final ParquetRowSelector rowSelector =
+            deltas == null ? unifiedReader.newRowSelectorIfNecessary() : null;
+        if (rowSelector != null) {
+          reader.setRowSelector(rowSelector);
+          returnList.add(getWrappedReader(reader, unifiedReader));
+          return returnList;
+        }
         returnList.add(unifiedReader.addFilterIfNecessary(getWrappedReader(reader, unifiedReader)));
         return returnList;
       }
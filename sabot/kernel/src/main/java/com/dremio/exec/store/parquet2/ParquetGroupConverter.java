@@ -59,11 +59,11 @@ import org.apache.arrow.vector.holders.IntHolder;
 import org.apache.arrow.vector.holders.TimeMilliHolder;
 import org.apache.arrow.vector.holders.TimeStampMilliHolder;
 import org.apache.arrow.vector.holders.VarBinaryHolder;
-import org.apache.arrow.vector.holders.VarCharHolder;
 import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.ArrowType.ArrowTypeID;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.parquet.column.Dictionary;
 import org.apache.parquet.io.api.Binary;
 import org.apache.parquet.io.api.Converter;
 import org.apache.parquet.io.api.GroupConverter;
@@ -95,6 +95,7 @@ abstract class ParquetGroupConverter extends GroupConverter implements ParquetLi
   private final Function<String, String> childNameResolver;
   private final ParquetColumnResolver columnResolver;
   private final int maxFieldSizeLimit;
+  private final boolean decodeDictionaryOnce;
 
   // This function assumes that the fields in the schema parameter are in the same order as the
   // fields in the columns parameter. The
@@ -119,6 +120,7 @@ abstract class ParquetGroupConverter extends GroupConverter implements ParquetLi
     this.columnResolver = columnResolver;
     this.maxFieldSizeLimit =
         Math.toIntExact(options.getOption(ExecConstants.LIMIT_FIELD_SIZE_BYTES));
+    this.decodeDictionaryOnce = options.getOption(ExecConstants.PARQUET_DICTIONARY_DECODE_ONCE);
   }
 
   abstract WriterProvider getWriterProvider();
@@ -509,7 +511,7 @@ abstract class ParquetGroupConverter extends GroupConverter implements ParquetLi
                   VarCharWriter writer =
                       isRepeated ? list(name).varChar() : getWriterProvider().varChar(name);
                   return new VarCharConverter(
-                      writer, mutator.getManagedBuffer(), maxFieldSizeLimit);
+                      writer, mutator.getManagedBuffer(), dictionaryBuffer(), maxFieldSizeLimit);
                 }
                 // TODO not sure if BINARY/DECIMAL is actually supported
               case DECIMAL:
@@ -535,12 +537,14 @@ abstract class ParquetGroupConverter extends GroupConverter implements ParquetLi
           if (schemaHelper.isVarChar(SchemaPath.getSimplePath(name))) {
             VarCharWriter writer =
                 isRepeated ? list(name).varChar() : getWriterProvider().varChar(name);
-            return new VarCharConverter(writer, mutator.getManagedBuffer(), maxFieldSizeLimit);
+            return new VarCharConverter(
+                writer, mutator.getManagedBuffer(), dictionaryBuffer(), maxFieldSizeLimit);
           }
 
           VarBinaryWriter writer =
               isRepeated ? list(name).varBinary() : getWriterProvider().varBinary(name);
-          return new VarBinaryConverter(writer, mutator.getManagedBuffer(), maxFieldSizeLimit);
+          return new VarBinaryConverter(
+              writer, mutator.getManagedBuffer(), dictionaryBuffer(), maxFieldSizeLimit);
         }
       case FIXED_LEN_BYTE_ARRAY:
         if (type.getOriginalType() == OriginalType.DECIMAL) {
@@ -556,7 +560,8 @@ abstract class ParquetGroupConverter extends GroupConverter implements ParquetLi
         if (schemaHelper.isVarChar(SchemaPath.getSimplePath(name))) {
           VarCharWriter writer =
               isRepeated ? list(name).varChar() : getWriterProvider().varChar(name);
-          return new VarCharConverter(writer, mutator.getManagedBuffer(), maxFieldSizeLimit);
+          return new VarCharConverter(
+              writer, mutator.getManagedBuffer(), dictionaryBuffer(), maxFieldSizeLimit);
         }
 
         VarBinaryWriter writer =
@@ -568,6 +573,11 @@ abstract class ParquetGroupConverter extends GroupConverter implements ParquetLi
     }
   }
 
+  /** Returns the buffer to decode the dictionaries of a binary column into, if enabled. */
+  private ArrowBuf dictionaryBuffer() {
+    return decodeDictionaryOnce ? mutator.getManagedBuffer() : null;
+  }
+
   private ListWriter list(String name) {
     ListWriter writer = getWriterProvider().list(name);
     // TODO should I just implement this logic in WriterProvider ?
@@ -968,31 +978,83 @@ abstract class ParquetGroupConverter extends GroupConverter implements ParquetLi
     }
   }
 
-  private static class VarBinaryConverter extends ParquetPrimitiveConverter {
-    private VarBinaryWriter writer;
+  /**
+   * Base of the converters of binary values to variable width vectors. When given a dictionary
+   * buffer, the dictionary of a dictionary encoded column chunk is decoded once into it, and the
+   * values are then copied from it by dictionary id, instead of decoding each value.
+   */
+  private abstract static class VarWidthConverter extends ParquetPrimitiveConverter {
     private ArrowBuf buf;
-    private VarBinaryHolder holder = new VarBinaryHolder();
-    private int varValueSizeLimit;
+    private ArrowBuf dictionaryBuf;
+    private int[] dictionaryOffsets;
+    private final int varValueSizeLimit;
 
-    private VarBinaryConverter(VarBinaryWriter writer, ArrowBuf buf, int varValueSizeLimit) {
-      this.writer = writer;
+    private VarWidthConverter(ArrowBuf buf, ArrowBuf dictionaryBuf, int varValueSizeLimit) {
       this.buf = buf;
+      this.dictionaryBuf = dictionaryBuf;
       this.varValueSizeLimit = varValueSizeLimit;
     }
 
+    abstract void write(int start, int end, ArrowBuf buffer);
+
+    @Override
+    public boolean hasDictionarySupport() {
+      return dictionaryBuf != null;
+    }
+
+    @Override
+    public void setDictionary(Dictionary dictionary) {
+      final int maxId = dictionary.getMaxId();
+      int size = 0;
+      for (int id = 0; id <= maxId; id++) {
+        size += dictionary.decodeToBinary(id).length();
+      }
+
+      dictionaryBuf = dictionaryBuf.reallocIfNeeded(size);
+      dictionaryOffsets = new int[maxId + 2];
+      for (int id = 0; id <= maxId; id++) {
+        final Binary value = dictionary.decodeToBinary(id);
+        dictionaryBuf.setBytes(dictionaryOffsets[id], value.getBytesUnsafe());
+        dictionaryOffsets[id + 1] = dictionaryOffsets[id] + value.length();
+      }
+    }
+
+    @Override
+    public void addValueFromDictionary(int dictionaryId) {
+      final int start = dictionaryOffsets[dictionaryId];
+      final int end = dictionaryOffsets[dictionaryId + 1];
+      if (end - start > this.varValueSizeLimit) {
+        throw createFieldSizeLimitException(end - start, this.varValueSizeLimit);
+      }
+      write(start, end, dictionaryBuf);
+      setWritten();
+    }
+
     @Override
     public void addBinary(Binary value) {
       if (value.length() > this.varValueSizeLimit) {
         throw createFieldSizeLimitException(value.length(), this.varValueSizeLimit);
       }
       buf = buf.reallocIfNeeded(value.length());
-      holder.buffer = buf;
       buf.setBytes(0, value.toByteBuffer());
-      holder.start = 0;
-      holder.end = value.length();
-      writer.writeVarBinary(holder.start, holder.end, holder.buffer);
+      write(0, value.length(), buf);
       setWritten();
     }
+  }
+
+  private static class VarBinaryConverter extends VarWidthConverter {
+    private VarBinaryWriter writer;
+
+    private VarBinaryConverter(
+        VarBinaryWriter writer, ArrowBuf buf, ArrowBuf dictionaryBuf, int varValueSizeLimit) {
+      super(buf, dictionaryBuf, varValueSizeLimit);
+      this.writer = writer;
+    }
+
+    @Override
+    void write(int start, int end, ArrowBuf buffer) {
+      writer.writeVarBinary(start, end, buffer);
+    }
 
     @Override
     public void writeNullListElement() {
@@ -1000,30 +1062,18 @@ abstract class ParquetGroupConverter extends GroupConverter implements ParquetLi
     }
   }
 
-  private static class VarCharConverter extends ParquetPrimitiveConverter {
+  private static class VarCharConverter extends VarWidthConverter {
     private VarCharWriter writer;
-    private VarCharHolder holder = new VarCharHolder();
-    private ArrowBuf buf;
-    private int varValueSizeLimit;
 
-    private VarCharConverter(VarCharWriter writer, ArrowBuf buf, int varValueSizeLimit) {
+    private VarCharConverter(
+        VarCharWriter writer, ArrowBuf buf, ArrowBuf dictionaryBuf, int varValueSizeLimit) {
+      super(buf, dictionaryBuf, varValueSizeLimit);
       this.writer = writer;
-      this.buf = buf;
-      this.varValueSizeLimit = varValueSizeLimit;
     }
 
     @Override
-    public void addBinary(Binary value) {
-      if (value.length() > this.varValueSizeLimit) {
-        throw createFieldSizeLimitException(value.length(), this.varValueSizeLimit);
-      }
-      buf = buf.reallocIfNeeded(value.length());
-      holder.buffer = buf;
-      buf.setBytes(0, value.toByteBuffer());
-      holder.start = 0;
-      holder.end = value.length();
-      writer.writeVarChar(holder.start, holder.end, holder.buffer);
-      setWritten();
+    void write(int start, int end, ArrowBuf buffer) {
+      writer.writeVarChar(start, end, buffer);
     }
 
     @Override
@@ -15,29 +15,37 @@
  */
 package com.dremio.exec.store.parquet2;
 
+import com.dremio.common.AutoCloseables;
 import com.dremio.common.arrow.DremioArrowSchema;
 import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.common.exceptions.UserException;
 import com.dremio.common.expression.PathSegment;
 import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.store.parquet.AbstractParquetReader;
 import com.dremio.exec.store.parquet.BigIntAutoIncrementer;
 import com.dremio.exec.store.parquet.InputStreamProvider;
 import com.dremio.exec.store.parquet.MutableParquetMetadata;
+import com.dremio.exec.store.parquet.OffsetIndexProvider;
 import com.dremio.exec.store.parquet.ParquetColumnResolver;
+import com.dremio.exec.store.parquet.ParquetReaderStats;
+import com.dremio.exec.store.parquet.ParquetRowSelector;
 import com.dremio.exec.store.parquet.ParquetScanProjectedColumns;
 import com.dremio.exec.store.parquet.SchemaDerivationHelper;
 import com.dremio.exec.util.ColumnUtils;
 import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.Path;
 import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.scan.OutputMutator;
+import com.dremio.sabot.op.scan.ScanOperator;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -117,6 +125,14 @@ public class ParquetRowiseReader extends AbstractParquetReader {
   private final BatchSchema tableSchema;
   private final BigIntAutoIncrementer rowIndexGenerator;
 
+  // rows of the row group that pass the filters pushed down into the scan, when they are evaluated
+  // ahead of the read, and whether the data pages that hold none of them are skipped
+  private ParquetRowSelector rowSelector;
+  private BitSet selectedRows;
+  private boolean skipPages;
+  private OffsetIndexProvider offsetIndexProvider;
+  private final ParquetReaderStats readerStats = new ParquetReaderStats();
+
   public ParquetRowiseReader(
       OperatorContext context,
       MutableParquetMetadata footer,
@@ -229,6 +245,14 @@ public class ParquetRowiseReader extends AbstractParquetReader {
         tableSchema);
   }
 
+  /**
+   * Only reads the rows of the row group selected by the given selector, which evaluates the
+   * filters pushed down into the scan on the columns they refer to during setup.
+   */
+  public void setRowSelector(ParquetRowSelector rowSelector) {
+    this.rowSelector = rowSelector;
+  }
+
   public static SchemaPath convertColumnDescriptor(
       ParquetColumnResolver columnResolver,
       final MessageType schema,
@@ -394,10 +418,26 @@ public class ParquetRowiseReader extends AbstractParquetReader {
           return;
         }
         recordCount = blockMetaData.getRowCount();
+        if (rowSelector != null && !noColumnsFound) {
+          selectRows(blockMetaData, projection);
+        }
 
         pageReadStore =
             new ColumnChunkIncReadStore(
-                recordCount, codec, operatorContext.getAllocator(), filePath, inputStreamProvider);
+                blockMetaData.getRowCount(),
+                codec,
+                operatorContext.getAllocator(),
+                filePath,
+                inputStreamProvider,
+                skipPages ? selectedRows : null,
+                readerStats,
+                (int)
+                    operatorContext
+                        .getOptions()
+                        .getOption(ExecConstants.PARQUET_MAX_PAGES_DECOMPRESSED_AHEAD));
+        if (selectedRows != null) {
+          recordCount = selectedRows.cardinality();
+        }
       }
 
       if (!schemaOnly && !noColumnsFound) {
@@ -411,14 +451,17 @@ public class ParquetRowiseReader extends AbstractParquetReader {
           Type type = schema.getType(path);
           if (type.isPrimitive()) {
             ColumnChunkMetaData md = paths.get(ColumnPath.get(path));
-            pageReadStore.addColumn(schema.getColumnDescription(path), md);
+            pageReadStore.addColumn(
+                schema.getColumnDescription(path),
+                md,
+                offsetIndexProvider != null ? offsetIndexProvider.getOffsetIndex(md) : null);
           }
         }
 
         ColumnIOFactory factory = new ColumnIOFactory(false);
         MessageColumnIO columnIO = factory.getColumnIO(projection, schema);
 
-        if (footer.getBlocks().get(rowGroupIndex).getRowCount() > 0) {
+        if (recordCount > 0) {
           if (deltas != null) {
             recordReader =
                 columnIO.getRecordReader(
@@ -431,6 +474,17 @@ public class ParquetRowiseReader extends AbstractParquetReader {
                         return vectorizedBasedFilter;
                       }
                     });
+          } else if (selectedRows != null && !skipPages) {
+            recordReader =
+                columnIO.getRecordReader(
+                    pageReadStore,
+                    recordMaterializer,
+                    new UnboundRecordFilter() {
+                      @Override
+                      public RecordFilter bind(Iterable<ColumnReader> readers) {
+                        return new SelectedRowsFilter(selectedRows);
+                      }
+                    });
           } else {
             recordReader = columnIO.getRecordReader(pageReadStore, recordMaterializer);
           }
@@ -444,6 +498,53 @@ public class ParquetRowiseReader extends AbstractParquetReader {
     }
   }
 
+  /**
+   * Finds the rows of the row group that pass the pushed down filters, and whether the data pages
+   * that hold none of them can be skipped. This requires knowing the rows of each data page, which
+   * for repeated columns are only found in the offset index.
+   */
+  private void selectRows(BlockMetaData blockMetaData, MessageType projection) throws Exception {
+    selectedRows = rowSelector.select();
+    if (context.getStats() != null) {
+      context.getStats().addLongStat(ScanOperator.Metric.PARQUET_LATE_MATERIALIZED_ROW_GROUPS, 1);
+    }
+    if (selectedRows.cardinality() == blockMetaData.getRowCount()) {
+      // all the rows are read
+      selectedRows = null;
+      return;
+    }
+
+    final Map<ColumnPath, ColumnChunkMetaData> chunks = new HashMap<>();
+    for (ColumnChunkMetaData md : blockMetaData.getColumns()) {
+      chunks.put(md.getPath(), md);
+    }
+    final List<ColumnChunkMetaData> projectedChunks = new ArrayList<>();
+    final List<ColumnChunkMetaData> repeatedChunks = new ArrayList<>();
+    for (String[] path : projection.getPaths()) {
+      if (!schema.getType(path).isPrimitive()) {
+        continue;
+      }
+      final ColumnChunkMetaData md = chunks.get(ColumnPath.get(path));
+      projectedChunks.add(md);
+      if (schema.getColumnDescription(path).getMaxRepetitionLevel() > 0) {
+        repeatedChunks.add(md);
+      }
+    }
+    if (selectedRows.isEmpty()) {
+      for (ColumnChunkMetaData md : projectedChunks) {
+        readerStats.totalPageSkippedBytes += md.getTotalSize();
+      }
+      return;
+    }
+
+    offsetIndexProvider = inputStreamProvider.getOffsetIndexProvider(projectedChunks);
+    skipPages =
+        repeatedChunks.stream()
+            .allMatch(
+                md ->
+                    offsetIndexProvider != null && offsetIndexProvider.getOffsetIndex(md) != null);
+  }
+
   private void setupRowIndexGenerator(OutputMutator output) {
     if (rowIndexGenerator == null) {
       return;
@@ -711,14 +812,33 @@ public class ParquetRowiseReader extends AbstractParquetReader {
   public void close() {
     try {
       if (pageReadStore != null) {
+        updateStats();
         pageReadStore.close();
         pageReadStore = null;
       }
+      AutoCloseables.close(rowSelector, offsetIndexProvider);
+      rowSelector = null;
+      offsetIndexProvider = null;
     } catch (Exception e) {
       logger.warn("Failure while closing PageReadStore", e);
     }
   }
 
+  private void updateStats() {
+    final OperatorStats stats = context.getStats();
+    if (stats == null) {
+      return;
+    }
+    stats.addLongStat(
+        ScanOperator.Metric.PARQUET_PAGE_BYTES_DECODED, readerStats.totalPageReadBytes);
+    stats.addLongStat(
+        ScanOperator.Metric.PARQUET_PAGE_BYTES_SKIPPED, readerStats.totalPageSkippedBytes);
+    stats.addLongStat(ScanOperator.Metric.PARQUET_PAGES_SKIPPED, readerStats.numPagesSkipped);
+    stats.addLongStat(
+        ScanOperator.Metric.PARQUET_PAGES_DECOMPRESSED_AHEAD,
+        readerStats.numPagesDecompressedAhead);
+  }
+
   /**
    * Helper filter class to filter out records based on deltas vector provided by
    * VectorizedParquetReader (ParquetVectorizedReader)
@@ -757,6 +877,21 @@ public class ParquetRowiseReader extends AbstractParquetReader {
     }
   }
 
+  /** Filters out the records of the row group that were not selected. */
+  private static class SelectedRowsFilter implements RecordFilter {
+    private final BitSet selectedRows;
+    private int row;
+
+    SelectedRowsFilter(BitSet selectedRows) {
+      this.selectedRows = selectedRows;
+    }
+
+    @Override
+    public boolean isMatch() {
+      return selectedRows.get(row++);
+    }
+  }
+
   @Override
   public boolean supportsSkipAllQuery() {
     return true;
@@ -0,0 +1,906 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.vector.complex.fn;
+
+import static com.dremio.exec.vector.complex.fn.JsonStructuralIndex.UNMATCHED;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.dremio.common.exceptions.FieldSizeLimitExceptionHelper;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.catalog.ColumnCountTooLargeException;
+import com.dremio.exec.store.easy.json.reader.BaseJsonProcessor;
+import com.dremio.exec.vector.complex.fn.VectorOutput.ListVectorOutput;
+import com.dremio.exec.vector.complex.fn.VectorOutput.MapVectorOutput;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.complex.writer.BaseWriter.ComplexWriter;
+import org.apache.arrow.vector.complex.writer.BaseWriter.ListWriter;
+import org.apache.arrow.vector.complex.writer.BaseWriter.StructWriter;
+
+/**
+ * Reads UTF-8 JSON documents made of whitespace delimited objects, or of a single array of objects,
+ * without going through a token stream. The input is buffered and a {@link JsonStructuralIndex} is
+ * built over the buffer in one pass. Each record is then walked through the index: projected values
+ * are decoded straight from the buffer into the vectors, everything else is stepped over using the
+ * bracket pairs of the index without being looked at.
+ *
+ * <p>Produces the same vectors as {@link JsonReader} for the same input, outside of all text mode
+ * and schema imposed reads. Comments and unquoted field names are not supported. Extended types are
+ * handed to the same {@link VectorOutput} as the token based reader.
+ */
+public class IndexedJsonReader extends BaseJsonProcessor {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(IndexedJsonReader.class);
+
+  static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+  private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+  private static final int NAME_CACHE_SIZE = 1024;
+
+  private static final byte[] TRUE = "true".getBytes(UTF_8);
+  private static final byte[] FALSE = "false".getBytes(UTF_8);
+  private static final byte[] NULL = "null".getBytes(UTF_8);
+
+  private static final int TRUE_VALUE = 0;
+  private static final int FALSE_VALUE = 1;
+  private static final int NULL_VALUE = 2;
+  private static final int LONG_VALUE = 3;
+  private static final int DOUBLE_VALUE = 4;
+
+  private final WorkingBuffer workingBuffer;
+  private final List<SchemaPath> columns;
+  private final FieldSelection selection;
+  private final MapVectorOutput mapOutput;
+  private final ListVectorOutput listOutput;
+  private final boolean readNumbersAsDouble;
+  private final int maxFieldSize;
+  private final int maxLeafLimit;
+  private final int bufferSize;
+  private final JsonStructuralIndex index = new JsonStructuralIndex();
+
+  /** Raw field names as they appear in the input and their decoded form. */
+  private final byte[][] nameKeys = new byte[NAME_CACHE_SIZE][];
+
+  private final String[] names = new String[NAME_CACHE_SIZE];
+
+  private InputStream input;
+  private byte[] buffer;
+  private int limit;
+  private long bufferOffset;
+  private boolean startOfInput;
+  private boolean endOfInput;
+
+  /** First index entry and first byte which have not been consumed yet. */
+  private int entry;
+
+  private int cursor;
+
+  private boolean inOuterList;
+  private boolean outerListClosed;
+  private boolean awaitingSeparator;
+  private boolean finished;
+
+  private byte[] scratch = new byte[256];
+  private long longValue;
+  private double doubleValue;
+  private int currentLeafCount;
+  private long dataSizeReadSoFar;
+
+  /** The name of the current field being parsed. For Error messages. */
+  private String currentFieldName = "<none>";
+
+  public IndexedJsonReader(
+      ArrowBuf managedBuf,
+      List<SchemaPath> columns,
+      int maxFieldSize,
+      int maxLeafLimit,
+      boolean readNumbersAsDouble,
+      boolean enforceValidJsonDateFormat) {
+    this(
+        managedBuf,
+        columns,
+        maxFieldSize,
+        maxLeafLimit,
+        readNumbersAsDouble,
+        enforceValidJsonDateFormat,
+        DEFAULT_BUFFER_SIZE);
+  }
+
+  IndexedJsonReader(
+      ArrowBuf managedBuf,
+      List<SchemaPath> columns,
+      int maxFieldSize,
+      int maxLeafLimit,
+      boolean readNumbersAsDouble,
+      boolean enforceValidJsonDateFormat,
+      int bufferSize) {
+    assert Preconditions.checkNotNull(columns).size() > 0
+        : "JSON record reader requires at least one column";
+    this.workingBuffer = new WorkingBuffer(managedBuf);
+    this.columns = columns;
+    this.selection = FieldSelection.getFieldSelection(columns);
+    this.mapOutput = new MapVectorOutput(workingBuffer, enforceValidJsonDateFormat);
+    this.listOutput = new ListVectorOutput(workingBuffer, enforceValidJsonDateFormat);
+    this.readNumbersAsDouble = readNumbersAsDouble;
+    this.maxFieldSize = maxFieldSize;
+    this.maxLeafLimit = maxLeafLimit;
+    this.bufferSize = bufferSize;
+  }
+
+  @Override
+  public void setSource(InputStream is) throws IOException {
+    this.input = is;
+    if (buffer == null || buffer.length != bufferSize) {
+      buffer = new byte[bufferSize];
+    }
+    limit = 0;
+    bufferOffset = 0;
+    startOfInput = true;
+    endOfInput = false;
+    entry = 0;
+    cursor = 0;
+    inOuterList = false;
+    outerListClosed = false;
+    awaitingSeparator = false;
+    finished = false;
+    index.build(buffer, 0, 0);
+  }
+
+  @Override
+  public void setSource(JsonNode node) {
+    throw new UnsupportedOperationException("Indexed JSON reader only reads from a stream");
+  }
+
+  @Override
+  public void resetDataSizeCounter() {
+    dataSizeReadSoFar = 0;
+  }
+
+  @Override
+  public long getDataSizeCounter() {
+    return dataSizeReadSoFar;
+  }
+
+  @Override
+  public void ensureAtLeastOneField(ComplexWriter writer) {
+    JsonReader.ensureAtLeastOneField(writer, columns, false);
+  }
+
+  @Override
+  public UserException.Builder getExceptionWithContext(
+      UserException.Builder exceptionBuilder, String field) {
+    if (field != null) {
+      exceptionBuilder.pushContext("Field ", field);
+    }
+    return exceptionBuilder.pushContext("Offset ", bufferOffset + cursor);
+  }
+
+  @Override
+  public ReadState write(ComplexWriter writer) throws IOException {
+    if (finished) {
+      return ReadState.END_OF_STREAM;
+    }
+    try {
+      final int open = nextRecord();
+      if (open < 0) {
+        finished = true;
+        return ReadState.END_OF_STREAM;
+      }
+      currentLeafCount = 0;
+      writeStruct(writer.rootAsStruct(), selection, open);
+      consume(index.pair(open));
+      awaitingSeparator = inOuterList;
+      return ReadState.WRITE_SUCCEED;
+    } catch (Exception e) {
+      throw new JsonReaderIOException(e);
+    }
+  }
+
+  /**
+   * Moves to the next record, reading more input until the whole record is buffered.
+   *
+   * @return index entry of the opening brace of the record, or -1 once the input is exhausted
+   */
+  private int nextRecord() throws IOException {
+    while (true) {
+      if (entry < index.size()) {
+        final int position = index.position(entry);
+        expectWhitespace(cursor, position);
+        final byte b = buffer[position];
+        if (outerListClosed) {
+          throw getExceptionWithContext(UserException.dataReadError(), currentFieldName)
+              .message(
+                  "Dremio attempted to unwrap a toplevel list in your document.  However, it"
+                      + " appears that there is trailing content after this top level list.  Dremio"
+                      + " only supports querying a set of distinct maps or a single json array with"
+                      + " multiple inner maps.")
+              .build(logger);
+        }
+        if (b == '{' && !awaitingSeparator) {
+          if (index.pair(entry) != UNMATCHED) {
+            return entry;
+          }
+        } else if (b == '[' && !inOuterList) {
+          inOuterList = true;
+          consume(entry);
+          continue;
+        } else if (b == ',' && awaitingSeparator) {
+          awaitingSeparator = false;
+          consume(entry);
+          continue;
+        } else if (b == ']' && awaitingSeparator) {
+          outerListClosed = true;
+          consume(entry);
+          continue;
+        } else {
+          throw getExceptionWithContext(UserException.dataReadError(), currentFieldName)
+              .message(
+                  "The top level of your document must either be a single array of maps or a set "
+                      + "of white space delimited maps.")
+              .build(logger);
+        }
+      } else if (endOfInput) {
+        if (!index.isTruncated()) {
+          expectWhitespace(cursor, limit);
+        }
+        if (index.isTruncated() || (inOuterList && !outerListClosed)) {
+          throw unexpectedEndOfInput();
+        }
+        return -1;
+      }
+
+      // the record is not fully buffered yet
+      if (endOfInput) {
+        throw unexpectedEndOfInput();
+      }
+      fill();
+    }
+  }
+
+  private void consume(int consumedEntry) {
+    entry = consumedEntry + 1;
+    cursor = index.position(consumedEntry) + 1;
+  }
+
+  /** Drops consumed bytes, reads more input and rebuilds the index over the unconsumed bytes. */
+  private void fill() throws IOException {
+    if (cursor > 0) {
+      System.arraycopy(buffer, cursor, buffer, 0, limit - cursor);
+      limit -= cursor;
+      bufferOffset += cursor;
+      cursor = 0;
+    } else if (limit == buffer.length) {
+      if (buffer.length == MAX_BUFFER_SIZE) {
+        throw getExceptionWithContext(UserException.dataReadError(), currentFieldName)
+            .message("Failure while parsing JSON. Record is too large.")
+            .build(logger);
+      }
+      buffer = Arrays.copyOf(buffer, (int) Math.min(MAX_BUFFER_SIZE, buffer.length * 2L));
+    }
+
+    int read;
+    do {
+      read = input.read(buffer, limit, buffer.length - limit);
+    } while (read == 0);
+    if (read < 0) {
+      endOfInput = true;
+    } else {
+      limit += read;
+    }
+
+    if (startOfInput && (limit >= 3 || endOfInput)) {
+      startOfInput = false;
+      if (limit >= 3
+          && buffer[0] == (byte) 0xEF
+          && buffer[1] == (byte) 0xBB
+          && buffer[2] == (byte) 0xBF) {
+        // skip the byte order mark
+        cursor = 3;
+      }
+    }
+
+    index.build(buffer, cursor, limit);
+    entry = 0;
+  }
+
+  /** Writes the object opened at the given entry. */
+  private void writeStruct(StructWriter map, FieldSelection selection, int open)
+      throws IOException {
+    final int close = closingBracket(open, '}');
+    map.start();
+    try {
+      if (close == open + 1) {
+        expectWhitespace(index.position(open) + 1, index.position(close));
+        return;
+      }
+      int separator = open;
+      while (true) {
+        final int key = separator + 1;
+        final int keyStart = index.position(key);
+        expectWhitespace(index.position(separator) + 1, keyStart);
+        if (buffer[keyStart] != '"' || key + 2 >= close) {
+          throw unexpectedCharacter(keyStart);
+        }
+        final String fieldName = fieldName(keyStart + 1, index.position(key + 1));
+        final int colon = key + 2;
+        expectWhitespace(index.position(key + 1) + 1, index.position(colon));
+        if (buffer[index.position(colon)] != ':') {
+          throw unexpectedCharacter(index.position(colon));
+        }
+
+        currentFieldName = fieldName;
+        final FieldSelection childSelection = selection.getChild(fieldName);
+        if (childSelection.isNeverValid()) {
+          separator = skipValue(colon);
+        } else {
+          separator = writeField(map, fieldName, childSelection, colon);
+        }
+
+        if (separator == close) {
+          return;
+        }
+        if (separator > close || buffer[index.position(separator)] != ',') {
+          throw unexpectedCharacter(index.position(Math.min(separator, close)));
+        }
+      }
+    } finally {
+      map.end();
+    }
+  }
+
+  /** Writes the array opened at the given entry. */
+  private void writeList(ListWriter list, FieldSelection selection, int open) throws IOException {
+    final int close = closingBracket(open, ']');
+    list.startList();
+    final int originalLeafCount = currentLeafCount;
+    int maxArrayLeafCount = 0;
+    if (close != open + 1 || !isWhitespace(index.position(open) + 1, index.position(close))) {
+      int separator = open;
+      while (true) {
+        currentLeafCount = originalLeafCount;
+        separator = writeElement(list, selection, separator);
+        // Take the maximum number of leaves from the current and the calculated for this array
+        // entry.
+        maxArrayLeafCount = Math.max(maxArrayLeafCount, currentLeafCount);
+        if (separator == close) {
+          break;
+        }
+        if (separator > close || buffer[index.position(separator)] != ',') {
+          throw unexpectedCharacter(index.position(Math.min(separator, close)));
+        }
+      }
+    }
+    // Take the maximum calculated leaf count from the array.
+    currentLeafCount = maxArrayLeafCount;
+    list.endList();
+  }
+
+  /**
+   * Writes the value following the given colon.
+   *
+   * @return index entry following the value
+   */
+  private int writeField(StructWriter map, String fieldName, FieldSelection selection, int before)
+      throws IOException {
+    final int value = before + 1;
+    final int valuePosition = index.position(value);
+    final int start = skipWhitespace(index.position(before) + 1, valuePosition);
+    if (start < valuePosition) {
+      switch (parseScalar(start, trimWhitespace(start, valuePosition))) {
+        case TRUE_VALUE:
+          incrementLeafCount();
+          map.bit(fieldName).writeBit(1);
+          break;
+        case FALSE_VALUE:
+          incrementLeafCount();
+          map.bit(fieldName).writeBit(0);
+          break;
+        case NULL_VALUE:
+          // do nothing as we don't have a type.
+          break;
+        case LONG_VALUE:
+          incrementLeafCount();
+          map.bigInt(fieldName).writeBigInt(longValue);
+          break;
+        default:
+          incrementLeafCount();
+          map.float8(fieldName).writeFloat8(doubleValue);
+          break;
+      }
+      return value;
+    }
+
+    switch (buffer[valuePosition]) {
+      case '{':
+        if (!writeExtended(map, fieldName, value)) {
+          writeStruct(map.struct(fieldName), selection, value);
+        }
+        break;
+      case '[':
+        writeList(map.list(fieldName), selection, value);
+        break;
+      case '"':
+        incrementLeafCount();
+        final int size = prepareString(valuePosition + 1, index.position(value + 1));
+        map.varChar(fieldName).writeVarChar(0, size, workingBuffer.getBuf());
+        break;
+      default:
+        throw unexpectedCharacter(valuePosition);
+    }
+    return nextAfter(value);
+  }
+
+  /**
+   * Writes the array element following the given bracket or comma.
+   *
+   * @return index entry following the element
+   */
+  private int writeElement(ListWriter list, FieldSelection selection, int before)
+      throws IOException {
+    final int value = before + 1;
+    final int valuePosition = index.position(value);
+    final int start = skipWhitespace(index.position(before) + 1, valuePosition);
+    if (start < valuePosition) {
+      switch (parseScalar(start, trimWhitespace(start, valuePosition))) {
+        case TRUE_VALUE:
+          incrementLeafCount();
+          list.bit().writeBit(1);
+          break;
+        case FALSE_VALUE:
+          incrementLeafCount();
+          list.bit().writeBit(0);
+          break;
+        case NULL_VALUE:
+          throw UserException.unsupportedError()
+              .message(
+                  "Null values are not supported in lists by default. Please set"
+                      + " `store.json.all_text_mode` to true to read lists containing nulls. Be"
+                      + " advised that this will treat JSON null values as a string containing the"
+                      + " word 'null'.")
+              .build(logger);
+        case LONG_VALUE:
+          incrementLeafCount();
+          dataSizeReadSoFar += 8;
+          list.bigInt().writeBigInt(longValue);
+          break;
+        default:
+          incrementLeafCount();
+          dataSizeReadSoFar += 8;
+          list.float8().writeFloat8(doubleValue);
+          break;
+      }
+      return value;
+    }
+
+    switch (buffer[valuePosition]) {
+      case '{':
+        if (!writeExtended(list, value)) {
+          writeStruct(list.struct(), selection, value);
+        }
+        break;
+      case '[':
+        writeList(list.list(), selection, value);
+        break;
+      case '"':
+        incrementLeafCount();
+        final int size = prepareString(valuePosition + 1, index.position(value + 1));
+        list.varChar().writeVarChar(0, size, workingBuffer.getBuf());
+        break;
+      default:
+        throw unexpectedCharacter(valuePosition);
+    }
+    return nextAfter(value);
+  }
+
+  /**
+   * Steps over the value following the given colon. Scalars are not validated.
+   *
+   * @return index entry following the value
+   */
+  private int skipValue(int before) {
+    final int value = before + 1;
+    final int valuePosition = index.position(value);
+    if (skipWhitespace(index.position(before) + 1, valuePosition) < valuePosition) {
+      return value;
+    }
+    switch (buffer[valuePosition]) {
+      case '{':
+      case '[':
+      case '"':
+        return nextAfter(value);
+      default:
+        throw unexpectedCharacter(valuePosition);
+    }
+  }
+
+  /** Returns the index entry following the object, array or string starting at the given entry. */
+  private int nextAfter(int value) {
+    final int last;
+    if (buffer[index.position(value)] == '"') {
+      last = value + 1;
+    } else {
+      last = index.pair(value);
+      if (last == UNMATCHED) {
+        throw unexpectedCharacter(index.position(value));
+      }
+    }
+    final int next = last + 1;
+    if (next >= index.size()) {
+      throw unexpectedEndOfInput();
+    }
+    expectWhitespace(index.position(last) + 1, index.position(next));
+    return next;
+  }
+
+  private int closingBracket(int open, char expected) {
+    final int close = index.pair(open);
+    if (close == UNMATCHED) {
+      throw unexpectedEndOfInput();
+    }
+    if (buffer[index.position(close)] != expected) {
+      throw unexpectedCharacter(index.position(close));
+    }
+    return close;
+  }
+
+  /**
+   * Extended types are objects whose first field name starts with a '$'. Such objects are parsed
+   * with the {@link VectorOutput} used by the token based reader.
+   */
+  private boolean isExtendedType(int open) {
+    final int key = open + 1;
+    final int keyStart = index.position(key);
+    return buffer[keyStart] == '"'
+        && keyStart + 1 < index.position(key + 1)
+        && buffer[keyStart + 1] == '$'
+        && isWhitespace(index.position(open) + 1, keyStart);
+  }
+
+  private boolean writeExtended(StructWriter map, String fieldName, int open) throws IOException {
+    if (!isExtendedType(open)) {
+      return false;
+    }
+    try (JsonParser extendedParser = createExtendedParser(open)) {
+      mapOutput.setParser(extendedParser);
+      return mapOutput.run(map, fieldName);
+    }
+  }
+
+  private boolean writeExtended(ListWriter list, int open) throws IOException {
+    if (!isExtendedType(open)) {
+      return false;
+    }
+    try (JsonParser extendedParser = createExtendedParser(open)) {
+      listOutput.setParser(extendedParser);
+      return listOutput.run(list);
+    }
+  }
+
+  private JsonParser createExtendedParser(int open) throws IOException {
+    final int start = index.position(open);
+    final int end = index.position(index.pair(open)) + 1;
+    final JsonParser extendedParser = createParser(buffer, start, end - start);
+    // position the parser on the start of the object, as VectorOutput expects
+    extendedParser.nextToken();
+    return extendedParser;
+  }
+
+  private String fieldName(int start, int end) {
+    int hash = 1;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + buffer[i];
+    }
+    final int slot = hash & (NAME_CACHE_SIZE - 1);
+    final byte[] key = nameKeys[slot];
+    if (key != null && Arrays.equals(key, 0, key.length, buffer, start, end)) {
+      return names[slot];
+    }
+    final String name;
+    if (JsonStructuralIndex.findQuoteOrBackslash(buffer, start, end) == end) {
+      name = new String(buffer, start, end - start, UTF_8);
+    } else {
+      name = new String(scratch, 0, unescape(start, end), UTF_8);
+    }
+    nameKeys[slot] = Arrays.copyOfRange(buffer, start, end);
+    names[slot] = name;
+    return name;
+  }
+
+  /**
+   * Copies the contents of a string into the working buffer.
+   *
+   * @return length of the decoded string
+   */
+  private int prepareString(int start, int end) {
+    final int size;
+    if (JsonStructuralIndex.findQuoteOrBackslash(buffer, start, end) == end) {
+      FieldSizeLimitExceptionHelper.checkSizeLimit(
+          end - start, maxFieldSize, currentFieldName, logger);
+      size = workingBuffer.prepareVarChar(buffer, start, end - start);
+    } else {
+      final int length = unescape(start, end);
+      FieldSizeLimitExceptionHelper.checkSizeLimit(length, maxFieldSize, currentFieldName, logger);
+      size = workingBuffer.prepareVarChar(scratch, 0, length);
+    }
+    dataSizeReadSoFar += size;
+    return size;
+  }
+
+  /**
+   * Decodes the escape sequences of a string into the scratch buffer.
+   *
+   * @return length of the decoded string
+   */
+  private int unescape(int start, int end) {
+    // decoded strings are never longer than their escaped form
+    if (scratch.length < end - start) {
+      scratch = new byte[Math.max(end - start, scratch.length * 2)];
+    }
+    int length = 0;
+    int i = start;
+    while (i < end) {
+      // within a string quotes only appear escaped, so this finds the next backslash
+      final int escape = JsonStructuralIndex.findQuoteOrBackslash(buffer, i, end);
+      System.arraycopy(buffer, i, scratch, length, escape - i);
+      length += escape - i;
+      if (escape == end) {
+        break;
+      }
+      i = escape + 2;
+      if (i > end) {
+        throw unexpectedEndOfInput();
+      }
+      final byte escaped = buffer[escape + 1];
+      switch (escaped) {
+        case '"':
+        case '\\':
+        case '/':
+          scratch[length++] = escaped;
+          break;
+        case 'b':
+          scratch[length++] = '\b';
+          break;
+        case 'f':
+          scratch[length++] = '\f';
+          break;
+        case 'n':
+          scratch[length++] = '\n';
+          break;
+        case 'r':
+          scratch[length++] = '\r';
+          break;
+        case 't':
+          scratch[length++] = '\t';
+          break;
+        case 'u':
+          int codePoint = hex(i, end);
+          i += 4;
+          if (Character.isHighSurrogate((char) codePoint)
+              && i + 6 <= end
+              && buffer[i] == '\\'
+              && buffer[i + 1] == 'u') {
+            final int low = hex(i + 2, end);
+            if (Character.isLowSurrogate((char) low)) {
+              codePoint = Character.toCodePoint((char) codePoint, (char) low);
+              i += 6;
+            }
+          }
+          length = appendCodePoint(codePoint, length);
+          break;
+        default:
+          throw unexpectedCharacter(escape + 1);
+      }
+    }
+    return length;
+  }
+
+  private int hex(int start, int end) {
+    if (start + 4 > end) {
+      throw unexpectedEndOfInput();
+    }
+    int value = 0;
+    for (int i = start; i < start + 4; i++) {
+      final int digit = Character.digit(buffer[i], 16);
+      if (digit < 0) {
+        throw unexpectedCharacter(i);
+      }
+      value = (value << 4) | digit;
+    }
+    return value;
+  }
+
+  private int appendCodePoint(int codePoint, int length) {
+    if (codePoint < 0x80) {
+      scratch[length++] = (byte) codePoint;
+    } else if (codePoint < 0x800) {
+      scratch[length++] = (byte) (0xC0 | (codePoint >> 6));
+      scratch[length++] = (byte) (0x80 | (codePoint & 0x3F));
+    } else if (Character.isSurrogate((char) codePoint) && codePoint < 0x10000) {
+      // unpaired surrogates cannot be encoded, same as String.getBytes()
+      scratch[length++] = '?';
+    } else if (codePoint < 0x10000) {
+      scratch[length++] = (byte) (0xE0 | (codePoint >> 12));
+      scratch[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+      scratch[length++] = (byte) (0x80 | (codePoint & 0x3F));
+    } else {
+      scratch[length++] = (byte) (0xF0 | (codePoint >> 18));
+      scratch[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+      scratch[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+      scratch[length++] = (byte) (0x80 | (codePoint & 0x3F));
+    }
+    return length;
+  }
+
+  /**
+   * Parses a literal or a number. Numbers are left in {@link #longValue} or {@link #doubleValue}.
+   *
+   * @return kind of the scalar
+   */
+  private int parseScalar(int start, int end) {
+    switch (buffer[start]) {
+      case 't':
+        expectLiteral(start, end, TRUE);
+        return TRUE_VALUE;
+      case 'f':
+        expectLiteral(start, end, FALSE);
+        return FALSE_VALUE;
+      case 'n':
+        expectLiteral(start, end, NULL);
+        return NULL_VALUE;
+      default:
+        return parseNumber(start, end);
+    }
+  }
+
+  private void expectLiteral(int start, int end, byte[] literal) {
+    if (!Arrays.equals(buffer, start, end, literal, 0, literal.length)) {
+      throw unexpectedCharacter(start);
+    }
+  }
+
+  private int parseNumber(int start, int end) {
+    final boolean negative = buffer[start] == '-';
+    final int digits = negative ? start + 1 : start;
+    if (digits == end || !isDigit(buffer[digits])) {
+      throw unexpectedCharacter(digits == end ? start : digits);
+    }
+
+    long value = 0;
+    int i = digits;
+    for (; i < end && isDigit(buffer[i]); i++) {
+      value = value * 10 + (buffer[i] - '0');
+    }
+    final int integerDigits = i - digits;
+    boolean floatingPoint = false;
+    if (i < end && buffer[i] == '.') {
+      floatingPoint = true;
+      i = expectDigits(i + 1, end);
+    }
+    if (i < end && (buffer[i] == 'e' || buffer[i] == 'E')) {
+      floatingPoint = true;
+      i++;
+      if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+        i++;
+      }
+      i = expectDigits(i, end);
+    }
+    if (i < end) {
+      throw unexpectedCharacter(i);
+    }
+
+    if (!floatingPoint && integerDigits <= 18) {
+      // no overflow possible
+      longValue = negative ? -value : value;
+      doubleValue = longValue;
+    } else {
+      final String text = new String(buffer, start, end - start, ISO_8859_1);
+      try {
+        doubleValue = Double.parseDouble(text);
+        if (!floatingPoint && !readNumbersAsDouble) {
+          longValue = Long.parseLong(text);
+        }
+      } catch (NumberFormatException e) {
+        throw getExceptionWithContext(UserException.dataReadError(e), currentFieldName)
+            .message("Failure while parsing JSON. Invalid numeric value %s.", text)
+            .build(logger);
+      }
+    }
+    return floatingPoint || readNumbersAsDouble ? DOUBLE_VALUE : LONG_VALUE;
+  }
+
+  /** Returns the offset following a non empty run of digits starting at {@code start}. */
+  private int expectDigits(int start, int end) {
+    if (start == end) {
+      throw unexpectedCharacter(start - 1);
+    }
+    int i = start;
+    while (i < end && isDigit(buffer[i])) {
+      i++;
+    }
+    if (i == start) {
+      throw unexpectedCharacter(start);
+    }
+    return i;
+  }
+
+  private static boolean isDigit(byte b) {
+    return b >= '0' && b <= '9';
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+  }
+
+  private boolean isWhitespace(int start, int end) {
+    return skipWhitespace(start, end) == end;
+  }
+
+  private int skipWhitespace(int start, int end) {
+    int i = start;
+    while (i < end && isWhitespace(buffer[i])) {
+      i++;
+    }
+    return i;
+  }
+
+  private int trimWhitespace(int start, int end) {
+    int i = end;
+    while (i > start && isWhitespace(buffer[i - 1])) {
+      i--;
+    }
+    return i;
+  }
+
+  private void expectWhitespace(int start, int end) {
+    final int nonWhitespace = skipWhitespace(start, end);
+    if (nonWhitespace < end) {
+      throw unexpectedCharacter(nonWhitespace);
+    }
+  }
+
+  /**
+   * Increment the current leaf count and throw ColumnCountTooLargeException if the max limit is
+   * exceeded.
+   */
+  private void incrementLeafCount() {
+    if (++currentLeafCount > maxLeafLimit) {
+      throw new ColumnCountTooLargeException(maxLeafLimit);
+    }
+  }
+
+  private UserException unexpectedCharacter(int position) {
+    final int b = buffer[position] & 0xFF;
+    return getExceptionWithContext(UserException.dataReadError(), currentFieldName)
+        .message(
+            "Failure while parsing JSON. Unexpected character (%s) at offset %d.",
+            b >= 0x20 && b < 0x7F ? "'" + (char) b + "'" : String.format("0x%02X", b),
+            bufferOffset + position)
+        .build(logger);
+  }
+
+  private UserException unexpectedEndOfInput() {
+    return getExceptionWithContext(UserException.dataReadError(), currentFieldName)
+        .message("Failure while parsing JSON. Unexpected end of input.")
+        .build(logger);
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.vector.complex.fn;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Positions of the structural characters of a UTF-8 JSON text, built in a single pass. Recorded are
+ * the brackets, colons and commas outside of strings as well as the opening and closing quote of
+ * every string, so the closing quote of the string opened at entry {@code i} is always entry {@code
+ * i + 1}. Every bracket is paired with its counterpart, which lets a reader step over a whole
+ * object or array in constant time. Scalars other than strings are not indexed, they occupy the
+ * bytes between two entries.
+ *
+ * <p>String contents are skipped eight bytes at a time looking for the next quote or backslash.
+ */
+final class JsonStructuralIndex {
+  /** Pair of a bracket whose counterpart is not part of the indexed bytes. */
+  static final int UNMATCHED = -1;
+
+  private static final VarHandle LONGS =
+      MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGHS = 0x8080808080808080L;
+  private static final long QUOTES = '"' * ONES;
+  private static final long BACKSLASHES = '\\' * ONES;
+
+  private int[] positions = new int[1024];
+  private int[] pairs = new int[1024];
+  private int[] openBrackets = new int[64];
+  private int count;
+  private boolean truncated;
+
+  /**
+   * Indexes {@code bytes[from, to)}, which must start outside of any string. Indexing stops early
+   * if the range ends within a string, see {@link #isTruncated()}.
+   */
+  void build(byte[] bytes, int from, int to) {
+    count = 0;
+    truncated = false;
+    int depth = 0;
+    int i = from;
+    while (i < to) {
+      switch (bytes[i]) {
+        case '"':
+          int close = closingQuote(bytes, i + 1, to);
+          if (close < 0) {
+            truncated = true;
+            return;
+          }
+          add(i);
+          add(close);
+          i = close + 1;
+          continue;
+        case '{':
+        case '[':
+          if (depth == openBrackets.length) {
+            openBrackets = Arrays.copyOf(openBrackets, depth * 2);
+          }
+          openBrackets[depth++] = add(i);
+          break;
+        case '}':
+        case ']':
+          int entry = add(i);
+          if (depth > 0) {
+            int open = openBrackets[--depth];
+            pairs[open] = entry;
+            pairs[entry] = open;
+          }
+          break;
+        case ':':
+        case ',':
+          add(i);
+          break;
+        default:
+          break;
+      }
+      i++;
+    }
+  }
+
+  /** Number of entries. */
+  int size() {
+    return count;
+  }
+
+  /** Offset of the given entry in the indexed bytes. */
+  int position(int entry) {
+    return positions[entry];
+  }
+
+  /** Counterpart of the bracket at the given entry, or {@link #UNMATCHED}. */
+  int pair(int entry) {
+    return pairs[entry];
+  }
+
+  /** Whether the indexed range ended within a string, in which case later bytes are not indexed. */
+  boolean isTruncated() {
+    return truncated;
+  }
+
+  private int add(int position) {
+    if (count == positions.length) {
+      positions = Arrays.copyOf(positions, count * 2);
+      pairs = Arrays.copyOf(pairs, count * 2);
+    }
+    positions[count] = position;
+    pairs[count] = UNMATCHED;
+    return count++;
+  }
+
+  /** Returns the offset of the quote closing a string whose contents start at {@code from}. */
+  private static int closingQuote(byte[] bytes, int from, int to) {
+    int i = from;
+    while (true) {
+      i = findQuoteOrBackslash(bytes, i, to);
+      if (i >= to) {
+        return -1;
+      }
+      if (bytes[i] == '"') {
+        return i;
+      }
+      // skip the escaped character
+      i += 2;
+    }
+  }
+
+  static int findQuoteOrBackslash(byte[] bytes, int from, int to) {
+    int i = from;
+    for (; i + Long.BYTES <= to; i += Long.BYTES) {
+      long word = (long) LONGS.get(bytes, i);
+      long matches = zeroBytes(word ^ QUOTES) | zeroBytes(word ^ BACKSLASHES);
+      if (matches != 0) {
+        // the lowest flagged byte is always an exact match, borrows only spill towards higher bytes
+        return i + (Long.numberOfTrailingZeros(matches) >>> 3);
+      }
+    }
+    for (; i < to; i++) {
+      if (bytes[i] == '"' || bytes[i] == '\\') {
+        return i;
+      }
+    }
+    return to;
+  }
+
+  /** Sets the high bit of every byte of {@code word} that is zero. */
+  private static long zeroBytes(long word) {
+    return (word - ONES) & ~word & HIGHS;
+  }
+}
@@ -57,6 +57,12 @@ public class WorkingBuffer {
     return b.length;
   }
 
+  public int prepareVarChar(byte[] b, int offset, int length) {
+    ensure(length);
+    workBuf.setBytes(0, b, offset, length);
+    return length;
+  }
+
   public void prepareBinary(byte[] b, VarBinaryHolder h) throws IOException {
     ensure(b.length);
     workBuf.setBytes(0, b);
@@ -21,6 +21,7 @@ import com.dremio.exec.proto.CoordExecRPC.NodePhaseStatus;
 import com.dremio.exec.proto.CoordExecRPC.NodeQueryStatus;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.sabot.exec.context.QuerySharedObjects;
 import com.dremio.sabot.task.AsyncTaskWrapper;
 import com.dremio.sabot.task.SchedulingGroup;
 import com.google.common.base.Preconditions;
@@ -59,6 +60,7 @@ public class QueryTicket extends TicketWithChildren {
   private final Collection<NodePhaseStatus> completed = new ConcurrentLinkedQueue<>();
   private final long enqueuedTime;
   private final SchedulingGroup<AsyncTaskWrapper> queryGroup;
+  private final QuerySharedObjects sharedObjects;
   private volatile NodeQueryStatus finalQueryStatus;
   private static int NUMBER_OF_CORES = VM.availableProcessors();
 
@@ -82,6 +84,7 @@ public class QueryTicket extends TicketWithChildren {
         this.workloadTicket
             .getSchedulingGroup()
             .addGroup((queryWeight <= 0) ? 1 : queryWeight, useWeightBasedScheduling);
+    this.sharedObjects = new QuerySharedObjects(allocator);
   }
 
   public QueryId getQueryId() {
@@ -199,4 +202,14 @@ public class QueryTicket extends TicketWithChildren {
   public SchedulingGroup<AsyncTaskWrapper> getSchedulingGroup() {
     return this.queryGroup;
   }
+
+  /** Returns the objects shared by the fragments of this query on this node. */
+  public QuerySharedObjects getSharedObjects() {
+    return sharedObjects;
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(sharedObjects, super::close);
+  }
 }
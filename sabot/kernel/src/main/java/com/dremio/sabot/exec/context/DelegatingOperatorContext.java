@@ -218,6 +218,11 @@ public class DelegatingOperatorContext extends OperatorContext {
     return delegate.getExpressionSplitCache();
   }
 
+  @Override
+  public QuerySharedObjects getQuerySharedObjects() {
+    return delegate.getQuerySharedObjects();
+  }
+
   @Override
   public Provider<CoordinationProtos.NodeEndpoint> getNodeEndpointProvider() {
     return delegate.getNodeEndpointProvider();
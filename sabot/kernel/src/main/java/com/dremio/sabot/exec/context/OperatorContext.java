@@ -133,6 +133,12 @@ public abstract class OperatorContext {
 
   public abstract ExpressionSplitCache getExpressionSplitCache();
 
+  /**
+   * Returns the objects shared by the fragments of the query that run on this node, or null if the
+   * operator does not run in a fragment.
+   */
+  public abstract QuerySharedObjects getQuerySharedObjects();
+
   public static int getChildCount(PhysicalOperator popConfig) {
     Iterator<PhysicalOperator> iter = popConfig.iterator();
     int i = 0;
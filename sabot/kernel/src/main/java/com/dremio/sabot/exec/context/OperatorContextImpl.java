@@ -91,6 +91,7 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
   private final List<MinorFragmentEndpoint> minorFragmentEndpoints;
   private final ExpressionSplitCache expressionSplitCache;
   private final HeapLowMemController heapLowMemController;
+  private final QuerySharedObjects querySharedObjects;
 
   public OperatorContextImpl(
       SabotConfig sabotConfig,
@@ -119,6 +120,63 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
       ExpressionSplitCache expressionSplitCache,
       HeapLowMemController heapLowMemController)
       throws OutOfMemoryException {
+    this(
+        sabotConfig,
+        dremioConfig,
+        handle,
+        popConfig,
+        allocator,
+        fragmentOutputAllocator,
+        compiler,
+        stats,
+        executionControls,
+        fragmentExecutorBuilder,
+        executor,
+        functions,
+        contextInformation,
+        optionManager,
+        spillService,
+        nodeDebugContextProvider,
+        targetBatchSize,
+        tunnelProvider,
+        assignments,
+        majorFragmentAssignments,
+        nodeEndpointProvider,
+        endpointsIndex,
+        minorFragmentEndpoints,
+        expressionSplitCache,
+        heapLowMemController,
+        null);
+  }
+
+  public OperatorContextImpl(
+      SabotConfig sabotConfig,
+      DremioConfig dremioConfig,
+      FragmentHandle handle,
+      PhysicalOperator popConfig,
+      BufferAllocator allocator,
+      BufferAllocator fragmentOutputAllocator,
+      CodeCompiler compiler,
+      OperatorStats stats,
+      ExecutionControls executionControls,
+      FragmentExecutorBuilder fragmentExecutorBuilder,
+      ExecutorService executor,
+      FunctionLookupContext functions,
+      ContextInformation contextInformation,
+      final OptionManager optionManager,
+      SpillService spillService,
+      NodeDebugContextProvider nodeDebugContextProvider,
+      int targetBatchSize,
+      TunnelProvider tunnelProvider,
+      List<FragmentAssignment> assignments,
+      List<MajorFragmentAssignment> majorFragmentAssignments,
+      Provider<CoordinationProtos.NodeEndpoint> nodeEndpointProvider,
+      EndpointsIndex endpointsIndex,
+      List<MinorFragmentEndpoint> minorFragmentEndpoints,
+      ExpressionSplitCache expressionSplitCache,
+      HeapLowMemController heapLowMemController,
+      QuerySharedObjects querySharedObjects)
+      throws OutOfMemoryException {
     this.config = sabotConfig;
     this.dremioConfig = dremioConfig;
     this.handle = handle;
@@ -164,6 +222,7 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
     this.minorFragmentEndpoints = minorFragmentEndpoints;
     this.expressionSplitCache = expressionSplitCache;
     this.heapLowMemController = heapLowMemController;
+    this.querySharedObjects = querySharedObjects;
   }
 
   public OperatorContextImpl(
@@ -264,6 +323,11 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
     return expressionSplitCache;
   }
 
+  @Override
+  public QuerySharedObjects getQuerySharedObjects() {
+    return querySharedObjects;
+  }
+
   @Override
   public QueryId getQueryIdForLocalQuery() {
     if (fragmentExecutorBuilder == null) {
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec.context;
+
+import com.dremio.common.AutoCloseables;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.arrow.memory.BufferAllocator;
+
+/**
+ * Holds the objects shared by the fragments of a query that run on this node, one instance per
+ * type. The objects are created on first use with the query allocator, and are closed when the
+ * query completes on this node, before the query allocator is closed.
+ */
+@ThreadSafe
+public class QuerySharedObjects implements AutoCloseable {
+
+  private final BufferAllocator allocator;
+  private final Map<Class<?>, AutoCloseable> objects = new ConcurrentHashMap<>();
+  private volatile boolean closed;
+
+  public QuerySharedObjects(BufferAllocator allocator) {
+    this.allocator = Preconditions.checkNotNull(allocator);
+  }
+
+  /**
+   * Returns the object of the given type, creating it with the given function, from the query
+   * allocator, if no fragment has yet.
+   */
+  public <T extends AutoCloseable> T getOrCreate(
+      Class<T> type, Function<BufferAllocator, T> creator) {
+    Preconditions.checkState(!closed, "Query shared objects have been closed");
+    return type.cast(objects.computeIfAbsent(type, t -> creator.apply(allocator)));
+  }
+
+  @Override
+  public void close() throws Exception {
+    closed = true;
+    final List<AutoCloseable> toClose = new ArrayList<>(objects.values());
+    objects.clear();
+    AutoCloseables.close(toClose);
+  }
+}
@@ -73,4 +73,11 @@ public interface FileCursorManager {
    * @return cursor value.
    */
   long getMaxReadCursor();
+
+  /**
+   * Get the number of readers registered so far, including the ones that are already finished.
+   *
+   * @return number of readers.
+   */
+  int getRegisteredReaderCount();
 }
@@ -32,6 +32,7 @@ public class FileCursorManagerImpl implements FileCursorManager {
   private FileStreamManager fileStreamManager;
   private FileWriterMonitor writerMonitor;
   private final List<FileReaderMonitor> allReaderMonitors = new ArrayList<>();
+  private int registeredReaderCount;
   private Runnable onAllReadersDone;
   private long curWriteCursor = INVALID_CURSOR;
   private long curMaxReadCursor = INVALID_CURSOR;
@@ -121,6 +122,11 @@ public class FileCursorManagerImpl implements FileCursorManager {
     return curMaxReadCursor;
   }
 
+  @Override
+  public synchronized int getRegisteredReaderCount() {
+    return registeredReaderCount;
+  }
+
   public String getId() {
     return id;
   }
@@ -151,6 +157,7 @@ public class FileCursorManagerImpl implements FileCursorManager {
 
   private synchronized void addReaderMonitor(FileReaderMonitor readerMonitor) {
     allReaderMonitors.add(readerMonitor);
+    ++registeredReaderCount;
     if (writerMonitor == null && curWriteCursor != INVALID_CURSOR) {
       // writer finished even before reader registered.
       readerMonitor.markWriterFinished();
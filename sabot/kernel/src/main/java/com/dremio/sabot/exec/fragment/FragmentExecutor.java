@@ -80,7 +80,6 @@ import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.SettableFuture;
 import java.security.PrivilegedExceptionAction;
 import java.util.ArrayDeque;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Deque;
 import java.util.HashMap;
@@ -89,6 +88,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.apache.arrow.memory.ArrowBuf;
@@ -204,11 +205,13 @@ public class FragmentExecutor implements MemoryArbiterTask {
   private final long maxMemoryUsedPerPump;
   private final boolean dynamicallyTrackAllocations;
   private final Deque<Long> lastNAllocations = new ArrayDeque<>();
-  private final List<MemoryTaskAndShrinkableOperator> shrinkableOperators = new ArrayList<>();
+  // read by the memory arbiter from other threads
+  private final List<MemoryTaskAndShrinkableOperator> shrinkableOperators =
+      new CopyOnWriteArrayList<>();
   private final Map<Integer, MemoryTaskAndShrinkableOperator> memoryTaskAndShrinkableOperatorMap =
       new HashMap<>();
   // This is the list of operators that have been asked to spill
-  private final Map<Integer, Long> spillingOperators = new HashMap<>();
+  private final Map<Integer, Long> spillingOperators = new ConcurrentHashMap<>();
   // This is a queue of in-progress spilling operators
   private final Queue<Integer> spillingOperatorQueue = new ArrayDeque<>(10);
 
@@ -372,7 +372,8 @@ public class FragmentExecutorBuilder {
                 nodeEndpointProvider,
                 major.getExtFragmentAssignmentsList(),
                 expressionSplitCache,
-                heapLowMemController);
+                heapLowMemController,
+                queryTicket.getSharedObjects());
 
         final FragmentStatusReporter statusReporter =
             new FragmentStatusReporter(
@@ -43,6 +43,7 @@ import com.dremio.sabot.exec.context.OpProfileDef;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorContextImpl;
 import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.exec.context.QuerySharedObjects;
 import com.dremio.sabot.exec.heap.HeapLowMemController;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.service.namespace.NamespaceService;
@@ -83,6 +84,7 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
   private List<MinorFragmentEndpoint> minorFragmentEndpoints;
   private final ExpressionSplitCache expressionSplitCache;
   private final HeapLowMemController heapLowMemController;
+  private final QuerySharedObjects querySharedObjects;
   private final boolean enableMAStaticMemLimit;
   private final boolean enableMA;
 
@@ -109,7 +111,8 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
       Provider<CoordinationProtos.NodeEndpoint> nodeEndpointProvider,
       List<CoordExecRPC.MajorFragmentAssignment> extFragmentAssignments,
       ExpressionSplitCache expressionSplitCache,
-      HeapLowMemController heapLowMemController) {
+      HeapLowMemController heapLowMemController,
+      QuerySharedObjects querySharedObjects) {
     super();
     this.stats = stats;
     this.allocator = allocator;
@@ -135,6 +138,7 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
     this.extFragmentAssignments = extFragmentAssignments;
     this.expressionSplitCache = expressionSplitCache;
     this.heapLowMemController = heapLowMemController;
+    this.querySharedObjects = querySharedObjects;
     this.enableMAStaticMemLimit =
         options.getOption(ExecConstants.ENABLE_SPILLABLE_OPERATORS_STATIC_MEMLIMIT);
     this.enableMA = options.getOption(ExecConstants.ENABLE_SPILLABLE_OPERATORS);
@@ -210,7 +214,8 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
               endpointsIndex,
               minorFragmentEndpoints,
               expressionSplitCache,
-              heapLowMemController);
+              heapLowMemController,
+              querySharedObjects);
       operatorContexts.add(context);
       closeable.commit();
       return context;
@@ -26,6 +26,7 @@ import java.io.IOException;
 /** Wrapper over FileTunnel to account pending batches and flow control (TODO) */
 public class AccountingFileTunnel implements AutoCloseable {
   private final FileTunnel tunnel;
+  private final FileCursorManager cursorManager;
   private final FileCursorManager.Observer observer;
   private boolean allReceiversDone;
 
@@ -36,10 +37,9 @@ public class AccountingFileTunnel implements AutoCloseable {
     this.tunnel = tunnel;
 
     FileStreamManager streamManager = tunnel.getFileStreamManager();
+    this.cursorManager = cursorManagerFactory.getManager(streamManager.getId());
     this.observer =
-        cursorManagerFactory
-            .getManager(streamManager.getId())
-            .registerWriter(streamManager, sharedResource, () -> allReceiversDone = true);
+        cursorManager.registerWriter(streamManager, sharedResource, () -> allReceiversDone = true);
   }
 
   public void sendStreamComplete(ExecRPC.FragmentStreamComplete streamComplete) throws IOException {
@@ -56,6 +56,16 @@ public class AccountingFileTunnel implements AutoCloseable {
     return allReceiversDone;
   }
 
+  /** Number of receivers that read the files of this tunnel, finished or not. */
+  public int getReceiverCount() {
+    return cursorManager.getRegisteredReaderCount();
+  }
+
+  /** Number of files written so far. */
+  public int getFileCount() {
+    return tunnel.getCurrentFileSeq() + 1;
+  }
+
   @Override
   public void close() throws Exception {
     AutoCloseables.close(tunnel, observer);
@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.memory;
+
+import com.dremio.telemetry.api.metrics.Counter;
+import com.dremio.telemetry.api.metrics.Metrics;
+import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.arrow.memory.BufferAllocator;
+
+/**
+ * A MemoryArbiter that hands out per pump memory grants against a share of the executor's direct
+ * memory.
+ *
+ * <p>A grant is accepted if the memory currently allocated plus all outstanding grants plus the
+ * request stays within the budget. Otherwise the requesting task is blocked and queued, and the
+ * shrinkable operators (sort, hash agg, hash join) with the most shrinkable memory are asked to
+ * spill until enough memory is on its way to be released. Blocked tasks are unblocked in arrival
+ * order whenever grants are released, tasks finish or operators are done spilling.
+ *
+ * <p>To never leave a task blocked forever, a request is always granted when no other grant is
+ * outstanding and no operator is spilling, since nothing would otherwise release memory.
+ */
+public class BudgetMemoryArbiter implements MemoryArbiter {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(BudgetMemoryArbiter.class);
+
+  private static final Counter BLOCKED_TASKS =
+      Metrics.newCounter(Metrics.join("memory_arbiter", "blocked_tasks"), Metrics.ResetType.NEVER);
+  private static final Counter SPILL_REQUESTS =
+      Metrics.newCounter(Metrics.join("memory_arbiter", "spill_requests"), Metrics.ResetType.NEVER);
+
+  private final BufferAllocator rootAllocator;
+  private final long budget;
+
+  private final Set<MemoryArbiterTask> tasks = Collections.newSetFromMap(new IdentityHashMap<>());
+  // blocked tasks in arrival order, with the size of the grant they asked for
+  private final Map<MemoryArbiterTask, Long> blockedTasks = new LinkedHashMap<>();
+  // operators that were asked to spill, with the shrinkable memory they reported at that time
+  private final Map<MemoryTaskAndShrinkableOperator, Long> spillingOperators =
+      new IdentityHashMap<>();
+  private long grantedBytes;
+
+  public BudgetMemoryArbiter(BufferAllocator rootAllocator, long budgetPercentage) {
+    this.rootAllocator = rootAllocator;
+    this.budget = (long) (rootAllocator.getLimit() * (budgetPercentage / 100.0));
+  }
+
+  @Override
+  public void startTask(MemoryArbiterTask memoryArbiterTask) {
+    synchronized (this) {
+      tasks.add(memoryArbiterTask);
+    }
+  }
+
+  @Override
+  public void taskDone(MemoryArbiterTask memoryArbiterTask) {
+    final List<MemoryArbiterTask> toUnblock;
+    final List<MemoryTaskAndShrinkableOperator> toSpill = new ArrayList<>();
+    synchronized (this) {
+      tasks.remove(memoryArbiterTask);
+      blockedTasks.remove(memoryArbiterTask);
+      for (MemoryTaskAndShrinkableOperator operator : memoryArbiterTask.getShrinkableOperators()) {
+        spillingOperators.remove(operator);
+      }
+      releaseGrant(memoryArbiterTask);
+      toUnblock = pollUnblocked(toSpill);
+    }
+    notifyTasks(toUnblock, toSpill);
+  }
+
+  @Override
+  public boolean acquireMemoryGrant(MemoryArbiterTask memoryArbiterTask, long memoryGrantInBytes) {
+    final List<MemoryTaskAndShrinkableOperator> toSpill;
+    synchronized (this) {
+      final long currentGrant = memoryArbiterTask.getMemoryGrant();
+      if (memoryGrantInBytes <= currentGrant) {
+        return true;
+      }
+
+      final long additional = memoryGrantInBytes - currentGrant;
+      final long shortfall =
+          rootAllocator.getAllocatedMemory() + grantedBytes + additional - budget;
+      if (shortfall <= 0 || (grantedBytes == 0 && spillingOperators.isEmpty())) {
+        grantedBytes += additional;
+        memoryArbiterTask.setMemoryGrant(memoryGrantInBytes);
+        return true;
+      }
+
+      blockedTasks.put(memoryArbiterTask, memoryGrantInBytes);
+      memoryArbiterTask.blockOnMemory();
+      BLOCKED_TASKS.increment(1);
+      logger.debug(
+          "Task {} blocked on a grant of {} bytes, {} bytes short",
+          memoryArbiterTask.getTaskId(),
+          memoryGrantInBytes,
+          shortfall);
+      toSpill = chooseOperatorsToSpill(shortfall);
+    }
+    notifyTasks(Collections.emptyList(), toSpill);
+    return false;
+  }
+
+  @Override
+  public void releaseMemoryGrant(MemoryArbiterTask memoryArbiterTask) {
+    final List<MemoryArbiterTask> toUnblock;
+    final List<MemoryTaskAndShrinkableOperator> toSpill = new ArrayList<>();
+    synchronized (this) {
+      releaseGrant(memoryArbiterTask);
+      toUnblock = pollUnblocked(toSpill);
+    }
+    notifyTasks(toUnblock, toSpill);
+  }
+
+  @Override
+  public boolean removeFromBlocked(MemoryArbiterTask memoryArbiterTask) {
+    synchronized (this) {
+      return blockedTasks.remove(memoryArbiterTask) != null;
+    }
+  }
+
+  @Override
+  public void removeFromSpilling(MemoryTaskAndShrinkableOperator memoryTaskAndShrinkableOperator) {
+    final List<MemoryArbiterTask> toUnblock;
+    final List<MemoryTaskAndShrinkableOperator> toSpill = new ArrayList<>();
+    synchronized (this) {
+      spillingOperators.remove(memoryTaskAndShrinkableOperator);
+      toUnblock = pollUnblocked(toSpill);
+    }
+    notifyTasks(toUnblock, toSpill);
+  }
+
+  /** Called by a task once one of its operators is done spilling, memory may now be available. */
+  @Override
+  public void addTaskToQueue(MemoryArbiterTask memoryArbiterTask) {
+    final List<MemoryArbiterTask> toUnblock;
+    final List<MemoryTaskAndShrinkableOperator> toSpill = new ArrayList<>();
+    synchronized (this) {
+      toUnblock = pollUnblocked(toSpill);
+    }
+    notifyTasks(toUnblock, toSpill);
+  }
+
+  @Override
+  public void close() throws Exception {
+    final List<MemoryArbiterTask> toUnblock;
+    synchronized (this) {
+      toUnblock = new ArrayList<>(blockedTasks.keySet());
+      blockedTasks.clear();
+      spillingOperators.clear();
+      tasks.clear();
+    }
+    notifyTasks(toUnblock, Collections.emptyList());
+  }
+
+  @VisibleForTesting
+  synchronized long getGrantedBytes() {
+    return grantedBytes;
+  }
+
+  @VisibleForTesting
+  synchronized int getBlockedTaskCount() {
+    return blockedTasks.size();
+  }
+
+  @VisibleForTesting
+  synchronized int getSpillingOperatorCount() {
+    return spillingOperators.size();
+  }
+
+  long getBudget() {
+    return budget;
+  }
+
+  private void releaseGrant(MemoryArbiterTask memoryArbiterTask) {
+    grantedBytes -= memoryArbiterTask.getMemoryGrant();
+    memoryArbiterTask.setMemoryGrant(0);
+  }
+
+  /**
+   * Removes the blocked tasks whose grant now fits in the budget from the queue, in arrival order.
+   * If the oldest blocked task still does not fit, asks for more operators to spill on its behalf.
+   */
+  private List<MemoryArbiterTask> pollUnblocked(List<MemoryTaskAndShrinkableOperator> toSpill) {
+    final List<MemoryArbiterTask> toUnblock = new ArrayList<>();
+    long projected = rootAllocator.getAllocatedMemory() + grantedBytes;
+    final Iterator<Map.Entry<MemoryArbiterTask, Long>> iterator =
+        blockedTasks.entrySet().iterator();
+    while (iterator.hasNext()) {
+      final Map.Entry<MemoryArbiterTask, Long> entry = iterator.next();
+      final long additional = entry.getValue() - entry.getKey().getMemoryGrant();
+      final boolean nothingToWaitFor =
+          toUnblock.isEmpty() && grantedBytes == 0 && spillingOperators.isEmpty();
+      if (projected + additional > budget && !nothingToWaitFor) {
+        toSpill.addAll(chooseOperatorsToSpill(projected + additional - budget));
+        break;
+      }
+      iterator.remove();
+      toUnblock.add(entry.getKey());
+      projected += additional;
+    }
+    return toUnblock;
+  }
+
+  /**
+   * Picks the operators with the largest shrinkable memory that are not spilling yet, until they
+   * and the operators already spilling are expected to release at least {@code shortfall} bytes.
+   */
+  private List<MemoryTaskAndShrinkableOperator> chooseOperatorsToSpill(long shortfall) {
+    long pending = 0;
+    for (long shrinkable : spillingOperators.values()) {
+      pending += shrinkable;
+    }
+    if (pending >= shortfall) {
+      return Collections.emptyList();
+    }
+
+    final List<MemoryTaskAndShrinkableOperator> candidates = new ArrayList<>();
+    for (MemoryArbiterTask task : tasks) {
+      for (MemoryTaskAndShrinkableOperator operator : task.getShrinkableOperators()) {
+        if (spillingOperators.containsKey(operator) || operator.isOperatorShrinkingMemory()) {
+          continue;
+        }
+        if (operator.updateShrinkableMemory() > 0) {
+          candidates.add(operator);
+        }
+      }
+    }
+    candidates.sort(MemoryTaskAndShrinkableOperator.getComparator());
+
+    final List<MemoryTaskAndShrinkableOperator> chosen = new ArrayList<>();
+    for (MemoryTaskAndShrinkableOperator operator : candidates) {
+      if (pending >= shortfall) {
+        break;
+      }
+      spillingOperators.put(operator, operator.getShrinkableMemory());
+      pending += operator.getShrinkableMemory();
+      chosen.add(operator);
+    }
+    return chosen;
+  }
+
+  /** Wakes up and sends spill requests outside of the arbiter's lock. */
+  private void notifyTasks(
+      List<MemoryArbiterTask> toUnblock, List<MemoryTaskAndShrinkableOperator> toSpill) {
+    for (MemoryArbiterTask task : toUnblock) {
+      task.unblockOnMemory();
+    }
+    for (MemoryTaskAndShrinkableOperator operator : toSpill) {
+      logger.debug("Asking operator {} to spill", operator);
+      SPILL_REQUESTS.increment(1);
+      try {
+        operator.shrinkMemory(operator.getShrinkableMemory());
+      } catch (Exception e) {
+        logger.warn("Failed to ask operator {} to spill", operator, e);
+        removeFromSpilling(operator);
+      }
+    }
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format(
+        "BudgetMemoryArbiter{budget=%d, granted=%d, allocated=%d, tasks=%d, blocked=%d,"
+            + " spilling=%s}",
+        budget,
+        grantedBytes,
+        rootAllocator.getAllocatedMemory(),
+        tasks.size(),
+        blockedTasks.size(),
+        spillingOperators.keySet());
+  }
+}
@@ -16,6 +16,7 @@
 package com.dremio.sabot.memory;
 
 import com.dremio.common.config.SabotConfig;
+import com.dremio.exec.ExecConstants;
 import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.FragmentExecutors;
 import com.dremio.sabot.exec.QueriesClerk;
@@ -62,6 +63,10 @@ public class DefaultMemoryArbiter implements MemoryArbiter {
         FragmentExecutors fragmentExecutors,
         QueriesClerk clerk,
         OptionManager options) {
+      if (options.getOption(ExecConstants.ENABLE_MEMORY_ARBITER_BUDGET)) {
+        return new BudgetMemoryArbiter(
+            rootAllocator, options.getOption(ExecConstants.MEMORY_ARBITER_BUDGET_PERCENTAGE));
+      }
       return new DefaultMemoryArbiter(rootAllocator);
     }
   }
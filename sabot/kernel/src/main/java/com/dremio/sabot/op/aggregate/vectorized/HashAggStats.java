@@ -109,7 +109,15 @@ public class HashAggStats {
     // minimal.
     OOB_SPILL, // Spill was done due to oob.
     OOB_DROP_ALREADY_SPILLING, // Number of times operator dropped spilling notification as it was
-  // already spilling
+    // already spilling
+    PARTIAL_AGG_REDUCTION_RATIO(
+        DisplayType.DISPLAY_BY_DEFAULT,
+        AggregationType.MAX,
+        "Groups per input record over the sampled batches of a partial aggregation"),
+    PARTIAL_AGG_PASS_THROUGH(
+        DisplayType.DISPLAY_BY_DEFAULT,
+        AggregationType.SUM,
+        "Number of partial aggregations that switched to pass-through mode"),
   ;
 
     private final DisplayType displayType;
@@ -396,6 +396,20 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
   public static boolean oobSpillNotificationsEnabled;
   public static final BooleanValidator VECTORIZED_HASHAGG_ENABLE_MICRO_SPILLS =
       new BooleanValidator("exec.operator.aggregate.vectorize.enable_micro_spills", true);
+  /*
+   * The first phase of a two phase aggregation watches how much it reduces its input over the first
+   * batches. If the number of groups stays above the given ratio of the records consumed, the
+   * aggregation is not worth keeping the groups in memory: it switches to pass-through mode where
+   * every incoming batch is aggregated on its own and emitted right away to the exchange.
+   */
+  public static final BooleanValidator VECTORIZED_HASHAGG_ADAPTIVE_BYPASS =
+      new BooleanValidator("exec.operator.aggregate.vectorize.adaptive_bypass.enabled", true);
+  public static final PositiveLongValidator VECTORIZED_HASHAGG_ADAPTIVE_BYPASS_BATCHES =
+      new PositiveLongValidator(
+          "exec.operator.aggregate.vectorize.adaptive_bypass.sample_batches", 1024, 16);
+  public static final DoubleValidator VECTORIZED_HASHAGG_ADAPTIVE_BYPASS_RATIO =
+      new RangeDoubleValidator(
+          "exec.operator.aggregate.vectorize.adaptive_bypass.min_ratio", 0.0d, 1.0d, 0.9d);
   /*
    * If variable column records size is much larger then default (15) size, let the vector created for new batches
    * can go up to 1M (256 * 4K). Config option can be used to reduce, if really needed.
@@ -504,6 +518,16 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
   private ForceSpillState forceSpillState;
   private final int maxFieldSizeBytes;
 
+  /* adaptive bypass of partial aggregation */
+  private final boolean adaptiveBypass;
+  private final long bypassSampleBatches;
+  private final double bypassMinRatio;
+  private long batchesConsumed;
+  private long recordsConsumedFromPipeline;
+  private double reductionRatio = -1;
+  private boolean passThrough;
+  private boolean noMoreInput;
+
   /**
    * This is used to read/write a spilled varlen accumulator from/to disk. Preallocate its memory
    * using the default variable width size however if any batch dynamically increased the size of
@@ -599,6 +623,10 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
     this.maxFieldSizeBytes =
         Math.toIntExact(context.getOptions().getOption(ExecConstants.LIMIT_FIELD_SIZE_BYTES));
     this.memoryGrant = context.getOptions().getOption(ExecConstants.MAX_MEMORY_GRANT_SIZE);
+    this.adaptiveBypass =
+        popConfig.isPartialAggregation() && options.getOption(VECTORIZED_HASHAGG_ADAPTIVE_BYPASS);
+    this.bypassSampleBatches = options.getOption(VECTORIZED_HASHAGG_ADAPTIVE_BYPASS_BATCHES);
+    this.bypassMinRatio = options.getOption(VECTORIZED_HASHAGG_ADAPTIVE_BYPASS_RATIO);
     logger.debug(
         "partitions:{}, min-hashtable-size:{}, max-hashtable-batch-size:{} variable-width-key-size:{}",
         numPartitions,
@@ -1165,6 +1193,9 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
       VariableLengthValidator.validateVariable(v, records);
     }
     consumeDataHelper(records);
+    if (adaptiveBypass) {
+      checkPassThrough(records);
+    }
 
     long memoryUsed = allocator.getAllocatedMemory() - oldMemoryUsage;
     long timeTaken = (System.nanoTime() - startTime) / 1000000;
@@ -1192,6 +1223,44 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
     }
   }
 
+  /**
+   * Decides once, after the configured number of sample batches, whether the partial aggregation
+   * reduces its input enough. Once in pass-through mode, the groups of every fully consumed batch
+   * are emitted right away instead of being kept in the hash tables. Emitting the same group more
+   * than once is fine since the output is aggregated again by the next phase.
+   *
+   * <p>The decision is only taken if nothing was spilled so far, and groups are only emitted while
+   * no partition is spilled, so the regular spill handling stays untouched.
+   */
+  private void checkPassThrough(int records) {
+    batchesConsumed++;
+    recordsConsumedFromPipeline += records;
+    if (!passThrough
+        && reductionRatio < 0
+        && batchesConsumed >= bypassSampleBatches
+        && recordsConsumedFromPipeline > 0) {
+      reductionRatio = ((double) getHashTableSize()) / recordsConsumedFromPipeline;
+      passThrough =
+          reductionRatio >= bypassMinRatio && partitionSpillHandler.getNumberOfSpills() == 0;
+      logger.debug(
+          "Partial aggregation reduced {} records to {} groups (ratio {}), pass-through: {}",
+          recordsConsumedFromPipeline,
+          getHashTableSize(),
+          reductionRatio,
+          passThrough);
+      context.getStats().setDoubleStat(Metric.PARTIAL_AGG_REDUCTION_RATIO, reductionRatio);
+      context.getStats().setLongStat(Metric.PARTIAL_AGG_PASS_THROUGH, passThrough ? 1 : 0);
+    }
+
+    if (passThrough
+        && state == State.CAN_CONSUME
+        && internalStateMachine == InternalState.NONE
+        && partitionSpillHandler.getActiveSpilledPartitionCount() == 0
+        && getHashTableSize() > 0) {
+      moveToOutputState();
+    }
+  }
+
   /**
    * Helper function for consuming incoming data from pipeline. With micro spilling, this function
    * also resumes consuming data from an earlier failure (OOM) point.
@@ -2767,6 +2836,12 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
    * queue then we are not done and need to start the next iteration.
    */
   private void postOutputProcessing() {
+    if (passThrough && !noMoreInput) {
+      /* in pass-through mode, go back to consuming once the groups of the last batch are out */
+      state = State.CAN_CONSUME;
+      internalStateMachine = InternalState.NONE;
+      return;
+    }
     if ((partitionSpillHandler.getActiveSpilledPartitionCount() == 0)
         && partitionSpillHandler.isSpillQueueEmpty()) {
       /* if we are inside recursion, that is we are outputting after
@@ -2818,6 +2893,7 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
   public void noMoreToConsume() throws Exception {
     state.is(State.CAN_CONSUME);
     assertInternalState(InternalState.NONE);
+    noMoreInput = true;
     if (getHashTableSize() == 0) {
       /* nothing to output */
       moveToFinalState();
@@ -124,16 +124,18 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
     this.spilledPartitions = new LinkedList<>();
     this.activeSpilledPartitions = new ArrayList<>(activePartitions.length);
 
+    final String queryId = QueryIdHelper.getQueryId(fragmentHandle.getQueryId());
     final String id =
         String.format(
             "aggspill-%s.%s.%s.%s",
-            QueryIdHelper.getQueryId(fragmentHandle.getQueryId()),
+            queryId,
             fragmentHandle.getMajorFragmentId(),
             fragmentHandle.getMinorFragmentId(),
             operatorId);
 
     this.spillManager =
-        new SpillManager(sabotConfig, optionManager, id, null, spillService, "agg spilling", stats);
+        new SpillManager(
+            sabotConfig, optionManager, id, null, spillService, "agg spilling", stats, queryId);
 
     Preconditions.checkArgument(
         loadingPartition != null, "Error: need a valid handle for loading partition");
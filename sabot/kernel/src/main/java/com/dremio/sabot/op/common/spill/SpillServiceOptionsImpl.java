@@ -61,4 +61,19 @@ public class SpillServiceOptionsImpl implements SpillServiceOptions {
   public long spillSweepThreshold() {
     return options().getOption(ExecConstants.SPILL_SWEEP_THRESHOLD);
   }
+
+  @Override
+  public long spoolingQuotaPerQuery() {
+    return options().getOption(ExecConstants.SPILL_SPOOLING_QUOTA_PER_QUERY_BYTES);
+  }
+
+  @Override
+  public long spillQuotaPerQuery() {
+    return options().getOption(ExecConstants.SPILL_QUOTA_PER_QUERY_BYTES);
+  }
+
+  @Override
+  public long spillQuotaPerNode() {
+    return options().getOption(ExecConstants.SPILL_QUOTA_PER_NODE_BYTES);
+  }
 }
@@ -156,6 +156,8 @@ public class FilterOperator implements SingleInputOperator {
     stats.addLongStat(Metric.JAVA_EXPRESSIONS, splitter.getNumExprsInJava());
     stats.addLongStat(Metric.GANDIVA_EXPRESSIONS, splitter.getNumExprsInGandiva());
     stats.addLongStat(Metric.MIXED_SPLITS, splitter.getNumSplitsInBoth());
+    stats.addLongStat(Metric.ENGINE_SELECTED_EXPRESSIONS, splitter.getNumExprsInSelectedEngine());
+    stats.addLongStat(Metric.VECTORIZED_EXPRESSIONS, splitter.getNumExprsVectorized());
     stats.addLongStat(Metric.JAVA_BUILD_TIME, javaCodeGenWatch.elapsed(TimeUnit.MILLISECONDS));
     stats.addLongStat(
         Metric.GANDIVA_BUILD_TIME, gandivaCodeGenWatch.elapsed(TimeUnit.MILLISECONDS));
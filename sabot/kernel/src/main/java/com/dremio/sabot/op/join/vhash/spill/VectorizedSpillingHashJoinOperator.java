@@ -355,10 +355,11 @@ public class VectorizedSpillingHashJoinOperator implements DualInputOperator, Sh
           rc.add(new ProbeBuffers(maxInputBatchSize, context.getAllocator()));
 
       final ExecProtos.FragmentHandle fragmentHandle = context.getFragmentHandle();
+      final String queryId = QueryIdHelper.getQueryId(fragmentHandle.getQueryId());
       final String id =
           String.format(
               "joinspill-%s.%s.%s.%s",
-              QueryIdHelper.getQueryId(fragmentHandle.getQueryId()),
+              queryId,
               fragmentHandle.getMajorFragmentId(),
               fragmentHandle.getMinorFragmentId(),
               config.getProps().getOperatorId());
@@ -372,7 +373,8 @@ public class VectorizedSpillingHashJoinOperator implements DualInputOperator, Sh
                   null,
                   context.getSpillService(),
                   "join spilling",
-                  context.getStats()));
+                  context.getStats(),
+                  queryId));
 
       // This pool is shared by all partitions, can be used only for spilling (to release memory).
       // - 3 pages required by the replayer
@@ -187,6 +187,7 @@ public class ProjectOperator implements SingleInputOperator {
     stats.addLongStat(Metric.JAVA_EXPRESSIONS, splitter.getNumExprsInJava());
     stats.addLongStat(Metric.MIXED_EXPRESSIONS, splitter.getNumExprsInBoth());
     stats.addLongStat(Metric.MIXED_SPLITS, splitter.getNumSplitsInBoth());
+    stats.addLongStat(Metric.ENGINE_SELECTED_EXPRESSIONS, splitter.getNumExprsInSelectedEngine());
     if (secondaryCache != null) {
       stats.addLongStat(Metric.PERSISTENT_CACHE_READ_TIME, secondaryCache.getReadTime());
       stats.addLongStat(
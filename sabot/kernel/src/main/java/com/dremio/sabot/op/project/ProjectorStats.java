@@ -43,7 +43,12 @@ public class ProjectorStats {
      * This metric could take one of these 3 values: 0 for built from primary cache 1 for built from
      * secondary cache 2 for code generated using gandiva
      */
-    BUILT_FROM_GANDIVA_CACHE;
+    BUILT_FROM_GANDIVA_CACHE,
+    ENGINE_SELECTED_EXPRESSIONS(
+        DisplayType.DISPLAY_BY_DEFAULT,
+        AggregationType.MAX,
+        "Maximum number of expressions evaluated in the non preferred engine as it was measured to"
+            + " be faster");
 
     private final DisplayType displayType;
     private final AggregationType aggregationType;
@@ -19,6 +19,8 @@ import static com.dremio.exec.cache.VectorAccessibleSerializable.readIntoArrowBu
 
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.DeferredException;
+import com.dremio.common.SerializedExecutor;
+import com.dremio.common.concurrent.NamedThreadFactory;
 import com.dremio.common.config.SabotConfig;
 import com.dremio.common.utils.protos.QueryIdHelper;
 import com.dremio.exec.ExecConstants;
@@ -31,17 +33,26 @@ import com.dremio.sabot.op.sort.external.SpillManager;
 import com.dremio.sabot.op.sort.external.SpillManager.SpillFile;
 import com.dremio.sabot.threads.sharedres.SharedResource;
 import com.dremio.service.spill.SpillService;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Queues;
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.util.LargeMemoryUtil;
@@ -54,6 +65,12 @@ import org.apache.hadoop.fs.FileSystem;
 /**
  * This implementation of RawBatchBuffer starts writing incoming batches to disk once the buffer
  * size reaches a threshold. The order of the incoming buffers is maintained.
+ *
+ * <p>Batches are spooled, in order, by a shared pool of I/O threads so that neither the fabric nor
+ * the fragment threads wait on the disk, and a sender is acked as soon as its batch is on disk.
+ * Batch bodies are LZ4 compressed, and the next spooled batch is read ahead while the current one
+ * is consumed. Once a query reaches its spooling quota in the {@link SpillService}, batches are
+ * kept in memory and only acked when consumed, which throttles the senders instead.
  */
 public class SpoolingRawBatchBuffer
     extends BaseRawBatchBuffer<SpoolingRawBatchBuffer.RawFragmentBatchWrapper> {
@@ -73,6 +90,11 @@ public class SpoolingRawBatchBuffer
   }
 
   private static final float STOP_SPOOLING_FRACTION = (float) 0.5;
+  private static final int IO_POOL_SIZE =
+      Integer.getInteger("dremio.exec.buffer.spooling.io_threads", 8);
+  private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+  private static final LZ4FastDecompressor DECOMPRESSOR =
+      LZ4Factory.fastestInstance().fastDecompressor();
   public static final long ALLOCATOR_INITIAL_RESERVATION = 1 * 1024 * 1024;
   public static final long ALLOCATOR_MAX_RESERVATION = 20L * 1000 * 1000 * 1000;
 
@@ -89,12 +111,29 @@ public class SpoolingRawBatchBuffer
    *   <li>available in memory
    *   <li>waiting to be spilled, but still available in memory
    *   <li>spilled to disk
+   *   <li>kept in memory and not acked yet, as the query is out of spooling quota
    * </ul>
    */
   private enum BatchState {
     AVAILABLE,
     WAIT_TO_SPILL,
-    SPILLED
+    SPILLED,
+    HELD
+  }
+
+  private static class LazyThreadPoolHolder {
+    static final ThreadPoolExecutor THREAD_POOL =
+        new ThreadPoolExecutor(
+            IO_POOL_SIZE,
+            IO_POOL_SIZE,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new NamedThreadFactory("spooling-io-"));
+
+    static {
+      THREAD_POOL.allowCoreThreadTimeOut(true);
+    }
   }
 
   private final BufferAllocator parentAllocator;
@@ -112,11 +151,20 @@ public class SpoolingRawBatchBuffer
   private FSDataOutputStream outputStream;
   private FSDataInputStream inputStream;
   private long inputStreamLastKnownLen;
-  private final FragmentWorkQueue workQueue;
   private final DeferredException deferred = new DeferredException();
   private final SabotConfig config;
   private SpillManager spillManager;
   private SpillService spillService;
+  private final String queryId;
+  private final boolean compress;
+  private final boolean readAhead;
+  // runs the spooling of batches in the order they were received
+  private final Executor spoolExecutor;
+  // held while writing to or closing the output stream
+  private final Object spoolLock = new Object();
+  // held while reading from or closing the input stream
+  private final Object inputLock = new Object();
+  private final AtomicLong reservedSpoolBytes = new AtomicLong(0);
 
   public SpoolingRawBatchBuffer(
       SharedResource resource,
@@ -135,13 +183,28 @@ public class SpoolingRawBatchBuffer
     this.oppositeId = oppositeId;
     this.bufferIndex = bufferIndex;
     this.bufferQueue = new SpoolingBufferQueue();
-    this.workQueue = workQueue;
     this.spillService = spillService;
     this.inputStream = null;
     this.inputStreamLastKnownLen = 0;
     this.parentAllocator = parentAllocator;
+    this.queryId = QueryIdHelper.getQueryId(handle.getQueryId());
+    this.compress = options.getOption(ExecConstants.SPOOLING_BUFFER_COMPRESSION);
+    this.readAhead = options.getOption(ExecConstants.SPOOLING_BUFFER_READ_AHEAD);
+    this.spoolExecutor =
+        !options.getOption(ExecConstants.SPOOLING_BUFFER_ASYNC)
+            ? workQueue::put
+            : new SerializedExecutor<Runnable>(
+                    "spooling-" + QueryIdHelper.getFragmentId(handle),
+                    LazyThreadPoolHolder.THREAD_POOL,
+                    false) {
+                  @Override
+                  protected void runException(Runnable command, Throwable t) {
+                    deferred.addThrowable(t);
+                  }
+                }
+                ::execute;
 
-    workQueue.put(
+    spoolExecutor.execute(
         new Runnable() {
           @Override
           public void run() {
@@ -160,14 +223,21 @@ public class SpoolingRawBatchBuffer
   }
 
   private void setupOutputStream() {
+    synchronized (spoolLock) {
+      if (!isClosing()) {
+        createOutputStream();
+      }
+    }
+  }
+
+  private void createOutputStream() {
     try {
-      final String qid = QueryIdHelper.getQueryId(handle.getQueryId());
       final int majorFragmentId = handle.getMajorFragmentId();
       final int minorFragmentId = handle.getMinorFragmentId();
       final String id =
           String.format(
               "spool-%s.%s.%s.%s.%s",
-              qid, majorFragmentId, minorFragmentId, oppositeId, bufferIndex);
+              queryId, majorFragmentId, minorFragmentId, oppositeId, bufferIndex);
 
       this.spillManager =
           new SpillManager(
@@ -194,7 +264,11 @@ public class SpoolingRawBatchBuffer
       }
       RawFragmentBatchWrapper batchWrapper = buffer.poll();
       if (batchWrapper != null) {
-        return batchWrapper.get();
+        final RawFragmentBatch batch = batchWrapper.get();
+        if (readAhead) {
+          readAhead(buffer.peek());
+        }
+        return batch;
       }
       return null;
     }
@@ -220,14 +294,17 @@ public class SpoolingRawBatchBuffer
       RawFragmentBatch batch;
       while (!buffer.isEmpty()) {
         batchWrapper = buffer.poll();
-        if (batchWrapper.isWaitingToSpill()) {
-          logger.debug("unspilled buffer, sending ack");
-          batchWrapper.batch.sendOk();
-        }
-        if (batchWrapper.state != BatchState.SPILLED) {
-          batch = batchWrapper.get();
-          if (batch.getBody() != null) {
-            batch.getBody().close();
+        // waits for the batch to be done spooling or reading ahead
+        synchronized (batchWrapper) {
+          if (batchWrapper.isWaitingToSpill() || batchWrapper.state == BatchState.HELD) {
+            logger.debug("unspilled buffer, sending ack");
+            batchWrapper.batch.sendOk();
+          }
+          if (batchWrapper.state != BatchState.SPILLED) {
+            batch = batchWrapper.get();
+            if (batch.getBody() != null) {
+              batch.getBody().close();
+            }
           }
         }
       }
@@ -265,14 +342,23 @@ public class SpoolingRawBatchBuffer
         bufferQueue.size(),
         batch.getHeader().getSendingMajorFragmentId());
 
-    boolean spoolCurrentBatch = isCurrentlySpooling();
-    RawFragmentBatchWrapper wrapper = new RawFragmentBatchWrapper(batch, !spoolCurrentBatch);
+    final boolean spooling = isCurrentlySpooling();
+    final boolean spoolCurrentBatch = spooling && reserveSpoolSpace(batch);
+    final BatchState initialState;
+    if (spoolCurrentBatch) {
+      initialState = BatchState.WAIT_TO_SPILL;
+    } else if (spooling) {
+      initialState = BatchState.HELD;
+    } else {
+      initialState = BatchState.AVAILABLE;
+    }
+    RawFragmentBatchWrapper wrapper = new RawFragmentBatchWrapper(batch, initialState);
     final long currentBatchesInMemory = batchesInMemory.incrementAndGet();
     if (spoolCurrentBatch) {
       addBatchForSpooling(wrapper);
     }
     bufferQueue.add(wrapper);
-    if (!spoolCurrentBatch && currentBatchesInMemory >= threshold) {
+    if (!spooling && currentBatchesInMemory >= threshold) {
       logger.debug(
           "Buffer size {} greater than threshold {}. Start spooling to disk",
           currentBatchesInMemory,
@@ -310,22 +396,86 @@ public class SpoolingRawBatchBuffer
           }
         };
 
-    AutoCloseables.close(
-        allocator, outputStream, inputStream, spillFile, this.spillManager, superCloser, deferred);
+    final AutoCloseable quotaReleaser =
+        () -> spillService.releaseSpoolSpace(queryId, reservedSpoolBytes.getAndSet(0));
+
+    // waits for the batch being spooled, if any. Batches in memory, including the ones read ahead,
+    // are released before the allocator is closed.
+    synchronized (spoolLock) {
+      AutoCloseables.close(
+          superCloser,
+          outputStream,
+          () -> {
+            synchronized (inputLock) {
+              AutoCloseables.close(inputStream);
+            }
+          },
+          spillFile,
+          this.spillManager,
+          allocator,
+          quotaReleaser,
+          deferred);
+    }
+  }
+
+  /**
+   * Reserves the disk space needed to spool the batch from the query's spooling quota.
+   *
+   * @return false if the query is out of quota, in which case the batch should stay in memory
+   */
+  private boolean reserveSpoolSpace(RawFragmentBatch batch) {
+    final long size = batch.getBody() != null ? batch.getBody().capacity() : 0;
+    if (!spillService.reserveSpoolSpace(queryId, size)) {
+      return false;
+    }
+    reservedSpoolBytes.addAndGet(size);
+    return true;
+  }
+
+  /** Reads the given batch back from disk in the background, if it was spooled. */
+  private void readAhead(final RawFragmentBatchWrapper batchWrapper) {
+    if (batchWrapper == null || batchWrapper.state != BatchState.SPILLED || isClosing()) {
+      return;
+    }
+    LazyThreadPoolHolder.THREAD_POOL.execute(
+        () -> {
+          synchronized (batchWrapper) {
+            if (batchWrapper.state != BatchState.SPILLED || isClosing()) {
+              return;
+            }
+            try {
+              batchWrapper.readFromStream();
+            } catch (Throwable e) {
+              // the batch stays on disk, the fragment thread will read it and report the error
+              logger.debug("Failed to read ahead spooled batch", e);
+            }
+          }
+        });
+  }
+
+  @VisibleForTesting
+  public void awaitPendingSpools() throws InterruptedException {
+    final CountDownLatch latch = new CountDownLatch(1);
+    spoolExecutor.execute(latch::countDown);
+    latch.await();
   }
 
   private void addBatchForSpooling(final RawFragmentBatchWrapper batchWrapper) {
     if (!isClosing()) {
-      workQueue.put(
+      spoolExecutor.execute(
           new Runnable() {
             @Override
             public void run() {
               try {
-                if (isClosing() || !batchWrapper.isWaitingToSpill()) {
-                  return;
+                synchronized (spoolLock) {
+                  synchronized (batchWrapper) {
+                    if (isClosing() || !batchWrapper.isWaitingToSpill()) {
+                      return;
+                    }
+
+                    batchWrapper.writeToStream(outputStream);
+                  }
                 }
-
-                batchWrapper.writeToStream(outputStream);
               } catch (Throwable e) {
                 deferred.addThrowable(e);
               }
@@ -338,19 +488,26 @@ public class SpoolingRawBatchBuffer
     }
   }
 
+  /**
+   * A batch in the buffer. Once spooling is asynchronous, a batch can be written or read ahead by
+   * an I/O thread while the fragment thread consumes the buffer, so state changes and I/O are done
+   * while holding the wrapper's lock.
+   */
   class RawFragmentBatchWrapper {
     private RawFragmentBatch batch;
-    private BatchState state;
+    private volatile BatchState state;
     private int bodyLength;
+    // length of the compressed body on disk, or -1 if the body was written uncompressed
+    private int compressedLength = -1;
     private int totalLength;
     private long start = -1;
     private long check;
 
-    public RawFragmentBatchWrapper(RawFragmentBatch batch, boolean available) {
+    public RawFragmentBatchWrapper(RawFragmentBatch batch, BatchState state) {
       Preconditions.checkNotNull(batch);
       this.batch = batch;
-      this.state = available ? BatchState.AVAILABLE : BatchState.WAIT_TO_SPILL;
-      if (available) {
+      this.state = state;
+      if (state == BatchState.AVAILABLE) {
         batch.sendOk();
       }
     }
@@ -363,9 +520,13 @@ public class SpoolingRawBatchBuffer
       return batch == null;
     }
 
-    public RawFragmentBatch get() {
+    public synchronized RawFragmentBatch get() {
       if (state != BatchState.SPILLED) {
         assert batch.getHeader() != null : "batch header null";
+        if (state == BatchState.WAIT_TO_SPILL || state == BatchState.HELD) {
+          // consumed before it was spooled, or kept in memory for lack of spooling quota
+          batch.sendOk();
+        }
         state = BatchState.AVAILABLE;
         return batch;
       } else {
@@ -402,7 +563,7 @@ public class SpoolingRawBatchBuffer
           bodyLength = 0;
         }
         if (bodyLength > 0) {
-          buf.getBytes(0, stream, bodyLength);
+          writeBody(stream, buf);
         }
         stream.hsync();
         FileStatus status = spillFile.getFileStatus();
@@ -412,7 +573,12 @@ public class SpoolingRawBatchBuffer
         assert start <= len : String.format("write pos %d is greater than len %d", start, len);
         totalLength = Math.toIntExact(len - start);
         long t = watch.elapsed(TimeUnit.MICROSECONDS);
-        logger.debug("Took {} us to spool {} to disk. Rate {} mb/s", t, bodyLength, bodyLength / t);
+        logger.debug(
+            "Took {} us to spool {} ({} compressed) to disk. Rate {} mb/s",
+            t,
+            bodyLength,
+            compressedLength,
+            bodyLength / Math.max(t, 1));
       } finally {
         // even if the try block throws an exception we still want to send an ACK and release the
         // lock
@@ -430,7 +596,48 @@ public class SpoolingRawBatchBuffer
       }
     }
 
-    public void readFromStream() throws IOException, InterruptedException {
+    private void writeBody(FSDataOutputStream stream, ArrowBuf buf) throws IOException {
+      if (compress) {
+        final byte[] compressed = new byte[COMPRESSOR.maxCompressedLength(bodyLength)];
+        final int length =
+            COMPRESSOR.compress(
+                buf.nioBuffer(0, bodyLength),
+                0,
+                bodyLength,
+                ByteBuffer.wrap(compressed),
+                0,
+                compressed.length);
+        // batches that do not compress are written as is
+        if (length < bodyLength) {
+          compressedLength = length;
+          stream.write(compressed, 0, length);
+          return;
+        }
+      }
+      compressedLength = -1;
+      buf.getBytes(0, stream, bodyLength);
+    }
+
+    private void readBody(FSDataInputStream stream, ArrowBuf buf) throws IOException {
+      if (compressedLength < 0) {
+        // readIntoArrowBuf is a blocking operation. Safe to use COPY_BUFFER
+        readIntoArrowBuf(stream, buf, bodyLength);
+        return;
+      }
+      final byte[] compressed = new byte[compressedLength];
+      stream.readFully(compressed);
+      DECOMPRESSOR.decompress(
+          ByteBuffer.wrap(compressed), 0, buf.nioBuffer(0, bodyLength), 0, bodyLength);
+      buf.writerIndex(bodyLength);
+    }
+
+    public synchronized void readFromStream() throws IOException, InterruptedException {
+      synchronized (inputLock) {
+        readFromStreamInner();
+      }
+    }
+
+    private void readFromStreamInner() throws IOException, InterruptedException {
       long pos = start;
       boolean tryAgain = true;
       int duration = 0;
@@ -480,8 +687,7 @@ public class SpoolingRawBatchBuffer
           FragmentRecordBatch header = FragmentRecordBatch.parseDelimitedFrom(inputStream);
           pos = inputStream.getPos();
           assert header != null : "header null after parsing from stream";
-          // readIntoArrowBuf is a blocking operation. Safe to use COPY_BUFFER
-          readIntoArrowBuf(inputStream, buf, bodyLength);
+          readBody(inputStream, buf);
           pos = inputStream.getPos();
           batch = new RawFragmentBatch(header, buf, null);
           long t = watch.elapsed(TimeUnit.MICROSECONDS);
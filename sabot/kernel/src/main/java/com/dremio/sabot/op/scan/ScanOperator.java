@@ -215,6 +215,14 @@ public class ScanOperator implements ProducerOperator {
     NUM_ORPHAN_FILES, // Number of orphan files
     NUM_READERS_SKIPPED, // The number of readers skipped due to errors (COPY INTO 'skip_file')
     DRY_RUN_READ_TIME_NS, // The read time of the dry-run phase (COPY INTO 'skip_file')
+    PARQUET_LATE_MATERIALIZED_ROW_GROUPS, // Number of row groups with filter columns read first
+    PARQUET_PAGE_BYTES_DECODED, // Compressed size of the data pages decoded by the rowwise reader
+    PARQUET_PAGE_BYTES_SKIPPED, // Compressed size of the data pages skipped as no row was selected
+    PARQUET_PAGES_SKIPPED, // Number of data pages skipped as none of their rows was selected
+    PARQUET_PAGES_DECOMPRESSED_AHEAD, // Number of data pages decompressed on the helper pool
+    PARQUET_COALESCED_READS, // Number of coalesced ranged reads of Parquet column chunks
+    PARQUET_COALESCED_READ_BYTES, // Bytes read by the coalesced reads
+    PARQUET_COALESCED_WASTED_BYTES, // Bytes read by the coalesced reads between column chunks
     ;
 
     private final DisplayType displayType;
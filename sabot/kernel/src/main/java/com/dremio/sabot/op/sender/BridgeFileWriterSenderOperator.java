@@ -66,7 +66,9 @@ public class BridgeFileWriterSenderOperator extends BaseSender {
   private VectorAccessible incoming;
 
   public enum Metric implements MetricDef {
-    BYTES_SENT;
+    BYTES_SENT,
+    FILES_WRITTEN, // number of spool files written
+    NUM_READERS; // number of readers of the spooled output, the receiver included
 
     @Override
     public int metricId() {
@@ -163,6 +165,7 @@ public class BridgeFileWriterSenderOperator extends BaseSender {
     }
     if (tunnel.isAllReceiversDone()) {
       // if all receivers have finished, no point in continuing to send data.
+      updateSpoolStats();
       state = State.DONE;
       logger.debug("switching to DONE state because all receivers are finished");
     }
@@ -173,6 +176,11 @@ public class BridgeFileWriterSenderOperator extends BaseSender {
         BridgeFileWriterSenderOperator.Metric.BYTES_SENT, writableBatch.getByteCount());
   }
 
+  private void updateSpoolStats() {
+    stats.setLongStat(Metric.FILES_WRITTEN, tunnel.getFileCount());
+    stats.setLongStat(Metric.NUM_READERS, tunnel.getReceiverCount());
+  }
+
   @Override
   public void receivingFragmentFinished(ExecProtos.FragmentHandle handle) throws Exception {
     throw new UnsupportedOperationException(
@@ -189,6 +197,7 @@ public class BridgeFileWriterSenderOperator extends BaseSender {
             .setSendingMinorFragmentId(handle.getMinorFragmentId())
             .build();
     tunnel.sendStreamComplete(completion);
+    updateSpoolStats();
     state = State.DONE;
     logger.debug("switching to DONE state on invocation of noMoreToConsume()");
   }
@@ -194,15 +194,14 @@ public class DiskRunManager implements AutoCloseable {
       // If the location URI doesn't contain any schema, fall back to local.
       conf.set(FileSystem.FS_DEFAULT_NAME_KEY, FileSystem.DEFAULT_FS);
 
+      final String queryId = QueryIdHelper.getQueryId(handle.getQueryId());
       final String id =
           String.format(
               "esort-%s.%s.%s.%s",
-              QueryIdHelper.getQueryId(handle.getQueryId()),
-              handle.getMajorFragmentId(),
-              handle.getMinorFragmentId(),
-              operatorId);
+              queryId, handle.getMajorFragmentId(), handle.getMinorFragmentId(), operatorId);
       this.spillManager =
-          new SpillManager(config, optionManager, id, conf, spillService, "sort spilling", stats);
+          new SpillManager(
+              config, optionManager, id, conf, spillService, "sort spilling", stats, queryId);
       rollback.add(this.spillManager);
 
       rollback.commit();
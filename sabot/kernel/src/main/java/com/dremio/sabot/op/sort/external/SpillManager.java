@@ -63,6 +63,9 @@ public class SpillManager implements AutoCloseable {
   private final String caller;
   private final OperatorStats stats;
   private final boolean useDirectWritePathIfPossible;
+  // query the spilled bytes are reserved for, within the spilling quotas. Null if not reserved
+  private final String queryId;
+  private long reservedSpillBytes;
   private long appWriteBytes;
   private long appReadBytes;
   private long ioReadBytes;
@@ -80,13 +83,30 @@ public class SpillManager implements AutoCloseable {
       SpillService spillService,
       String caller,
       OperatorStats stats) {
+    this(sabotConfig, optionManager, id, hadoopConf, spillService, caller, stats, null);
+  }
+
+  /**
+   * Creates a spill manager whose spill files count towards the spilling quotas of the given query.
+   * Spilling fails with a resource error once a quota is exceeded.
+   */
+  public SpillManager(
+      SabotConfig sabotConfig,
+      OptionManager optionManager,
+      String id,
+      Configuration hadoopConf,
+      SpillService spillService,
+      String caller,
+      OperatorStats stats,
+      String queryId) {
     this(
         new ArrayList<>(sabotConfig.getStringList(ExecConstants.SPILL_DIRS)),
         optionManager,
         id,
         spillService,
         caller,
-        stats);
+        stats,
+        queryId);
   }
 
   public SpillManager(
@@ -96,6 +116,17 @@ public class SpillManager implements AutoCloseable {
       SpillService spillService,
       String caller,
       OperatorStats stats) {
+    this(directories, optionManager, id, spillService, caller, stats, null);
+  }
+
+  public SpillManager(
+      List<String> directories,
+      OptionManager optionManager,
+      String id,
+      SpillService spillService,
+      String caller,
+      OperatorStats stats,
+      String queryId) {
     if (directories.isEmpty()) {
       throw UserException.dataWriteError().message("No spill locations specified.").build(logger);
     }
@@ -104,6 +135,7 @@ public class SpillManager implements AutoCloseable {
     this.id = id;
     this.caller = caller;
     this.spillService = spillService;
+    this.queryId = queryId;
     // load options
     if (optionManager != null) {
       this.useDirectWritePathIfPossible =
@@ -127,8 +159,7 @@ public class SpillManager implements AutoCloseable {
   public SpillFile getSpillFile(String fileName) throws RuntimeException {
     try {
       final SpillDirectory spillDirectory = spillService.getSpillSubdir(id);
-      return new SpillFile(
-          spillDirectory.getFileSystem(), new Path(spillDirectory.getSpillDirPath(), fileName));
+      return new SpillFile(spillDirectory, new Path(spillDirectory.getSpillDirPath(), fileName));
     } catch (UserException e) {
       throw UserException.dataWriteError(e)
           .addContext("for %s spill id %s", caller, id)
@@ -140,14 +171,38 @@ public class SpillManager implements AutoCloseable {
   @Override
   public void close() throws Exception {
     spillService.deleteSpillSubdirs(id);
+    releaseSpillSpace(reservedSpillBytes);
+  }
+
+  private void reserveSpillSpace(long bytes) {
+    if (!spillService.reserveSpillSpace(queryId, bytes)) {
+      throw UserException.resourceError()
+          .message("Query exceeded the disk space it is allowed to spill to")
+          .addContext("Caller", caller)
+          .addContext("Spill id", id)
+          .build(logger);
+    }
+    reservedSpillBytes += bytes;
+  }
+
+  private void releaseSpillSpace(long bytes) {
+    // files closed after this manager was closed were already released
+    final long released = Math.min(bytes, reservedSpillBytes);
+    if (queryId != null && released > 0) {
+      spillService.releaseSpillSpace(queryId, released);
+      reservedSpillBytes -= released;
+    }
   }
 
   public final class SpillFile implements AutoCloseable {
+    private final SpillDirectory directory;
     private final FileSystem fs;
     private final Path path;
+    private long reservedBytes;
 
-    SpillFile(FileSystem fs, Path path) {
-      this.fs = fs;
+    SpillFile(SpillDirectory directory, Path path) {
+      this.directory = directory;
+      this.fs = directory.getFileSystem();
       this.path = path;
     }
 
@@ -178,6 +233,8 @@ public class SpillManager implements AutoCloseable {
     @Override
     public void close() throws Exception {
       delete();
+      releaseSpillSpace(reservedBytes);
+      reservedBytes = 0;
     }
 
     public FileStatus getFileStatus() throws IOException {
@@ -199,11 +256,14 @@ public class SpillManager implements AutoCloseable {
     @Override
     public int write(ArrowBuf buf) throws IOException {
       write.start();
+      final int written;
       try {
-        return ((WritesArrowBuf) out).write(buf);
+        written = ((WritesArrowBuf) out).write(buf);
       } finally {
         write.stop();
       }
+      bytes += written;
+      return written;
     }
   }
 
@@ -224,6 +284,7 @@ public class SpillManager implements AutoCloseable {
         compressed ? new ABOutputStreamWithStats(new LZ4BlockOutputStream(base)) : base;
     boolean useDirectWrite =
         useDirectWritePathIfPossible && !compressed && actualOutput instanceof WritesArrowBuf;
+    file.directory.writeStarted();
     return new SpillOutputStream(top, base, file, compressed, useDirectWrite);
   }
 
@@ -236,6 +297,9 @@ public class SpillManager implements AutoCloseable {
     private final boolean writeDirect;
 
     private VectorAccessibleFlatBufSerializable serializable;
+    // bytes of this stream reserved within the spilling quotas
+    private long reservedIOBytes;
+    private boolean closed;
 
     private SpillOutputStream(
         ABOutputStreamWithStats top,
@@ -285,6 +349,7 @@ public class SpillManager implements AutoCloseable {
       serializable.setup(outgoing, null);
       serializable.setWriteDirect(writeDirect);
       serializable.writeToStream(top);
+      reserveIOBytes();
       return serializable.getBytesWritten();
     }
 
@@ -295,11 +360,29 @@ public class SpillManager implements AutoCloseable {
     @Override
     public void write(byte[] b, int off, int len) throws IOException {
       out.write(b, off, len);
+      reserveIOBytes();
+    }
+
+    private void reserveIOBytes() {
+      final long bytes = getIOBytes() - reservedIOBytes;
+      if (queryId != null && bytes > 0) {
+        reserveSpillSpace(bytes);
+        reservedIOBytes += bytes;
+        file.reservedBytes += bytes;
+      }
     }
 
     @Override
     public void close() throws IOException {
-      super.close();
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        super.close();
+      } finally {
+        file.directory.writeFinished(getIOBytes());
+      }
       if (stats != null) {
         stats.moveProcessingToWait(getIOTime());
       }
@@ -307,6 +390,7 @@ public class SpillManager implements AutoCloseable {
       appWriteBytes += getWriteBytes();
       ioWriteBytes += getIOBytes();
       compressionNanos += getCompressionTime();
+      reserveIOBytes();
     }
   }
 
@@ -44,6 +44,23 @@ public interface PriorityQueue extends AutoCloseable {
 
   void resetQueue(final VectorContainer newQueue, final SelectionVector4 oldHeap);
 
+  /** Number of records in the queue */
+  int size();
+
+  /**
+   * Index, in the hyper batch, of the record the records added to the queue must sort before, or -1
+   * if there is none
+   */
+  int getCutoff();
+
+  /**
+   * Empties the queue, once its records were spilled. From now on, only the records that sort
+   * before the record of {@code cutoff}, if not null, are added to the queue.
+   *
+   * @param cutoff single record batch, owned by the queue from now on
+   */
+  void clearQueue(VectorContainer cutoff);
+
   static TemplateClassDefinition<PriorityQueue> TEMPLATE_DEFINITION =
       new TemplateClassDefinition<PriorityQueue>(PriorityQueue.class, PriorityQueueTemplate.class);
 }
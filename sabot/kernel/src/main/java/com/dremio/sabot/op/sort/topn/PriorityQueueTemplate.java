@@ -36,12 +36,17 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
   private static final org.slf4j.Logger logger =
       org.slf4j.LoggerFactory.getLogger(PriorityQueueTemplate.class);
 
+  private ArrowBuf heapBuffer;
   private SelectionVector4 heapSv4; // This holds the heap
   private SelectionVector4 finalSv4; // This is for final sorted output
   private Sv4HyperContainer hyperBatch;
   private FunctionContext context;
   private BufferAllocator allocator;
   private int limit;
+  // position of the cutoff record in the heap buffer, after the heap and the slot used for swaps
+  private int cutoffSlot;
+  private boolean hasCutoff;
+  private Schema schema;
   private int queueSize = 0;
   private int batchCount = 0;
   private boolean hasSv2;
@@ -56,20 +61,20 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
       boolean hasSv2,
       int maxSize) {
     this.limit = limit;
+    this.cutoffSlot = limit + 1;
     this.context = context;
     this.allocator = allocator;
-    ArrowBuf buffer = allocator.buffer(4 * (limit + 1));
-    this.heapSv4 = new SelectionVector4(buffer, limit, Character.MAX_VALUE);
+    this.heapBuffer = allocator.buffer(4 * (limit + 2));
+    this.heapSv4 = new SelectionVector4(heapBuffer, limit, Character.MAX_VALUE);
     this.hasSv2 = hasSv2;
     this.hyperBatch = hyperBatch;
+    this.schema = hyperBatch.getSchema();
     this.maxSize = maxSize;
     doSetup(context, hyperBatch, null);
   }
 
   @Override
   public void resetQueue(final VectorContainer newQueue, final SelectionVector4 oldHeap) {
-    Schema schema = hyperBatch.getSchema();
-
     // Cleanup old data.
     close();
 
@@ -77,11 +82,17 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
     hyperBatch = new Sv4HyperContainer(allocator, schema);
     hyperBatch.addBatch(newQueue);
     batchCount = hyperBatch.iterator().next().getValueVectors().length;
-    ArrowBuf buffer = allocator.buffer(4 * (limit + 1));
-    heapSv4 = new SelectionVector4(buffer, limit, Character.MAX_VALUE);
+    heapBuffer = allocator.buffer(4 * (limit + 2));
+    heapSv4 = new SelectionVector4(heapBuffer, limit, Character.MAX_VALUE);
+    int heapCount = oldHeap.getTotalCount();
+    if (hasCutoff) {
+      // the cutoff record was copied after the records of the heap, see getHeapSv4()
+      heapCount--;
+      heapSv4.set(cutoffSlot, oldHeap.get(heapCount));
+    }
     // Reset queue size (most likely to be set to limit).
     queueSize = 0;
-    for (int i = 0; i < oldHeap.getTotalCount(); i++) {
+    for (int i = 0; i < heapCount; i++) {
       heapSv4.set(i, oldHeap.get(i));
       ++queueSize;
     }
@@ -89,6 +100,25 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
     doSetup(context, hyperBatch, null);
   }
 
+  @Override
+  public void clearQueue(VectorContainer cutoff) {
+    // Cleanup old data.
+    close();
+
+    hyperBatch = new Sv4HyperContainer(allocator, schema);
+    heapBuffer = allocator.buffer(4 * (limit + 2));
+    heapSv4 = new SelectionVector4(heapBuffer, limit, Character.MAX_VALUE);
+    finalSv4 = null;
+    queueSize = 0;
+    batchCount = 0;
+    hasCutoff = cutoff != null;
+    if (hasCutoff) {
+      hyperBatch.addBatch(cutoff);
+      heapSv4.set(cutoffSlot, batchCount++, 0);
+    }
+    doSetup(context, hyperBatch, null);
+  }
+
   @Override
   public void add(RecordBatchData batch) throws SchemaChangeException {
     Stopwatch watch = Stopwatch.createStarted();
@@ -104,9 +134,17 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
     }
     for (; queueSize < limit && count < batch.getRecordCount(); count++) {
       heapSv4.set(queueSize, batchCount, hasSv2 ? sv2.getIndex(count) : count);
+      if (hasCutoff && compare(queueSize, cutoffSlot) >= 0) {
+        // there are already enough records that sort before this one in the spilled runs
+        continue;
+      }
       queueSize++;
       siftUp();
     }
+    if (queueSize == limit) {
+      // the top of the full heap is a tighter cutoff
+      hasCutoff = false;
+    }
     for (; count < batch.getRecordCount(); count++) {
       heapSv4.set(limit, batchCount, hasSv2 ? sv2.getIndex(count) : count);
       if (compare(limit, 0) < 0) {
@@ -142,7 +180,26 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
 
   @Override
   public SelectionVector4 getHeapSv4() {
-    return heapSv4;
+    if (queueSize == limit) {
+      return heapSv4;
+    }
+    // the records of the partially filled heap, followed by the cutoff record to keep it
+    int count = queueSize;
+    if (hasCutoff) {
+      heapSv4.set(count++, heapSv4.get(cutoffSlot));
+    }
+    heapBuffer.getReferenceManager().retain();
+    return new SelectionVector4(heapBuffer, count, Character.MAX_VALUE);
+  }
+
+  @Override
+  public int size() {
+    return queueSize;
+  }
+
+  @Override
+  public int getCutoff() {
+    return hasCutoff ? heapSv4.get(cutoffSlot) : -1;
   }
 
   @Override
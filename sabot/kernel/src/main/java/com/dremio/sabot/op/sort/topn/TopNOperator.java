@@ -38,10 +38,16 @@ import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
 import com.dremio.exec.record.selection.SelectionVector4;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.copier.Copier;
 import com.dremio.sabot.op.copier.CopierOperator;
 import com.dremio.sabot.op.sort.SortRecordBatchBuilder;
+import com.dremio.sabot.op.sort.external.DiskRunManager;
+import com.dremio.sabot.op.sort.external.ExternalSortTracer;
+import com.dremio.sabot.op.sort.external.PriorityQueueCopier;
 import com.dremio.sabot.op.sort.external.Sv4HyperContainer;
 import com.dremio.sabot.op.spi.Operator.ShrinkableOperator;
 import com.dremio.sabot.op.spi.SingleInputOperator;
@@ -51,6 +57,7 @@ import com.sun.codemodel.JExpr;
 import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.ValueVector;
 import org.apache.calcite.rel.RelFieldCollation.Direction;
 
@@ -58,7 +65,20 @@ public class TopNOperator implements SingleInputOperator, ShrinkableOperator {
   private static final org.slf4j.Logger logger =
       org.slf4j.LoggerFactory.getLogger(TopNOperator.class);
 
+  public enum Metric implements MetricDef {
+    SPILL_COUNT, // number of sorted runs spilled to disk
+    RECORDS_SPILLED,
+    TOTAL_SPILLED_DATA_SIZE; // bytes written to disk
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+  }
+
   private final int batchPurgeThreshold;
+  private final boolean spillEnabled;
+  private final double spillMemoryRatio;
   private final TopN config;
   private final OperatorContext context;
 
@@ -78,10 +98,18 @@ public class TopNOperator implements SingleInputOperator, ShrinkableOperator {
   private PriorityQueue priorityQueue;
   private Copier copier;
 
+  // sorted runs spilled to disk, created on the first spill, and the copier merging them
+  private DiskRunManager diskRuns;
+  private PriorityQueueCopier mergeCopier;
+  private long recordsSpilled;
+  private int recordsMerged;
+
   public TopNOperator(OperatorContext context, TopN popConfig) {
     this.config = popConfig;
     this.context = context;
     this.batchPurgeThreshold = context.getConfig().getInt(ExecConstants.BATCH_PURGE_THRESHOLD);
+    this.spillEnabled = context.getOptions().getOption(ExecConstants.TOPN_ENABLE_SPILL);
+    this.spillMemoryRatio = context.getOptions().getOption(ExecConstants.TOPN_SPILL_MEMORY_RATIO);
   }
 
   @Override
@@ -120,12 +148,27 @@ public class TopNOperator implements SingleInputOperator, ShrinkableOperator {
       countSincePurge = 0;
       batchCount = 0;
     }
+
+    if (spillEnabled) {
+      final BufferAllocator allocator = context.getAllocator();
+      final long spillThreshold = (long) (allocator.getLimit() * spillMemoryRatio);
+      if (allocator.getAllocatedMemory() > spillThreshold) {
+        shrinkMemory(allocator.getAllocatedMemory() - spillThreshold);
+      }
+    }
   }
 
   @Override
   public void noMoreToConsume() throws Exception {
     state.is(State.CAN_CONSUME);
 
+    if (diskRuns != null) {
+      // the records left in memory are spilled as a last run, and all the runs are merged
+      spill();
+      state = State.CAN_PRODUCE;
+      return;
+    }
+
     // get final order.
     priorityQueue.generate();
     finalOrder = priorityQueue.getFinalSv4();
@@ -142,6 +185,10 @@ public class TopNOperator implements SingleInputOperator, ShrinkableOperator {
   public int outputData() throws Exception {
     state.is(State.CAN_PRODUCE);
 
+    if (diskRuns != null) {
+      return outputSpilledData();
+    }
+
     if (batchesOutput > 0) {
       // only increment sv4 after first return
       final boolean hasMore = finalOrder.next();
@@ -164,6 +211,130 @@ public class TopNOperator implements SingleInputOperator, ShrinkableOperator {
     return outgoing.setAllCount(copied);
   }
 
+  private int outputSpilledData() {
+    if (mergeCopier == null) {
+      try {
+        if (!diskRuns.consolidateAsNecessary()) {
+          // merging some of the runs first
+          return 0;
+        }
+        mergeCopier = diskRuns.createCopier();
+      } catch (Exception ex) {
+        throw UserException.dataReadError(ex)
+            .message("Failure while attempting to read spill data from disk.")
+            .build(logger);
+      }
+    }
+
+    final int remaining = config.getLimit() - recordsMerged;
+    final int copied =
+        remaining > 0 ? mergeCopier.copy(Math.min(context.getTargetBatchSize(), remaining)) : 0;
+    if (copied == 0) {
+      state = State.DONE;
+      return 0;
+    }
+    diskRuns.transferOut(outgoing, copied);
+    recordsMerged += copied;
+    return outgoing.setAllCount(copied);
+  }
+
+  /**
+   * Spills the records of the queue to disk as a sorted run, and empties the queue. Once a run of
+   * limit records was spilled, the records that sort after its last record can't be part of the
+   * output anymore, so that record is kept in memory to drop them as soon as they are consumed.
+   */
+  private void spill() throws Exception {
+    final int size = priorityQueue.size();
+    if (size == 0) {
+      return;
+    }
+    final Stopwatch watch = Stopwatch.createStarted();
+    if (diskRuns == null) {
+      diskRuns = newDiskRunManager();
+    }
+
+    priorityQueue.generate();
+    final SelectionVector4 sorted = priorityQueue.getFinalSv4();
+    final Sv4HyperContainer source = priorityQueue.getHyperBatch();
+    final int cutoffRecord =
+        size == config.getLimit() ? sorted.get(size - 1) : priorityQueue.getCutoff();
+    final VectorContainer cutoff = cutoffRecord == -1 ? null : copyRecord(source, cutoffRecord);
+    try {
+      source.setSelectionVector4(sorted);
+      try (BufferAllocator copyTargetAllocator =
+          context.getAllocator().newChildAllocator("topn-spill-copy", 0, Long.MAX_VALUE)) {
+        diskRuns.spill(source, copyTargetAllocator);
+      }
+    } catch (Exception e) {
+      AutoCloseables.close(e, cutoff);
+      throw e;
+    }
+    priorityQueue.clearQueue(cutoff);
+    recordsSpilled += size;
+    countSincePurge = 0;
+    batchCount = 0;
+    updateSpillStats();
+    logger.debug("Took {} us to spill {} records", watch.elapsed(TimeUnit.MICROSECONDS), size);
+  }
+
+  /** Copies a record of the queue to a new single record batch. */
+  private VectorContainer copyRecord(Sv4HyperContainer source, int record) throws Exception {
+    final VectorContainer target = new VectorContainer(context.getAllocator());
+    try (SelectionVector4 selectionVector4 =
+        new SelectionVector4(context.getAllocator().buffer(4), 1, 1)) {
+      for (VectorWrapper<?> i : source) {
+        target.add(TypeHelper.getNewVector(i.getField(), context.getAllocator()));
+      }
+      selectionVector4.set(0, record);
+      source.setSelectionVector4(selectionVector4);
+      copier.setupRemover(context.getFunctionContext(), source, target);
+      if (copier.copyRecords(0, 1) != 1) {
+        throw UserException.memoryError()
+            .message("Ran out of memory while trying to spill records.")
+            .build(logger);
+      }
+      target.buildSchema(BatchSchema.SelectionVectorMode.NONE);
+      target.setAllCount(1);
+    } catch (Exception e) {
+      AutoCloseables.close(e, target);
+      throw e;
+    }
+    return target;
+  }
+
+  private DiskRunManager newDiskRunManager() throws Exception {
+    final OptionManager options = context.getOptions();
+    final int estimatedRecordSize =
+        incoming
+            .getSchema()
+            .estimateRecordSize(
+                (int) options.getOption(ExecConstants.BATCH_LIST_SIZE_ESTIMATE),
+                (int) options.getOption(ExecConstants.BATCH_VARIABLE_FIELD_SIZE_ESTIMATE));
+    return new DiskRunManager(
+        context.getConfig(),
+        options,
+        context.getTargetBatchSize(),
+        context.getTargetBatchSize() * estimatedRecordSize,
+        context.getFragmentHandle(),
+        config.getProps().getLocalOperatorId(),
+        context.getClassProducer(),
+        context.getAllocator(),
+        config.getOrderings(),
+        incoming.getSchema(),
+        options.getOption(ExecConstants.EXTERNAL_SORT_COMPRESS_SPILL_FILES),
+        new ExternalSortTracer(),
+        context.getSpillService(),
+        context.getStats(),
+        context.getExecutionControls());
+  }
+
+  private void updateSpillStats() {
+    final OperatorStats stats = context.getStats();
+    stats.setLongStat(Metric.SPILL_COUNT, diskRuns.spillCount());
+    stats.setLongStat(Metric.RECORDS_SPILLED, recordsSpilled);
+    stats.setLongStat(Metric.TOTAL_SPILLED_DATA_SIZE, diskRuns.getIOWriteBytes());
+  }
+
   private void purge() throws SchemaChangeException {
     final Stopwatch watch = Stopwatch.createStarted();
 
@@ -286,6 +457,10 @@ public class TopNOperator implements SingleInputOperator, ShrinkableOperator {
     if (state != State.CAN_CONSUME) {
       return 0;
     }
+    if (spillEnabled) {
+      // a spill frees the batches of the records in the queue
+      return priorityQueue.size() == 0 ? 0 : getQueuedBatchesSize();
+    }
     long shrinkableMemory = 0;
 
     if (countSincePurge > config.getLimit()) {
@@ -297,16 +472,31 @@ public class TopNOperator implements SingleInputOperator, ShrinkableOperator {
     return shrinkableMemory;
   }
 
+  /** Size of the record batches held by the queue. */
+  private long getQueuedBatchesSize() {
+    long bytes = 0;
+    for (VectorWrapper<?> wrapper : priorityQueue.getHyperBatch()) {
+      for (ValueVector vector : wrapper.getValueVectors()) {
+        bytes += vector.getBufferSize();
+      }
+    }
+    return bytes;
+  }
+
   @Override
   public boolean shrinkMemory(long size) throws Exception {
     if (state != State.CAN_CONSUME) {
       return true;
     }
+    final long allocatedMemory = context.getAllocator().getAllocatedMemory();
     if (countSincePurge > config.getLimit()) {
       purge();
       countSincePurge = 0;
       batchCount = 0;
     }
+    if (spillEnabled && allocatedMemory - context.getAllocator().getAllocatedMemory() < size) {
+      spill();
+    }
     return true;
   }
 
@@ -318,7 +508,7 @@ public class TopNOperator implements SingleInputOperator, ShrinkableOperator {
 
   @Override
   public void close() throws Exception {
-    AutoCloseables.close(outgoing, finalOrder, priorityQueue, copier);
+    AutoCloseables.close(outgoing, finalOrder, priorityQueue, copier, mergeCopier, diskRuns);
   }
 
   public static class TopNCreator implements SingleInputOperator.Creator<TopN> {
@@ -51,7 +51,14 @@ public class TableFunctionOperator implements SingleInputOperator {
     NUM_SNAPSHOT_IDS, // Number of snapshot ids
     DELETE_ORPHAN_FILES_TIME, // Time taken to delete orphan files
     NUM_ORPHAN_FILES_DELETED, // Number of orphan files deleted
-    NUM_ORPHAN_FILES_FAIL_TO_DELETE // Number of orphan files not deleted successfully
+    NUM_ORPHAN_FILES_FAIL_TO_DELETE, // Number of orphan files not deleted successfully
+    NUM_MANIFEST_CACHE_HITS, // Manifests served from the in-memory manifest cache
+    NUM_MANIFEST_CACHE_MISSES, // Manifests read from table storage and added to the cache
+    NUM_MANIFEST_CACHE_SPILL_HITS, // Manifests restored from the manifest cache's local spill
+    NUM_EQ_DELETE_TABLES_BUILT, // Equality delete hash tables built by this operator
+    NUM_EQ_DELETE_TABLES_SHARED, // Equality delete hash tables built by another fragment
+    EQ_DELETE_TABLE_BUILD_TIME_NS, // Time taken to read delete files and build their hash tables
+    EQ_DELETE_TABLE_MEMORY_BYTES // Memory held by the equality delete hash tables built
   ;
 
     @Override
@@ -36,10 +36,27 @@ public class DremioManifestReaderUtils {
               .wrapExisting(0L, sequenceNumber, sequenceNumber, file);
     }
 
+    /**
+     * Creates a wrapper for a file that was detached from its manifest, e.g. one that was restored
+     * from a serialized copy.
+     */
+    public static <F extends ContentFile<F>> ManifestEntryWrapper<F> existing(
+        F file, Long dataSequenceNumber, Long fileSequenceNumber) {
+      ManifestEntryWrapper<F> wrapper = new ManifestEntryWrapper<>();
+      wrapper.entry =
+          new GenericManifestEntry<F>((Schema) null)
+              .wrapExisting(0L, dataSequenceNumber, fileSequenceNumber, file);
+      return wrapper;
+    }
+
     public Long sequenceNumber() {
       return entry.dataSequenceNumber();
     }
 
+    public Long fileSequenceNumber() {
+      return entry.fileSequenceNumber();
+    }
+
     public F file() {
       return entry.file();
     }
@@ -48,6 +65,11 @@ public class DremioManifestReaderUtils {
       this.entry = entry;
       return this;
     }
+
+    /** Returns a wrapper over a deep copy of the current entry, safe to keep after iteration. */
+    public ManifestEntryWrapper<F> copy() {
+      return new ManifestEntryWrapper<F>().wrap(entry.copy());
+    }
   }
 
   /**
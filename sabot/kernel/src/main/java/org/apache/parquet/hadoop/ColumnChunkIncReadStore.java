@@ -17,17 +17,36 @@ package org.apache.parquet.hadoop;
 
 import static org.apache.parquet.format.converter.ParquetMetadataConverter.fromParquetStatistics;
 
+import com.dremio.common.concurrent.NamedThreadFactory;
 import com.dremio.exec.store.parquet.BulkInputStream;
 import com.dremio.exec.store.parquet.InputStreamProvider;
+import com.dremio.exec.store.parquet.ParquetReaderStats;
 import com.dremio.io.file.Path;
+import com.dremio.parquet.reader.ParquetDirectByteBufferAllocator;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Uninterruptibles;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.NettyArrowBuf;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.OutOfMemoryException;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.parquet.bytes.BytesInput;
 import org.apache.parquet.column.ColumnDescriptor;
 import org.apache.parquet.column.page.DataPage;
@@ -43,16 +62,47 @@ import org.apache.parquet.format.PageHeader;
 import org.apache.parquet.format.Util;
 import org.apache.parquet.format.converter.ParquetMetadataConverter;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
 
 public class ColumnChunkIncReadStore implements PageReadStore {
 
   private static ParquetMetadataConverter parquetMetadataConverter = new ParquetMetadataConverter();
 
+  private static final int DECOMPRESSION_POOL_SIZE =
+      Integer.getInteger(
+          "dremio.exec.parquet.decompression_threads", Runtime.getRuntime().availableProcessors());
+
+  // pages that don't fit in the queue are decompressed by the reader when read
+  private static final int DECOMPRESSION_QUEUE_SIZE =
+      Integer.getInteger(
+          "dremio.exec.parquet.decompression_queue_size", 16 * DECOMPRESSION_POOL_SIZE);
+
+  private static class DecompressionPoolHolder {
+    static final ThreadPoolExecutor POOL =
+        new ThreadPoolExecutor(
+            DECOMPRESSION_POOL_SIZE,
+            DECOMPRESSION_POOL_SIZE,
+            60,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(DECOMPRESSION_QUEUE_SIZE),
+            new NamedThreadFactory("parquet-decompression-"));
+
+    static {
+      POOL.allowCoreThreadTimeOut(true);
+    }
+  }
+
   private CompressionCodecFactory codecFactory;
   private BufferAllocator allocator;
   private Path path;
   private long rowCount;
   private InputStreamProvider inputStreamProvider;
+  private final BitSet selectedRows;
+  private final ParquetReaderStats stats;
+  // limits the data pages of the row group being decompressed ahead on the helper pool, null if
+  // the pages are only decompressed when read
+  private final Semaphore decompressionPermits;
+  private Configuration codecConf;
 
   public ColumnChunkIncReadStore(
       long rowCount,
@@ -60,20 +110,66 @@ public class ColumnChunkIncReadStore implements PageReadStore {
       BufferAllocator allocator,
       Path path,
       InputStreamProvider inputStreamProvider) {
+    this(
+        rowCount,
+        codecFactory,
+        allocator,
+        path,
+        inputStreamProvider,
+        null,
+        new ParquetReaderStats());
+  }
+
+  /**
+   * @param selectedRows the rows of the row group to read, or null to read all of them. Data pages
+   *     that hold none of these rows are skipped without being decompressed.
+   */
+  public ColumnChunkIncReadStore(
+      long rowCount,
+      CompressionCodecFactory codecFactory,
+      BufferAllocator allocator,
+      Path path,
+      InputStreamProvider inputStreamProvider,
+      BitSet selectedRows,
+      ParquetReaderStats stats) {
+    this(rowCount, codecFactory, allocator, path, inputStreamProvider, selectedRows, stats, 0);
+  }
+
+  /**
+   * @param maxPagesDecompressedAhead the maximum number of data pages of the row group to
+   *     decompress ahead, on a helper pool, while the current pages of the columns are read. The
+   *     next data page of each column is decompressed ahead if a permit is left, 0 disables it.
+   */
+  public ColumnChunkIncReadStore(
+      long rowCount,
+      CompressionCodecFactory codecFactory,
+      BufferAllocator allocator,
+      Path path,
+      InputStreamProvider inputStreamProvider,
+      BitSet selectedRows,
+      ParquetReaderStats stats,
+      int maxPagesDecompressedAhead) {
     this.codecFactory = codecFactory;
     this.allocator = allocator;
     this.path = path;
     this.rowCount = rowCount;
     this.inputStreamProvider = inputStreamProvider;
+    this.selectedRows = selectedRows;
+    this.stats = stats;
+    this.decompressionPermits =
+        maxPagesDecompressedAhead > 0 ? new Semaphore(maxPagesDecompressedAhead) : null;
   }
 
   public class SingleStreamColumnChunkIncPageReader extends ColumnChunkIncPageReader {
     private long lastPosition;
 
     public SingleStreamColumnChunkIncPageReader(
-        ColumnChunkMetaData metaData, ColumnDescriptor columnDescriptor, BulkInputStream in)
+        ColumnChunkMetaData metaData,
+        ColumnDescriptor columnDescriptor,
+        BulkInputStream in,
+        OffsetIndex offsetIndex)
         throws IOException {
-      super(metaData, columnDescriptor, in);
+      super(metaData, columnDescriptor, in, offsetIndex);
       lastPosition = in.getPos();
     }
 
@@ -110,25 +206,56 @@ public class ColumnChunkIncReadStore implements PageReadStore {
     long size;
     private long valueReadSoFar = 0;
 
+    // when only the selected rows are read, the location of the pages in the column chunk, if
+    // known, and the rows of the data page being read
+    private final OffsetIndex offsetIndex;
+    private int pageIndex;
+    private long nextPageFirstRow;
+    private long pageFirstRow;
+    private int pageRowCount;
+
     private DictionaryPage dictionaryPage;
     protected BulkInputStream in;
     private BytesInputDecompressor decompressor;
+    // the codec factory of the decompressor of this column, when its pages are decompressed ahead
+    private CompressionCodecFactory columnCodecFactory;
 
     // Release the data page buffer before reading the next page or in close
     private ByteBuf lastDataPageUncompressed;
 
+    // the next data page, when it is being decompressed ahead. The task runs once, on whichever
+    // thread gets to it first, the helper pool or the reader when the page is read
+    private CompressedDataPage nextCompressedDataPage;
+    private FutureTask<DataPage> nextDataPage;
+
     // Release the dictionary page buffer in close
     private ByteBuf dictionaryPageUncompressed;
 
     public ColumnChunkIncPageReader(
-        ColumnChunkMetaData metaData, ColumnDescriptor columnDescriptor, BulkInputStream in)
+        ColumnChunkMetaData metaData,
+        ColumnDescriptor columnDescriptor,
+        BulkInputStream in,
+        OffsetIndex offsetIndex)
         throws IOException {
       this.metaData = metaData;
       this.columnDescriptor = columnDescriptor;
       this.size = metaData.getTotalSize();
       this.fileOffset = metaData.getStartingPos();
       this.in = in;
-      this.decompressor = codecFactory.getDecompressor(metaData.getCodec());
+      if (decompressionPermits != null) {
+        // the pages of the columns are decompressed concurrently, and the decompressors of a
+        // codec factory are shared by the columns that use the codec, so each column gets its own
+        if (codecConf == null) {
+          codecConf = new Configuration();
+        }
+        this.columnCodecFactory =
+            CodecFactory.createDirectCodecFactory(
+                codecConf, new ParquetDirectByteBufferAllocator(allocator), 0);
+        this.decompressor = columnCodecFactory.getDecompressor(metaData.getCodec());
+      } else {
+        this.decompressor = codecFactory.getDecompressor(metaData.getCodec());
+      }
+      this.offsetIndex = offsetIndex;
     }
 
     @Override
@@ -170,7 +297,7 @@ public class ColumnChunkIncReadStore implements PageReadStore {
     }
 
     private DictionaryPage readDictionaryPageHelper(PageHeader pageHeader) throws IOException {
-      ByteBuffer data = uncompressPage(pageHeader, false);
+      ByteBuffer data = uncompressDictionaryPage(pageHeader);
       return new DictionaryPage(
           BytesInput.from(data, 0, pageHeader.uncompressed_page_size),
           pageHeader.getDictionary_page_header().getNum_values(),
@@ -184,13 +311,109 @@ public class ColumnChunkIncReadStore implements PageReadStore {
 
     @Override
     public DataPage readPage() {
+      releasePrevDataPageBuffers();
+      final DataPage dataPage;
+      if (nextDataPage != null) {
+        dataPage = awaitNextDataPage();
+      } else {
+        final CompressedDataPage compressedPage = readCompressedDataPage();
+        if (compressedPage == null) {
+          return null;
+        }
+        lastDataPageUncompressed = compressedPage.uncompressed;
+        try {
+          dataPage = compressedPage.decompress();
+        } catch (IOException e) {
+          throw pageReadError(compressedPage.header, e);
+        }
+      }
+      if (dataPage != null) {
+        readAhead();
+      }
+      return dataPage;
+    }
+
+    /**
+     * Reads the next data page of the column chunk, and queues its decompression on the helper
+     * pool, if a permit is left. The page is read on the calling thread, as the read stats of the
+     * stream are only updated by the fragment thread.
+     */
+    private void readAhead() {
+      if (decompressionPermits == null || !hasMorePages() || !decompressionPermits.tryAcquire()) {
+        return;
+      }
+      boolean pending = false;
+      try {
+        final CompressedDataPage compressedPage = readCompressedDataPage();
+        if (compressedPage != null) {
+          final Thread reader = Thread.currentThread();
+          final FutureTask<DataPage> dataPage =
+              new FutureTask<>(
+                  () -> {
+                    if (!compressedPage.claim()) {
+                      // the reader was closed before the page was started on
+                      return null;
+                    }
+                    try {
+                      compressedPage.decompressedAhead = Thread.currentThread() != reader;
+                      return compressedPage.decompress();
+                    } finally {
+                      decompressionPermits.release();
+                    }
+                  });
+          nextCompressedDataPage = compressedPage;
+          nextDataPage = dataPage;
+          pending = true;
+          try {
+            DecompressionPoolHolder.POOL.execute(dataPage);
+          } catch (RejectedExecutionException e) {
+            // the pool is busy, the page is decompressed when it is read
+          }
+        }
+      } finally {
+        if (!pending) {
+          decompressionPermits.release();
+        }
+      }
+    }
+
+    /**
+     * Returns the page decompressed ahead. If no helper thread has started on it yet, it is
+     * decompressed right here rather than waiting for the pool to get to it, so the reader only
+     * ever waits for a decompression that is already running.
+     */
+    private DataPage awaitNextDataPage() {
+      final CompressedDataPage compressedPage = nextCompressedDataPage;
+      final FutureTask<DataPage> dataPage = nextDataPage;
+      nextCompressedDataPage = null;
+      nextDataPage = null;
+      lastDataPageUncompressed = compressedPage.uncompressed;
+      // does nothing if the task was started, or completed, by the pool
+      dataPage.run();
+      try {
+        // the helper thread writes into the page buffer, which must not be released before it is
+        // done, even when interrupted
+        final DataPage page = Uninterruptibles.getUninterruptibly(dataPage);
+        if (compressedPage.decompressedAhead) {
+          stats.numPagesDecompressedAhead++;
+        }
+        return page;
+      } catch (ExecutionException e) {
+        Throwables.throwIfUnchecked(e.getCause());
+        throw pageReadError(compressedPage.header, e.getCause());
+      }
+    }
+
+    /** Reads the next data page to decompress, or returns null if there is none left. */
+    private CompressedDataPage readCompressedDataPage() {
       PageHeader pageHeader = new PageHeader();
       try {
-        releasePrevDataPageBuffers();
-        while (valueReadSoFar < metaData.getValueCount()) {
+        if (offsetIndex != null && !seekToNextSelectedPage()) {
+          return null;
+        }
+        while (hasMorePages()) {
           pageHeader = Util.readPageHeader(in.asSeekableInputStream());
-          int uncompressedPageSize = pageHeader.getUncompressed_page_size();
-          int compressedPageSize = pageHeader.getCompressed_page_size();
+          final PageHeader header = pageHeader;
           switch (pageHeader.type) {
             case DICTIONARY_PAGE:
               if (dictionaryPage == null) {
@@ -201,43 +424,58 @@ public class ColumnChunkIncReadStore implements PageReadStore {
               break;
             case DATA_PAGE:
               valueReadSoFar += pageHeader.data_page_header.getNum_values();
-              ByteBuffer destBuffer = uncompressPage(pageHeader, true);
-              return new DataPageV1(
-                  BytesInput.from(destBuffer, 0, pageHeader.uncompressed_page_size),
-                  pageHeader.data_page_header.num_values,
-                  pageHeader.uncompressed_page_size,
-                  fromParquetStatistics(
-                      pageHeader.data_page_header.statistics, columnDescriptor.getType()),
-                  parquetMetadataConverter.getEncoding(
-                      pageHeader.data_page_header.repetition_level_encoding),
-                  parquetMetadataConverter.getEncoding(
-                      pageHeader.data_page_header.definition_level_encoding),
-                  parquetMetadataConverter.getEncoding(pageHeader.data_page_header.encoding));
+              if (selectedRows != null) {
+                // values and rows are the same for columns that are not repeated
+                if (!isPageSelected(pageHeader.data_page_header.getNum_values())) {
+                  skipPage(pageHeader.getCompressed_page_size());
+                  break;
+                }
+                final long firstRow = pageFirstRow;
+                final int rowCount = pageRowCount;
+                return readCompressedPage(
+                    pageHeader,
+                    destBuffer ->
+                        new DataPageV1(
+                            BytesInput.from(destBuffer, 0, header.uncompressed_page_size),
+                            header.data_page_header.num_values,
+                            header.uncompressed_page_size,
+                            firstRow,
+                            rowCount,
+                            fromParquetStatistics(
+                                header.data_page_header.statistics, columnDescriptor.getType()),
+                            parquetMetadataConverter.getEncoding(
+                                header.data_page_header.repetition_level_encoding),
+                            parquetMetadataConverter.getEncoding(
+                                header.data_page_header.definition_level_encoding),
+                            parquetMetadataConverter.getEncoding(
+                                header.data_page_header.encoding)));
+              }
+              return readCompressedPage(
+                  pageHeader,
+                  destBuffer ->
+                      new DataPageV1(
+                          BytesInput.from(destBuffer, 0, header.uncompressed_page_size),
+                          header.data_page_header.num_values,
+                          header.uncompressed_page_size,
+                          fromParquetStatistics(
+                              header.data_page_header.statistics, columnDescriptor.getType()),
+                          parquetMetadataConverter.getEncoding(
+                              header.data_page_header.repetition_level_encoding),
+                          parquetMetadataConverter.getEncoding(
+                              header.data_page_header.definition_level_encoding),
+                          parquetMetadataConverter.getEncoding(header.data_page_header.encoding)));
               // TODO - finish testing this with more files
             case DATA_PAGE_V2:
               valueReadSoFar += pageHeader.data_page_header_v2.getNum_values();
-              destBuffer = uncompressPage(pageHeader, true);
               DataPageHeaderV2 dataHeaderV2 = pageHeader.getData_page_header_v2();
-              int dataSize =
-                  uncompressedPageSize
-                      - dataHeaderV2.getRepetition_levels_byte_length()
-                      - dataHeaderV2.getDefinition_levels_byte_length();
-              return DataPageV2.uncompressed(
-                  dataHeaderV2.getNum_rows(),
-                  dataHeaderV2.getNum_nulls(),
-                  dataHeaderV2.getNum_values(),
-                  BytesInput.from(destBuffer, 0, dataHeaderV2.getRepetition_levels_byte_length()),
-                  BytesInput.from(
-                      destBuffer,
-                      dataHeaderV2.getRepetition_levels_byte_length(),
-                      dataHeaderV2.getDefinition_levels_byte_length()),
-                  parquetMetadataConverter.getEncoding(dataHeaderV2.getEncoding()),
-                  BytesInput.from(
-                      destBuffer,
-                      dataHeaderV2.getRepetition_levels_byte_length()
-                          + dataHeaderV2.getDefinition_levels_byte_length(),
-                      dataSize),
-                  fromParquetStatistics(dataHeaderV2.getStatistics(), columnDescriptor.getType()));
+              if (selectedRows != null && !isPageSelected(dataHeaderV2.getNum_rows())) {
+                skipPage(pageHeader.getCompressed_page_size());
+                break;
+              }
+              final boolean withRows = selectedRows != null;
+              final long firstRow = pageFirstRow;
+              return readCompressedPage(
+                  pageHeader, destBuffer -> toDataPageV2(header, destBuffer, withRows, firstRow));
             default:
               in.skip(pageHeader.compressed_page_size);
               break;
@@ -247,37 +485,169 @@ public class ColumnChunkIncReadStore implements PageReadStore {
       } catch (OutOfMemoryException e) {
         throw e; // throw as it is
       } catch (Exception e) {
-        throw new RuntimeException(
-            "Error reading page."
-                + "\nFile path: "
-                + path.toURI().getPath()
-                + "\nRow count: "
-                + rowCount
-                + "\nColumn Chunk Metadata: "
-                + metaData
-                + "\nPage Header: "
-                + pageHeader
-                + "\nFile offset: "
-                + fileOffset
-                + "\nSize: "
-                + size
-                + "\nValue read so far: "
-                + valueReadSoFar,
-            e);
+        throw pageReadError(pageHeader, e);
+      }
+    }
+
+    private DataPage toDataPageV2(
+        PageHeader pageHeader, ByteBuffer destBuffer, boolean withRows, long firstRow) {
+      final DataPageHeaderV2 dataHeaderV2 = pageHeader.getData_page_header_v2();
+      final int dataSize =
+          pageHeader.getUncompressed_page_size()
+              - dataHeaderV2.getRepetition_levels_byte_length()
+              - dataHeaderV2.getDefinition_levels_byte_length();
+      if (withRows) {
+        return DataPageV2.uncompressed(
+            dataHeaderV2.getNum_rows(),
+            dataHeaderV2.getNum_nulls(),
+            dataHeaderV2.getNum_values(),
+            firstRow,
+            BytesInput.from(destBuffer, 0, dataHeaderV2.getRepetition_levels_byte_length()),
+            BytesInput.from(
+                destBuffer,
+                dataHeaderV2.getRepetition_levels_byte_length(),
+                dataHeaderV2.getDefinition_levels_byte_length()),
+            parquetMetadataConverter.getEncoding(dataHeaderV2.getEncoding()),
+            BytesInput.from(
+                destBuffer,
+                dataHeaderV2.getRepetition_levels_byte_length()
+                    + dataHeaderV2.getDefinition_levels_byte_length(),
+                dataSize),
+            fromParquetStatistics(dataHeaderV2.getStatistics(), columnDescriptor.getType()));
+      }
+      return DataPageV2.uncompressed(
+          dataHeaderV2.getNum_rows(),
+          dataHeaderV2.getNum_nulls(),
+          dataHeaderV2.getNum_values(),
+          BytesInput.from(destBuffer, 0, dataHeaderV2.getRepetition_levels_byte_length()),
+          BytesInput.from(
+              destBuffer,
+              dataHeaderV2.getRepetition_levels_byte_length(),
+              dataHeaderV2.getDefinition_levels_byte_length()),
+          parquetMetadataConverter.getEncoding(dataHeaderV2.getEncoding()),
+          BytesInput.from(
+              destBuffer,
+              dataHeaderV2.getRepetition_levels_byte_length()
+                  + dataHeaderV2.getDefinition_levels_byte_length(),
+              dataSize),
+          fromParquetStatistics(dataHeaderV2.getStatistics(), columnDescriptor.getType()));
+    }
+
+    private RuntimeException pageReadError(PageHeader pageHeader, Throwable cause) {
+      return new RuntimeException(
+          "Error reading page."
+              + "\nFile path: "
+              + path.toURI().getPath()
+              + "\nRow count: "
+              + rowCount
+              + "\nColumn Chunk Metadata: "
+              + metaData
+              + "\nPage Header: "
+              + pageHeader
+              + "\nFile offset: "
+              + fileOffset
+              + "\nSize: "
+              + size
+              + "\nValue read so far: "
+              + valueReadSoFar,
+          cause);
+    }
+
+    private boolean hasMorePages() {
+      return offsetIndex != null
+          ? pageIndex < offsetIndex.getPageCount()
+          : valueReadSoFar < metaData.getValueCount();
+    }
+
+    /**
+     * Seeks over the data pages that hold none of the selected rows, using their location in the
+     * offset index. Returns false if there is no data page left to read.
+     */
+    private boolean seekToNextSelectedPage() throws IOException {
+      int page = pageIndex;
+      while (page < offsetIndex.getPageCount()
+          && !hasSelectedRows(
+              offsetIndex.getFirstRowIndex(page), offsetIndex.getLastRowIndex(page, rowCount))) {
+        stats.numPagesSkipped++;
+        stats.totalPageSkippedBytes += offsetIndex.getCompressedPageSize(page);
+        page++;
+      }
+      if (page == offsetIndex.getPageCount()) {
+        pageIndex = page;
+        return false;
+      }
+      if (page != pageIndex) {
+        pageIndex = page;
+        in.seek(offsetIndex.getOffset(page));
       }
+      return true;
+    }
+
+    /**
+     * Finds the rows of the data page whose header was just read, and returns true if some of them
+     * are selected.
+     */
+    private boolean isPageSelected(int rows) {
+      if (offsetIndex != null) {
+        pageFirstRow = offsetIndex.getFirstRowIndex(pageIndex);
+        pageRowCount = (int) (offsetIndex.getLastRowIndex(pageIndex, rowCount) - pageFirstRow + 1);
+        pageIndex++;
+      } else {
+        pageFirstRow = nextPageFirstRow;
+        pageRowCount = rows;
+        nextPageFirstRow += rows;
+      }
+      return hasSelectedRows(pageFirstRow, pageFirstRow + pageRowCount - 1);
+    }
+
+    private void skipPage(int compressedPageSize) throws IOException {
+      in.skip(compressedPageSize);
+      stats.numPagesSkipped++;
+      stats.totalPageSkippedBytes += compressedPageSize;
     }
 
     void close() {
       try {
         releasePrevDataPageBuffers();
+        if (nextDataPage != null) {
+          releaseNextDataPage();
+        }
       } finally {
         if (dictionaryPageUncompressed != null) {
           dictionaryPageUncompressed.release();
           dictionaryPageUncompressed = null;
         }
+        if (columnCodecFactory != null) {
+          columnCodecFactory.release();
+          columnCodecFactory = null;
+        }
       }
     }
 
+    /**
+     * Drops the page read ahead. If no thread has started on it, its task is cancelled and its
+     * buffers released right away, otherwise the decompression writing into the page buffer is
+     * waited for before releasing it.
+     */
+    private void releaseNextDataPage() {
+      final CompressedDataPage compressedPage = nextCompressedDataPage;
+      final FutureTask<DataPage> dataPage = nextDataPage;
+      nextCompressedDataPage = null;
+      nextDataPage = null;
+      if (compressedPage.claim()) {
+        dataPage.cancel(false);
+        compressedPage.compressed.release();
+        decompressionPermits.release();
+      } else {
+        try {
+          Uninterruptibles.getUninterruptibly(dataPage);
+        } catch (ExecutionException | RuntimeException e) {
+          // ignored, as the page is not going to be read
+        }
+      }
+      compressedPage.uncompressed.release();
+    }
+
     private void releasePrevDataPageBuffers() {
       if (lastDataPageUncompressed != null) {
         lastDataPageUncompressed.release();
@@ -292,55 +662,47 @@ public class ColumnChunkIncReadStore implements PageReadStore {
       dest.readerIndex(0);
     }
 
-    private ByteBuffer uncompressPage(PageHeader pageHeader, boolean isDataPage)
-        throws IOException {
+    private ByteBuf readCompressed(int compressedPageSize) throws IOException {
+      final ByteBuf src = NettyArrowBuf.unwrapBuffer(allocator.buffer(compressedPageSize));
+      try {
+        readFully(src, compressedPageSize);
+        return src;
+      } catch (IOException | RuntimeException e) {
+        src.release();
+        throw e;
+      }
+    }
+
+    private CompressedDataPage readCompressedPage(
+        PageHeader pageHeader, Function<ByteBuffer, DataPage> toDataPage) throws IOException {
+      final ByteBuf src = readCompressed(pageHeader.compressed_page_size);
+      final ByteBuf dest;
+      try {
+        dest = NettyArrowBuf.unwrapBuffer(allocator.buffer(pageHeader.uncompressed_page_size));
+      } catch (RuntimeException e) {
+        src.release();
+        throw e;
+      }
+      stats.numPageLoads++;
+      stats.totalPageReadBytes += pageHeader.compressed_page_size;
+      stats.totalDecompressedBytes += pageHeader.uncompressed_page_size;
+      return new CompressedDataPage(pageHeader, src, dest, toDataPage);
+    }
+
+    private ByteBuffer uncompressDictionaryPage(PageHeader pageHeader) throws IOException {
       final int compressedPageSize = pageHeader.compressed_page_size;
       final int uncompressedPageSize = pageHeader.uncompressed_page_size;
-      final ByteBuf src = NettyArrowBuf.unwrapBuffer(allocator.buffer(compressedPageSize));
+      final ByteBuf src = readCompressed(compressedPageSize);
       ByteBuf dest = null;
       try {
-        readFully(src, compressedPageSize);
         dest = NettyArrowBuf.unwrapBuffer(allocator.buffer(uncompressedPageSize));
-        ByteBuffer destBuffer = dest.nioBuffer(0, uncompressedPageSize);
-
-        switch (pageHeader.type) {
-            /**
-             * Page structure : [RepetitionLevelBytes][DefinitionLevelBytes][DataBytes] Only the
-             * data bytes are compressed.
-             */
-          case DATA_PAGE_V2:
-            final int dataOffset =
-                pageHeader.getData_page_header_v2().getRepetition_levels_byte_length()
-                    + pageHeader.getData_page_header_v2().getDefinition_levels_byte_length();
-            final int compressedDataSize = compressedPageSize - dataOffset;
-            // Copy the repetition levels and definition levels as it is.
-            if (dataOffset > 0) {
-              final ByteBuffer rlDlBuffer = src.nioBuffer(0, dataOffset);
-              destBuffer.put(rlDlBuffer);
-            }
-            // decompress the data part
-            if (compressedDataSize > 0) {
-              final int uncompressedDataSize = uncompressedPageSize - dataOffset;
-              final ByteBuffer srcDataBuf = src.nioBuffer(dataOffset, compressedDataSize);
-              final ByteBuffer destDataBuf = dest.nioBuffer(dataOffset, uncompressedDataSize);
-              // important to add the starting position to the sizes so that
-              // the decompresser sets limits correctly.
-              decompressor.decompress(
-                  srcDataBuf, compressedDataSize, destDataBuf, uncompressedDataSize);
-            }
-            break;
-          default:
-            ByteBuffer srcBuffer = src.nioBuffer(0, compressedPageSize);
-            decompressor.decompress(
-                srcBuffer, compressedPageSize, destBuffer, uncompressedPageSize);
-        }
-        if (isDataPage) {
-          lastDataPageUncompressed = dest;
-        } else {
-          dictionaryPageUncompressed = dest;
-        }
+        final ByteBuffer destBuffer = decompressPage(pageHeader, src, dest);
+        dictionaryPageUncompressed = dest;
+        stats.numDictPageLoads++;
+        stats.totalDictPageReadBytes += compressedPageSize;
+        stats.totalDictDecompressedBytes += uncompressedPageSize;
         return destBuffer;
-      } catch (IOException e) {
+      } catch (IOException | RuntimeException e) {
         if (dest != null) {
           dest.release();
         }
@@ -349,19 +711,112 @@ public class ColumnChunkIncReadStore implements PageReadStore {
         src.release(); // we don't need this anymore
       }
     }
+
+    private ByteBuffer decompressPage(PageHeader pageHeader, ByteBuf src, ByteBuf dest)
+        throws IOException {
+      final int compressedPageSize = pageHeader.compressed_page_size;
+      final int uncompressedPageSize = pageHeader.uncompressed_page_size;
+      ByteBuffer destBuffer = dest.nioBuffer(0, uncompressedPageSize);
+
+      switch (pageHeader.type) {
+          /**
+           * Page structure : [RepetitionLevelBytes][DefinitionLevelBytes][DataBytes] Only the data
+           * bytes are compressed.
+           */
+        case DATA_PAGE_V2:
+          final int dataOffset =
+              pageHeader.getData_page_header_v2().getRepetition_levels_byte_length()
+                  + pageHeader.getData_page_header_v2().getDefinition_levels_byte_length();
+          final int compressedDataSize = compressedPageSize - dataOffset;
+          // Copy the repetition levels and definition levels as it is.
+          if (dataOffset > 0) {
+            final ByteBuffer rlDlBuffer = src.nioBuffer(0, dataOffset);
+            destBuffer.put(rlDlBuffer);
+          }
+          // decompress the data part
+          if (compressedDataSize > 0) {
+            final int uncompressedDataSize = uncompressedPageSize - dataOffset;
+            final ByteBuffer srcDataBuf = src.nioBuffer(dataOffset, compressedDataSize);
+            final ByteBuffer destDataBuf = dest.nioBuffer(dataOffset, uncompressedDataSize);
+            // important to add the starting position to the sizes so that
+            // the decompresser sets limits correctly.
+            decompressor.decompress(
+                srcDataBuf, compressedDataSize, destDataBuf, uncompressedDataSize);
+          }
+          break;
+        default:
+          ByteBuffer srcBuffer = src.nioBuffer(0, compressedPageSize);
+          decompressor.decompress(srcBuffer, compressedPageSize, destBuffer, uncompressedPageSize);
+      }
+      return destBuffer;
+    }
+
+    /**
+     * A data page read from the column chunk, to decompress into its buffer. It is decompressed
+     * either on the fragment thread, or on the helper pool when read ahead.
+     */
+    private final class CompressedDataPage {
+      private final PageHeader header;
+      private final ByteBuf compressed;
+      private final ByteBuf uncompressed;
+      private final Function<ByteBuffer, DataPage> toDataPage;
+      // set by the task decompressing the page, read once it completed
+      private boolean decompressedAhead;
+      // set by the first of the task and close to get to the page, only that one may use its
+      // buffers
+      private final AtomicBoolean claimed = new AtomicBoolean();
+
+      private CompressedDataPage(
+          PageHeader header,
+          ByteBuf compressed,
+          ByteBuf uncompressed,
+          Function<ByteBuffer, DataPage> toDataPage) {
+        this.header = header;
+        this.compressed = compressed;
+        this.uncompressed = uncompressed;
+        this.toDataPage = toDataPage;
+      }
+
+      private boolean claim() {
+        return claimed.compareAndSet(false, true);
+      }
+
+      private DataPage decompress() throws IOException {
+        try {
+          return toDataPage.apply(decompressPage(header, compressed, uncompressed));
+        } finally {
+          compressed.release();
+        }
+      }
+    }
   }
 
   private Map<ColumnDescriptor, ColumnChunkIncPageReader> columns = new HashMap<>();
 
   public void addColumn(ColumnDescriptor descriptor, ColumnChunkMetaData metaData)
       throws IOException {
+    addColumn(descriptor, metaData, null);
+  }
+
+  /**
+   * Adds a column to read. When only the selected rows are read, the rows of the data pages of
+   * repeated columns can only be found with the offset index of the column.
+   */
+  public void addColumn(
+      ColumnDescriptor descriptor, ColumnChunkMetaData metaData, OffsetIndex offsetIndex)
+      throws IOException {
+    Preconditions.checkArgument(
+        selectedRows == null || offsetIndex != null || descriptor.getMaxRepetitionLevel() == 0,
+        "Offset index required to read the selected rows of repeated column %s",
+        descriptor);
     final BulkInputStream in = inputStreamProvider.getStream(metaData);
     in.seek(metaData.getStartingPos());
+    final OffsetIndex pageLocations = selectedRows != null ? offsetIndex : null;
     columns.put(
         descriptor,
         inputStreamProvider.isSingleStream()
-            ? new SingleStreamColumnChunkIncPageReader(metaData, descriptor, in)
-            : new ColumnChunkIncPageReader(metaData, descriptor, in));
+            ? new SingleStreamColumnChunkIncPageReader(metaData, descriptor, in, pageLocations)
+            : new ColumnChunkIncPageReader(metaData, descriptor, in, pageLocations));
   }
 
   public void close() throws IOException {
@@ -379,4 +834,21 @@ public class ColumnChunkIncReadStore implements PageReadStore {
   public long getRowCount() {
     return rowCount;
   }
+
+  @Override
+  public Optional<PrimitiveIterator.OfLong> getRowIndexes() {
+    // the column readers skip the values of the rows that are not selected
+    return selectedRows == null
+        ? Optional.empty()
+        : Optional.of(selectedRows.stream().asLongStream().iterator());
+  }
+
+  public ParquetReaderStats getStats() {
+    return stats;
+  }
+
+  private boolean hasSelectedRows(long firstRow, long lastRow) {
+    final int row = selectedRows.nextSetBit((int) firstRow);
+    return row >= 0 && row <= lastRow;
+  }
 }
@@ -25,6 +25,9 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.withSettings;
 
@@ -828,6 +831,137 @@ public class TestDatasetManager {
         .hasMessageContaining("Not allowed to perform directory traversal");
   }
 
+  @Test
+  public void testFailedPrimaryKeyLookupIsNotShared() throws Exception {
+    final NamespaceKey namespaceKey = new NamespaceKey(ImmutableList.of("test", "table"));
+
+    final SchemaConfig schemaConfig = mock(SchemaConfig.class);
+    when(schemaConfig.getUserName()).thenReturn("username");
+
+    final MetadataRequestOptions metadataRequestOptions = mock(MetadataRequestOptions.class);
+    when(metadataRequestOptions.getSchemaConfig()).thenReturn(schemaConfig);
+    when(metadataRequestOptions.getStatsCollector()).thenReturn(mock(MetadataStatsCollector.class));
+
+    final ReadDefinition readDefinition = new ReadDefinition();
+    readDefinition.setSplitVersion(0L);
+
+    final DatasetConfig datasetConfig = new DatasetConfig();
+    datasetConfig.setType(DatasetType.PHYSICAL_DATASET);
+    datasetConfig.setId(new EntityId("test"));
+    datasetConfig.setTag("1");
+    datasetConfig.setFullPathList(namespaceKey.getPathComponents());
+    datasetConfig.setReadDefinition(readDefinition);
+    datasetConfig.setTotalNumSplits(2);
+
+    // the first lookup of the primary key fails, the next one succeeds
+    final StoragePlugin storagePlugin =
+        mock(StoragePlugin.class, withSettings().extraInterfaces(MutablePlugin.class));
+    when(((MutablePlugin) storagePlugin).getPrimaryKey(any(), any(), any(), any(), eq(true)))
+        .thenThrow(new RuntimeException("Access denied"))
+        .thenReturn(ImmutableList.of("id"));
+
+    final ManagedStoragePlugin managedStoragePlugin = mock(ManagedStoragePlugin.class);
+    when(managedStoragePlugin.getId()).thenReturn(mock(StoragePluginId.class));
+    when(managedStoragePlugin.getName()).thenReturn(new NamespaceKey("test"));
+    when(managedStoragePlugin.getPlugin()).thenReturn(storagePlugin);
+    when(managedStoragePlugin.checkValidity(any(), any())).thenReturn(true);
+    when(managedStoragePlugin.getDatasetMetadataCache())
+        .thenReturn(new DatasetMetadataCache(1024 * 1024));
+    when(managedStoragePlugin.getDatasetMetadataState(eq(datasetConfig)))
+        .thenReturn(DatasetMetadataState.builder().build());
+
+    final PluginRetriever pluginRetriever = mock(PluginRetriever.class);
+    when(pluginRetriever.getPlugin(namespaceKey.getRoot(), false)).thenReturn(managedStoragePlugin);
+
+    final NamespaceService namespaceService = mock(NamespaceService.class);
+    when(namespaceService.getDataset(namespaceKey)).thenReturn(datasetConfig);
+
+    final OptionManager optionManager = mock(OptionManager.class);
+    when(optionManager.getOption(CatalogOptions.DATASET_METADATA_CACHE_ENABLED)).thenReturn(true);
+
+    final DatasetManager datasetManager =
+        new DatasetManager(
+            pluginRetriever,
+            namespaceService,
+            optionManager,
+            "username",
+            new CatalogIdentityResolver(),
+            null,
+            null);
+
+    final DremioTable first = datasetManager.getTable(namespaceKey, metadataRequestOptions, false);
+    assertThat(first.getDataset().getPrimaryKey()).isNull();
+    assertThat(first.getDataset().getSplitCount()).isEqualTo(2);
+
+    final DremioTable second = datasetManager.getTable(namespaceKey, metadataRequestOptions, false);
+    assertThat(second.getDataset().getPrimaryKey()).containsExactly("id");
+    assertThat(second.getDataset().getSplitCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testDiscardedPrefetchedConfigsAreReadAgain() throws Exception {
+    final NamespaceKey first = new NamespaceKey(ImmutableList.of("test", "first"));
+    final NamespaceKey second = new NamespaceKey(ImmutableList.of("test", "second"));
+
+    final SchemaConfig schemaConfig = mock(SchemaConfig.class);
+    when(schemaConfig.getUserName()).thenReturn("username");
+
+    final MetadataRequestOptions metadataRequestOptions = mock(MetadataRequestOptions.class);
+    when(metadataRequestOptions.getSchemaConfig()).thenReturn(schemaConfig);
+    when(metadataRequestOptions.getStatsCollector()).thenReturn(mock(MetadataStatsCollector.class));
+
+    final DatasetConfig firstConfig = physicalDataset(first);
+    final DatasetConfig secondConfig = physicalDataset(second);
+
+    final ManagedStoragePlugin managedStoragePlugin = mock(ManagedStoragePlugin.class);
+    when(managedStoragePlugin.getId()).thenReturn(mock(StoragePluginId.class));
+    when(managedStoragePlugin.getPlugin()).thenReturn(mock(StoragePlugin.class));
+    when(managedStoragePlugin.checkValidity(any(), any())).thenReturn(true);
+    when(managedStoragePlugin.getDatasetMetadataState(any()))
+        .thenReturn(DatasetMetadataState.builder().build());
+
+    final PluginRetriever pluginRetriever = mock(PluginRetriever.class);
+    when(pluginRetriever.getPlugin("test", false)).thenReturn(managedStoragePlugin);
+
+    final NamespaceService namespaceService = mock(NamespaceService.class);
+    when(namespaceService.getDatasets(ImmutableList.of(first, second)))
+        .thenReturn(Lists.newArrayList(firstConfig, secondConfig));
+    when(namespaceService.getDataset(first)).thenReturn(firstConfig);
+    when(namespaceService.getDataset(second)).thenReturn(secondConfig);
+
+    final DatasetManager datasetManager =
+        new DatasetManager(
+            pluginRetriever,
+            namespaceService,
+            mock(OptionManager.class),
+            "username",
+            new CatalogIdentityResolver(),
+            null,
+            null);
+
+    datasetManager.prefetchConfigs(ImmutableList.of(first, second));
+    assertThat(datasetManager.getTable(first, metadataRequestOptions, false)).isNotNull();
+    verify(namespaceService, never()).getDataset(first);
+
+    // the config of the dataset that was not looked up is not kept around
+    datasetManager.discardPrefetchedConfigs(ImmutableList.of(first, second));
+    assertThat(datasetManager.getTable(second, metadataRequestOptions, false)).isNotNull();
+    verify(namespaceService, times(1)).getDataset(second);
+  }
+
+  private static DatasetConfig physicalDataset(NamespaceKey key) {
+    final ReadDefinition readDefinition = new ReadDefinition();
+    readDefinition.setSplitVersion(0L);
+
+    final DatasetConfig datasetConfig = new DatasetConfig();
+    datasetConfig.setType(DatasetType.PHYSICAL_DATASET);
+    datasetConfig.setId(new EntityId(key.getLeaf()));
+    datasetConfig.setFullPathList(key.getPathComponents());
+    datasetConfig.setReadDefinition(readDefinition);
+    datasetConfig.setTotalNumSplits(0);
+    return datasetConfig;
+  }
+
   /** Fake Versioned Plugin interface for test */
   private interface FakeVersionedPlugin extends VersionedPlugin, StoragePlugin {}
 }
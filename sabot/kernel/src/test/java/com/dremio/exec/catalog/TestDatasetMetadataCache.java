@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.DatasetType;
+import com.dremio.service.namespace.proto.EntityId;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.Test;
+
+public class TestDatasetMetadataCache {
+
+  private final AtomicInteger loads = new AtomicInteger();
+  private final Function<DatasetConfig, DatasetMetadataCache.Entry> loader =
+      config -> {
+        loads.incrementAndGet();
+        return new DatasetMetadataCache.Entry(config, 3);
+      };
+
+  @Test
+  public void testCachedByIdAndTag() {
+    final DatasetMetadataCache cache = new DatasetMetadataCache(1024 * 1024);
+
+    final DatasetMetadataCache.Entry entry = cache.get("src", config("ds", "1"), loader);
+    assertNull(entry.getSchema());
+    assertEquals(3, entry.getSplitsCount());
+    assertSame(entry, cache.get("src", config("ds", "1"), loader));
+    assertEquals(1, loads.get());
+
+    // a new version of the dataset is loaded again
+    cache.get("src", config("ds", "2"), loader);
+    assertEquals(2, loads.get());
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void testConfigWithoutTagIsNotCached() {
+    final DatasetMetadataCache cache = new DatasetMetadataCache(1024 * 1024);
+
+    cache.get("src", config("ds", null), loader);
+    cache.get("src", config("ds", null), loader);
+    assertEquals(2, loads.get());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testFailedLoadIsNotCached() {
+    final DatasetMetadataCache cache = new DatasetMetadataCache(1024 * 1024);
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            cache.get(
+                "src",
+                config("ds", "1"),
+                config -> {
+                  loads.incrementAndGet();
+                  throw new IllegalStateException("split count lookup failed");
+                }));
+    assertEquals(0, cache.size());
+
+    final DatasetMetadataCache.Entry entry = cache.get("src", config("ds", "1"), loader);
+    assertEquals(3, entry.getSplitsCount());
+    assertSame(entry, cache.get("src", config("ds", "1"), loader));
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void testInvalidateSource() {
+    final DatasetMetadataCache cache = new DatasetMetadataCache(1024 * 1024);
+
+    cache.get("src", config("ds1", "1"), loader);
+    cache.get("src", config("ds2", "1"), loader);
+    cache.get("other", config("ds3", "1"), loader);
+    assertEquals(3, cache.size());
+
+    cache.invalidateSource("SRC");
+    assertEquals(1, cache.size());
+    cache.get("other", config("ds3", "1"), loader);
+    assertEquals(3, loads.get());
+  }
+
+  private static DatasetConfig config(String id, String tag) {
+    return new DatasetConfig()
+        .setId(new EntityId(id))
+        .setTag(tag)
+        .setType(DatasetType.PHYSICAL_DATASET)
+        .setFullPathList(Collections.singletonList(id));
+  }
+}
@@ -21,6 +21,8 @@ import static org.mockito.Mockito.when;
 
 import com.dremio.common.utils.PathUtils;
 import com.dremio.connector.ConnectorException;
+import com.dremio.connector.metadata.DatasetHandle;
+import com.dremio.connector.metadata.EntityPath;
 import com.dremio.connector.metadata.SourceMetadata;
 import com.dremio.connector.metadata.extensions.SupportsListingDatasets;
 import com.dremio.datastore.adapter.LegacyKVStoreProviderAdapter;
@@ -42,7 +44,10 @@ import com.dremio.service.namespace.source.proto.MetadataPolicy;
 import com.dremio.service.namespace.source.proto.SourceConfig;
 import com.dremio.service.namespace.source.proto.UpdateMode;
 import com.dremio.test.DremioTest;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
@@ -141,4 +146,55 @@ public class TestMetadataSynchronizer {
         () -> namespaceService.getDataset(new NamespaceKey(PathUtils.parseFullPath(TABLE))));
     Assertions.assertEquals(0, namespaceService.getAllDatasetsCount(sourceKey));
   }
+
+  @Test
+  public void validateDatasetsAreSyncedConcurrently() throws Exception {
+    final int datasetCount = 200;
+    final List<DatasetHandle> handles = new ArrayList<>();
+    handles.add(() -> new EntityPath(PathUtils.parseFullPath(TABLE)));
+    for (int i = 0; i < datasetCount; i++) {
+      final List<String> path = ImmutableList.of(SOURCE, "schema" + (i % 7), "table" + i);
+      handles.add(() -> new EntityPath(path));
+    }
+
+    ManagedStoragePlugin.MetadataBridge bridge = mock(ManagedStoragePlugin.MetadataBridge.class);
+    SupportsListingDatasets sourceMetadata = mock(TestSourceMetadata.class);
+    when(sourceMetadata.listDatasetHandles(any())).thenReturn(handles::iterator);
+    when(bridge.getMetadata()).thenReturn((SourceMetadata) sourceMetadata);
+    final MetadataSynchronizer synchronizeRun =
+        new MetadataSynchronizer(
+            namespaceService,
+            sourceKey,
+            bridge,
+            new MetadataPolicy()
+                .setDatasetUpdateMode(UpdateMode.PREFETCH_QUERIED)
+                .setDeleteUnavailableDatasets(true)
+                .setDatasetSyncParallelism(8),
+            datasetSaver,
+            retrievalOptions,
+            optionManager);
+    synchronizeRun.setup();
+    final SyncStatus syncStatus = synchronizeRun.go();
+
+    Assertions.assertEquals(datasetCount + 1, syncStatus.getDatasetsSynced());
+    Assertions.assertEquals(datasetCount + 1, namespaceService.getAllDatasetsCount(sourceKey));
+    Assertions.assertNotNull(
+        namespaceService.getDataset(new NamespaceKey(PathUtils.parseFullPath(TABLE))));
+  }
+
+  @Test
+  public void validateSyncParallelism() {
+    MetadataPolicy policy = new MetadataPolicy().setDatasetUpdateMode(UpdateMode.PREFETCH_QUERIED);
+    Assertions.assertEquals(
+        CatalogOptions.METADATA_SYNC_PARALLELISM.getDefault().getNumVal().intValue(),
+        MetadataSynchronizer.getSyncParallelism(policy, optionManager));
+    Assertions.assertEquals(
+        16,
+        MetadataSynchronizer.getSyncParallelism(
+            policy.setDatasetSyncParallelism(16), optionManager));
+    Assertions.assertEquals(
+        CatalogOptions.MAX_METADATA_SYNC_PARALLELISM,
+        MetadataSynchronizer.getSyncParallelism(
+            policy.setDatasetSyncParallelism(10_000), optionManager));
+  }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.expr;
+
+import static com.dremio.common.expression.SupportedEngines.Engine.GANDIVA;
+import static com.dremio.common.expression.SupportedEngines.Engine.JAVA;
+import static org.junit.Assert.assertEquals;
+
+import com.dremio.common.expression.FieldReference;
+import com.dremio.common.expression.SupportedEngines;
+import com.dremio.common.logical.data.NamedExpression;
+import org.junit.Test;
+
+public class TestExpressionEngineSelector {
+
+  private final ExpressionEngineSelector selector = new ExpressionEngineSelector(100, 1000);
+
+  @Test
+  public void testMeasuresBothEnginesBeforeSwitching() {
+    final ExpAndCodeGenEngineHolder expression = expression("a");
+
+    assertEquals(GANDIVA, selector.select(expression, GANDIVA));
+    selector.record(expression, GANDIVA, 10_000, 500);
+    assertEquals(GANDIVA, selector.select(expression, GANDIVA));
+    selector.record(expression, GANDIVA, 10_000, 500);
+
+    // the other engine is measured once the preferred one was
+    assertEquals(JAVA, selector.select(expression, GANDIVA));
+    selector.record(expression, JAVA, 1_000, 1000);
+
+    // faster by a margin
+    assertEquals(JAVA, selector.select(expression, GANDIVA));
+    // other expressions are not affected
+    assertEquals(GANDIVA, selector.select(expression("b"), GANDIVA));
+  }
+
+  @Test
+  public void testKeepsPreferredEngineUnlessFasterByMargin() {
+    final ExpAndCodeGenEngineHolder expression = expression("a");
+
+    selector.record(expression, JAVA, 10_000, 1000);
+    selector.record(expression, GANDIVA, 9_000, 1000);
+    assertEquals(JAVA, selector.select(expression, JAVA));
+
+    selector.record(expression, GANDIVA, 1_000, 1000);
+    assertEquals(GANDIVA, selector.select(expression, JAVA));
+
+    selector.invalidateAll();
+    assertEquals(JAVA, selector.select(expression, JAVA));
+  }
+
+  @Test
+  public void testIgnoresEmptyBatches() {
+    final ExpAndCodeGenEngineHolder expression = expression("a");
+
+    selector.record(expression, GANDIVA, 10_000, 0);
+    selector.record(expression, JAVA, 10_000, 0);
+    assertEquals(GANDIVA, selector.select(expression, GANDIVA));
+  }
+
+  private static ExpAndCodeGenEngineHolder expression(String column) {
+    return new ExpAndCodeGenEngineHolder(
+        new NamedExpression(new FieldReference(column), new FieldReference("out")),
+        SupportedEngines.CodeGenOption.Gandiva,
+        null);
+  }
+}
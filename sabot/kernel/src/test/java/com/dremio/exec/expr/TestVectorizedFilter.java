@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.expr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.dremio.common.expression.BooleanOperator;
+import com.dremio.common.expression.CompleteType;
+import com.dremio.common.expression.FunctionCall;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.ValueExpressions;
+import com.dremio.exec.ExecTest;
+import com.dremio.exec.record.TypedFieldId;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestVectorizedFilter extends ExecTest {
+  private static final int RECORDS = 10;
+
+  private static final LogicalExpression INT_COLUMN =
+      new ValueVectorReadExpression(new TypedFieldId(CompleteType.INT, 0));
+  private static final LogicalExpression BIGINT_COLUMN =
+      new ValueVectorReadExpression(new TypedFieldId(CompleteType.BIGINT, 1));
+  private static final LogicalExpression DOUBLE_COLUMN =
+      new ValueVectorReadExpression(new TypedFieldId(CompleteType.DOUBLE, 2));
+
+  private VectorContainer container;
+  private SelectionVector2 selectionVector;
+
+  @Before
+  public void setup() {
+    final IntVector ints = new IntVector("i", allocator);
+    final BigIntVector bigInts = new BigIntVector("l", allocator);
+    final Float8Vector doubles = new Float8Vector("d", allocator);
+    ints.allocateNew(RECORDS);
+    bigInts.allocateNew(RECORDS);
+    doubles.allocateNew(RECORDS);
+    for (int i = 0; i < RECORDS; i++) {
+      // the fourth record is null
+      if (i != 3) {
+        ints.set(i, i);
+        bigInts.set(i, i);
+        doubles.set(i, i);
+      }
+    }
+    doubles.set(9, Double.NaN);
+
+    container = new VectorContainer(allocator);
+    container.add(ints);
+    container.add(bigInts);
+    container.add(doubles);
+    container.buildSchema();
+    container.setAllCount(RECORDS);
+    selectionVector = new SelectionVector2(allocator);
+  }
+
+  @After
+  public void cleanup() {
+    selectionVector.close();
+    container.close();
+  }
+
+  @Test
+  public void testComparisons() {
+    assertEquals(
+        Arrays.asList(0, 1, 2, 4),
+        filter(call("less_than", INT_COLUMN, ValueExpressions.getInt(5))));
+    assertEquals(
+        Arrays.asList(5, 6, 7, 8, 9), filter(call("<=", ValueExpressions.getInt(5), INT_COLUMN)));
+    assertEquals(
+        Arrays.asList(0, 1, 2, 4, 5, 6, 8, 9),
+        filter(call("not_equal", BIGINT_COLUMN, ValueExpressions.getBigInt(7))));
+    assertEquals(
+        Arrays.asList(),
+        filter(call("greater_than", BIGINT_COLUMN, ValueExpressions.getBigInt(Long.MAX_VALUE))));
+  }
+
+  @Test
+  public void testBetweenAndInList() {
+    assertEquals(
+        Arrays.asList(2, 4, 5, 6),
+        filter(
+            and(
+                call("greater_than_or_equal_to", BIGINT_COLUMN, ValueExpressions.getBigInt(2)),
+                call("less_than_or_equal_to", BIGINT_COLUMN, ValueExpressions.getBigInt(6)))));
+    assertEquals(
+        Arrays.asList(1, 7, 9),
+        filter(
+            or(
+                call("equal", INT_COLUMN, ValueExpressions.getInt(1)),
+                call("equal", INT_COLUMN, ValueExpressions.getInt(3)),
+                call("equal", INT_COLUMN, ValueExpressions.getInt(7)),
+                call("equal", INT_COLUMN, ValueExpressions.getInt(9)))));
+    assertEquals(
+        Arrays.asList(0, 1, 8),
+        filter(
+            or(
+                call("less_than", INT_COLUMN, ValueExpressions.getInt(2)),
+                and(
+                    call("greater_than", BIGINT_COLUMN, ValueExpressions.getBigInt(7)),
+                    call("less_than", DOUBLE_COLUMN, ValueExpressions.getFloat8(9))))));
+  }
+
+  @Test
+  public void testNaN() {
+    // NaN is not equal to anything, and neither greater nor less than anything
+    assertEquals(
+        Arrays.asList(0, 2, 4, 5, 6, 7, 8, 9),
+        filter(call("not_equal", DOUBLE_COLUMN, ValueExpressions.getFloat8(1))));
+    assertEquals(
+        Arrays.asList(6, 7, 8),
+        filter(call("greater_than", DOUBLE_COLUMN, ValueExpressions.getFloat8(5))));
+    assertEquals(
+        Arrays.asList(0, 1, 2),
+        filter(call("less_than", DOUBLE_COLUMN, ValueExpressions.getFloat8(2.5))));
+  }
+
+  @Test
+  public void testNotEligible() {
+    // column compared with a column
+    assertNull(VectorizedFilter.create(call("less_than", INT_COLUMN, INT_COLUMN), container));
+    // constant of another type
+    assertNull(
+        VectorizedFilter.create(
+            call("less_than", INT_COLUMN, ValueExpressions.getBigInt(5)), container));
+    // other function
+    assertNull(
+        VectorizedFilter.create(
+            call("is_distinct_from", INT_COLUMN, ValueExpressions.getInt(5)), container));
+    // too many comparisons
+    final List<LogicalExpression> comparisons = new ArrayList<>();
+    for (int i = 0; i <= VectorizedFilter.MAX_COMPARISONS; i++) {
+      comparisons.add(call("equal", INT_COLUMN, ValueExpressions.getInt(i)));
+    }
+    assertNull(VectorizedFilter.create(new BooleanOperator("booleanOr", comparisons), container));
+  }
+
+  private List<Integer> filter(LogicalExpression condition) {
+    final VectorizedFilter filter = VectorizedFilter.create(condition, container);
+    final int count = filter.filterBatch(RECORDS, selectionVector);
+    assertEquals(count, selectionVector.getCount());
+    final List<Integer> selected = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      selected.add((int) selectionVector.getIndex(i));
+    }
+    return selected;
+  }
+
+  private static LogicalExpression call(String name, LogicalExpression... args) {
+    return new FunctionCall(name, ImmutableList.copyOf(args));
+  }
+
+  private static LogicalExpression and(LogicalExpression... args) {
+    return new BooleanOperator("booleanAnd", ImmutableList.copyOf(args));
+  }
+
+  private static LogicalExpression or(LogicalExpression... args) {
+    return new BooleanOperator("booleanOr", ImmutableList.copyOf(args));
+  }
+}
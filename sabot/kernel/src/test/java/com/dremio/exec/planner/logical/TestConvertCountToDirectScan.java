@@ -63,4 +63,30 @@ public class TestConvertCountToDirectScan extends PlanTestBase {
 
     testBuilder().sqlQuery(sql).unOrdered().baselineColumns("cnt").baselineValues(25L).go();
   }
+
+  @Test
+  public void ensureConvertAggregateOnPartitionColumnsToDirectScan() throws Exception {
+    final String sql =
+        "select dir0, count(*) as cnt, count(o_orderkey) as keys, min(dir1) as first_quarter,"
+            + " max(dir1) as last_quarter from"
+            + " dfs.\"${WORKING_PATH}/src/test/resources/multilevel/parquet\" group by dir0";
+    testPlanMatchingPatterns(sql, new String[] {"Values"}, new String[] {});
+
+    testBuilder()
+        .sqlQuery(sql)
+        .unOrdered()
+        .optionSettingQueriesForBaseline(
+            "alter session set \"planner.enable_partition_stats_aggregate\" = false")
+        .sqlBaselineQuery(sql)
+        .go();
+  }
+
+  @Test
+  public void ensureAggregateOnNonPartitionColumnsDoesntConvertToDirectScan() throws Exception {
+    testPlanMatchingPatterns(
+        "select dir0, max(o_orderkey) as max_key from"
+            + " dfs.\"${WORKING_PATH}/src/test/resources/multilevel/parquet\" group by dir0",
+        new String[] {},
+        new String[] {"Values"});
+  }
 }
@@ -38,6 +38,7 @@ import com.dremio.TestBuilder;
 import com.dremio.common.exceptions.UserException;
 import com.dremio.common.expression.CompleteType;
 import com.dremio.common.util.FileUtils;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.catalog.Catalog;
 import com.dremio.exec.catalog.ManagedStoragePlugin;
 import com.dremio.exec.catalog.MetadataRequestOptions;
@@ -1713,6 +1714,78 @@ public class CopyIntoTests extends ITCopyIntoBase {
     test(dropQuery);
   }
 
+  public static void testCSVBlockSplit(BufferAllocator allocator, String source) throws Exception {
+    String fileName = "blocks.csv";
+    int rowCount = 2000;
+    File location = createTempLocation();
+    File sourceFile = new File(location, fileName);
+    try (PrintWriter pw = new PrintWriter(sourceFile, "UTF-8")) {
+      pw.print("id,note,tag\n");
+      for (int i = 0; i < rowCount; i++) {
+        if (i % 7 == 0) {
+          pw.print("# comment with a \"quote\n");
+        }
+        switch (i % 4) {
+          case 0:
+            pw.printf("%d,\"first line\nsecond \"\"quoted\"\" line, with a comma\",a\n", i);
+            break;
+          case 1:
+            pw.printf("%d,plain value,b\n", i);
+            break;
+          case 2:
+            // unescaped quote inside an unquoted value
+            pw.printf("%d,5\" tall,c\n", i);
+            break;
+          default:
+            // unescaped quotes inside a quoted value spanning lines
+            pw.printf("%d,\"he said \"hi\" twice\nand left\",d\n", i);
+            break;
+        }
+      }
+    }
+    Assert.assertTrue(sourceFile.length() > 64 * 1024);
+
+    List<Pair<String, String>> columns =
+        ImmutableList.of(
+            Pair.of("id", "INT"), Pair.of("note", "VARCHAR"), Pair.of("tag", "VARCHAR"));
+    createTable("blocks_split", columns);
+    createTable("blocks_whole", columns);
+    String storageLocation = "\'@" + source + "/" + location.getName() + "\'";
+    String copyIntoQuery =
+        "COPY INTO %s.%s FROM %s FILES (\'%s\') (RECORD_DELIMITER '\n', EXTRACT_HEADER 'true')";
+
+    // small blocks so that their boundaries fall inside quoted values, comments and the header
+    try (AutoCloseable ignored = withSystemOption(ExecConstants.TEXT_SPLIT_SIZE_VALIDATOR, 1000)) {
+      test(String.format(copyIntoQuery, TEMP_SCHEMA, "blocks_split", storageLocation, fileName));
+    }
+    try (AutoCloseable ignored = withSystemOption(ExecConstants.TEXT_BLOCK_SPLIT_ENABLED, false)) {
+      test(String.format(copyIntoQuery, TEMP_SCHEMA, "blocks_whole", storageLocation, fileName));
+    }
+
+    new TestBuilder(allocator)
+        .sqlQuery("SELECT COUNT(*) AS cnt FROM %s.%s", TEMP_SCHEMA, "blocks_split")
+        .unOrdered()
+        .baselineColumns("cnt")
+        .baselineValues((long) rowCount)
+        .go();
+    new TestBuilder(allocator)
+        .sqlQuery("SELECT * FROM %s.%s", TEMP_SCHEMA, "blocks_split")
+        .unOrdered()
+        .sqlBaselineQuery("SELECT * FROM %s.%s", TEMP_SCHEMA, "blocks_whole")
+        .go();
+    new TestBuilder(allocator)
+        .sqlQuery("SELECT note, tag FROM %s.%s WHERE id IN (2, 3)", TEMP_SCHEMA, "blocks_split")
+        .unOrdered()
+        .baselineColumns("note", "tag")
+        .baselineValues("5\" tall", "c")
+        .baselineValues("he said \"hi\" twice\nand left", "d")
+        .go();
+
+    Assert.assertTrue(sourceFile.delete());
+    test(String.format("DROP TABLE %s.%s", TEMP_SCHEMA, "blocks_split"));
+    test(String.format("DROP TABLE %s.%s", TEMP_SCHEMA, "blocks_whole"));
+  }
+
   public static void testJSONComplex(BufferAllocator allocator, String source) throws Exception {
     testSource(
         allocator,
@@ -124,6 +124,11 @@ public class ITCopyIntoTests extends ITDmlQueryBase {
     CopyIntoTests.testCSVSkipHeader(allocator, SOURCE);
   }
 
+  @Test
+  public void testCSVBlockSplit() throws Exception {
+    CopyIntoTests.testCSVBlockSplit(allocator, SOURCE);
+  }
+
   @Test
   public void testCSVSkipLines() throws Exception {
     CopyIntoTests.testCSVSkipLines(allocator, SOURCE);
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.text.compliant;
+
+import static org.junit.Assert.assertEquals;
+
+import io.netty.util.internal.PlatformDependent;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.Test;
+
+/** Tests for {@link TextRecordBoundaryFinder} and {@link TextDelimiterFinder} */
+public class TestTextRecordBoundaryFinder {
+  private static final TextParsingSettings STRICT = new TextParsingSettings();
+
+  static {
+    STRICT.setParseUnescapedQuotes(false);
+  }
+
+  @Test
+  public void testUnquotedRecord() {
+    assertEquals(5, boundary("bc,d\nxy,z\n"));
+  }
+
+  @Test
+  public void testUnquotedRecordDecidedAfterLookahead() {
+    TextRecordBoundaryFinder finder = new TextRecordBoundaryFinder(TextParsingSettings.DEFAULT, 4);
+    byte[] bytes = bytes("bc,d\nxy,z\n");
+    assertEquals(5, finder.scan(bytes, 0, bytes.length));
+  }
+
+  @Test
+  public void testOffsetInsideQuotedValue() {
+    // the offset falls after the opening quote of "...a\nb"
+    assertEquals(7, boundary("a\nb\",c\nnext,1\n"));
+  }
+
+  @Test
+  public void testQuotedValueWithLineBreakAfterOffset() {
+    assertEquals(2, boundary(STRICT, "x\n\"p\nq\",r\ns\n"));
+    // with unescaped quotes allowed "p may close a quoted value, the first agreed start is chosen
+    assertEquals(10, boundary("x\n\"p\nq\",r\ns\n"));
+  }
+
+  @Test
+  public void testUnescapedQuoteInUnquotedValue() {
+    // both hypotheses start a record after 5" when the quote is an ordinary byte
+    assertEquals(7, boundary("a,5\",b\nc,d\n"));
+    // otherwise only the offset being inside a quoted value is well-formed
+    assertEquals(7, boundary(STRICT, "a,5\",b\nc,d\n"));
+  }
+
+  @Test
+  public void testUnescapedQuotesInQuotedValue() {
+    // the offset falls inside the quoted value of "...a "b" c\nd", the inner quotes are kept in it
+    assertEquals(13, boundary("a \"b\" c\nd\",e\nf,g\n"));
+  }
+
+  @Test
+  public void testEscapedQuotes() {
+    assertEquals(7, boundary("\"a\"\"b\"\nz\n"));
+  }
+
+  @Test
+  public void testCommentLineWithQuote() {
+    assertEquals(1, boundary("\n# it\"s\nv\n"));
+  }
+
+  @Test
+  public void testNoRecordStart() {
+    assertEquals(6, boundary("abc,de"));
+  }
+
+  @Test
+  public void testScanAcrossChunks() {
+    TextRecordBoundaryFinder finder = new TextRecordBoundaryFinder(TextParsingSettings.DEFAULT);
+    byte[] bytes = bytes("a\nb\",c\nnext,1\n");
+    assertEquals(-1, finder.scan(bytes, 0, 5));
+    assertEquals(7, finder.scan(bytes, 5, bytes.length - 5));
+  }
+
+  @Test
+  public void testDelimiterFinder() {
+    TextDelimiterFinder finder = new TextDelimiterFinder((byte) ',', (byte) '\n');
+    assertEquals(11, find(finder, "abcdefghijk,lmn"));
+    assertEquals(3, find(finder, "abc\ndefghijk,lmn"));
+    assertEquals(0, find(finder, ",abc"));
+    assertEquals(7, find(finder, "abcdefg"));
+  }
+
+  @Test
+  public void testDelimiterFinderMatchesBytewiseSearch() {
+    Random random = new Random(42);
+    byte[] markers = {(byte) 0x80, (byte) 0xFF, 0x00, 0x7F};
+    TextDelimiterFinder finder = new TextDelimiterFinder(markers);
+    for (int round = 0; round < 1000; round++) {
+      byte[] data = new byte[random.nextInt(40)];
+      for (int i = 0; i < data.length; i++) {
+        // mostly values adjacent to the markers to exercise borrows between bytes
+        data[i] = (byte) (random.nextBoolean() ? random.nextInt(256) : 0x7E + random.nextInt(4));
+      }
+      int expected = data.length;
+      for (int i = 0; i < data.length && expected == data.length; i++) {
+        for (byte marker : markers) {
+          if (data[i] == marker) {
+            expected = i;
+            break;
+          }
+        }
+      }
+      assertEquals(expected, find(finder, data));
+    }
+  }
+
+  private static long boundary(String text) {
+    return boundary(TextParsingSettings.DEFAULT, text);
+  }
+
+  private static long boundary(TextParsingSettings settings, String text) {
+    TextRecordBoundaryFinder finder = new TextRecordBoundaryFinder(settings);
+    byte[] bytes = bytes(text);
+    long boundary = finder.scan(bytes, 0, bytes.length);
+    return boundary >= 0 ? boundary : finder.finish();
+  }
+
+  private static int find(TextDelimiterFinder finder, String text) {
+    return find(finder, bytes(text));
+  }
+
+  private static int find(TextDelimiterFinder finder, byte[] data) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(1, data.length));
+    buffer.put(data);
+    return finder.find(PlatformDependent.directBufferAddress(buffer), data.length);
+  }
+
+  private static byte[] bytes(String text) {
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+}
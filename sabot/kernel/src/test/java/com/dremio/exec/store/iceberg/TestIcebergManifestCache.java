@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.iceberg;
+
+import static com.dremio.sabot.op.tablefunction.TableFunctionOperator.Metric.NUM_MANIFEST_CACHE_HITS;
+import static com.dremio.sabot.op.tablefunction.TableFunctionOperator.Metric.NUM_MANIFEST_CACHE_MISSES;
+import static com.dremio.sabot.op.tablefunction.TableFunctionOperator.Metric.NUM_MANIFEST_CACHE_SPILL_HITS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dremio.exec.store.iceberg.IcebergManifestCache.CachedManifest;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.DremioManifestReaderUtils.ManifestEntryWrapper;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.ManifestContent;
+import org.apache.iceberg.ManifestFile;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.io.CloseableIterator;
+import org.apache.iceberg.types.Types;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests for {@link IcebergManifestCache} */
+public class TestIcebergManifestCache {
+
+  private static final long MB = 1024L * 1024L;
+
+  private static final String PLUGIN = "source";
+
+  private static final Schema SCHEMA =
+      new Schema(Types.NestedField.optional(1, "id", Types.IntegerType.get()));
+
+  private static final PartitionSpec SPEC = PartitionSpec.builderFor(SCHEMA).build();
+
+  @Rule public TemporaryFolder tempDir = new TemporaryFolder();
+
+  private IcebergManifestCache cache;
+  private OperatorStats stats;
+  private AtomicInteger loads;
+
+  @Before
+  public void setup() {
+    cache = new IcebergManifestCache(16 * MB, Runnable::run);
+    stats = mock(OperatorStats.class);
+    loads = new AtomicInteger();
+  }
+
+  @Test
+  public void testSecondLookupIsHit() {
+    ManifestFile manifestFile = manifestFile("/table/metadata/m1.avro", 1024);
+
+    CachedManifest first = cache.get(PLUGIN, manifestFile, loader("/table/data/f1.parquet"), stats);
+    CachedManifest second =
+        cache.get(PLUGIN, manifestFile, loader("/table/data/f1.parquet"), stats);
+
+    assertThat(loads.get()).isEqualTo(1);
+    assertThat(second).isSameAs(first);
+    verify(stats, times(1)).addLongStat(NUM_MANIFEST_CACHE_MISSES, 1);
+    verify(stats, times(1)).addLongStat(NUM_MANIFEST_CACHE_HITS, 1);
+  }
+
+  @Test
+  public void testKeyIncludesLength() {
+    cache.get(
+        PLUGIN, manifestFile("/table/metadata/m1.avro", 1024), loader("/data/f1.parquet"), stats);
+    cache.get(
+        PLUGIN, manifestFile("/table/metadata/m1.avro", 2048), loader("/data/f1.parquet"), stats);
+
+    assertThat(loads.get()).isEqualTo(2);
+    verify(stats, times(2)).addLongStat(NUM_MANIFEST_CACHE_MISSES, 1);
+  }
+
+  @Test
+  public void testKeyIncludesPlugin() {
+    ManifestFile manifestFile = manifestFile("/table/metadata/m1.avro", 1024);
+    cache.get(PLUGIN, manifestFile, loader("/data/f1.parquet"), stats);
+    cache.get("other", manifestFile, loader("/data/f1.parquet"), stats);
+
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testFailedLoadIsNotCached() {
+    ManifestFile manifestFile = manifestFile("/table/metadata/m1.avro", 1024);
+    assertThatThrownBy(
+            () ->
+                cache.get(
+                    PLUGIN,
+                    manifestFile,
+                    m -> {
+                      loads.incrementAndGet();
+                      throw new UncheckedIOException(new IOException("read failed"));
+                    },
+                    stats))
+        .isInstanceOf(UncheckedIOException.class);
+
+    CachedManifest manifest = cache.get(PLUGIN, manifestFile, loader("/data/f1.parquet"), stats);
+    CachedManifest cached = cache.get(PLUGIN, manifestFile, loader("/data/f1.parquet"), stats);
+
+    assertThat(loads.get()).isEqualTo(2);
+    assertThat(cached).isSameAs(manifest);
+  }
+
+  @Test
+  public void testManifestListIsCached() {
+    AtomicInteger listLoads = new AtomicInteger();
+    Supplier<List<ManifestFile>> listLoader =
+        () -> {
+          listLoads.incrementAndGet();
+          return ImmutableList.of(manifestFile("/table/metadata/m1.avro", 1024));
+        };
+
+    List<ManifestFile> first =
+        cache.getManifestList(
+            PLUGIN, "/table/metadata/snap-1.avro", ManifestContentType.DATA, listLoader);
+    List<ManifestFile> second =
+        cache.getManifestList(
+            PLUGIN, "/table/metadata/snap-1.avro", ManifestContentType.DATA, listLoader);
+    cache.getManifestList(
+        "other", "/table/metadata/snap-1.avro", ManifestContentType.DATA, listLoader);
+
+    assertThat(second).isSameAs(first);
+    assertThat(listLoads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testLargeManifestsAreNotCacheable() {
+    assertThat(cache.isCacheable(manifestFile("/table/metadata/m1.avro", MB))).isTrue();
+    assertThat(cache.isCacheable(manifestFile("/table/metadata/m2.avro", 8 * MB))).isFalse();
+  }
+
+  @Test
+  public void testEntriesAreIterable() throws Exception {
+    ManifestFile manifestFile = manifestFile("/table/metadata/m1.avro", 1024);
+    CachedManifest manifest =
+        cache.get(PLUGIN, manifestFile, loader("/data/f1.parquet", "/data/f2.parquet"), stats);
+
+    assertThat(manifest.getSpec()).isEqualTo(SPEC);
+    assertThat(manifest.size()).isEqualTo(2);
+    try (CloseableIterator<ManifestEntryWrapper<?>> it = manifest.iterator()) {
+      assertThat(it.next().file().path().toString()).isEqualTo("/data/f1.parquet");
+      assertThat(it.next().file().path().toString()).isEqualTo("/data/f2.parquet");
+      assertThat(it.hasNext()).isFalse();
+    }
+  }
+
+  @Test
+  public void testEvictedManifestIsRestoredFromSpill() throws Exception {
+    String spillPath = tempDir.newFolder().getAbsolutePath();
+    cache.configure(16 * MB, spillPath, 16 * MB);
+    ManifestFile manifestFile = manifestFile("/table/metadata/m1.avro", 1024);
+    cache.get(PLUGIN, manifestFile, loader("/data/f1.parquet"), stats);
+
+    // shrink the cache so that the manifest is evicted and spilled
+    cache.configure(1, spillPath, 16 * MB);
+    cache.cleanUp();
+
+    CachedManifest restored = cache.get(PLUGIN, manifestFile, loader("/data/f1.parquet"), stats);
+
+    assertThat(loads.get()).isEqualTo(1);
+    verify(stats, times(1)).addLongStat(NUM_MANIFEST_CACHE_SPILL_HITS, 1);
+    try (CloseableIterator<ManifestEntryWrapper<?>> it = restored.iterator()) {
+      ManifestEntryWrapper<?> entry = it.next();
+      assertThat(entry.file().path().toString()).isEqualTo("/data/f1.parquet");
+      assertThat(entry.sequenceNumber()).isEqualTo(7L);
+    }
+  }
+
+  @Test
+  public void testNoSpillWithoutSpillPath() {
+    ManifestFile manifestFile = manifestFile("/table/metadata/m1.avro", 1024);
+    cache.get(PLUGIN, manifestFile, loader("/data/f1.parquet"), stats);
+    cache.configure(1, "", 16 * MB);
+    cache.cleanUp();
+
+    cache.get(PLUGIN, manifestFile, loader("/data/f1.parquet"), stats);
+
+    assertThat(loads.get()).isEqualTo(2);
+    verify(stats, times(0)).addLongStat(NUM_MANIFEST_CACHE_SPILL_HITS, 1);
+  }
+
+  private Function<ManifestFile, CachedManifest> loader(String... dataFilePaths) {
+    return manifestFile -> {
+      loads.incrementAndGet();
+      ImmutableList.Builder<ManifestEntryWrapper<?>> entries = ImmutableList.builder();
+      for (String path : dataFilePaths) {
+        entries.add(new ManifestEntryWrapper<>(dataFile(path), 7L));
+      }
+      List<ManifestEntryWrapper<?>> list = entries.build();
+      return new CachedManifest(SPEC, list);
+    };
+  }
+
+  private static DataFile dataFile(String path) {
+    return DataFiles.builder(SPEC)
+        .withPath(path)
+        .withFormat(FileFormat.PARQUET)
+        .withFileSizeInBytes(100)
+        .withRecordCount(10)
+        .build();
+  }
+
+  private static ManifestFile manifestFile(String path, long length) {
+    ManifestFile manifestFile = mock(ManifestFile.class);
+    when(manifestFile.path()).thenReturn(path);
+    when(manifestFile.length()).thenReturn(length);
+    when(manifestFile.content()).thenReturn(ManifestContent.DATA);
+    return manifestFile;
+  }
+}
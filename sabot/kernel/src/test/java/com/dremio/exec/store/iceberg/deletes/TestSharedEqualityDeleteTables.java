@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.iceberg.deletes;
+
+import static com.dremio.sabot.RecordSet.r;
+import static com.dremio.sabot.RecordSet.rb;
+import static com.dremio.sabot.RecordSet.rs;
+import static com.dremio.sabot.op.common.ht2.LBlockHashTable.ORDINAL_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.sabot.Generator;
+import com.dremio.sabot.RecordSet;
+import com.dremio.sabot.op.common.ht2.PivotDef;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.junit.Test;
+
+public class TestSharedEqualityDeleteTables extends BaseTestEqualityDeleteFilter {
+
+  private static final BatchSchema SCHEMA =
+      BatchSchema.newBuilder()
+          .addField(Field.nullable("col1", Types.MinorType.INT.getType()))
+          .build();
+  private static final RecordSet BUILD = rs(SCHEMA, rb(r(1), r(5), r(2)), rb(r(-8), r(10)));
+  private static final String KEY = "/data/eqdelete1.parquet:[1]";
+
+  @Test
+  public void testTableIsBuiltOnceAndShared() throws Exception {
+    try (SharedEqualityDeleteTables sharedTables =
+        new SharedEqualityDeleteTables(getTestAllocator())) {
+      EqualityDeleteFileReader reader1 = mockReader();
+      EqualityDeleteFileReader reader2 = mockReader();
+
+      try (EqualityDeleteHashTable table1 = sharedTables.getOrBuild(KEY, reader1, null)) {
+        try (EqualityDeleteHashTable table2 = sharedTables.getOrBuild(KEY, reader2, null)) {
+          verify(reader1, times(1)).buildHashTable(any(BufferAllocator.class));
+          verify(reader2, never()).buildHashTable(any(BufferAllocator.class));
+          verify(reader1, times(1)).close();
+          verify(reader2, times(1)).close();
+          assertThat(sharedTables.isBuilt(KEY)).isTrue();
+          assertThat(table2.size()).isEqualTo(5);
+        }
+
+        // the table is still referenced by the first fragment
+        assertThat(sharedTables.isBuilt(KEY)).isTrue();
+        assertThat(findAll(table1, rs(SCHEMA, rb(r(5), r(3), r(-8), r(7)))))
+            .containsExactly(true, false, true, false);
+      }
+
+      assertThat(sharedTables.isBuilt(KEY)).isFalse();
+      assertThat(sharedTables.size()).isEqualTo(0);
+    }
+  }
+
+  @Test
+  public void testTableIsRebuiltOnceReleased() throws Exception {
+    try (SharedEqualityDeleteTables sharedTables =
+        new SharedEqualityDeleteTables(getTestAllocator())) {
+      EqualityDeleteFileReader reader1 = mockReader();
+      sharedTables.getOrBuild(KEY, reader1, null).close();
+
+      EqualityDeleteFileReader reader2 = mockReader();
+      try (EqualityDeleteHashTable table = sharedTables.getOrBuild(KEY, reader2, null)) {
+        verify(reader2, times(1)).buildHashTable(any(BufferAllocator.class));
+        assertThat(table.size()).isEqualTo(5);
+      }
+    }
+  }
+
+  @Test
+  public void testCloseReleasesReferencedTables() throws Exception {
+    SharedEqualityDeleteTables sharedTables = new SharedEqualityDeleteTables(getTestAllocator());
+    EqualityDeleteHashTable table = sharedTables.getOrBuild(KEY, mockReader(), null);
+    sharedTables.close();
+
+    assertThat(sharedTables.size()).isEqualTo(0);
+    // closing a reference once the tables are closed is a no-op
+    table.close();
+  }
+
+  private EqualityDeleteFileReader mockReader() throws Exception {
+    EqualityDeleteFileReader reader = mock(EqualityDeleteFileReader.class);
+    when(reader.buildHashTable(any(BufferAllocator.class)))
+        .thenAnswer(invocation -> buildTable(BUILD, null));
+    return reader;
+  }
+
+  private List<Boolean> findAll(EqualityDeleteHashTable table, RecordSet probeRs) throws Exception {
+    List<Integer> ordinals = new ArrayList<>();
+    int batchSize = probeRs.getMaxBatchSize();
+    try (Generator generator = probeRs.toGenerator(getTestAllocator());
+        ArrowBuf ordinalBuf = getTestAllocator().buffer((long) batchSize * ORDINAL_SIZE)) {
+      PivotDef pivot = createPivotDef(generator.getOutput(), table.getEqualityFields());
+      int records;
+      while ((records = generator.next(batchSize)) > 0) {
+        find(table, records, pivot, ordinalBuf);
+        appendOrdinalsToList(ordinalBuf, records, ordinals);
+      }
+    }
+
+    List<Boolean> found = new ArrayList<>();
+    ordinals.forEach(o -> found.add(o != -1));
+    return found;
+  }
+}
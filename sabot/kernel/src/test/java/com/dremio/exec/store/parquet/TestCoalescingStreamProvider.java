@@ -0,0 +1,304 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.ExecConstants;
+import com.dremio.io.ArrowBufFSInputStream;
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.test.AllocatorRule;
+import com.google.common.collect.ImmutableList;
+import io.netty.buffer.ByteBuf;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.hadoop.metadata.FileMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+/** Unit tests for {@link CoalescingStreamProvider}. */
+public class TestCoalescingStreamProvider {
+  private static final Path PATH = Path.of("/table/file.parquet");
+  private static final int FILE_LENGTH = 1000;
+
+  @Rule public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private final byte[] data = new byte[FILE_LENGTH];
+  // a and b are close enough to be read together, c is not projected
+  private final ColumnChunkMetaData columnA = column("a", 100, 100);
+  private final ColumnChunkMetaData columnB = column("b", 210, 90);
+  private final ColumnChunkMetaData columnC = column("c", 600, 100);
+  // the columns of the second row group
+  private final ColumnChunkMetaData nextColumnA = column("a", 700, 100);
+  private final ColumnChunkMetaData nextColumnB = column("b", 810, 90);
+  private final ColumnChunkMetaData nextColumnC = column("c", 950, 50);
+
+  private BufferAllocator allocator;
+  private FileSystem fs;
+  private AsyncByteReader reader;
+  private OptionManager options;
+  private OperatorContext context;
+
+  @Before
+  public void setup() throws Exception {
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    allocator = allocatorRule.newAllocator("test-coalescing-stream-provider", 0, Long.MAX_VALUE);
+
+    reader = mock(AsyncByteReader.class);
+    when(reader.readFully(anyLong(), any(ByteBuf.class), anyInt(), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              long offset = invocation.getArgument(0);
+              ByteBuf dst = invocation.getArgument(1);
+              int dstOffset = invocation.getArgument(2);
+              int len = invocation.getArgument(3);
+              dst.setBytes(dstOffset, data, (int) offset, len);
+              return CompletableFuture.completedFuture(null);
+            });
+
+    fs = mock(FileSystem.class);
+    when(fs.supportsAsync()).thenReturn(true);
+    when(fs.getAsyncByteReader(any(), any())).thenReturn(reader);
+    when(fs.open(PATH))
+        .thenAnswer(
+            invocation -> {
+              ArrowBuf buf = allocator.buffer(FILE_LENGTH);
+              buf.setBytes(0, data);
+              return new ArrowBufFSInputStream(buf);
+            });
+
+    options = mock(OptionManager.class);
+    when(options.getOption(ExecConstants.PARQUET_COALESCED_READS_MAX_GAP)).thenReturn(50L);
+    when(options.getOption(ExecConstants.PARQUET_COALESCED_READS_MAX_RANGE_SIZE))
+        .thenReturn(1L << 20);
+    when(options.getOption(ExecConstants.PARQUET_COALESCED_READS_MAX_BUFFERED_BYTES))
+        .thenReturn(1L << 20);
+
+    context = mock(OperatorContext.class);
+    when(context.getAllocator()).thenReturn(allocator);
+    when(context.getOptions()).thenReturn(options);
+  }
+
+  @After
+  public void tearDown() {
+    // fails if any buffer is still allocated
+    allocator.close();
+  }
+
+  @Test
+  public void testProjectedChunksAreReadTogether() throws Exception {
+    try (CoalescingStreamProvider provider = newProvider()) {
+      BulkInputStream a = provider.getStream(columnA);
+      a.seek(150);
+      assertThat(read(a, 10)).isEqualTo(bytes(150, 10));
+      assertThat(a.getPos()).isEqualTo(160);
+
+      BulkInputStream b = provider.getStream(columnB);
+      b.seek(210);
+      assertThat(read(b, 90)).isEqualTo(bytes(210, 90));
+      assertThat(b.getPos()).isEqualTo(300);
+
+      // the stream only covers its column chunk
+      assertThatThrownBy(() -> a.seek(50)).isInstanceOf(IOException.class);
+    }
+
+    verify(reader, times(1)).readFully(eq(100L), any(ByteBuf.class), eq(0), eq(200));
+    verify(fs, never()).open(any());
+  }
+
+  @Test
+  public void testUnprojectedChunkIsReadWithPlainStream() throws Exception {
+    try (CoalescingStreamProvider provider = newProvider()) {
+      BulkInputStream c = provider.getStream(columnC);
+      c.seek(600);
+      assertThat(read(c, 100)).isEqualTo(bytes(600, 100));
+    }
+
+    verify(fs, times(1)).open(PATH);
+  }
+
+  @Test
+  public void testChunksOverBudgetAreReadWithPlainStream() throws Exception {
+    when(options.getOption(ExecConstants.PARQUET_COALESCED_READS_MAX_BUFFERED_BYTES))
+        .thenReturn(100L);
+
+    try (CoalescingStreamProvider provider = newProvider()) {
+      BulkInputStream a = provider.getStream(columnA);
+      a.seek(100);
+      assertThat(read(a, 100)).isEqualTo(bytes(100, 100));
+    }
+
+    verify(reader, never()).readFully(anyLong(), any(ByteBuf.class), anyInt(), anyInt());
+    verify(fs, times(1)).open(PATH);
+  }
+
+  @Test
+  public void testNothingIsReadBeforeTheFirstStream() throws Exception {
+    try (CoalescingStreamProvider provider = newProvider()) {
+      assertThat(allocator.getAllocatedMemory()).isEqualTo(0);
+    }
+
+    verify(reader, never()).readFully(anyLong(), any(ByteBuf.class), anyInt(), anyInt());
+  }
+
+  @Test
+  public void testFailedReadIsReported() throws Exception {
+    CompletableFuture<Void> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new IOException("connection reset"));
+    doReturn(failed).when(reader).readFully(anyLong(), any(ByteBuf.class), anyInt(), anyInt());
+
+    try (CoalescingStreamProvider provider = newProvider()) {
+      assertThatThrownBy(() -> provider.getStream(columnA))
+          .isInstanceOf(IOException.class)
+          .hasRootCauseMessage("connection reset");
+    }
+  }
+
+  @Test
+  public void testNextRowGroupIsPrefetched() throws Exception {
+    try (CoalescingStreamProvider provider = newProvider(true)) {
+      BulkInputStream a = provider.getStream(columnA);
+      verify(reader, times(1)).readFully(eq(700L), any(ByteBuf.class), eq(0), eq(200));
+
+      a.seek(100);
+      assertThat(read(a, 100)).isEqualTo(bytes(100, 100));
+      BulkInputStream nextB = provider.getStream(nextColumnB);
+      nextB.seek(810);
+      assertThat(read(nextB, 90)).isEqualTo(bytes(810, 90));
+    }
+
+    verify(reader, times(2)).readFully(anyLong(), any(ByteBuf.class), anyInt(), anyInt());
+    verify(fs, never()).open(any());
+  }
+
+  @Test
+  public void testPrefetchOverBudgetIsSkipped() throws Exception {
+    when(options.getOption(ExecConstants.PARQUET_COALESCED_READS_MAX_BUFFERED_BYTES))
+        .thenReturn(300L);
+
+    try (CoalescingStreamProvider provider = newProvider(true)) {
+      provider.getStream(columnA);
+      verify(reader, never()).readFully(eq(700L), any(ByteBuf.class), anyInt(), anyInt());
+
+      // the first row group is still buffered, the chunk is read with a stream of its own
+      BulkInputStream nextA = provider.getStream(nextColumnA);
+      nextA.seek(700);
+      assertThat(read(nextA, 100)).isEqualTo(bytes(700, 100));
+    }
+
+    verify(fs, times(1)).open(PATH);
+  }
+
+  private CoalescingStreamProvider newProvider() throws IOException {
+    return newProvider(false);
+  }
+
+  private CoalescingStreamProvider newProvider(boolean twoRowGroups) throws IOException {
+    MessageType schema =
+        Types.buildMessage()
+            .required(PrimitiveTypeName.INT64)
+            .named("a")
+            .required(PrimitiveTypeName.INT64)
+            .named("b")
+            .required(PrimitiveTypeName.INT64)
+            .named("c")
+            .named("test");
+    List<BlockMetaData> blocks = new ArrayList<>();
+    blocks.add(block(columnA, columnB, columnC));
+    if (twoRowGroups) {
+      blocks.add(block(nextColumnA, nextColumnB, nextColumnC));
+    }
+    MutableParquetMetadata footer =
+        new MutableParquetMetadata(
+            new ParquetMetadata(new FileMetaData(schema, Collections.emptyMap(), "test"), blocks),
+            PATH.getName());
+
+    return new CoalescingStreamProvider(
+        fs,
+        PATH,
+        FILE_LENGTH,
+        FILE_LENGTH,
+        footer,
+        context,
+        false,
+        null,
+        null,
+        ParquetScanProjectedColumns.fromSchemaPaths(
+            ImmutableList.of(SchemaPath.getSimplePath("a"), SchemaPath.getSimplePath("b"))),
+        ImmutableList.of("table"),
+        1L);
+  }
+
+  private static BlockMetaData block(ColumnChunkMetaData... columns) {
+    BlockMetaData block = new BlockMetaData();
+    for (ColumnChunkMetaData column : columns) {
+      block.addColumn(column);
+    }
+    return block;
+  }
+
+  private static ColumnChunkMetaData column(String name, long start, long size) {
+    ColumnChunkMetaData column = mock(ColumnChunkMetaData.class);
+    when(column.getPath()).thenReturn(ColumnPath.get(name));
+    when(column.getStartingPos()).thenReturn(start);
+    when(column.getTotalSize()).thenReturn(size);
+    return column;
+  }
+
+  private static byte[] read(BulkInputStream stream, int length) throws IOException {
+    byte[] bytes = new byte[length];
+    stream.readFully(bytes, 0, length);
+    return bytes;
+  }
+
+  private byte[] bytes(int offset, int length) {
+    byte[] bytes = new byte[length];
+    System.arraycopy(data, offset, bytes, 0, length);
+    return bytes;
+  }
+}
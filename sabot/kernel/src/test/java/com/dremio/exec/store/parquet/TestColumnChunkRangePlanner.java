@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dremio.exec.store.parquet.ColumnChunkRangePlanner.Range;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+/** Unit tests for {@link ColumnChunkRangePlanner}. */
+public class TestColumnChunkRangePlanner {
+
+  @Test
+  public void testNearbyChunksAreCoalesced() {
+    List<Range> ranges =
+        ColumnChunkRangePlanner.coalesce(
+            Arrays.asList(chunk(250, 50), chunk(0, 100), chunk(110, 100)), 50, 1000);
+
+    assertThat(ranges).hasSize(1);
+    assertThat(ranges.get(0).getOffset()).isEqualTo(0);
+    assertThat(ranges.get(0).getLength()).isEqualTo(300);
+    assertThat(ranges.get(0).getWastedBytes()).isEqualTo(50);
+  }
+
+  @Test
+  public void testDistantChunksAreReadSeparately() {
+    List<Range> ranges =
+        ColumnChunkRangePlanner.coalesce(Arrays.asList(chunk(0, 100), chunk(200, 100)), 50, 1000);
+
+    assertThat(ranges).extracting(Range::getOffset).containsExactly(0L, 200L);
+    assertThat(ranges).extracting(Range::getWastedBytes).containsExactly(0L, 0L);
+  }
+
+  @Test
+  public void testCoalescedRangesAreBoundedInSize() {
+    List<Range> ranges =
+        ColumnChunkRangePlanner.coalesce(
+            Arrays.asList(chunk(0, 400), chunk(400, 400), chunk(800, 2000), chunk(2800, 100)),
+            0,
+            1000);
+
+    assertThat(ranges).extracting(Range::getOffset).containsExactly(0L, 800L, 2800L);
+    assertThat(ranges).extracting(Range::getLength).containsExactly(800L, 2000L, 100L);
+  }
+
+  @Test
+  public void testOverlappingChunks() {
+    List<Range> ranges =
+        ColumnChunkRangePlanner.coalesce(Arrays.asList(chunk(0, 100), chunk(50, 100)), 0, 1000);
+
+    assertThat(ranges).hasSize(1);
+    assertThat(ranges.get(0).getLength()).isEqualTo(150);
+    assertThat(ranges.get(0).getWastedBytes()).isEqualTo(0);
+    assertThat(ranges.get(0).contains(50, 100)).isTrue();
+    assertThat(ranges.get(0).contains(100, 100)).isFalse();
+  }
+
+  @Test
+  public void testNoChunks() {
+    assertThat(ColumnChunkRangePlanner.coalesce(Collections.emptyList(), 0, 1000)).isEmpty();
+  }
+
+  private static Range chunk(long offset, long length) {
+    return new Range(offset, length, length);
+  }
+}
@@ -281,4 +281,74 @@ public class TestParquetScan extends BaseTestQuery {
         .build()
         .run();
   }
+
+  @Test
+  public void testRowwiseReaderWithLateMaterialization() throws Exception {
+    final String sql =
+        "select l_orderkey, l_linenumber, l_comment, l_shipdate from cp.\"tpch/lineitem.parquet\" "
+            + "where l_quantity < 3";
+    try (AutoCloseable ignored = withOption(ExecConstants.PARQUET_READER_VECTORIZE, false)) {
+      testBuilder()
+          .optionSettingQueriesForBaseline(
+              "alter session set \""
+                  + ExecConstants.PARQUET_LATE_MATERIALIZATION.getOptionName()
+                  + "\" = false")
+          .optionSettingQueriesForTestQuery(
+              "alter session set \""
+                  + ExecConstants.PARQUET_LATE_MATERIALIZATION.getOptionName()
+                  + "\" = true")
+          .sqlQuery(sql)
+          .unOrdered()
+          .sqlBaselineQuery(sql)
+          .build()
+          .run();
+    }
+  }
+
+  @Test
+  public void testRowwiseReaderWithDictionaryDecodedOnce() throws Exception {
+    final String sql =
+        "select l_returnflag, l_shipmode, l_shipinstruct, count(*) as cnt "
+            + "from cp.\"tpch/lineitem.parquet\" "
+            + "where l_linestatus = 'F' group by l_returnflag, l_shipmode, l_shipinstruct";
+    try (AutoCloseable ignored = withOption(ExecConstants.PARQUET_READER_VECTORIZE, false)) {
+      testBuilder()
+          .optionSettingQueriesForBaseline(
+              "alter session set \""
+                  + ExecConstants.PARQUET_DICTIONARY_DECODE_ONCE.getOptionName()
+                  + "\" = false")
+          .optionSettingQueriesForTestQuery(
+              "alter session set \""
+                  + ExecConstants.PARQUET_DICTIONARY_DECODE_ONCE.getOptionName()
+                  + "\" = true")
+          .sqlQuery(sql)
+          .unOrdered()
+          .sqlBaselineQuery(sql)
+          .build()
+          .run();
+    }
+  }
+
+  @Test
+  public void testRowwiseReaderWithPagesDecompressedAhead() throws Exception {
+    final String sql =
+        "select l_orderkey, l_partkey, l_quantity, l_shipdate, l_comment "
+            + "from cp.\"tpch/lineitem.parquet\"";
+    try (AutoCloseable ignored = withOption(ExecConstants.PARQUET_READER_VECTORIZE, false)) {
+      testBuilder()
+          .optionSettingQueriesForBaseline(
+              "alter session set \""
+                  + ExecConstants.PARQUET_MAX_PAGES_DECOMPRESSED_AHEAD.getOptionName()
+                  + "\" = 0")
+          .optionSettingQueriesForTestQuery(
+              "alter session set \""
+                  + ExecConstants.PARQUET_MAX_PAGES_DECOMPRESSED_AHEAD.getOptionName()
+                  + "\" = 2")
+          .sqlQuery(sql)
+          .unOrdered()
+          .sqlBaselineQuery(sql)
+          .build()
+          .run();
+    }
+  }
 }
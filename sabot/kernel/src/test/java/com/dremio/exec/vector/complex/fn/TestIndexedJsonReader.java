@@ -0,0 +1,325 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.vector.complex.fn;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.ExecTest;
+import com.dremio.exec.physical.base.GroupScan;
+import com.dremio.exec.store.easy.json.JsonProcessor;
+import com.dremio.exec.store.easy.json.JsonProcessor.ReadState;
+import com.dremio.sabot.exec.context.BufferManagerImpl;
+import com.google.common.collect.ImmutableList;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.arrow.vector.complex.NonNullableStructVector;
+import org.apache.arrow.vector.complex.StructVector;
+import org.apache.arrow.vector.complex.impl.ComplexWriterImpl;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/** Tests for {@link IndexedJsonReader} and {@link JsonStructuralIndex} */
+public class TestIndexedJsonReader extends ExecTest {
+  private static final int MAX_FIELD_SIZE = 1024 * 1024;
+  private static final int MAX_LEAF_LIMIT = 10_000;
+
+  private BufferManagerImpl bufferManager;
+
+  @Before
+  public void setup() {
+    bufferManager = new BufferManagerImpl(allocator);
+  }
+
+  @After
+  public void cleanup() {
+    bufferManager.close();
+  }
+
+  @Test
+  public void testStructuralIndex() {
+    byte[] json = "{\"a\\\"{\": [1, {\"b\": \"]\"}], \"c\": 2}".getBytes(UTF_8);
+    JsonStructuralIndex index = new JsonStructuralIndex();
+    index.build(json, 0, json.length);
+
+    StringBuilder structure = new StringBuilder();
+    for (int i = 0; i < index.size(); i++) {
+      structure.append((char) json[index.position(i)]);
+    }
+    assertThat(structure.toString()).isEqualTo("{\"\":[,{\"\":\"\"}],\"\":}");
+    assertThat(index.isTruncated()).isFalse();
+    assertThat(index.pair(0)).isEqualTo(index.size() - 1);
+    assertThat(index.pair(4)).isEqualTo(13);
+    assertThat(index.pair(6)).isEqualTo(12);
+  }
+
+  @Test
+  public void testStructuralIndexStopsWithinString() {
+    byte[] json = "{\"a\": \"unterminated".getBytes(UTF_8);
+    JsonStructuralIndex index = new JsonStructuralIndex();
+    index.build(json, 0, json.length);
+
+    assertThat(index.isTruncated()).isTrue();
+    assertThat(index.size()).isEqualTo(4);
+    assertThat(index.pair(0)).isEqualTo(JsonStructuralIndex.UNMATCHED);
+  }
+
+  @Test
+  public void testFindQuoteOrBackslash() {
+    byte[] bytes = "0123456789abcdef\\0123456789\"".getBytes(UTF_8);
+    assertThat(JsonStructuralIndex.findQuoteOrBackslash(bytes, 0, bytes.length)).isEqualTo(16);
+    assertThat(JsonStructuralIndex.findQuoteOrBackslash(bytes, 17, bytes.length)).isEqualTo(27);
+    assertThat(JsonStructuralIndex.findQuoteOrBackslash(bytes, 0, 10)).isEqualTo(10);
+  }
+
+  @Test
+  public void testSameAsTokenReader() throws Exception {
+    assertSameAsTokenReader(
+        "{\"a\": 1, \"b\": \"x\", \"c\": true, \"d\": 1.5, \"e\": null}\n"
+            + "{\"a\": -2, \"b\": \"y\\\"\\u00e9\\ud83d\\ude00\", \"c\": false}\n"
+            + "{\"f\": {\"g\": [1, 2, 3], \"h\": {\"i\": \"nested\"}}}\n"
+            + "{\"j\": [[1, 2], [3]], \"k\": [{\"l\": 1}, {\"l\": 2, \"m\": \"z\"}], \"n\": []}\n"
+            + "{}\n",
+        GroupScan.ALL_COLUMNS);
+  }
+
+  @Test
+  public void testOuterArray() throws Exception {
+    assertSameAsTokenReader(
+        "[\n  {\"a\": 1, \"b\": [\"x\", \"y\"]},\n  {\"a\": 2}\n]\n", GroupScan.ALL_COLUMNS);
+  }
+
+  @Test
+  public void testExtendedTypes() throws Exception {
+    assertSameAsTokenReader(
+        "{\"a\": {\"$date\": \"2020-01-02T03:04:05.678Z\"}, \"b\": [{\"$numberLong\": \"5\"}],"
+            + " \"c\": {\"$other\": 1}}\n",
+        GroupScan.ALL_COLUMNS);
+  }
+
+  @Test
+  public void testProjection() throws Exception {
+    List<SchemaPath> columns =
+        ImmutableList.of(SchemaPath.getSimplePath("a"), SchemaPath.getCompoundPath("c", "d"));
+    String json =
+        "{\"a\": 1, \"b\": {\"skipped\": [1, \"]\", {\"x\": null}]}, \"c\": {\"d\": \"y\", \"e\":"
+            + " 2}}\n"
+            + "{\"b\": \"\\\"}\", \"a\": 3}\n";
+
+    assertSameAsTokenReader(json, columns);
+    assertThat(read(indexedReader(columns, 16), json))
+        .extracting(Object::toString)
+        .containsExactly("{\"a\":1,\"c\":{\"d\":\"y\"}}", "{\"a\":3}");
+  }
+
+  @Test
+  public void testRecordsLargerThanBuffer() throws Exception {
+    StringBuilder json = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      json.append("{\"id\": ").append(i).append(", \"name\": \"");
+      for (int j = 0; j < i; j++) {
+        json.append((char) ('a' + j % 26));
+      }
+      json.append("\", \"values\": [").append(i).append(", ").append(i * 2).append("]}\n");
+    }
+    assertSameAsTokenReader(json.toString(), GroupScan.ALL_COLUMNS);
+  }
+
+  @Test
+  public void testNullInList() {
+    assertThatThrownBy(
+            () -> read(indexedReader(GroupScan.ALL_COLUMNS, 1024), "{\"a\": [1, null]}\n"))
+        .hasMessageContaining("Null values are not supported in lists by default");
+  }
+
+  @Test
+  public void testMalformedInput() {
+    for (String json :
+        new String[] {
+          "{\"a\": 1,}",
+          "{\"a\" 1}",
+          "{\"a\": tru}",
+          "{\"a\": 1 2}",
+          "{\"a\": [1,]}",
+          "{a: 1}",
+          "{\"a\": 1}]",
+          "[{\"a\": 1}] {}",
+          "{\"a\": \"unterminated}",
+          "5",
+          "{\"a\": 1]",
+          "{\"a\": 1.}",
+        }) {
+      assertThatThrownBy(() -> read(indexedReader(GroupScan.ALL_COLUMNS, 1024), json))
+          .as(json)
+          .isInstanceOf(JsonReaderIOException.class);
+    }
+  }
+
+  /**
+   * Compares both readers on wide newline delimited records, reading all columns and a few of them.
+   * Not run as part of the build.
+   */
+  @Test
+  @Ignore("benchmark")
+  public void benchmarkWideRecords() throws Exception {
+    final int fields = 200;
+    final int records = 20_000;
+    StringBuilder builder = new StringBuilder();
+    for (int r = 0; r < records; r++) {
+      builder.append('{');
+      for (int f = 0; f < fields; f++) {
+        if (f > 0) {
+          builder.append(", ");
+        }
+        builder.append("\"field_").append(f).append("\": ");
+        switch (f % 4) {
+          case 0:
+            builder.append(r * 31L + f);
+            break;
+          case 1:
+            builder.append(r + f / 100.0);
+            break;
+          case 2:
+            builder.append("\"value ").append(r).append(' ').append(f).append('"');
+            break;
+          default:
+            builder.append("{\"x\": ").append(f).append(", \"y\": [\"a\", \"b\"]}");
+            break;
+        }
+      }
+      builder.append("}\n");
+    }
+    byte[] json = builder.toString().getBytes(UTF_8);
+    List<SchemaPath> projected =
+        ImmutableList.of(
+            SchemaPath.getSimplePath("field_0"),
+            SchemaPath.getSimplePath("field_101"),
+            SchemaPath.getSimplePath("field_198"));
+
+    for (int iteration = 0; iteration < 5; iteration++) {
+      System.out.printf(
+          "all columns: token %d ms, indexed %d ms; 3 columns: token %d ms, indexed %d ms%n",
+          time(tokenReader(GroupScan.ALL_COLUMNS), json, records),
+          time(
+              indexedReader(GroupScan.ALL_COLUMNS, IndexedJsonReader.DEFAULT_BUFFER_SIZE),
+              json,
+              records),
+          time(tokenReader(projected), json, records),
+          time(indexedReader(projected, IndexedJsonReader.DEFAULT_BUFFER_SIZE), json, records));
+    }
+  }
+
+  private long time(JsonProcessor reader, byte[] json, int records) throws Exception {
+    final int batchSize = 4096;
+    long start = System.nanoTime();
+    reader.setSource(new ByteArrayInputStream(json));
+    int read = 0;
+    boolean more = true;
+    while (more) {
+      try (NonNullableStructVector vector = newVector()) {
+        ComplexWriterImpl writer = new ComplexWriterImpl("col", vector);
+        int count = 0;
+        while (count < batchSize) {
+          writer.setPosition(count);
+          if (reader.write(writer) != ReadState.WRITE_SUCCEED) {
+            more = false;
+            break;
+          }
+          count++;
+        }
+        writer.setValueCount(count);
+        read += count;
+      }
+    }
+    assertThat(read).isEqualTo(records);
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+
+  private void assertSameAsTokenReader(String json, List<SchemaPath> columns) throws Exception {
+    List<Object> expected = read(tokenReader(columns), json);
+    // a tiny buffer forces records to straddle refills
+    assertThat(read(indexedReader(columns, 16), json)).isEqualTo(expected);
+    assertThat(read(indexedReader(columns, IndexedJsonReader.DEFAULT_BUFFER_SIZE), json))
+        .isEqualTo(expected);
+  }
+
+  private List<Object> read(JsonProcessor reader, String json) throws Exception {
+    List<Object> rows = new ArrayList<>();
+    try (NonNullableStructVector vector = newVector()) {
+      ComplexWriterImpl writer = new ComplexWriterImpl("col", vector);
+      reader.setSource(new ByteArrayInputStream(json.getBytes(UTF_8)));
+      int count = 0;
+      while (true) {
+        writer.setPosition(count);
+        if (reader.write(writer) != ReadState.WRITE_SUCCEED) {
+          break;
+        }
+        count++;
+      }
+      writer.setValueCount(count);
+      StructVector col = vector.getChild("col", StructVector.class);
+      for (int i = 0; i < count; i++) {
+        rows.add(col.getObject(i));
+      }
+    }
+    return rows;
+  }
+
+  private NonNullableStructVector newVector() {
+    return new NonNullableStructVector(
+        "", allocator, new FieldType(false, ArrowType.Struct.INSTANCE, null, null), null);
+  }
+
+  private JsonReader tokenReader(List<SchemaPath> columns) {
+    return new JsonReader(
+        bufferManager.getManagedBuffer(),
+        columns,
+        MAX_FIELD_SIZE,
+        MAX_LEAF_LIMIT,
+        false,
+        true,
+        false,
+        false,
+        null,
+        null,
+        null,
+        null,
+        null,
+        false,
+        null,
+        false,
+        null);
+  }
+
+  private IndexedJsonReader indexedReader(List<SchemaPath> columns, int bufferSize) {
+    return new IndexedJsonReader(
+        bufferManager.getManagedBuffer(),
+        columns,
+        MAX_FIELD_SIZE,
+        MAX_LEAF_LIMIT,
+        false,
+        false,
+        bufferSize);
+  }
+}
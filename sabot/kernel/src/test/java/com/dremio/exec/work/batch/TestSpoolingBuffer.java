@@ -16,6 +16,7 @@
 package com.dremio.exec.work.batch;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
@@ -24,6 +25,7 @@ import static org.mockito.Mockito.mock;
 import com.dremio.common.config.SabotConfig;
 import com.dremio.common.util.TestTools;
 import com.dremio.common.utils.protos.ExternalIdHelper;
+import com.dremio.common.utils.protos.QueryIdHelper;
 import com.dremio.config.DremioConfig;
 import com.dremio.exec.ExecTest;
 import com.dremio.exec.proto.CoordinationProtos;
@@ -42,6 +44,7 @@ import com.dremio.service.scheduler.SchedulerService;
 import com.dremio.service.spill.DefaultSpillServiceOptions;
 import com.dremio.service.spill.SpillService;
 import com.dremio.service.spill.SpillServiceImpl;
+import com.dremio.service.spill.SpillServiceOptions;
 import com.dremio.test.AllocatorRule;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
@@ -134,6 +137,7 @@ public class TestSpoolingBuffer extends ExecTest {
       if (!executorService.awaitTermination(45, TimeUnit.SECONDS)) {
         Assert.fail("Timed out while waiting for executor termination");
       }
+      buffer.awaitPendingSpools();
 
       // checks that the batches have been written to disk and are no longer in memory
       assertEquals(6 * batchAllocateSize, allocator.getAllocatedMemory());
@@ -215,6 +219,7 @@ public class TestSpoolingBuffer extends ExecTest {
             // have been able to finish spooling and sendOk().
             Thread.sleep(100);
           }
+          buffer.awaitPendingSpools();
         } catch (Exception e) {
           Map<Thread, StackTraceElement[]> threads = Thread.getAllStackTraces();
           System.out.println("Number of threads: " + threads.size());
@@ -338,6 +343,68 @@ public class TestSpoolingBuffer extends ExecTest {
     }
   }
 
+  @Test
+  public void testBatchesKeptInMemoryWhenOutOfSpoolingQuota() throws Exception {
+    SharedResource resource = mock(SharedResource.class);
+    QueryId queryId = ExternalIdHelper.toQueryId(ExternalIdHelper.generateExternalId());
+    FragmentHandle handle =
+        FragmentHandle.newBuilder()
+            .setMajorFragmentId(0)
+            .setMinorFragmentId(0)
+            .setQueryId(queryId)
+            .build();
+    FragmentWorkQueue queue = mock(FragmentWorkQueue.class);
+
+    SabotConfig config = SabotConfig.create();
+    final SpillService spillService =
+        setupSpillService(
+            config,
+            new DefaultSpillServiceOptions() {
+              @Override
+              public long spoolingQuotaPerQuery() {
+                return 0;
+              }
+            });
+
+    try (BufferAllocator spoolingAllocator =
+            allocatorRule.newAllocator("test-spooling-buffer", 0, Long.MAX_VALUE);
+        SpoolingRawBatchBuffer buffer =
+            new SpoolingRawBatchBuffer(
+                resource,
+                config,
+                options,
+                queue,
+                handle,
+                spillService,
+                spoolingAllocator,
+                1,
+                0,
+                0)) {
+      buffer.init();
+
+      for (int i = 0; i < numBatchesToEnqueuePerIteration; i++) {
+        try (RawFragmentBatch batch = newBatch(i)) {
+          buffer.enqueue(batch);
+        }
+      }
+      buffer.awaitPendingSpools();
+
+      // nothing could be spooled, all the batches are still in memory
+      assertEquals(
+          numBatchesToEnqueuePerIteration * batchAllocateSize, allocator.getAllocatedMemory());
+      assertFalse(spillService.reserveSpoolSpace(QueryIdHelper.getQueryId(queryId), 1));
+
+      for (int i = 0; i < numBatchesToEnqueuePerIteration; i++) {
+        RawFragmentBatch batch = buffer.getNext();
+        checkBatch(batch, i);
+        batch.close();
+      }
+
+      assertNull(buffer.getNext());
+      assertEquals(0, allocator.getAllocatedMemory());
+    }
+  }
+
   private AckSender ackSender = mock(AckSender.class);
 
   private RawFragmentBatch newBatch(int index) {
@@ -352,6 +419,11 @@ public class TestSpoolingBuffer extends ExecTest {
   }
 
   private SpillService setupSpillService(SabotConfig config) throws Exception {
+    return setupSpillService(config, new DefaultSpillServiceOptions());
+  }
+
+  private SpillService setupSpillService(SabotConfig config, SpillServiceOptions spillOptions)
+      throws Exception {
     final SchedulerService schedulerService = mock(SchedulerService.class);
     final CoordinationProtos.NodeEndpoint endpoint =
         CoordinationProtos.NodeEndpoint.newBuilder()
@@ -362,7 +434,7 @@ public class TestSpoolingBuffer extends ExecTest {
     final SpillService spillService =
         new SpillServiceImpl(
             DremioConfig.create(null, config),
-            new DefaultSpillServiceOptions(),
+            spillOptions,
             new Provider<SchedulerService>() {
               @Override
               public SchedulerService get() {
@@ -22,6 +22,7 @@ import com.dremio.exec.physical.config.Project;
 import com.dremio.options.OptionValue;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.filter.FilterOperator;
+import com.dremio.sabot.op.filter.FilterStats;
 import com.dremio.sabot.op.project.ProjectOperator;
 import com.dremio.sabot.op.project.ProjectorStats.Metric;
 import com.dremio.sabot.op.spi.SingleInputOperator;
@@ -98,8 +99,13 @@ public class TestGandivaPerf extends BaseTestOperator {
     long gandivaCodegenEvalTime = 0;
     for (Future<OperatorStats> future : futures) {
       OperatorStats stats = future.get();
-      javaCodegenEvalTime += stats.getLongStat(Metric.JAVA_EVALUATE_TIME);
-      gandivaCodegenEvalTime += stats.getLongStat(Metric.GANDIVA_EVALUATE_TIME);
+      if (clazz == FilterOperator.class) {
+        javaCodegenEvalTime += stats.getLongStat(FilterStats.Metric.JAVA_EXECUTE_TIME);
+        gandivaCodegenEvalTime += stats.getLongStat(FilterStats.Metric.GANDIVA_EXECUTE_TIME);
+      } else {
+        javaCodegenEvalTime += stats.getLongStat(Metric.JAVA_EVALUATE_TIME);
+        gandivaCodegenEvalTime += stats.getLongStat(Metric.GANDIVA_EVALUATE_TIME);
+      }
     }
     totalEvalTime = javaCodegenEvalTime + gandivaCodegenEvalTime;
     System.out.println(
@@ -148,6 +154,23 @@ public class TestGandivaPerf extends BaseTestOperator {
     return runBoth(expr, table, scale, filter, FilterOperator.class);
   }
 
+  /*
+   * Returns the evaluation time of the vectorized filter as a % of the fastest of java and gandiva.
+   */
+  private int compareVectorizedFilter(TpchTable table, double scale, String expr) throws Exception {
+    Filter filter = new Filter(PROPS, null, parseExpr(expr), 1f);
+    long javaTime = runOne(PREFER_JAVA, expr, table, scale, filter, FilterOperator.class);
+    long gandivaTime = runOne(PREFER_GANDIVA, expr, table, scale, filter, FilterOperator.class);
+    long vectorizedTime;
+    try (AutoCloseable vectorized = with(ExecConstants.VECTORIZED_FILTER_ENABLED, true)) {
+      vectorizedTime = runOne(PREFER_JAVA, expr, table, scale, filter, FilterOperator.class);
+    }
+
+    int pcnt = (int) ((vectorizedTime * 100) / Math.max(1, Math.min(javaTime, gandivaTime)));
+    System.out.println("vectorized time for [" + expr + "] is " + pcnt + "% of the fastest");
+    return pcnt;
+  }
+
   @Test
   public void testProjectAdd() throws Exception {
     int delta = compareProject(TpchTable.CUSTOMER, 6, "c_custkey + c_nationkey");
@@ -215,6 +238,24 @@ public class TestGandivaPerf extends BaseTestOperator {
     Assert.assertTrue(delta > 0);
   }
 
+  @Test
+  public void testFilterVectorizedBetween() throws Exception {
+    int pcnt =
+        compareVectorizedFilter(
+            TpchTable.CUSTOMER, 6, "c_custkey >= 10000l and c_custkey <= 500000l");
+    Assert.assertTrue(pcnt < 100);
+  }
+
+  @Test
+  public void testFilterVectorizedIn() throws Exception {
+    int pcnt =
+        compareVectorizedFilter(
+            TpchTable.CUSTOMER,
+            6,
+            "c_nationkey = 1l or c_nationkey = 5l or c_nationkey = 7l or c_nationkey = 11l");
+    Assert.assertTrue(pcnt < 100);
+  }
+
   @Test
   public void testFilterLike() throws Exception {
     int delta = compareFilter(TpchTable.CUSTOMER, 6, "like(c_name, '%PROMO%')");
@@ -19,6 +19,7 @@ import static com.dremio.exec.proto.UserBitShared.DremioPBError.ErrorType.FUNCTI
 import static com.dremio.sabot.Fixtures.t;
 import static com.dremio.sabot.Fixtures.th;
 import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
 
 import com.dremio.common.logical.data.NamedExpression;
 import com.dremio.common.types.TypeProtos.MinorType;
@@ -33,7 +34,9 @@ import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.Fixtures;
 import com.dremio.sabot.Fixtures.Table;
 import com.dremio.sabot.Generator;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.aggregate.hash.HashAggOperator;
+import com.dremio.sabot.op.aggregate.vectorized.HashAggStats;
 import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator;
 import com.dremio.sabot.op.aggregate.vectorized.nospill.VectorizedHashAggOperatorNoSpill;
 import com.dremio.test.UserExceptionAssert;
@@ -1261,4 +1264,87 @@ public class TestHashAgg extends BaseTestOperator {
         .hasErrorType(FUNCTION)
         .hasMessageContaining("low-cardinality aggregations");
   }
+
+  @Test
+  public void partialAggPassThrough() throws Exception {
+    final int records = 2_000;
+    final Fixtures.DataRow[] input = new Fixtures.DataRow[records];
+    for (int i = 0; i < records; i++) {
+      // every key shows up in two consecutive batches of 100 records
+      final int key = (i % 100) + (i / 200) * 100;
+      input[i] = tr(key, (long) i);
+    }
+    final HashAggregate conf =
+        new HashAggregate(
+            OpProps.prototype(),
+            null,
+            Arrays.asList(n("x")),
+            Arrays.asList(n("sum(y)", "sum"), n("count(y)", "cnt")),
+            true,
+            true,
+            1f,
+            3968,
+            true);
+
+    try (AutoCloseable options1 =
+            with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_USE_SPILLING_OPERATOR, true);
+        AutoCloseable options2 =
+            with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_ADAPTIVE_BYPASS_BATCHES, 2);
+        AutoCloseable options3 =
+            with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_ADAPTIVE_BYPASS_RATIO, 0.6)) {
+      // the first two batches hold 100 distinct keys out of 200 records, which is below the
+      // ratio of 0.6 and keeps the operator aggregating
+      OperatorStats stats =
+          validateSingle(
+              conf,
+              VectorizedHashAggOperator.class,
+              t(th("x", "y"), input).toGenerator(allocator),
+              null,
+              100,
+              (long) records / 2);
+      assertEquals(0, stats.getLongStat(HashAggStats.Metric.PARTIAL_AGG_PASS_THROUGH));
+
+      // with a ratio of 0.5 the operator switches to pass-through and emits every batch on its
+      // own, so each key is emitted twice from then on
+      try (AutoCloseable options4 =
+          with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_ADAPTIVE_BYPASS_RATIO, 0.5)) {
+        stats =
+            validateSingle(
+                conf,
+                VectorizedHashAggOperator.class,
+                t(th("x", "y"), input).toGenerator(allocator),
+                null,
+                100,
+                (long) records - 100);
+        assertEquals(1, stats.getLongStat(HashAggStats.Metric.PARTIAL_AGG_PASS_THROUGH));
+      }
+    }
+
+    // a final aggregation never bypasses
+    final HashAggregate finalConf =
+        new HashAggregate(
+            OpProps.prototype(),
+            null,
+            conf.getGroupByExprs(),
+            Arrays.asList(n("sum(y)", "sum"), n("count(y)", "cnt")),
+            true,
+            true,
+            1f,
+            3968,
+            false);
+    try (AutoCloseable options1 =
+            with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_USE_SPILLING_OPERATOR, true);
+        AutoCloseable options2 =
+            with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_ADAPTIVE_BYPASS_BATCHES, 1);
+        AutoCloseable options3 =
+            with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_ADAPTIVE_BYPASS_RATIO, 0.0)) {
+      validateSingle(
+          finalConf,
+          VectorizedHashAggOperator.class,
+          t(th("x", "y"), input).toGenerator(allocator),
+          null,
+          100,
+          (long) records / 2);
+    }
+  }
 }
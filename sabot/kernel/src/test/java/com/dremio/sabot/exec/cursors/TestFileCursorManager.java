@@ -78,6 +78,27 @@ public class TestFileCursorManager {
     }
   }
 
+  @Test
+  public void testRegisteredReaderCount() throws Exception {
+    FileCursorManager mgr = new FileCursorManagerImpl("test");
+    assertEquals(0, mgr.getRegisteredReaderCount());
+    try (FileCursorManager.Observer reader1 =
+            mgr.registerReader(createSharedResource("testRegisteredReaderCount:reader1"));
+        FileCursorManager.Observer writer =
+            mgr.registerWriter(
+                streamManager,
+                createSharedResource("testRegisteredReaderCount:writer"),
+                () -> {})) {
+      FileCursorManager.Observer reader2 =
+          mgr.registerReader(createSharedResource("testRegisteredReaderCount:reader2"));
+      mgr.notifyAllRegistrationsDone();
+
+      // finished readers are still counted
+      reader2.close();
+      assertEquals(2, mgr.getRegisteredReaderCount());
+    }
+  }
+
   @Test
   public void testReader() throws Exception {
     FileCursorManager mgr = new FileCursorManagerImpl("test");
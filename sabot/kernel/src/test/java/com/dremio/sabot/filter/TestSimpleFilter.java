@@ -20,6 +20,7 @@ import static com.dremio.sabot.Fixtures.th;
 import static com.dremio.sabot.Fixtures.tr;
 
 import com.dremio.common.expression.LogicalExpression;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.config.Filter;
 import com.dremio.exec.proto.UserBitShared.ExpressionSplitInfo;
 import com.dremio.exec.record.VectorAccessible;
@@ -29,6 +30,7 @@ import com.dremio.sabot.Fixtures.Table;
 import com.dremio.sabot.Generator;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.filter.FilterOperator;
+import com.dremio.sabot.op.filter.FilterStats;
 import io.airlift.tpch.GenerationDefinition.TpchTable;
 import io.airlift.tpch.TpchGenerator;
 import java.util.List;
@@ -61,6 +63,22 @@ public class TestSimpleFilter extends BaseTestOperator {
     validateSingle(f, FilterOperator.class, input, output);
   }
 
+  @Test
+  public void vectorizedFilter() throws Exception {
+    try (AutoCloseable vectorized = with(ExecConstants.VECTORIZED_FILTER_ENABLED, true)) {
+      Filter f =
+          new Filter(PROPS, null, toExpr("(c0 >= 10 and c0 <= 30) or c0 = 8 or c0 = 40"), 1f);
+      Table input = t(th("c0"), tr(35), tr(8), tr(22), tr(10), tr(40), tr(31));
+
+      Table output = t(th("c0"), tr(8), tr(22), tr(10), tr(40));
+
+      OperatorStats stats =
+          validateSingle(
+              f, FilterOperator.class, input.toGenerator(getTestAllocator()), output, 4000);
+      Assert.assertEquals(1, stats.getLongStat(FilterStats.Metric.VECTORIZED_EXPRESSIONS));
+    }
+  }
+
   /**
    * This gives wrong results. Filter operator should handle SV2, but apparently it doesn't
    *
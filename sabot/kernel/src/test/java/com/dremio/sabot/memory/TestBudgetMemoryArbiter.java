@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.memory;
+
+import com.dremio.sabot.op.spi.Operator;
+import com.dremio.test.DremioTest;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestBudgetMemoryArbiter extends DremioTest {
+  private static final long MB = 1024 * 1024;
+
+  private BufferAllocator allocator;
+  private BudgetMemoryArbiter arbiter;
+
+  @Before
+  public void setup() {
+    allocator = new RootAllocator(100 * MB);
+    arbiter = new BudgetMemoryArbiter(allocator, 50);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    arbiter.close();
+    allocator.close();
+  }
+
+  @Test
+  public void testGrantsWithinBudget() {
+    Assert.assertEquals(50 * MB, arbiter.getBudget());
+    TestTask first = new TestTask("first");
+    TestTask second = new TestTask("second");
+    arbiter.startTask(first);
+    arbiter.startTask(second);
+
+    Assert.assertTrue(arbiter.acquireMemoryGrant(first, 20 * MB));
+    Assert.assertTrue(arbiter.acquireMemoryGrant(second, 20 * MB));
+    // an existing grant that is large enough is kept
+    Assert.assertTrue(arbiter.acquireMemoryGrant(first, 10 * MB));
+    Assert.assertEquals(40 * MB, arbiter.getGrantedBytes());
+
+    arbiter.releaseMemoryGrant(first);
+    arbiter.releaseMemoryGrant(second);
+    Assert.assertEquals(0, first.getMemoryGrant());
+    Assert.assertEquals(0, arbiter.getGrantedBytes());
+  }
+
+  @Test
+  public void testBlockedTaskIsUnblockedOnRelease() {
+    TestTask first = new TestTask("first");
+    TestTask second = new TestTask("second");
+    arbiter.startTask(first);
+    arbiter.startTask(second);
+
+    Assert.assertTrue(arbiter.acquireMemoryGrant(first, 40 * MB));
+    Assert.assertFalse(arbiter.acquireMemoryGrant(second, 20 * MB));
+    Assert.assertTrue(second.blocked);
+    Assert.assertEquals(1, arbiter.getBlockedTaskCount());
+
+    arbiter.releaseMemoryGrant(first);
+    Assert.assertFalse(second.blocked);
+    Assert.assertEquals(0, arbiter.getBlockedTaskCount());
+    Assert.assertFalse(arbiter.removeFromBlocked(second));
+    Assert.assertTrue(arbiter.acquireMemoryGrant(second, 20 * MB));
+  }
+
+  @Test
+  public void testLargestOperatorsSpillFirst() throws Exception {
+    TestTask first = new TestTask("first");
+    TestTask second = new TestTask("second");
+    TestOperator small = first.addOperator(1, 5 * MB);
+    TestOperator large = first.addOperator(2, 30 * MB);
+    TestOperator medium = second.addOperator(1, 10 * MB);
+    arbiter.startTask(first);
+    arbiter.startTask(second);
+
+    List<ArrowBuf> used = new ArrayList<>();
+    try {
+      used.add(allocator.buffer(45 * MB));
+      Assert.assertTrue(arbiter.acquireMemoryGrant(first, 4 * MB));
+      // 45MB allocated and 4MB granted, 19MB are missing for this grant
+      Assert.assertFalse(arbiter.acquireMemoryGrant(second, 20 * MB));
+      Assert.assertEquals(30 * MB, large.shrinkRequest);
+      Assert.assertEquals(0, medium.shrinkRequest);
+      Assert.assertEquals(0, small.shrinkRequest);
+      Assert.assertEquals(1, arbiter.getSpillingOperatorCount());
+
+      // operators already asked to spill count towards the next shortfall
+      TestTask third = new TestTask("third");
+      arbiter.startTask(third);
+      Assert.assertFalse(arbiter.acquireMemoryGrant(third, 10 * MB));
+      Assert.assertEquals(0, medium.shrinkRequest);
+
+      // the operator released its memory
+      used.remove(0).close();
+      arbiter.releaseMemoryGrant(first);
+      arbiter.addTaskToQueue(first);
+      arbiter.removeFromSpilling(first.getShrinkableOperators().get(1));
+      Assert.assertFalse(second.blocked);
+      Assert.assertFalse(third.blocked);
+      Assert.assertEquals(0, arbiter.getSpillingOperatorCount());
+      Assert.assertTrue(arbiter.acquireMemoryGrant(second, 20 * MB));
+      Assert.assertTrue(arbiter.acquireMemoryGrant(third, 10 * MB));
+    } finally {
+      for (ArrowBuf buf : used) {
+        buf.close();
+      }
+    }
+  }
+
+  @Test
+  public void testGrantsWhenNothingCanReleaseMemory() {
+    TestTask task = new TestTask("task");
+    arbiter.startTask(task);
+    try (ArrowBuf buf = allocator.buffer(60 * MB)) {
+      // over budget, but there is no other grant and nothing to spill to wait for
+      Assert.assertTrue(arbiter.acquireMemoryGrant(task, 10 * MB));
+      arbiter.releaseMemoryGrant(task);
+    }
+  }
+
+  @Test
+  public void testTaskDoneReleasesGrantAndUnblocks() {
+    TestTask first = new TestTask("first");
+    TestTask second = new TestTask("second");
+    arbiter.startTask(first);
+    arbiter.startTask(second);
+
+    Assert.assertTrue(arbiter.acquireMemoryGrant(first, 45 * MB));
+    Assert.assertFalse(arbiter.acquireMemoryGrant(second, 10 * MB));
+    arbiter.taskDone(first);
+    Assert.assertFalse(second.blocked);
+    Assert.assertEquals(0, arbiter.getGrantedBytes());
+  }
+
+  private static final class TestTask implements MemoryArbiterTask {
+    private final String id;
+    private final List<MemoryTaskAndShrinkableOperator> operators = new ArrayList<>();
+    private long grant;
+    private boolean blocked;
+
+    private TestTask(String id) {
+      this.id = id;
+    }
+
+    private TestOperator addOperator(int operatorId, long shrinkableMemory) {
+      TestOperator operator = new TestOperator(operatorId, shrinkableMemory);
+      operators.add(new MemoryTaskAndShrinkableOperator(this, operator));
+      return operator;
+    }
+
+    @Override
+    public String getTaskId() {
+      return id;
+    }
+
+    @Override
+    public long getUsedMemory() {
+      return 0;
+    }
+
+    @Override
+    public long getMemoryGrant() {
+      return grant;
+    }
+
+    @Override
+    public void setMemoryGrant(long memoryGrantInBytes) {
+      this.grant = memoryGrantInBytes;
+    }
+
+    @Override
+    public List<MemoryTaskAndShrinkableOperator> getShrinkableOperators() {
+      return operators;
+    }
+
+    @Override
+    public void shrinkMemory(
+        Operator.ShrinkableOperator shrinkableOperator, long currentShrinkableMemory) {
+      ((TestOperator) shrinkableOperator).shrinkRequest = currentShrinkableMemory;
+    }
+
+    @Override
+    public void blockOnMemory() {
+      blocked = true;
+    }
+
+    @Override
+    public void unblockOnMemory() {
+      blocked = false;
+    }
+  }
+
+  private static final class TestOperator implements Operator.ShrinkableOperator {
+    private final int operatorId;
+    private final long shrinkableMemory;
+    private long shrinkRequest;
+
+    private TestOperator(int operatorId, long shrinkableMemory) {
+      this.operatorId = operatorId;
+      this.shrinkableMemory = shrinkableMemory;
+    }
+
+    @Override
+    public int getOperatorId() {
+      return operatorId;
+    }
+
+    @Override
+    public long shrinkableMemory() {
+      return shrinkableMemory;
+    }
+
+    @Override
+    public boolean shrinkMemory(long size) {
+      return true;
+    }
+  }
+}
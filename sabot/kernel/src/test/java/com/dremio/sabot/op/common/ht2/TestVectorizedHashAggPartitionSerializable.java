@@ -20,8 +20,10 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.config.SabotConfig;
@@ -669,6 +671,7 @@ public class TestVectorizedHashAggPartitionSerializable extends DremioTest {
                 })
             .when(spillService)
             .getSpillSubdir(any(String.class));
+        when(spillService.reserveSpillSpace(any(String.class), anyLong())).thenReturn(true);
 
         LBlockHashTable sourceHashTable =
             new LBlockHashTable(
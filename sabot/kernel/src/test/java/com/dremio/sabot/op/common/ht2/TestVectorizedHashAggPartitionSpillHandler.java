@@ -23,8 +23,10 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.config.SabotConfig;
@@ -459,6 +461,7 @@ public class TestVectorizedHashAggPartitionSpillHandler extends DremioTest {
                 })
             .when(spillService)
             .getSpillSubdir(any(String.class));
+        when(spillService.reserveSpillSpace(any(String.class), anyLong())).thenReturn(true);
 
         OptionManager optionManager = mock(OptionManager.class);
         partitionSpillHandler =
@@ -19,15 +19,24 @@ import static com.dremio.sabot.Fixtures.t;
 import static com.dremio.sabot.Fixtures.tb;
 import static com.dremio.sabot.Fixtures.th;
 import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import com.dremio.common.config.SabotConfig;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.config.TopN;
 import com.dremio.sabot.BaseTestOperator;
+import com.dremio.sabot.Fixtures.DataRow;
 import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.sort.topn.TopNOperator;
+import io.airlift.tpch.GenerationDefinition.TpchTable;
+import io.airlift.tpch.TpchGenerator;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
+import java.util.Random;
 import org.apache.calcite.rel.RelFieldCollation.Direction;
 import org.apache.calcite.rel.RelFieldCollation.NullDirection;
 import org.junit.Test;
@@ -81,4 +90,85 @@ public class TestTopN extends BaseTestOperator {
             false);
     validateSingle(topn, TopNOperator.class, input, output);
   }
+
+  @Test
+  public void topNDataWithSpill() throws Exception {
+    Table input =
+        t(
+            th("c0"), tr(35), tr(8), tr(22), tr(17), tr(15), tr(12), tr(42), tr(18), tr(11), tr(94),
+            tr(106));
+
+    Table output = t(th("c0"), tr(8), tr(11));
+
+    TopN topn =
+        new TopN(
+            PROPS,
+            null,
+            2,
+            Collections.singletonList(ordering("c0", Direction.ASCENDING, NullDirection.FIRST)),
+            false);
+    // spill after every batch
+    try (AutoCloseable ignored = with(ExecConstants.TOPN_SPILL_MEMORY_RATIO, 0.0)) {
+      OperatorStats stats = validateSingle(topn, TopNOperator.class, input, output, 2);
+      assertTrue(stats.getLongStat(TopNOperator.Metric.SPILL_COUNT) > 1);
+    }
+  }
+
+  @Test
+  public void topNManyRunsWithSpill() throws Exception {
+    final List<Integer> values = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      values.add(i);
+    }
+    Collections.shuffle(values, new Random(42));
+    final DataRow[] inputRows = new DataRow[values.size()];
+    for (int i = 0; i < inputRows.length; i++) {
+      inputRows[i] = tr(values.get(i));
+    }
+    final DataRow[] outputRows = new DataRow[10];
+    for (int i = 0; i < outputRows.length; i++) {
+      outputRows[i] = tr(999 - i);
+    }
+
+    TopN topn =
+        new TopN(
+            PROPS,
+            null,
+            10,
+            Collections.singletonList(ordering("c0", Direction.DESCENDING, NullDirection.LAST)),
+            false);
+    try (AutoCloseable ignored = with(ExecConstants.TOPN_SPILL_MEMORY_RATIO, 0.0)) {
+      OperatorStats stats =
+          validateSingle(
+              topn, TopNOperator.class, t(th("c0"), inputRows), t(th("c0"), outputRows), 25);
+      assertTrue(stats.getLongStat(TopNOperator.Metric.SPILL_COUNT) > 1);
+      assertTrue(stats.getLongStat(TopNOperator.Metric.RECORDS_SPILLED) < 1000);
+    }
+  }
+
+  @Test
+  public void shrinkableMemoryIsTheQueuedBatches() throws Exception {
+    TopN topn =
+        new TopN(
+            PROPS,
+            null,
+            10,
+            Collections.singletonList(
+                ordering("c_custkey", Direction.ASCENDING, NullDirection.FIRST)),
+            false);
+    try (TopNOperator op = newOperator(TopNOperator.class, topn, 4095);
+        TpchGenerator generator =
+            TpchGenerator.singleGenerator(TpchTable.CUSTOMER, 1, getTestAllocator())) {
+      op.setup(generator.getOutput());
+      // nothing to spill yet, even though the outgoing batch is allocated
+      assertEquals(0L, op.shrinkableMemory());
+
+      op.consumeData(generator.next(4095));
+      assertTrue(op.shrinkableMemory() > 0);
+
+      // the queued records are spilled, leaving nothing to free
+      op.shrinkMemory(Long.MAX_VALUE);
+      assertEquals(0L, op.shrinkableMemory());
+    }
+  }
 }
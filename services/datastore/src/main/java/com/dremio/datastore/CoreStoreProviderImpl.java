@@ -282,6 +282,34 @@ public class CoreStoreProviderImpl
     }
   }
 
+  /**
+   * Rebuilds the recreated index of a store on a separate thread, so that opening the store does
+   * not wait for it. Searches only see the entries indexed so far until it is done. A rebuild that
+   * does not complete is started again the next time the store is opened.
+   */
+  private void rebuildIndexInBackground(
+      String name, CoreIndexedStore<?, ?> store, LuceneSearchIndex index) {
+    final Thread thread =
+        new Thread(
+            () -> {
+              try (TimedBlock ignored = Timer.time("rebuilding index of store " + name)) {
+                logger.info("Rebuilding index of store {} in the background", name);
+                final int entries = store.reindex();
+                index.rebuilt();
+                logger.info("Rebuilt index of store {} with {} entries", name, entries);
+              } catch (RuntimeException e) {
+                if (closed.get()) {
+                  logger.info("Rebuilding index of store {} stopped on close", name);
+                } else {
+                  logger.error("Failed to rebuild index of store {}", name, e);
+                }
+              }
+            },
+            "rebuild-index-" + name);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
   @Override
   public <K, V> CoreStoreBuilder<K, V> newStore() {
     return new CoreStoreBuilderImpl<>();
@@ -344,13 +372,18 @@ public class CoreStoreProviderImpl
         throws Exception {
       final DocumentConverter<K, V> documentConverter = helper.getDocumentConverter();
       final String name = helper.getName();
+      final LuceneSearchIndex index =
+          indexManager.getIndex(
+              name,
+              documentConverter == null || documentConverter.getIndexSort().isEmpty()
+                  ? null
+                  : CoreIndexedStoreImpl.toLuceneSort(documentConverter.getIndexSort()));
       CoreIndexedStore<K, V> store =
           new CoreIndexedStoreImpl<>(
-              name,
-              coreKVStore,
-              indexManager.getIndex(name),
-              documentConverter,
-              indicesViaPutOption);
+              name, coreKVStore, index, documentConverter, indicesViaPutOption);
+      if (index.isRebuildRequired()) {
+        rebuildIndexInBackground(name, store, index);
+      }
       if (timed) {
         store = new CoreBaseTimedStore.TimedIndexedStoreImplCore<>(name, store);
       }
@@ -30,6 +30,7 @@ import java.io.IOException;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import org.apache.lucene.search.Sort;
 
 /** Manages all existing indexes. */
 class IndexManager implements AutoCloseable {
@@ -56,10 +57,7 @@ class IndexManager implements AutoCloseable {
               new CacheLoader<String, LuceneSearchIndex>() {
                 @Override
                 public LuceneSearchIndex load(String name) throws IOException {
-                  if (readOnly) {
-                    return new ReadOnlyLuceneSearchIndex(indexDirectory, name, inMemory);
-                  }
-                  return new LuceneSearchIndex(indexDirectory, name, inMemory, commitWrapper);
+                  return newIndex(name, null);
                 }
               });
 
@@ -106,6 +104,25 @@ class IndexManager implements AutoCloseable {
     }
   }
 
+  /**
+   * Returns the index with the given name, creating it with the given sort if it is not open yet.
+   */
+  LuceneSearchIndex getIndex(String name, Sort indexSort) {
+    try {
+      return indexes.get(name, () -> newIndex(name, indexSort));
+    } catch (ExecutionException ex) {
+      throw Throwables.propagate(ex.getCause());
+    }
+  }
+
+  private LuceneSearchIndex newIndex(String name, Sort indexSort) {
+    if (readOnly) {
+      // a read only index cannot be rebuilt, keep it as is
+      return new ReadOnlyLuceneSearchIndex(indexDirectory, name, inMemory);
+    }
+    return new LuceneSearchIndex(indexDirectory, name, inMemory, commitWrapper, indexSort);
+  }
+
   void deleteEverything(Set<String> skipNames) throws IOException {
     final DeferredException deleteException = new DeferredException();
     for (Entry<String, LuceneSearchIndex> index : indexes.asMap().entrySet()) {
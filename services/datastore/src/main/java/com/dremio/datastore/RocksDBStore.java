@@ -45,6 +45,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -350,6 +352,21 @@ class RocksDBStore implements ByteStore {
     return lock;
   }
 
+  // Opens the shared locks of the stripes of the given keys, in stripe order
+  private AutoCloseableLock[] sharedLocks(List<byte[]> keys) {
+    final BitSet stripes = new BitSet(parallel);
+    for (byte[] key : keys) {
+      Preconditions.checkNotNull(key);
+      stripes.set(Math.abs(Arrays.hashCode(key) % parallel));
+    }
+    final AutoCloseableLock[] locks = new AutoCloseableLock[stripes.cardinality()];
+    int count = 0;
+    for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) {
+      locks[count++] = sharedLocks[i].open();
+    }
+    return locks;
+  }
+
   private AutoCloseableLock exclusiveLock(byte[] key) {
     Preconditions.checkNotNull(key);
     final int hash = Arrays.hashCode(key);
@@ -527,11 +544,38 @@ class RocksDBStore implements ByteStore {
 
   @Override
   public Iterable<Document<byte[], byte[]>> get(List<byte[]> keys, GetOption... options) {
-    final List<Document<byte[], byte[]>> results = new ArrayList<>();
-    for (byte[] key : keys) {
-      results.add(get(key, options));
+    final List<Document<byte[], byte[]>> results = new ArrayList<>(keys.size());
+    if (keys.size() <= 1) {
+      for (byte[] key : keys) {
+        results.add(get(key, options));
+      }
+      return results;
+    }
+
+    // look all the keys up at once, holding the locks of all their stripes
+    final List<byte[]> keyList = new ArrayList<>(keys);
+    final AutoCloseableLock[] locks = sharedLocks(keyList);
+    try {
+      throwIfClosed();
+      final List<byte[]> values =
+          db.multiGetAsList(Collections.nCopies(keyList.size(), handle), keyList);
+      for (int i = 0; i < keyList.size(); i++) {
+        final RocksEntry result = resolvePtrOrValue(values.get(i));
+        if (result == null) {
+          results.add(null);
+        } else {
+          final byte[] value = result.getData();
+          results.add(toDocument(keyList.get(i), value, toTag(result.getMeta(), value)));
+        }
+      }
+      return results;
+    } catch (RocksDBException | BlobNotFoundException e) {
+      throw new RuntimeException(e);
+    } finally {
+      for (int i = locks.length - 1; i >= 0; i--) {
+        locks[i].close();
+      }
     }
-    return results;
   }
 
   @Override
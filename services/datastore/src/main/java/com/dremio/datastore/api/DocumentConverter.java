@@ -15,7 +15,10 @@
  */
 package com.dremio.datastore.api;
 
+import com.dremio.datastore.SearchTypes.SearchFieldSorting;
 import com.dremio.datastore.indexed.IndexKey;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Converter that converts a value into a indexable document.
@@ -55,4 +58,14 @@ public interface DocumentConverter<K, V> {
    * @return version.
    */
   Integer getVersion();
+
+  /**
+   * Sort the documents are kept in by the index, if any. Searches sorted the same way, or by a
+   * prefix of it, are cheaper. Changing it rebuilds the index when the store is opened.
+   *
+   * @return sort of the index, empty if documents are kept in insertion order.
+   */
+  default List<SearchFieldSorting> getIndexSort() {
+    return Collections.emptyList();
+  }
 }
@@ -78,6 +78,9 @@ public class CoreIndexedStoreImpl<K, V> implements CoreIndexedStore<K, V> {
     this.indexesViaPutOption = indexesViaPutOption;
   }
 
+  // number of entries a reindexing thread takes from the store and indexes at once
+  private static final int REINDEX_BATCH_SIZE = 1000;
+
   public static final IndexKey ID_KEY =
       IndexKey.newBuilder(
               CoreIndexedStore.ID_FIELD_NAME, CoreIndexedStore.ID_FIELD_NAME, String.class)
@@ -104,25 +107,33 @@ public class CoreIndexedStoreImpl<K, V> implements CoreIndexedStore<K, V> {
 
     @Override
     public void run() {
+      final List<com.dremio.datastore.api.Document<KVStoreTuple<K>, KVStoreTuple<V>>> entries =
+          new ArrayList<>(REINDEX_BATCH_SIZE);
+      final List<Document> docs = new ArrayList<>(REINDEX_BATCH_SIZE);
       try {
         while (!cancelled.get()) {
-          final com.dremio.datastore.api.Document<KVStoreTuple<K>, KVStoreTuple<V>> entry;
-          // Get the next element
+          // Get the next elements
+          entries.clear();
           synchronized (lock) {
-            if (!iterator.hasNext()) {
-              break;
+            while (entries.size() < REINDEX_BATCH_SIZE && iterator.hasNext()) {
+              entries.add(iterator.next());
             }
-            entry = iterator.next();
-            elementCount++;
+            elementCount += entries.size();
+          }
+          if (entries.isEmpty()) {
+            break;
           }
 
-          final Document doc = toDoc(entry.getKey(), entry.getValue());
-
-          if (doc == null) {
-            continue;
+          docs.clear();
+          for (com.dremio.datastore.api.Document<KVStoreTuple<K>, KVStoreTuple<V>> entry :
+              entries) {
+            final Document doc = toDoc(entry.getKey(), entry.getValue());
+            if (doc != null) {
+              docs.add(doc);
+            }
           }
 
-          index.add(doc);
+          index.addMany(docs.toArray(new Document[0]));
         }
       } catch (Throwable t) {
         cancelled.set(true);
@@ -442,7 +453,7 @@ public class CoreIndexedStoreImpl<K, V> implements CoreIndexedStore<K, V> {
         condition.getLimit());
   }
 
-  private Sort toLuceneSort(List<SearchFieldSorting> orderings) {
+  public static Sort toLuceneSort(List<SearchFieldSorting> orderings) {
     if (orderings.isEmpty()) {
       return new Sort();
     }
@@ -21,6 +21,7 @@ import com.dremio.datastore.CoreIndexedStore;
 import com.dremio.datastore.WarningTimer;
 import com.dremio.datastore.indexed.CommitWrapper.CommitCloser;
 import com.dremio.telemetry.api.metrics.Metrics;
+import com.dremio.telemetry.api.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
@@ -35,6 +36,7 @@ import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.lucene.analysis.core.KeywordAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.ConcurrentMergeScheduler;
@@ -43,9 +45,13 @@ import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.LiveIndexWriterConfig;
+import org.apache.lucene.index.SegmentCommitInfo;
+import org.apache.lucene.index.SegmentInfos;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ReferenceManager;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.Sort;
@@ -56,6 +62,7 @@ import org.apache.lucene.store.MMapDirectory;
 import org.apache.lucene.store.RAMDirectory;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.InfoStream;
+import org.apache.lucene.util.Version;
 
 /** Local search index based on lucene. */
 public class LuceneSearchIndex implements AutoCloseable {
@@ -102,6 +109,14 @@ public class LuceneSearchIndex implements AutoCloseable {
    */
   public static final String OVERRIDE_SPINS_PROPERTY = "dremio.lucene.override_spins";
 
+  /**
+   * Property name for the maximum time (in millis) a write may take to be visible to searches
+   *
+   * <p>Default is 0, searches see all the writes done before them. Otherwise searches do not wait
+   * for the index to be refreshed, and it is refreshed in the background at that interval.
+   */
+  public static final String MAX_STALENESS_MILLIS_PROPERTY = "dremio.lucene.max_staleness_millis";
+
   private static final String METRIC_PREFIX = "kvstore.lucene";
 
   // delay between end of a commit and next commit
@@ -133,6 +148,16 @@ public class LuceneSearchIndex implements AutoCloseable {
   // The searcher is saved in the cache for at least these many milli seconds after the last access.
   private static final int SEARCHER_CACHE_TTL_MILLIS = 3600 * 1000;
 
+  // maximum time a write may take to be visible to searches, 0 if searches must see all writes
+  private static final long MAX_STALENESS_MILLIS = Long.getLong(MAX_STALENESS_MILLIS_PROPERTY, 0);
+
+  // interval between two background refreshes of the searcher when searches see all writes
+  private static final long REFRESH_FREQUENCY_MILLIS = 1000;
+
+  // commit user data of an index that was recreated and is not rebuilt yet, so that a rebuild
+  // interrupted by a restart is started again
+  private static final String REBUILD_PENDING = "dremio.rebuild_pending";
+
   /**
    * Starts a thread that will commit the writer every 60s (by default), if any exception is thrown
    * during commit it will be recorded and calling throwExceptionIfAny() will throw it back
@@ -221,9 +246,23 @@ public class LuceneSearchIndex implements AutoCloseable {
   private final IndexWriter writer;
   private final BaseDirectory directory;
   private final SearcherManager searcherManager;
+  private final ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
   private final String name;
   private final String liveRecordsMetricName;
   private final String deletedRecordsMetricsName;
+  private final String writeLatencyMetricName;
+  private final String visibilityLatencyMetricName;
+  private final Timer writeLatency;
+  private final Timer visibilityLatency;
+
+  private final long maxStalenessMillis;
+  // sequence number of the last write, searches wait for it to be visible if staleness is not
+  // allowed
+  private final AtomicLong lastWriteGeneration = new AtomicLong();
+  // time of the oldest write not visible to searches yet, 0 if there is none
+  private final AtomicLong oldestPendingWriteNanos = new AtomicLong();
+  // set if the index was recreated empty to sort it, until it is rebuilt
+  private volatile boolean rebuildRequired;
 
   private volatile boolean reindexing = false;
 
@@ -240,15 +279,50 @@ public class LuceneSearchIndex implements AutoCloseable {
       final String name,
       final boolean inMemory,
       final CommitWrapper commitWrapper) {
+    this(localStorageDir, name, inMemory, commitWrapper, null);
+  }
+
+  /**
+   * Creates an index whose documents are kept sorted by the given sort, if not null. Searches
+   * sorted the same way are cheaper. An existing index whose segments are not sorted that way is
+   * recreated empty, see {@link #isRebuildRequired()}.
+   */
+  public LuceneSearchIndex(
+      final File localStorageDir,
+      final String name,
+      final boolean inMemory,
+      final CommitWrapper commitWrapper,
+      final Sort indexSort) {
     this(
         localStorageDir,
         name,
         inMemory,
         commitWrapper,
+        indexSort,
         SEARCHER_CACHE_TTL_MILLIS,
+        MAX_STALENESS_MILLIS,
         new MergeSchedulerInfoStream(name));
   }
 
+  @VisibleForTesting
+  LuceneSearchIndex(
+      final File localStorageDir,
+      final String name,
+      final boolean inMemory,
+      final CommitWrapper commitWrapper,
+      final int searcherCacheTTLMillis,
+      final InfoStream infoStream) {
+    this(
+        localStorageDir,
+        name,
+        inMemory,
+        commitWrapper,
+        null,
+        searcherCacheTTLMillis,
+        MAX_STALENESS_MILLIS,
+        infoStream);
+  }
+
   @SuppressWarnings("NoGuavaCacheUsage") // TODO: fix as part of DX-51884
   @VisibleForTesting
   LuceneSearchIndex(
@@ -256,22 +330,13 @@ public class LuceneSearchIndex implements AutoCloseable {
       final String name,
       final boolean inMemory,
       final CommitWrapper commitWrapper,
+      final Sort indexSort,
       final int searcherCacheTTLMillis,
+      final long maxStalenessMillis,
       final InfoStream infoStream) {
     this.name = name;
     this.commitWrapper = commitWrapper;
-
-    final ConcurrentMergeScheduler cms = new ConcurrentMergeScheduler();
-    String overrideSpins = System.getProperty(OVERRIDE_SPINS_PROPERTY);
-    if (overrideSpins != null) {
-      cms.setDefaultMaxMergesAndThreads(Boolean.parseBoolean(overrideSpins));
-    }
-    final IndexWriterConfig writerConfig =
-        new IndexWriterConfig(new KeywordAnalyzer())
-            .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
-            .setRAMBufferSizeMB(RAM_BUFFER_SIZE_MB)
-            .setInfoStream(infoStream)
-            .setMergeScheduler(cms);
+    this.maxStalenessMillis = maxStalenessMillis;
 
     try {
 
@@ -296,19 +361,60 @@ public class LuceneSearchIndex implements AutoCloseable {
         directory = new RAMDirectory();
       }
 
-      writer = new IndexWriter(directory, writerConfig);
+      final SegmentInfos existing =
+          DirectoryReader.indexExists(directory) ? SegmentInfos.readLatestCommit(directory) : null;
+      // documents cannot be sorted in place, an index sorted another way has to be rebuilt. Any
+      // other failure to open the index is left to the caller
+      final boolean recreate =
+          existing != null && indexSort != null && !isSortedBy(existing, indexSort);
+      if (recreate) {
+        logger.warn("Recreating index {} to sort it by {}", name, indexSort);
+      }
+      writer =
+          new IndexWriter(
+              directory,
+              newWriterConfig(
+                  recreate
+                      ? IndexWriterConfig.OpenMode.CREATE
+                      : IndexWriterConfig.OpenMode.CREATE_OR_APPEND,
+                  indexSort,
+                  infoStream));
+      rebuildRequired =
+          recreate
+              || (existing != null
+                  && Boolean.parseBoolean(existing.getUserData().get(REBUILD_PENDING)));
+      if (rebuildRequired) {
+        writer.setLiveCommitData(
+            Collections.singletonMap(REBUILD_PENDING, Boolean.TRUE.toString()).entrySet());
+      }
       commit();
       searcherManager = new SearcherManager(writer, true, true, null);
+      searcherManager.addListener(new VisibilityListener());
 
       committerThread = new CommitterThread();
     } catch (IOException ex) {
       throw Throwables.propagate(ex);
     }
 
+    // searches that must see all writes trigger a refresh right away, otherwise refresh at the
+    // staleness bound
+    final long refreshFrequencyMillis =
+        maxStalenessMillis > 0 ? maxStalenessMillis : REFRESH_FREQUENCY_MILLIS;
+    reopenThread =
+        new ControlledRealTimeReopenThread<>(
+            writer, searcherManager, refreshFrequencyMillis / 1000.0, 0);
+    reopenThread.setName(format("LuceneSearchIndex:refresher %s", name));
+    reopenThread.setDaemon(true);
+    reopenThread.start();
+
     liveRecordsMetricName = Metrics.join(METRIC_PREFIX, name, "live-records");
     deletedRecordsMetricsName = Metrics.join(METRIC_PREFIX, name, "deleted-records");
+    writeLatencyMetricName = Metrics.join(METRIC_PREFIX, name, "write-latency");
+    visibilityLatencyMetricName = Metrics.join(METRIC_PREFIX, name, "visibility-latency");
     Metrics.newGauge(liveRecordsMetricName, this::getLiveRecords);
     Metrics.newGauge(deletedRecordsMetricsName, this::getDeletedRecords);
+    writeLatency = Metrics.newTimer(writeLatencyMetricName, Metrics.ResetType.NEVER);
+    visibilityLatency = Metrics.newTimer(visibilityLatencyMetricName, Metrics.ResetType.NEVER);
 
     searcherCache =
         CacheBuilder.newBuilder()
@@ -317,11 +423,85 @@ public class LuceneSearchIndex implements AutoCloseable {
             .build();
   }
 
+  /**
+   * Whether all segments of the given commit are sorted by the given sort, which an index writer
+   * with that sort requires. Segments written before index sorting existed are accepted as well.
+   */
+  private static boolean isSortedBy(SegmentInfos segmentInfos, Sort indexSort) {
+    for (SegmentCommitInfo info : segmentInfos) {
+      final Sort segmentSort = info.info.getIndexSort();
+      if (segmentSort == null
+          ? info.info.getVersion().onOrAfter(Version.LUCENE_6_5_0)
+          : !indexSort.equals(segmentSort)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static IndexWriterConfig newWriterConfig(
+      IndexWriterConfig.OpenMode openMode, Sort indexSort, InfoStream infoStream) {
+    final ConcurrentMergeScheduler cms = new ConcurrentMergeScheduler();
+    String overrideSpins = System.getProperty(OVERRIDE_SPINS_PROPERTY);
+    if (overrideSpins != null) {
+      cms.setDefaultMaxMergesAndThreads(Boolean.parseBoolean(overrideSpins));
+    }
+    final IndexWriterConfig writerConfig =
+        new IndexWriterConfig(new KeywordAnalyzer())
+            .setOpenMode(openMode)
+            .setRAMBufferSizeMB(RAM_BUFFER_SIZE_MB)
+            .setInfoStream(infoStream)
+            .setMergeScheduler(cms);
+    if (indexSort != null) {
+      writerConfig.setIndexSort(indexSort);
+    }
+    return writerConfig;
+  }
+
+  /**
+   * Makes sure the next searcher acquired sees all the writes done so far, unless searches are
+   * allowed to be stale. Searches waiting at the same time share a single refresh.
+   */
   private void checkIfChanged() {
+    if (maxStalenessMillis > 0) {
+      return;
+    }
     try {
-      if (!searcherManager.isSearcherCurrent()) {
-        searcherManager.maybeRefreshBlocking();
-      }
+      reopenThread.waitForGeneration(lastWriteGeneration.get());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw Throwables.propagate(ex);
+    }
+  }
+
+  private void refresh() {
+    try {
+      searcherManager.maybeRefreshBlocking();
+    } catch (IOException ex) {
+      throw Throwables.propagate(ex);
+    }
+  }
+
+  private void written(long generation, long startNanos) {
+    lastWriteGeneration.accumulateAndGet(generation, Math::max);
+    oldestPendingWriteNanos.compareAndSet(0, startNanos);
+    writeLatency.update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Whether the index was recreated empty when opened and has to be rebuilt by its owner, who calls
+   * {@link #rebuilt()} once done. Until then it is reported as such every time the index is opened.
+   */
+  public boolean isRebuildRequired() {
+    return rebuildRequired;
+  }
+
+  /** Records that the index was rebuilt, see {@link #isRebuildRequired()}. */
+  public void rebuilt() {
+    try {
+      writer.setLiveCommitData(Collections.<String, String>emptyMap().entrySet());
+      commit();
+      rebuildRequired = false;
     } catch (IOException ex) {
       throw Throwables.propagate(ex);
     }
@@ -340,8 +520,9 @@ public class LuceneSearchIndex implements AutoCloseable {
   public void add(Document document) {
     committerThread.throwExceptionIfAny();
     Preconditions.checkNotNull(document.getField(CoreIndexedStore.ID_FIELD_NAME));
+    final long startNanos = System.nanoTime();
     try {
-      writer.addDocument(document);
+      written(writer.addDocument(document), startNanos);
     } catch (IOException ex) {
       throw Throwables.propagate(ex);
     }
@@ -349,10 +530,13 @@ public class LuceneSearchIndex implements AutoCloseable {
 
   public void addMany(Document... documents) {
     committerThread.throwExceptionIfAny();
+    final long startNanos = System.nanoTime();
     try {
+      long generation = 0;
       for (Document d : documents) {
-        writer.addDocument(d);
+        generation = writer.addDocument(d);
       }
+      written(generation, startNanos);
     } catch (IOException ex) {
       throw Throwables.propagate(ex);
     }
@@ -360,8 +544,25 @@ public class LuceneSearchIndex implements AutoCloseable {
 
   public void update(Term term, Document document) {
     committerThread.throwExceptionIfAny();
+    final long startNanos = System.nanoTime();
+    try {
+      written(writer.updateDocument(term, document), startNanos);
+    } catch (IOException ex) {
+      throw Throwables.propagate(ex);
+    }
+  }
+
+  /** Replaces the documents matching each term with the document at the same position. */
+  public void updateMany(List<Term> terms, List<Document> documents) {
+    Preconditions.checkArgument(terms.size() == documents.size());
+    committerThread.throwExceptionIfAny();
+    final long startNanos = System.nanoTime();
     try {
-      writer.updateDocument(term, document);
+      long generation = 0;
+      for (int i = 0; i < terms.size(); i++) {
+        generation = writer.updateDocument(terms.get(i), documents.get(i));
+      }
+      written(generation, startNanos);
     } catch (IOException ex) {
       throw Throwables.propagate(ex);
     }
@@ -529,8 +730,11 @@ public class LuceneSearchIndex implements AutoCloseable {
   @Override
   public void close() throws IOException {
     committerThread.close();
+    reopenThread.close();
     Metrics.unregister(deletedRecordsMetricsName);
     Metrics.unregister(liveRecordsMetricName);
+    Metrics.unregister(writeLatencyMetricName);
+    Metrics.unregister(visibilityLatencyMetricName);
     // commit will fail if writer is closed
     if (writer.isOpen()) {
       // flush first
@@ -543,7 +747,7 @@ public class LuceneSearchIndex implements AutoCloseable {
   }
 
   public int getLiveRecords() {
-    checkIfChanged();
+    refresh();
     try (Searcher searcher = acquireSearcher()) {
       DirectoryReader reader = (DirectoryReader) searcher.searcher.getIndexReader();
       return reader.numDocs();
@@ -551,7 +755,7 @@ public class LuceneSearchIndex implements AutoCloseable {
   }
 
   public int getDeletedRecords() {
-    checkIfChanged();
+    refresh();
     try (Searcher searcher = acquireSearcher()) {
       DirectoryReader reader = (DirectoryReader) searcher.searcher.getIndexReader();
       return reader.numDeletedDocs();
@@ -560,8 +764,9 @@ public class LuceneSearchIndex implements AutoCloseable {
 
   public void deleteDocuments(Term key) {
     committerThread.throwExceptionIfAny();
+    final long startNanos = System.nanoTime();
     try {
-      writer.deleteDocuments(key);
+      written(writer.deleteDocuments(key), startNanos);
     } catch (IOException ex) {
       throw Throwables.propagate(ex);
     }
@@ -569,11 +774,12 @@ public class LuceneSearchIndex implements AutoCloseable {
 
   public void delete() {
     committerThread.throwExceptionIfAny();
+    final long startNanos = System.nanoTime();
     try {
-      writer.deleteAll();
+      written(writer.deleteAll(), startNanos);
       commit();
       // Forcing refresh of index so that open files are freed and deleted from disk
-      checkIfChanged();
+      refresh();
     } catch (Exception ex) {
       throw Throwables.propagate(ex);
     }
@@ -732,7 +938,30 @@ public class LuceneSearchIndex implements AutoCloseable {
   @VisibleForTesting
   public void deleteEverything() throws IOException {
     committerThread.throwExceptionIfAny();
-    writer.deleteAll();
+    written(writer.deleteAll(), System.nanoTime());
     commit();
   }
+
+  /** Reports how long the writes took to be visible to searches, once the searcher refreshed. */
+  private final class VisibilityListener implements ReferenceManager.RefreshListener {
+    // refreshes are serialized by the searcher manager
+    private long pendingWriteNanos;
+
+    @Override
+    public void beforeRefresh() {
+      pendingWriteNanos = oldestPendingWriteNanos.getAndSet(0);
+    }
+
+    @Override
+    public void afterRefresh(boolean didRefresh) {
+      if (pendingWriteNanos == 0) {
+        return;
+      }
+      if (!didRefresh) {
+        oldestPendingWriteNanos.compareAndSet(0, pendingWriteNanos);
+        return;
+      }
+      visibilityLatency.update(System.nanoTime() - pendingWriteNanos, TimeUnit.NANOSECONDS);
+    }
+  }
 }
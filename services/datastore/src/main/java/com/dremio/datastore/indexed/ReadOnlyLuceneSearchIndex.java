@@ -50,4 +50,13 @@ public class ReadOnlyLuceneSearchIndex extends LuceneSearchIndex {
 
   @Override
   public void deleteEverything() throws IOException {}
+
+  @Override
+  public boolean isRebuildRequired() {
+    // left to a writable instance
+    return false;
+  }
+
+  @Override
+  public void rebuilt() {}
 }
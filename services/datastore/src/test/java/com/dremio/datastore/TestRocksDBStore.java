@@ -33,6 +33,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -272,6 +273,28 @@ public class TestRocksDBStore {
     assertEquals(null, store.get(randomKey));
   }
 
+  @Test
+  public void testMultiGet() {
+    final Random r = new Random(7);
+    final byte[] blobKey = newRandomValue(r);
+    final byte[] blobValue = new byte[(int) BLOB_FILTER_SIZE + 1];
+    r.nextBytes(blobValue);
+    store.put(blobKey, blobValue);
+    final byte[] missingKey = "missing".getBytes(UTF_8);
+
+    final List<byte[]> keys = Arrays.asList(specialKey, blobKey, missingKey, specialKey);
+    final List<Document<byte[], byte[]>> documents = new ArrayList<>();
+    store.get(keys).forEach(documents::add);
+
+    assertEquals(4, documents.size());
+    assertArrayEquals(store.get(specialKey).getValue(), documents.get(0).getValue());
+    assertEquals(store.get(specialKey).getTag(), documents.get(0).getTag());
+    assertArrayEquals(blobKey, documents.get(1).getKey());
+    assertArrayEquals(blobValue, documents.get(1).getValue());
+    assertEquals(null, documents.get(2));
+    assertArrayEquals(documents.get(0).getValue(), documents.get(3).getValue());
+  }
+
   @Test()
   public void testNotClosed() throws InterruptedException, ExecutionException {
     ExecutorService executor = Executors.newFixedThreadPool(4);
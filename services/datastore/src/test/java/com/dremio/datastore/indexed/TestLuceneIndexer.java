@@ -17,6 +17,7 @@ package com.dremio.datastore.indexed;
 
 import static com.dremio.datastore.indexed.LuceneSearchIndex.MergeSchedulerInfoStream.MAX_THRESHOLD;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import com.dremio.datastore.CoreIndexedStore;
@@ -37,6 +38,7 @@ import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
@@ -550,6 +552,94 @@ public class TestLuceneIndexer {
     assertEquals(opens.get(), closes.get());
   }
 
+  @Test
+  public void testUpdateMany() throws Exception {
+    try (LuceneSearchIndex index =
+        new LuceneSearchIndex(null, "update-many", true, CommitWrapper.NO_OP)) {
+      index.updateMany(
+          Arrays.asList(idTerm("1"), idTerm("2")),
+          Arrays.asList(userDoc("1", "u1"), userDoc("2", "u1")));
+      assertEquals(2, index.count(new TermQuery(new Term("user", "u1"))));
+
+      index.updateMany(
+          Arrays.asList(idTerm("2"), idTerm("3")),
+          Arrays.asList(userDoc("2", "u2"), userDoc("3", "u2")));
+      assertEquals(1, index.count(new TermQuery(new Term("user", "u1"))));
+      assertEquals(2, index.count(new TermQuery(new Term("user", "u2"))));
+    }
+  }
+
+  @Test
+  public void testStaleSearches() throws Exception {
+    try (LuceneSearchIndex index =
+        new LuceneSearchIndex(
+            null,
+            "stale-searches",
+            true,
+            CommitWrapper.NO_OP,
+            null,
+            500,
+            60_000,
+            new LuceneSearchIndex.MergeSchedulerInfoStream("stale-searches"))) {
+      index.add(userDoc("1", "u1"));
+      // not refreshed yet, searches do not wait for writes
+      assertEquals(0, index.count(new TermQuery(new Term("user", "u1"))));
+      // gauges always see the latest writes
+      assertEquals(1, index.getLiveRecords());
+      assertEquals(1, index.count(new TermQuery(new Term("user", "u1"))));
+    }
+  }
+
+  @Test
+  public void testIndexSort() throws Exception {
+    final Sort indexSort = new Sort(new SortField("user", SortField.Type.STRING, true));
+    try (LuceneSearchIndex index =
+        new LuceneSearchIndex(folder.getRoot(), "sorted", false, CommitWrapper.NO_OP)) {
+      index.add(userDoc("1", "u1"));
+      assertFalse(index.isRebuildRequired());
+    }
+
+    // documents of the existing index are not sorted, it is recreated
+    try (LuceneSearchIndex index =
+        new LuceneSearchIndex(folder.getRoot(), "sorted", false, CommitWrapper.NO_OP, indexSort)) {
+      assertTrue(index.isRebuildRequired());
+      assertEquals(0, index.count(new TermQuery(new Term("user", "u1"))));
+      index.add(userDoc("1", "u1"));
+    }
+
+    // the rebuild did not complete, it has to be started again
+    try (LuceneSearchIndex index =
+        new LuceneSearchIndex(folder.getRoot(), "sorted", false, CommitWrapper.NO_OP, indexSort)) {
+      assertTrue(index.isRebuildRequired());
+      assertEquals(1, index.count(new TermQuery(new Term("user", "u1"))));
+      index.add(userDoc("2", "u2"));
+      index.rebuilt();
+      assertFalse(index.isRebuildRequired());
+    }
+
+    try (LuceneSearchIndex index =
+        new LuceneSearchIndex(folder.getRoot(), "sorted", false, CommitWrapper.NO_OP, indexSort)) {
+      assertFalse(index.isRebuildRequired());
+      final List<Document> documents =
+          index.searchForDocuments(new MatchAllDocsQuery(), 100, indexSort);
+      assertEquals(2, documents.size());
+      assertEquals("u2", documents.get(0).get("user"));
+    }
+  }
+
+  private static Term idTerm(String id) {
+    return new Term(CoreIndexedStore.ID_FIELD_NAME, new BytesRef(id.getBytes()));
+  }
+
+  private static Document userDoc(String id, String user) {
+    final Document doc = new Document();
+    doc.add(
+        new StringField(CoreIndexedStore.ID_FIELD_NAME, new BytesRef(id.getBytes()), Store.YES));
+    doc.add(new StringField("user", user, Field.Store.YES));
+    doc.add(new SortedDocValuesField("user", new BytesRef(user)));
+    return doc;
+  }
+
   @Test
   public void testPrintMergeScheduler() throws Exception {
     // Ensure the Merge Scheduler prints everything. It will lead to print the message that
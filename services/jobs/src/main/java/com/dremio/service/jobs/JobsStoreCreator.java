@@ -36,6 +36,7 @@ import static com.dremio.service.jobs.JobIndexKeys.START_TIME;
 import static com.dremio.service.jobs.JobIndexKeys.USER;
 
 import com.dremio.common.utils.PathUtils;
+import com.dremio.datastore.SearchTypes.SearchFieldSorting;
 import com.dremio.datastore.api.DocumentConverter;
 import com.dremio.datastore.api.DocumentWriter;
 import com.dremio.datastore.api.LegacyIndexedStore;
@@ -79,6 +80,12 @@ public class JobsStoreCreator implements LegacyIndexedStoreCreationFunction<JobI
       return version;
     }
 
+    @Override
+    public List<SearchFieldSorting> getIndexSort() {
+      // jobs are listed most recent first by default
+      return LocalJobsService.DEFAULT_SORTER;
+    }
+
     @Override
     public void convert(DocumentWriter writer, JobId key, JobResult job) {
       final Set<NamespaceKey> allDatasets = new HashSet<>();
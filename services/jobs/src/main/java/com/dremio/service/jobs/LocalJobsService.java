@@ -394,7 +394,7 @@ public class LocalJobsService implements Service, JobResultInfoProvider, SimpleJ
   private final DremioConfig config;
   private JobAndUserStatsCache jobAndUserStatsCache;
 
-  private static final List<SearchFieldSorting> DEFAULT_SORTER =
+  static final List<SearchFieldSorting> DEFAULT_SORTER =
       ImmutableList.of(
           JobIndexKeys.START_TIME.toSortField(SearchTypes.SortOrder.DESCENDING),
           JobIndexKeys.END_TIME.toSortField(SearchTypes.SortOrder.DESCENDING),
@@ -0,0 +1,322 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.jobtelemetry.server.store;
+
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.EnumValueDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Message;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encodes a list of protobuf messages of one type column by column. Every singular numeric, enum or
+ * boolean field becomes a column of zigzag varints holding the difference to the same field of a
+ * reference row, singular {@link NodeEndpoint} fields are replaced by their index in a shared
+ * dictionary and every repeated message field becomes a nested table. All remaining fields, as well
+ * as unknown fields, stay in a per row residual message, which keeps the encoding lossless.
+ *
+ * <p>The reference of a row is the previous row. The reference of the k-th child of a row is the
+ * k-th child of the parent's reference, or the previous child if the parent's reference has fewer
+ * children. For operator profiles of minor fragments this lines up the same operator of consecutive
+ * minor fragments, so ids and types encode as zeros and timings as small deltas.
+ */
+final class ColumnarMessageCodec {
+  private final Message defaultInstance;
+  private final List<FieldDescriptor> columns = new ArrayList<>();
+  private final List<FieldDescriptor> endpointColumns = new ArrayList<>();
+  private final List<FieldDescriptor> childFields = new ArrayList<>();
+  private final List<ColumnarMessageCodec> childCodecs = new ArrayList<>();
+
+  ColumnarMessageCodec(Message defaultInstance) {
+    this(defaultInstance, new HashSet<>());
+  }
+
+  private ColumnarMessageCodec(Message defaultInstance, Set<Descriptor> enclosing) {
+    this.defaultInstance = defaultInstance;
+    final Descriptor descriptor = defaultInstance.getDescriptorForType();
+    enclosing.add(descriptor);
+    for (FieldDescriptor field : descriptor.getFields()) {
+      if (field.isMapField() || field.getContainingOneof() != null) {
+        continue;
+      }
+      switch (field.getJavaType()) {
+        case INT:
+        case LONG:
+        case FLOAT:
+        case DOUBLE:
+        case BOOLEAN:
+        case ENUM:
+          if (!field.isRepeated() && field.hasPresence()) {
+            columns.add(field);
+          }
+          break;
+        case MESSAGE:
+          if (field.isRepeated()) {
+            if (!enclosing.contains(field.getMessageType())) {
+              childFields.add(field);
+              childCodecs.add(
+                  new ColumnarMessageCodec(
+                      defaultInstance.newBuilderForType().newBuilderForField(field).build(),
+                      enclosing));
+            }
+          } else if (field.getMessageType().equals(NodeEndpoint.getDescriptor())) {
+            endpointColumns.add(field);
+          }
+          break;
+        default:
+          break;
+      }
+    }
+    enclosing.remove(descriptor);
+  }
+
+  /** Writes the given rows, whose count is not written and has to be passed to {@link #decode}. */
+  void encode(
+      List<? extends Message> rows, Map<NodeEndpoint, Integer> dictionary, CodedOutputStream out)
+      throws IOException {
+    encode(rows, previousRowReferences(rows.size()), dictionary, out);
+  }
+
+  /** Reads back {@code count} rows written by {@link #encode}. */
+  List<Message> decode(int count, List<NodeEndpoint> dictionary, CodedInputStream in)
+      throws IOException {
+    return decode(count, previousRowReferences(count), dictionary, in);
+  }
+
+  private void encode(
+      List<? extends Message> rows,
+      int[] references,
+      Map<NodeEndpoint, Integer> dictionary,
+      CodedOutputStream out)
+      throws IOException {
+    final int count = rows.size();
+
+    for (Message row : rows) {
+      final Message.Builder residual = row.toBuilder();
+      for (FieldDescriptor field : columns) {
+        residual.clearField(field);
+      }
+      for (FieldDescriptor field : endpointColumns) {
+        residual.clearField(field);
+      }
+      for (FieldDescriptor field : childFields) {
+        residual.clearField(field);
+      }
+      out.writeBytesNoTag(residual.build().toByteString());
+    }
+
+    final long[] values = new long[count];
+    final boolean[] present = new boolean[count];
+    for (FieldDescriptor field : columns) {
+      for (int i = 0; i < count; i++) {
+        present[i] = rows.get(i).hasField(field);
+        values[i] = present[i] ? toLong(field, rows.get(i).getField(field)) : 0;
+      }
+      writePresence(present, out);
+      for (int i = 0; i < count; i++) {
+        if (present[i]) {
+          out.writeSInt64NoTag(values[i] - (references[i] < 0 ? 0 : values[references[i]]));
+        }
+      }
+    }
+
+    for (FieldDescriptor field : endpointColumns) {
+      for (int i = 0; i < count; i++) {
+        present[i] = rows.get(i).hasField(field);
+      }
+      writePresence(present, out);
+      for (int i = 0; i < count; i++) {
+        if (present[i]) {
+          final NodeEndpoint endpoint = (NodeEndpoint) rows.get(i).getField(field);
+          out.writeUInt32NoTag(dictionary.computeIfAbsent(endpoint, e -> dictionary.size()));
+        }
+      }
+    }
+
+    for (int c = 0; c < childFields.size(); c++) {
+      final FieldDescriptor field = childFields.get(c);
+      final int[] childCounts = new int[count];
+      final List<Message> children = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        childCounts[i] = rows.get(i).getRepeatedFieldCount(field);
+        out.writeUInt32NoTag(childCounts[i]);
+        for (int k = 0; k < childCounts[i]; k++) {
+          children.add((Message) rows.get(i).getRepeatedField(field, k));
+        }
+      }
+      childCodecs
+          .get(c)
+          .encode(children, childReferences(childCounts, references), dictionary, out);
+    }
+  }
+
+  private List<Message> decode(
+      int count, int[] references, List<NodeEndpoint> dictionary, CodedInputStream in)
+      throws IOException {
+    final List<Message.Builder> builders = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      builders.add(defaultInstance.newBuilderForType().mergeFrom(in.readBytes()));
+    }
+
+    final long[] values = new long[count];
+    final boolean[] present = new boolean[count];
+    for (FieldDescriptor field : columns) {
+      readPresence(present, in);
+      for (int i = 0; i < count; i++) {
+        if (present[i]) {
+          values[i] = in.readSInt64() + (references[i] < 0 ? 0 : values[references[i]]);
+          builders.get(i).setField(field, fromLong(field, values[i]));
+        } else {
+          values[i] = 0;
+        }
+      }
+    }
+
+    for (FieldDescriptor field : endpointColumns) {
+      readPresence(present, in);
+      for (int i = 0; i < count; i++) {
+        if (present[i]) {
+          builders.get(i).setField(field, dictionary.get(in.readUInt32()));
+        }
+      }
+    }
+
+    for (int c = 0; c < childFields.size(); c++) {
+      final FieldDescriptor field = childFields.get(c);
+      final int[] childCounts = new int[count];
+      int total = 0;
+      for (int i = 0; i < count; i++) {
+        childCounts[i] = in.readUInt32();
+        total += childCounts[i];
+      }
+      final List<Message> children =
+          childCodecs
+              .get(c)
+              .decode(total, childReferences(childCounts, references), dictionary, in);
+      int next = 0;
+      for (int i = 0; i < count; i++) {
+        for (int k = 0; k < childCounts[i]; k++) {
+          builders.get(i).addRepeatedField(field, children.get(next++));
+        }
+      }
+    }
+
+    final List<Message> rows = new ArrayList<>(count);
+    for (Message.Builder builder : builders) {
+      rows.add(builder.build());
+    }
+    return rows;
+  }
+
+  private static int[] previousRowReferences(int count) {
+    final int[] references = new int[count];
+    for (int i = 0; i < count; i++) {
+      references[i] = i - 1;
+    }
+    return references;
+  }
+
+  private static int[] childReferences(int[] childCounts, int[] parentReferences) {
+    final int[] firstChild = new int[childCounts.length];
+    int total = 0;
+    for (int i = 0; i < childCounts.length; i++) {
+      firstChild[i] = total;
+      total += childCounts[i];
+    }
+    final int[] references = new int[total];
+    for (int i = 0; i < childCounts.length; i++) {
+      final int parentReference = parentReferences[i];
+      for (int k = 0; k < childCounts[i]; k++) {
+        final int child = firstChild[i] + k;
+        if (parentReference >= 0 && k < childCounts[parentReference]) {
+          references[child] = firstChild[parentReference] + k;
+        } else {
+          references[child] = k > 0 ? child - 1 : -1;
+        }
+      }
+    }
+    return references;
+  }
+
+  private static void writePresence(boolean[] present, CodedOutputStream out) throws IOException {
+    int bits = 0;
+    for (int i = 0; i < present.length; i++) {
+      if (present[i]) {
+        bits |= 1 << (i & 7);
+      }
+      if ((i & 7) == 7 || i == present.length - 1) {
+        out.writeRawByte(bits);
+        bits = 0;
+      }
+    }
+  }
+
+  private static void readPresence(boolean[] present, CodedInputStream in) throws IOException {
+    int bits = 0;
+    for (int i = 0; i < present.length; i++) {
+      if ((i & 7) == 0) {
+        bits = in.readRawByte();
+      }
+      present[i] = (bits & (1 << (i & 7))) != 0;
+    }
+  }
+
+  private static long toLong(FieldDescriptor field, Object value) {
+    switch (field.getJavaType()) {
+      case INT:
+        return (Integer) value;
+      case LONG:
+        return (Long) value;
+      case FLOAT:
+        return Float.floatToRawIntBits((Float) value);
+      case DOUBLE:
+        return Double.doubleToRawLongBits((Double) value);
+      case BOOLEAN:
+        return ((Boolean) value) ? 1 : 0;
+      case ENUM:
+        return ((EnumValueDescriptor) value).getNumber();
+      default:
+        throw new IllegalArgumentException("Not a columnar field: " + field.getFullName());
+    }
+  }
+
+  private static Object fromLong(FieldDescriptor field, long value) {
+    switch (field.getJavaType()) {
+      case INT:
+        return (int) value;
+      case LONG:
+        return value;
+      case FLOAT:
+        return Float.intBitsToFloat((int) value);
+      case DOUBLE:
+        return Double.longBitsToDouble(value);
+      case BOOLEAN:
+        return value != 0;
+      case ENUM:
+        return field.getEnumType().findValueByNumber((int) value);
+      default:
+        throw new IllegalArgumentException("Not a columnar field: " + field.getFullName());
+    }
+  }
+}
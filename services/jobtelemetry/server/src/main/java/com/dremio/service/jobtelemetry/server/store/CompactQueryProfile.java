@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.jobtelemetry.server.store;
+
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.proto.UserBitShared.MajorFragmentProfile;
+import com.dremio.exec.proto.UserBitShared.MinorFragmentProfile;
+import com.dremio.exec.proto.UserBitShared.QueryProfile;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.Message;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stored form of a completed query profile. The profile is split into independently compressed
+ * sections: a summary holding everything but the fragment profiles, a dictionary of the endpoints
+ * fragments ran on and one section per major fragment, whose minor fragment and operator profiles
+ * are laid out column by column (see {@link ColumnarMessageCodec}). Profiles are always read whole,
+ * all sections are decoded when the stored form is read.
+ *
+ * <p>The stored form starts with a format version, bytes of any other version are rejected rather
+ * than misread.
+ */
+public final class CompactQueryProfile {
+  // no serialized protobuf message starts with a zero byte, as field number zero is invalid
+  private static final byte MARKER = 0;
+  private static final byte VERSION = 1;
+
+  private static final ColumnarMessageCodec MINOR_FRAGMENT_CODEC =
+      new ColumnarMessageCodec(MinorFragmentProfile.getDefaultInstance());
+
+  private final byte[] bytes;
+  private final QueryProfile profile;
+
+  private CompactQueryProfile(byte[] bytes, QueryProfile profile) {
+    this.bytes = bytes;
+    this.profile = profile;
+  }
+
+  /** Encodes the given profile. */
+  public static CompactQueryProfile of(QueryProfile profile) {
+    return new CompactQueryProfile(encode(profile), profile);
+  }
+
+  /** Decodes stored bytes. */
+  public static CompactQueryProfile fromBytes(byte[] bytes) {
+    return new CompactQueryProfile(bytes, decode(bytes));
+  }
+
+  /** The stored form. */
+  public byte[] toBytes() {
+    return bytes;
+  }
+
+  /** Size of the stored form in bytes. */
+  public int getStoredSize() {
+    return bytes.length;
+  }
+
+  /** The whole profile. */
+  public QueryProfile toQueryProfile() {
+    return profile;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    return Arrays.equals(bytes, ((CompactQueryProfile) o).bytes);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(bytes);
+  }
+
+  private static byte[] encode(QueryProfile profile) {
+    try {
+      final Map<NodeEndpoint, Integer> dictionary = new HashMap<>();
+      final List<byte[]> fragments = new ArrayList<>();
+      for (MajorFragmentProfile major : profile.getFragmentProfileList()) {
+        final ByteArrayOutputStream section = new ByteArrayOutputStream();
+        final CodedOutputStream out = CodedOutputStream.newInstance(section);
+        out.writeUInt32NoTag(major.getMinorFragmentProfileCount());
+        out.writeBytesNoTag(major.toBuilder().clearMinorFragmentProfile().build().toByteString());
+        MINOR_FRAGMENT_CODEC.encode(major.getMinorFragmentProfileList(), dictionary, out);
+        out.flush();
+        fragments.add(deflate(section.toByteArray()));
+      }
+
+      final ByteArrayOutputStream section = new ByteArrayOutputStream();
+      final CodedOutputStream dictionaryOut = CodedOutputStream.newInstance(section);
+      final NodeEndpoint[] endpoints = new NodeEndpoint[dictionary.size()];
+      dictionary.forEach((endpoint, index) -> endpoints[index] = endpoint);
+      dictionaryOut.writeUInt32NoTag(endpoints.length);
+      for (NodeEndpoint endpoint : endpoints) {
+        dictionaryOut.writeMessageNoTag(endpoint);
+      }
+      dictionaryOut.flush();
+
+      final ByteArrayOutputStream result = new ByteArrayOutputStream();
+      final CodedOutputStream out = CodedOutputStream.newInstance(result);
+      out.writeRawByte(MARKER);
+      out.writeRawByte(VERSION);
+      out.writeByteArrayNoTag(deflate(profile.toBuilder().clearFragmentProfile().build()));
+      out.writeByteArrayNoTag(deflate(section.toByteArray()));
+      out.writeUInt32NoTag(fragments.size());
+      for (int i = 0; i < fragments.size(); i++) {
+        out.writeInt32NoTag(profile.getFragmentProfile(i).getMajorFragmentId());
+        out.writeByteArrayNoTag(fragments.get(i));
+      }
+      out.flush();
+      return result.toByteArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static QueryProfile decode(byte[] bytes) {
+    if (bytes.length < 2 || bytes[0] != MARKER) {
+      throw new IllegalStateException("Not a compact profile");
+    }
+    if (bytes[1] != VERSION) {
+      throw new IllegalStateException("Unsupported profile format version " + bytes[1]);
+    }
+    try {
+      final CodedInputStream in = CodedInputStream.newInstance(bytes, 2, bytes.length - 2);
+      final QueryProfile.Builder builder =
+          QueryProfile.newBuilder().mergeFrom(inflate(in.readByteArray()));
+      final List<NodeEndpoint> dictionary = readDictionary(inflate(in.readByteArray()));
+      final int fragmentCount = in.readUInt32();
+      for (int i = 0; i < fragmentCount; i++) {
+        // major fragment id, not needed to read the whole profile
+        in.readInt32();
+        builder.addFragmentProfile(readFragment(inflate(in.readByteArray()), dictionary));
+      }
+      return builder.build();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static List<NodeEndpoint> readDictionary(byte[] section) throws IOException {
+    final CodedInputStream in = CodedInputStream.newInstance(section);
+    final int count = in.readUInt32();
+    final List<NodeEndpoint> endpoints = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      endpoints.add(
+          in.readMessage(NodeEndpoint.parser(), ExtensionRegistryLite.getEmptyRegistry()));
+    }
+    return endpoints;
+  }
+
+  private static MajorFragmentProfile readFragment(byte[] section, List<NodeEndpoint> dictionary)
+      throws IOException {
+    final CodedInputStream in = CodedInputStream.newInstance(section);
+    final int minorFragmentCount = in.readUInt32();
+    final MajorFragmentProfile.Builder builder =
+        MajorFragmentProfile.newBuilder().mergeFrom(in.readBytes());
+    for (Message minor : MINOR_FRAGMENT_CODEC.decode(minorFragmentCount, dictionary, in)) {
+      builder.addMinorFragmentProfile((MinorFragmentProfile) minor);
+    }
+    return builder.build();
+  }
+
+  private static byte[] deflate(Message message) {
+    return deflate(message.toByteArray());
+  }
+
+  /** Compresses {@code raw}, prefixed with its length. */
+  private static byte[] deflate(byte[] raw) {
+    final Deflater deflater = new Deflater();
+    try {
+      deflater.setInput(raw);
+      deflater.finish();
+      final ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 16);
+      final CodedOutputStream header = CodedOutputStream.newInstance(out);
+      header.writeUInt32NoTag(raw.length);
+      header.flush();
+      final byte[] buffer = new byte[8192];
+      while (!deflater.finished()) {
+        out.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return out.toByteArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /** Decompresses a section compressed by {@link #deflate(byte[])}. */
+  private static byte[] inflate(byte[] section) {
+    final Inflater inflater = new Inflater();
+    try {
+      final CodedInputStream in = CodedInputStream.newInstance(section);
+      final int rawLength = in.readUInt32();
+      final int dataStart = in.getTotalBytesRead();
+      inflater.setInput(section, dataStart, section.length - dataStart);
+      final byte[] raw = new byte[rawLength];
+      int read = 0;
+      while (read < rawLength) {
+        final int n = inflater.inflate(raw, read, rawLength - read);
+        if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+          throw new IOException("Truncated profile section");
+        }
+        read += n;
+      }
+      return raw;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (DataFormatException e) {
+      throw new UncheckedIOException(new IOException("Corrupt profile section", e));
+    } finally {
+      inflater.end();
+    }
+  }
+}
@@ -27,35 +27,86 @@ import com.dremio.datastore.format.Format;
 import com.dremio.exec.proto.CoordExecRPC;
 import com.dremio.exec.proto.CoordinationProtos;
 import com.dremio.exec.proto.UserBitShared;
+import com.dremio.telemetry.api.metrics.Counter;
+import com.dremio.telemetry.api.metrics.Histogram;
+import com.dremio.telemetry.api.metrics.Metrics;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Striped;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Implementation of profile store, keeps all profiles except the full-profile in-memory. The full
- * profile goes to local kvstore.
+ * profile goes to local kvstore, as a {@link CompactQueryProfile} in its own store. Profiles
+ * written before, or with compact profiles turned off, are plain protobuf in the original profiles
+ * store, which is still read and cleaned up.
+ *
+ * <p>Updates of different queries do not contend with each other, every query is guarded by one of
+ * a fixed set of striped locks. Executor profiles are retained in memory up to a configurable
+ * number of bytes, beyond which the profiles of the largest queries are spilled to a local kvstore
+ * until they are read back or the query is deleted.
  */
 public class LocalProfileStore implements ProfileStore {
   private static final Logger LOGGER = LoggerFactory.getLogger(LocalProfileStore.class);
 
   // TODO: switch to "profiles" after removing this store in LocalJobsService
   public static final String PROFILES_NAME = "profiles";
+  public static final String COMPACT_PROFILES_NAME = "compact_profiles";
+  public static final String SPILLED_EXECUTOR_PROFILES_NAME = "spilled_executor_profiles";
+
+  static final long DEFAULT_MAX_IN_MEMORY_BYTES =
+      Long.getLong("dremio.jobtelemetry.profile_store.max_in_memory_bytes", 256L * 1024 * 1024);
+  private static final int LOCK_STRIPES =
+      Integer.getInteger("dremio.jobtelemetry.profile_store.lock_stripes", 256);
+
+  // turned off ahead of a downgrade, older versions only read the original profiles store
+  @VisibleForTesting
+  static final boolean COMPACT_PROFILES_ENABLED =
+      Boolean.parseBoolean(
+          System.getProperty("dremio.jobtelemetry.profile_store.compact_profiles", "true"));
+
+  private static final Counter LOCK_CONTENDED =
+      Metrics.newCounter(
+          Metrics.join("jobtelemetry", "profile_store", "lock_contended"), Metrics.ResetType.NEVER);
+  private static final Histogram LOCK_WAIT_MICROS =
+      Metrics.newHistogram(
+          Metrics.join("jobtelemetry", "profile_store", "lock_wait_micros"),
+          Metrics.ResetType.NEVER);
+  private static final Counter SPILLED_PROFILES =
+      Metrics.newCounter(
+          Metrics.join("jobtelemetry", "profile_store", "spilled_executor_profiles"),
+          Metrics.ResetType.NEVER);
 
   private final LegacyKVStoreProvider kvStoreProvider;
+  private final long maxInMemoryBytes;
+  private final Striped<Lock> queryLocks = Striped.lock(LOCK_STRIPES);
   private final Map<UserBitShared.QueryId, UserBitShared.QueryProfile> planningProfiles =
-      new HashMap<>();
+      new ConcurrentHashMap<>();
   private final Map<UserBitShared.QueryId, UserBitShared.QueryProfile> tailProfiles =
-      new HashMap<>();
-  private final Map<UserBitShared.QueryId, Map<String, CoordExecRPC.ExecutorQueryProfile>>
-      executorMap = new HashMap<>();
+      new ConcurrentHashMap<>();
+  private final Map<UserBitShared.QueryId, ExecutorProfiles> executorMap =
+      new ConcurrentHashMap<>();
+  private final AtomicLong inMemoryBytes = new AtomicLong();
+  private final AtomicBoolean spilling = new AtomicBoolean();
   private LegacyKVStore<AttemptId, UserBitShared.QueryProfile> fullProfileStore;
+  private LegacyKVStore<AttemptId, CompactQueryProfile> compactProfileStore;
+  private LegacyKVStore<String, CoordExecRPC.ExecutorQueryProfile> spilledProfileStore;
 
   // To ensure we don't create sub-profiles after a query has terminated,
   // as in DX-30198, where we have seen queries take more than 5 minutes to cancel.
@@ -67,56 +118,83 @@ public class LocalProfileStore implements ProfileStore {
       CacheBuilder.newBuilder().expireAfterAccess(10, TimeUnit.MINUTES).build();
 
   public LocalProfileStore(LegacyKVStoreProvider kvStoreProvider) {
+    this(kvStoreProvider, DEFAULT_MAX_IN_MEMORY_BYTES);
+  }
+
+  public LocalProfileStore(LegacyKVStoreProvider kvStoreProvider, long maxInMemoryBytes) {
     this.kvStoreProvider = kvStoreProvider;
+    this.maxInMemoryBytes = maxInMemoryBytes;
   }
 
   @Override
   public void start() throws Exception {
     fullProfileStore = kvStoreProvider.getStore(KVProfileStoreCreator.class);
+    compactProfileStore = kvStoreProvider.getStore(KVCompactProfileStoreCreator.class);
+    spilledProfileStore = kvStoreProvider.getStore(KVSpilledExecutorProfileStoreCreator.class);
+    // spilled profiles belong to queries of a previous run
+    final List<String> staleKeys = new ArrayList<>();
+    for (Map.Entry<String, CoordExecRPC.ExecutorQueryProfile> entry : spilledProfileStore.find()) {
+      staleKeys.add(entry.getKey());
+    }
+    staleKeys.forEach(spilledProfileStore::delete);
+    Metrics.newGauge(
+        Metrics.join("jobtelemetry", "profile_store", "executor_profiles_bytes"),
+        inMemoryBytes::get);
   }
 
   @Override
-  public synchronized void putPlanningProfile(
+  public void putPlanningProfile(
       UserBitShared.QueryId queryId, UserBitShared.QueryProfile profile) {
-    if (deletedQueryIds.asMap().containsKey(queryId)) {
-      return;
+    final Lock lock = lock(queryId);
+    try {
+      if (deletedQueryIds.asMap().containsKey(queryId)) {
+        return;
+      }
+      planningProfiles.put(queryId, profile);
+    } finally {
+      lock.unlock();
     }
-    planningProfiles.put(queryId, profile);
   }
 
   @Override
-  public synchronized Optional<UserBitShared.QueryProfile> getPlanningProfile(
-      UserBitShared.QueryId queryId) {
+  public Optional<UserBitShared.QueryProfile> getPlanningProfile(UserBitShared.QueryId queryId) {
     return Optional.ofNullable(planningProfiles.get(queryId));
   }
 
   @Override
-  public synchronized void putTailProfile(
-      UserBitShared.QueryId queryId, UserBitShared.QueryProfile profile) {
-    if (deletedQueryIds.asMap().containsKey(queryId)) {
-      return;
+  public void putTailProfile(UserBitShared.QueryId queryId, UserBitShared.QueryProfile profile) {
+    final Lock lock = lock(queryId);
+    try {
+      if (deletedQueryIds.asMap().containsKey(queryId)) {
+        return;
+      }
+      tailProfiles.put(queryId, profile);
+    } finally {
+      lock.unlock();
     }
-    tailProfiles.put(queryId, profile);
   }
 
   @Override
-  public synchronized Optional<UserBitShared.QueryProfile> getTailProfile(
-      UserBitShared.QueryId queryId) {
+  public Optional<UserBitShared.QueryProfile> getTailProfile(UserBitShared.QueryId queryId) {
     return Optional.ofNullable(tailProfiles.get(queryId));
   }
 
   @Override
   public void putFullProfile(UserBitShared.QueryId queryId, UserBitShared.QueryProfile profile) {
-    fullProfileStore.put(AttemptId.of(queryId), profile);
+    if (COMPACT_PROFILES_ENABLED) {
+      compactProfileStore.put(AttemptId.of(queryId), CompactQueryProfile.of(profile));
+    } else {
+      fullProfileStore.put(AttemptId.of(queryId), profile);
+    }
   }
 
   @Override
   public Optional<UserBitShared.QueryProfile> getFullProfile(UserBitShared.QueryId queryId) {
-    return Optional.ofNullable(fullProfileStore.get(AttemptId.of(queryId)));
+    return getFullProfile(fullProfileStore, compactProfileStore, AttemptId.of(queryId));
   }
 
   @Override
-  public synchronized void putExecutorProfile(
+  public void putExecutorProfile(
       UserBitShared.QueryId queryId,
       CoordinationProtos.NodeEndpoint endpoint,
       CoordExecRPC.ExecutorQueryProfile profile,
@@ -125,45 +203,180 @@ public class LocalProfileStore implements ProfileStore {
       LOGGER.debug("Updating profile store for query id {}", QueryIdHelper.getQueryId(queryId));
     }
 
-    if (deletedQueryIds.asMap().containsKey(queryId)) {
-      return;
+    final Lock lock = lock(queryId);
+    try {
+      if (deletedQueryIds.asMap().containsKey(queryId)) {
+        return;
+      }
+      final ExecutorProfiles profiles =
+          executorMap.computeIfAbsent(queryId, k -> new ExecutorProfiles());
+      final CoordExecRPC.ExecutorQueryProfile previous =
+          profiles.inMemory.put(EndpointHelper.getMinimalString(endpoint), profile);
+      final long delta =
+          profile.getSerializedSize() - (previous == null ? 0 : previous.getSerializedSize());
+      profiles.bytes += delta;
+      inMemoryBytes.addAndGet(delta);
+    } finally {
+      lock.unlock();
+    }
+
+    if (inMemoryBytes.get() > maxInMemoryBytes) {
+      spill();
     }
-    executorMap.compute(
-        queryId,
-        (key, value) -> {
-          if (value == null) {
-            value = new HashMap<>();
-          }
-          value.put(EndpointHelper.getMinimalString(endpoint), profile);
-          return value;
-        });
   }
 
   @Override
-  public synchronized Stream<CoordExecRPC.ExecutorQueryProfile> getAllExecutorProfiles(
+  public Stream<CoordExecRPC.ExecutorQueryProfile> getAllExecutorProfiles(
       UserBitShared.QueryId queryId) {
-    Map<String, CoordExecRPC.ExecutorQueryProfile> innerMap = executorMap.get(queryId);
-
-    return innerMap == null ? Stream.empty() : new ArrayList<>(innerMap.values()).stream();
+    final Lock lock = lock(queryId);
+    try {
+      final ExecutorProfiles profiles = executorMap.get(queryId);
+      if (profiles == null) {
+        return Stream.empty();
+      }
+      final List<CoordExecRPC.ExecutorQueryProfile> result =
+          new ArrayList<>(profiles.inMemory.values());
+      for (String endpoint : profiles.spilled) {
+        // a profile received after spilling supersedes the spilled one
+        if (!profiles.inMemory.containsKey(endpoint)) {
+          final CoordExecRPC.ExecutorQueryProfile profile =
+              spilledProfileStore.get(spillKey(queryId, endpoint));
+          if (profile != null) {
+            result.add(profile);
+          }
+        }
+      }
+      return result.stream();
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
-  public synchronized void deleteSubProfiles(UserBitShared.QueryId queryId) {
-    deletedQueryIds.put(queryId, Boolean.TRUE);
-    planningProfiles.remove(queryId);
-    tailProfiles.remove(queryId);
-    executorMap.remove(queryId);
+  public void deleteSubProfiles(UserBitShared.QueryId queryId) {
+    final Lock lock = lock(queryId);
+    try {
+      deletedQueryIds.put(queryId, Boolean.TRUE);
+      planningProfiles.remove(queryId);
+      tailProfiles.remove(queryId);
+      final ExecutorProfiles profiles = executorMap.remove(queryId);
+      if (profiles != null) {
+        inMemoryBytes.addAndGet(-profiles.bytes);
+        for (String endpoint : profiles.spilled) {
+          spilledProfileStore.delete(spillKey(queryId, endpoint));
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
   public void deleteProfile(UserBitShared.QueryId queryId) {
     deleteSubProfiles(queryId);
     fullProfileStore.delete(AttemptId.of(queryId));
+    compactProfileStore.delete(AttemptId.of(queryId));
   }
 
   @Override
   public void close() {}
 
+  /** Bytes of executor profiles currently retained in memory. */
+  @VisibleForTesting
+  long getInMemoryBytes() {
+    return inMemoryBytes.get();
+  }
+
+  /**
+   * Acquires the lock guarding the given query. Acquisitions that have to wait are counted and
+   * timed, so contention between profile updates shows up in the metrics.
+   */
+  private Lock lock(UserBitShared.QueryId queryId) {
+    final Lock lock = queryLocks.get(queryId);
+    if (!lock.tryLock()) {
+      LOCK_CONTENDED.increment();
+      final long start = System.nanoTime();
+      lock.lock();
+      LOCK_WAIT_MICROS.update(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+    }
+    return lock;
+  }
+
+  /**
+   * Moves executor profiles to the kvstore until the retained bytes are back under the limit,
+   * starting with the queries holding the most. Only one thread spills at a time, others keep going
+   * and leave it to that thread.
+   */
+  private void spill() {
+    if (!spilling.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      // the sizes keep changing while sorting, sort a snapshot of them instead
+      final List<SpillCandidate> candidates = new ArrayList<>(executorMap.size());
+      for (Map.Entry<UserBitShared.QueryId, ExecutorProfiles> entry : executorMap.entrySet()) {
+        candidates.add(
+            new SpillCandidate(entry.getKey(), entry.getValue(), entry.getValue().bytes));
+      }
+      candidates.sort(Comparator.comparingLong((SpillCandidate c) -> c.bytes).reversed());
+      for (SpillCandidate candidate : candidates) {
+        if (inMemoryBytes.get() <= maxInMemoryBytes) {
+          break;
+        }
+        spill(candidate.queryId, candidate.profiles);
+      }
+    } finally {
+      spilling.set(false);
+    }
+  }
+
+  private void spill(UserBitShared.QueryId queryId, ExecutorProfiles profiles) {
+    final Lock lock = lock(queryId);
+    try {
+      if (executorMap.get(queryId) != profiles) {
+        // deleted meanwhile
+        return;
+      }
+      for (Map.Entry<String, CoordExecRPC.ExecutorQueryProfile> entry :
+          profiles.inMemory.entrySet()) {
+        spilledProfileStore.put(spillKey(queryId, entry.getKey()), entry.getValue());
+        profiles.spilled.add(entry.getKey());
+      }
+      SPILLED_PROFILES.increment(profiles.inMemory.size());
+      profiles.inMemory.clear();
+      inMemoryBytes.addAndGet(-profiles.bytes);
+      profiles.bytes = 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static String spillKey(UserBitShared.QueryId queryId, String endpoint) {
+    return QueryIdHelper.getQueryId(queryId) + "/" + endpoint;
+  }
+
+  /** Executor profiles of a query and their size when choosing what to spill. */
+  private static final class SpillCandidate {
+    private final UserBitShared.QueryId queryId;
+    private final ExecutorProfiles profiles;
+    private final long bytes;
+
+    private SpillCandidate(UserBitShared.QueryId queryId, ExecutorProfiles profiles, long bytes) {
+      this.queryId = queryId;
+      this.profiles = profiles;
+      this.bytes = bytes;
+    }
+  }
+
+  /** Executor profiles of a query, guarded by the lock of the query. */
+  private static final class ExecutorProfiles {
+    private final Map<String, CoordExecRPC.ExecutorQueryProfile> inMemory = new HashMap<>();
+    // endpoints with a profile in the spill store
+    private final Set<String> spilled = new HashSet<>();
+    // also read without the lock, only as a hint when choosing what to spill
+    private long bytes;
+  }
+
   /**
    * Delete specified old profile.
    *
@@ -176,9 +389,40 @@ public class LocalProfileStore implements ProfileStore {
     LegacyKVStore<AttemptId, UserBitShared.QueryProfile> legacyProfileStore =
         provider.getStore(KVProfileStoreCreator.class);
     legacyProfileStore.delete(attemptId);
+    LegacyKVStore<AttemptId, CompactQueryProfile> compactProfileStore =
+        provider.getStore(KVCompactProfileStoreCreator.class);
+    compactProfileStore.delete(attemptId);
   }
 
-  /** Creator for full profiles kvstore. */
+  /**
+   * Get the full profile of specified attempt, from whichever store holds it.
+   *
+   * <p>Exposed as static so that export tasks can do this without needing to start a service
+   *
+   * @param provider kvStore provider.
+   * @param attemptId attemptId
+   * @return profile
+   */
+  public static Optional<UserBitShared.QueryProfile> getOldProfile(
+      LegacyKVStoreProvider provider, AttemptId attemptId) {
+    return getFullProfile(
+        provider.getStore(KVProfileStoreCreator.class),
+        provider.getStore(KVCompactProfileStoreCreator.class),
+        attemptId);
+  }
+
+  private static Optional<UserBitShared.QueryProfile> getFullProfile(
+      LegacyKVStore<AttemptId, UserBitShared.QueryProfile> legacyProfileStore,
+      LegacyKVStore<AttemptId, CompactQueryProfile> compactProfileStore,
+      AttemptId attemptId) {
+    final CompactQueryProfile compact = compactProfileStore.get(attemptId);
+    if (compact != null) {
+      return Optional.of(compact.toQueryProfile());
+    }
+    return Optional.ofNullable(legacyProfileStore.get(attemptId));
+  }
+
+  /** Creator for full profiles kvstore, holding profiles as plain protobuf. */
   public static final class KVProfileStoreCreator
       implements LegacyKVStoreCreationFunction<AttemptId, UserBitShared.QueryProfile> {
     @Override
@@ -197,4 +441,43 @@ public class LocalProfileStore implements ProfileStore {
           .build();
     }
   }
+
+  /** Creator for full profiles kvstore, holding profiles as {@link CompactQueryProfile}. */
+  public static final class KVCompactProfileStoreCreator
+      implements LegacyKVStoreCreationFunction<AttemptId, CompactQueryProfile> {
+    @Override
+    public LegacyKVStore<AttemptId, CompactQueryProfile> build(LegacyStoreBuildingFactory factory) {
+      return factory
+          .<AttemptId, CompactQueryProfile>newStore()
+          .name(COMPACT_PROFILES_NAME)
+          .keyFormat(
+              Format.wrapped(
+                  AttemptId.class,
+                  AttemptIdUtils::toString,
+                  AttemptIdUtils::fromString,
+                  Format.ofString()))
+          .valueFormat(
+              Format.wrapped(
+                  CompactQueryProfile.class,
+                  CompactQueryProfile::toBytes,
+                  CompactQueryProfile::fromBytes,
+                  Format.ofBytes()))
+          .build();
+    }
+  }
+
+  /** Creator for the kvstore of spilled executor profiles. */
+  public static final class KVSpilledExecutorProfileStoreCreator
+      implements LegacyKVStoreCreationFunction<String, CoordExecRPC.ExecutorQueryProfile> {
+    @Override
+    public LegacyKVStore<String, CoordExecRPC.ExecutorQueryProfile> build(
+        LegacyStoreBuildingFactory factory) {
+      return factory
+          .<String, CoordExecRPC.ExecutorQueryProfile>newStore()
+          .name(SPILLED_EXECUTOR_PROFILES_NAME)
+          .keyFormat(Format.ofString())
+          .valueFormat(Format.ofProtobuf(CoordExecRPC.ExecutorQueryProfile.class))
+          .build();
+    }
+  }
 }
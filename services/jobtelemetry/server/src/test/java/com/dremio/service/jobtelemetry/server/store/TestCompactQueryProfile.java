@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.jobtelemetry.server.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.dremio.common.utils.protos.AttemptId;
+import com.dremio.datastore.api.LegacyKVStoreProvider;
+import com.dremio.exec.proto.CoordinationProtos;
+import com.dremio.exec.proto.UserBitShared;
+import com.dremio.service.jobtelemetry.server.TempLegacyKVStoreProviderCreator;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnknownFieldSet;
+import java.util.Optional;
+import org.junit.Test;
+
+/** Tests for {@link CompactQueryProfile}. */
+public class TestCompactQueryProfile {
+
+  @Test
+  public void testRoundTrip() {
+    UserBitShared.QueryProfile profile = profile(4, 32, 6);
+    CompactQueryProfile compact =
+        CompactQueryProfile.fromBytes(CompactQueryProfile.of(profile).toBytes());
+
+    assertEquals(profile, compact.toQueryProfile());
+    assertTrue(compact.getStoredSize() * 2 < profile.getSerializedSize());
+  }
+
+  @Test
+  public void testEmptyProfile() {
+    UserBitShared.QueryProfile profile = UserBitShared.QueryProfile.getDefaultInstance();
+    CompactQueryProfile compact =
+        CompactQueryProfile.fromBytes(CompactQueryProfile.of(profile).toBytes());
+
+    assertEquals(profile, compact.toQueryProfile());
+  }
+
+  @Test
+  public void testUnknownFieldsArePreserved() {
+    UnknownFieldSet unknown =
+        UnknownFieldSet.newBuilder()
+            .addField(
+                999,
+                UnknownFieldSet.Field.newBuilder()
+                    .addLengthDelimited(ByteString.copyFromUtf8("future"))
+                    .build())
+            .build();
+    UserBitShared.QueryProfile profile = profile(1, 2, 2);
+    UserBitShared.MajorFragmentProfile major = profile.getFragmentProfile(0);
+    profile =
+        profile.toBuilder()
+            .setFragmentProfile(
+                0,
+                major.toBuilder()
+                    .setMinorFragmentProfile(
+                        1, major.getMinorFragmentProfile(1).toBuilder().setUnknownFields(unknown)))
+            .build();
+
+    CompactQueryProfile compact =
+        CompactQueryProfile.fromBytes(CompactQueryProfile.of(profile).toBytes());
+    assertEquals(profile, compact.toQueryProfile());
+  }
+
+  @Test
+  public void testProfileWithoutFragments() {
+    UserBitShared.QueryProfile profile =
+        profile(5, 8, 3).toBuilder().clearFragmentProfile().build();
+    CompactQueryProfile compact =
+        CompactQueryProfile.fromBytes(CompactQueryProfile.of(profile).toBytes());
+
+    assertEquals(profile, compact.toQueryProfile());
+  }
+
+  @Test
+  public void testRejectsOtherFormats() {
+    UserBitShared.QueryProfile profile = profile(2, 4, 2);
+
+    assertThrows(
+        IllegalStateException.class, () -> CompactQueryProfile.fromBytes(profile.toByteArray()));
+
+    byte[] bytes = CompactQueryProfile.of(profile).toBytes();
+    bytes[1]++;
+    assertThrows(IllegalStateException.class, () -> CompactQueryProfile.fromBytes(bytes));
+  }
+
+  @Test
+  public void testProfileStore() throws Exception {
+    UserBitShared.QueryId queryId =
+        UserBitShared.QueryId.newBuilder().setPart1(1020).setPart2(4000).build();
+    UserBitShared.QueryId oldQueryId =
+        UserBitShared.QueryId.newBuilder().setPart1(1020).setPart2(4001).build();
+    UserBitShared.QueryProfile profile = profile(3, 4, 2);
+    LegacyKVStoreProvider provider = TempLegacyKVStoreProviderCreator.create();
+
+    try (LocalProfileStore store = new LocalProfileStore(provider)) {
+      store.start();
+      store.putFullProfile(queryId, profile);
+      // written before profiles were stored compact
+      provider
+          .getStore(LocalProfileStore.KVProfileStoreCreator.class)
+          .put(AttemptId.of(oldQueryId), profile);
+
+      assertNotNull(
+          provider
+              .getStore(LocalProfileStore.KVCompactProfileStoreCreator.class)
+              .get(AttemptId.of(queryId)));
+      assertEquals(Optional.of(profile), store.getFullProfile(queryId));
+      assertEquals(Optional.of(profile), store.getFullProfile(oldQueryId));
+
+      store.deleteProfile(queryId);
+      store.deleteProfile(oldQueryId);
+      assertFalse(store.getFullProfile(queryId).isPresent());
+      assertFalse(store.getFullProfile(oldQueryId).isPresent());
+    }
+  }
+
+  private static UserBitShared.QueryProfile profile(
+      int majorFragments, int minorFragments, int operators) {
+    final long start = 1_700_000_000_000L;
+    UserBitShared.QueryProfile.Builder profile =
+        UserBitShared.QueryProfile.newBuilder()
+            .setId(UserBitShared.QueryId.newBuilder().setPart1(1).setPart2(2))
+            .setQuery("select * from t")
+            .setPlan("plan")
+            .setStart(start)
+            .setEnd(start + 60_000)
+            .setState(UserBitShared.QueryResult.QueryState.COMPLETED)
+            .setForeman(endpoint(0));
+    for (int major = 0; major < majorFragments; major++) {
+      UserBitShared.MajorFragmentProfile.Builder majorProfile =
+          UserBitShared.MajorFragmentProfile.newBuilder()
+              .setMajorFragmentId(major)
+              .setPhaseWeight(major + 1);
+      for (int minor = 0; minor < minorFragments; minor++) {
+        long minorStart = start + major * 100 + minor * 7;
+        UserBitShared.MinorFragmentProfile.Builder minorProfile =
+            UserBitShared.MinorFragmentProfile.newBuilder()
+                .setMinorFragmentId(minor)
+                .setState(UserBitShared.FragmentState.FINISHED)
+                .setStartTime(minorStart)
+                .setEndTime(minorStart + 5_000 + minor)
+                .setMaxMemoryUsed(1_000_000L + minor * 1024)
+                .setEndpoint(endpoint(minor % 3))
+                .setRunDuration(4_000 + minor)
+                .setNumRuns(12)
+                .addPerResourceBlockedDuration(
+                    UserBitShared.BlockedResourceDuration.newBuilder()
+                        .setResource("exchange")
+                        .setCategory(UserBitShared.SharedResourceCategory.UPSTREAM)
+                        .setDuration(minor * 3));
+        for (int op = operators - 1; op >= 0; op--) {
+          UserBitShared.OperatorProfile.Builder operator =
+              UserBitShared.OperatorProfile.newBuilder()
+                  .setOperatorId(op)
+                  .setOperatorType(op * 5)
+                  .setSetupNanos(10_000 + minor)
+                  .setProcessNanos(2_000_000L * op + minor * 13)
+                  .setWaitNanos(minor % 2 == 0 ? 0 : 1_234)
+                  .setPeakLocalMemoryAllocated(65_536)
+                  .addInputProfile(
+                      UserBitShared.StreamProfile.newBuilder()
+                          .setRecords(4_096L * minor)
+                          .setBatches(minor)
+                          .setSchemas(1));
+          for (int metric = 0; metric < 10; metric++) {
+            UserBitShared.MetricValue.Builder value =
+                UserBitShared.MetricValue.newBuilder().setMetricId(metric);
+            if (metric % 4 == 3) {
+              value.setDoubleValue(metric * 0.5 + minor);
+            } else {
+              value.setLongValue(metric * 100L + minor);
+            }
+            operator.addMetric(value);
+          }
+          minorProfile.addOperatorProfile(operator);
+        }
+        majorProfile.addMinorFragmentProfile(minorProfile);
+      }
+      profile.addFragmentProfile(majorProfile);
+    }
+    return profile.build();
+  }
+
+  private static CoordinationProtos.NodeEndpoint endpoint(int i) {
+    return CoordinationProtos.NodeEndpoint.newBuilder()
+        .setAddress("executor-" + i + ".example.com")
+        .setFabricPort(45678)
+        .setStartTime(1_690_000_000_000L + i)
+        .build();
+  }
+}
@@ -15,7 +15,21 @@
  */
 package com.dremio.service.jobtelemetry.server.store;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.dremio.exec.proto.CoordExecRPC;
+import com.dremio.exec.proto.CoordinationProtos;
+import com.dremio.exec.proto.UserBitShared;
 import com.dremio.service.jobtelemetry.server.TempLegacyKVStoreProviderCreator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
 
 /** Test for local profile store. */
 public class TestLocalProfileStore extends AbstractTestProfileStore {
@@ -24,4 +38,106 @@ public class TestLocalProfileStore extends AbstractTestProfileStore {
   public ProfileStore getProfileStore() throws Exception {
     return new LocalProfileStore(TempLegacyKVStoreProviderCreator.create());
   }
+
+  @Test
+  public void testSpillExecutorProfiles() throws Exception {
+    final UserBitShared.QueryId queryId =
+        UserBitShared.QueryId.newBuilder().setPart1(1020).setPart2(3000).build();
+    final UserBitShared.QueryId otherQueryId =
+        UserBitShared.QueryId.newBuilder().setPart1(1020).setPart2(3001).build();
+
+    try (LocalProfileStore store =
+        new LocalProfileStore(TempLegacyKVStoreProviderCreator.create(), 8)) {
+      store.start();
+
+      // every put goes over the limit and spills
+      for (int i = 0; i < 10; i++) {
+        store.putExecutorProfile(queryId, endpoint(i), profile(i), false);
+      }
+      store.putExecutorProfile(otherQueryId, endpoint(0), profile(100), false);
+      assertTrue(store.getInMemoryBytes() <= 8);
+
+      // a later update supersedes the spilled profile
+      store.putExecutorProfile(queryId, endpoint(3), profile(33), false);
+
+      assertEquals(
+          List.of(0L, 1L, 2L, 4L, 5L, 6L, 7L, 8L, 9L, 33L),
+          rowsProcessed(store.getAllExecutorProfiles(queryId).collect(Collectors.toList())));
+      assertEquals(
+          List.of(100L),
+          rowsProcessed(store.getAllExecutorProfiles(otherQueryId).collect(Collectors.toList())));
+
+      store.deleteSubProfiles(queryId);
+      assertEquals(0, store.getAllExecutorProfiles(queryId).count());
+      assertEquals(1, store.getAllExecutorProfiles(otherQueryId).count());
+
+      store.deleteSubProfiles(otherQueryId);
+      assertEquals(0, store.getInMemoryBytes());
+    }
+  }
+
+  @Test
+  public void testConcurrentExecutorProfiles() throws Exception {
+    final int queries = 8;
+    final int endpoints = 16;
+    final int updates = 50;
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try (LocalProfileStore store =
+        new LocalProfileStore(TempLegacyKVStoreProviderCreator.create(), 256)) {
+      store.start();
+
+      List<Future<?>> futures = new ArrayList<>();
+      for (int e = 0; e < endpoints; e++) {
+        final int endpoint = e;
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int u = 1; u <= updates; u++) {
+                    for (int q = 0; q < queries; q++) {
+                      store.putExecutorProfile(
+                          queryId(q), endpoint(endpoint), profile(u), u == updates);
+                    }
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+
+      for (int q = 0; q < queries; q++) {
+        assertEquals(
+            IntStream.range(0, endpoints)
+                .mapToObj(i -> (long) updates)
+                .collect(Collectors.toList()),
+            rowsProcessed(store.getAllExecutorProfiles(queryId(q)).collect(Collectors.toList())));
+        store.deleteSubProfiles(queryId(q));
+      }
+      assertEquals(0, store.getInMemoryBytes());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static UserBitShared.QueryId queryId(int i) {
+    return UserBitShared.QueryId.newBuilder().setPart1(1030).setPart2(i).build();
+  }
+
+  private static CoordinationProtos.NodeEndpoint endpoint(int i) {
+    return CoordinationProtos.NodeEndpoint.newBuilder().setAddress("10.10.20." + i).build();
+  }
+
+  private static CoordExecRPC.ExecutorQueryProfile profile(long rowsProcessed) {
+    return CoordExecRPC.ExecutorQueryProfile.newBuilder()
+        .setProgress(
+            CoordExecRPC.QueryProgressMetrics.newBuilder().setRowsProcessed(rowsProcessed).build())
+        .build();
+  }
+
+  private static List<Long> rowsProcessed(List<CoordExecRPC.ExecutorQueryProfile> profiles) {
+    return profiles.stream()
+        .map(p -> p.getProgress().getRowsProcessed())
+        .sorted()
+        .collect(Collectors.toList());
+  }
 }
@@ -89,6 +89,7 @@ import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -1469,6 +1470,39 @@ public class NamespaceServiceImpl implements NamespaceService {
     return containers;
   }
 
+  @Override
+  @WithSpan
+  public List<DatasetConfig> getDatasets(List<NamespaceKey> datasetPaths) {
+    // read the entities on all the paths at once
+    final Set<String> keys = new LinkedHashSet<>();
+    for (NamespaceKey datasetPath : datasetPaths) {
+      keys.addAll(getKeysOnPath(datasetPath));
+    }
+    final List<String> keyList = new ArrayList<>(keys);
+    final List<NameSpaceContainer> containers = namespace.get(keyList);
+    final Map<String, NameSpaceContainer> containersByKey = new HashMap<>();
+    for (int i = 0; i < keyList.size(); i++) {
+      containersByKey.put(keyList.get(i), containers.get(i));
+    }
+
+    final List<DatasetConfig> datasets = new ArrayList<>(datasetPaths.size());
+    for (NamespaceKey datasetPath : datasetPaths) {
+      final List<NameSpaceContainer> entitiesOnPath = new ArrayList<>();
+      for (String key : getKeysOnPath(datasetPath)) {
+        entitiesOnPath.add(containersByKey.get(key));
+      }
+      final NameSpaceContainer container = lastElement(entitiesOnPath);
+      if (container == null
+          || container.getType() != DATASET
+          || entitiesOnPath.subList(0, entitiesOnPath.size() - 1).contains(null)) {
+        datasets.add(null);
+      } else {
+        datasets.add(doGetEntity(entitiesOnPath).getDataset());
+      }
+    }
+    return datasets;
+  }
+
   // returns the child containers of the given rootKey as a list
   private List<NameSpaceContainer> listEntity(final NamespaceKey rootKey)
       throws NamespaceException {
@@ -2179,6 +2213,11 @@ public class NamespaceServiceImpl implements NamespaceService {
    */
   protected List<NameSpaceContainer> getEntitiesOnPathWithoutValidation(NamespaceKey entityPath)
       throws NamespaceNotFoundException {
+    return namespace.get(getKeysOnPath(entityPath));
+  }
+
+  /** Returns the keys of the entities on the given path, from the root to the leaf. */
+  private static List<String> getKeysOnPath(NamespaceKey entityPath) {
     final List<String> keys =
         Lists.newArrayListWithExpectedSize(entityPath.getPathComponents().size());
 
@@ -2194,7 +2233,7 @@ public class NamespaceServiceImpl implements NamespaceService {
     // reverse the keys so that the order of keys is from root to leaf level entity.
     Collections.reverse(keys);
 
-    return namespace.get(keys);
+    return keys;
   }
 
   /**
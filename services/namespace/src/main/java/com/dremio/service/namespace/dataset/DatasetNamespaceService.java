@@ -89,6 +89,14 @@ public interface DatasetNamespaceService {
 
   List<DatasetConfig> getDatasets();
 
+  /**
+   * Returns the {@link DatasetConfig configurations} of the given paths, in the same order, with
+   * null for the paths that are not datasets. The entities on all the paths are read at once.
+   *
+   * @param datasetPaths paths whose configs will be returned
+   */
+  List<DatasetConfig> getDatasets(List<NamespaceKey> datasetPaths);
+
   //// LIST or COUNT datasets under folder/space/home/source
   //// Note: use sparingly!
   Iterable<NamespaceKey> getAllDatasets(final NamespaceKey parent) throws NamespaceException;
@@ -18,6 +18,7 @@ package com.dremio.service.namespace;
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -401,6 +402,32 @@ public abstract class AbstractTestNamespaceService {
             namespaceService.getAllDatasets(new NamespaceKey(asList("a", "foo", "bar1", "bar3")))));
   }
 
+  @Test
+  public void testGetDatasets() throws Exception {
+    NamespaceTestUtils.addSpace(namespaceService, "a");
+    NamespaceTestUtils.addFolder(namespaceService, "a.foo");
+    NamespaceTestUtils.addDS(namespaceService, "a.ds0");
+    NamespaceTestUtils.addDS(namespaceService, "a.foo.ds1");
+
+    final List<DatasetConfig> datasets =
+        namespaceService.getDatasets(
+            asList(
+                new NamespaceKey(asList("a", "foo", "ds1")),
+                new NamespaceKey(asList("a", "missing")),
+                new NamespaceKey(asList("a", "foo")),
+                new NamespaceKey(asList("b", "foo", "ds1")),
+                new NamespaceKey(asList("A", "DS0")),
+                new NamespaceKey(asList("a", "foo", "ds1"))));
+
+    assertEquals(6, datasets.size());
+    assertEquals(asList("a", "foo", "ds1"), datasets.get(0).getFullPathList());
+    assertNull(datasets.get(1));
+    assertNull(datasets.get(2));
+    assertNull(datasets.get(3));
+    assertEquals(asList("a", "ds0"), datasets.get(4).getFullPathList());
+    assertEquals(datasets.get(0).getTag(), datasets.get(5).getTag());
+  }
+
   @Test
   public void testDatasetsUnderHome() throws Exception {
     NamespaceTestUtils.addHome(namespaceService, "a");
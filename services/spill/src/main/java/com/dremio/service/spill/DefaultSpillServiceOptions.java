@@ -30,6 +30,10 @@ public class DefaultSpillServiceOptions implements SpillServiceOptions {
   public static final long SPILL_SWEEP_INTERVAL = 60 * 60 * 1000; // spill sweep once an hour
   public static final long SPILL_SWEEP_THRESHOLD =
       7L * 24 * 60 * 60 * 1000; // remove spills older than one week
+  public static final long SPOOLING_QUOTA_PER_QUERY_BYTES = 100L * 1024 * 1024 * 1024;
+  // spilling is not limited by default
+  public static final long SPILL_QUOTA_PER_QUERY_BYTES = Long.MAX_VALUE;
+  public static final long SPILL_QUOTA_PER_NODE_BYTES = Long.MAX_VALUE;
 
   @VisibleForTesting
   public DefaultSpillServiceOptions() {}
@@ -63,4 +67,19 @@ public class DefaultSpillServiceOptions implements SpillServiceOptions {
   public long spillSweepThreshold() {
     return SPILL_SWEEP_THRESHOLD;
   }
+
+  @Override
+  public long spoolingQuotaPerQuery() {
+    return SPOOLING_QUOTA_PER_QUERY_BYTES;
+  }
+
+  @Override
+  public long spillQuotaPerQuery() {
+    return SPILL_QUOTA_PER_QUERY_BYTES;
+  }
+
+  @Override
+  public long spillQuotaPerNode() {
+    return SPILL_QUOTA_PER_NODE_BYTES;
+  }
 }
@@ -20,12 +20,27 @@ import org.apache.hadoop.fs.Path;
 
 /** */
 public final class SpillDirectory {
+  private static final WriteListener NO_OP_LISTENER =
+      new WriteListener() {
+        @Override
+        public void writeStarted() {}
+
+        @Override
+        public void writeFinished(long bytes) {}
+      };
+
   private final Path spillDirPath;
   private final FileSystem fileSystem;
+  private final WriteListener writeListener;
 
   public SpillDirectory(Path spillDir, FileSystem fileSystem) {
+    this(spillDir, fileSystem, NO_OP_LISTENER);
+  }
+
+  public SpillDirectory(Path spillDir, FileSystem fileSystem, WriteListener writeListener) {
     this.spillDirPath = spillDir;
     this.fileSystem = fileSystem;
+    this.writeListener = writeListener;
   }
 
   public Path getSpillDirPath() {
@@ -36,8 +51,25 @@ public final class SpillDirectory {
     return fileSystem;
   }
 
+  /** To be called when a spill file is about to be written in this directory */
+  public void writeStarted() {
+    writeListener.writeStarted();
+  }
+
+  /** To be called once a spill file of this directory was written, with its size on disk */
+  public void writeFinished(long bytes) {
+    writeListener.writeFinished(bytes);
+  }
+
   @Override
   public String toString() {
     return spillDirPath.toString();
   }
+
+  /** Tracks the spill files written in a spill directory, used to balance spills across disks */
+  public interface WriteListener {
+    void writeStarted();
+
+    void writeFinished(long bytes);
+  }
 }
@@ -58,6 +58,43 @@ public interface SpillService extends Service {
   @Deprecated
   SpillDirectory getSpillSubdir(String id) throws UserException;
 
+  /**
+   * Reserves disk space for data spooled by exchanges of the given query, within the per query
+   * spooling quota. Reservations must be released with {@link #releaseSpoolSpace(String, long)}.
+   *
+   * @param queryId id of the query spooling the data
+   * @param bytes number of bytes about to be spooled
+   * @return true if the space was reserved, false if the query would exceed its quota
+   */
+  boolean reserveSpoolSpace(String queryId, long bytes);
+
+  /**
+   * Releases disk space reserved with {@link #reserveSpoolSpace(String, long)}
+   *
+   * @param queryId id of the query that reserved the space
+   * @param bytes number of bytes to release
+   */
+  void releaseSpoolSpace(String queryId, long bytes);
+
+  /**
+   * Reserves disk space for data spilled by operators of the given query, within the per query and
+   * per node spilling quotas. Reservations must be released with {@link #releaseSpillSpace(String,
+   * long)}.
+   *
+   * @param queryId id of the query spilling the data
+   * @param bytes number of bytes spilled
+   * @return true if the space was reserved, false if the query or the node would exceed its quota
+   */
+  boolean reserveSpillSpace(String queryId, long bytes);
+
+  /**
+   * Releases disk space reserved with {@link #reserveSpillSpace(String, long)}
+   *
+   * @param queryId id of the query that reserved the space
+   * @param bytes number of bytes to release
+   */
+  void releaseSpillSpace(String queryId, long bytes);
+
   /**
    * Checks if spill is empty.
    *
@@ -26,15 +26,21 @@ import com.dremio.exec.store.LocalSyncableFileSystem;
 import com.dremio.service.scheduler.Cancellable;
 import com.dremio.service.scheduler.Schedule;
 import com.dremio.service.scheduler.SchedulerService;
+import com.dremio.telemetry.api.metrics.Metrics;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import java.io.File;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -83,6 +89,17 @@ public class SpillServiceImpl implements SpillService {
   private volatile ArrayList<String> healthySpillDirs;
   private Cancellable healthCheckTask;
 
+  // bytes spooled to disk by the exchanges of each query running on this node
+  private final Map<String, Long> spooledBytesPerQuery = new ConcurrentHashMap<>();
+
+  // bytes spilled to disk by the operators of each query running on this node, and in total
+  private final Map<String, Long> spilledBytesPerQuery = new ConcurrentHashMap<>();
+  private final AtomicLong spilledBytes = new AtomicLong();
+
+  // load of each spill directory, used to place new spill files
+  private final Map<String, DiskLoad> diskLoads = new ConcurrentHashMap<>();
+  private final List<String> metricNames = new ArrayList<>();
+
   public SpillServiceImpl(
       DremioConfig config,
       SpillServiceOptions options,
@@ -107,6 +124,9 @@ public class SpillServiceImpl implements SpillService {
     this.schedulerService = schedulerService;
     this.identityProvider = identityProvider;
     this.nodesProvider = nodesProvider;
+    for (String spillDir : spillDirs) {
+      diskLoads.put(spillDir, new DiskLoad());
+    }
     // Option values set at start
     minDiskSpace = 0;
     minDiskSpacePercentage = 0;
@@ -195,6 +215,8 @@ public class SpillServiceImpl implements SpillService {
       }
     }
 
+    registerMetrics();
+
     if (healthCheckEnabled) {
       healthCheckTask =
           schedulerService
@@ -209,9 +231,29 @@ public class SpillServiceImpl implements SpillService {
 
   @Override
   public void close() throws Exception {
+    metricNames.forEach(Metrics::unregister);
+    metricNames.clear();
     folderManager.close();
   }
 
+  private void registerMetrics() {
+    for (int i = 0; i < spillDirs.size(); i++) {
+      final String spillDir = spillDirs.get(i);
+      final DiskLoad load = diskLoads.get(spillDir);
+      final String prefix = "disk" + i;
+      logger.info("Reporting metrics of spill directory {} as spill.{}", spillDir, prefix);
+      registerGauge(Metrics.join("spill", prefix, "active_writers"), load.activeWriters::get);
+      registerGauge(Metrics.join("spill", prefix, "bytes_written"), load.bytesWritten::get);
+      registerGauge(Metrics.join("spill", prefix, "free_bytes"), () -> load.freeSpace);
+    }
+    registerGauge(Metrics.join("spill", "reserved_bytes"), spilledBytes::get);
+  }
+
+  private void registerGauge(String name, LongSupplier supplier) {
+    Metrics.newGauge(name, supplier);
+    metricNames.add(name);
+  }
+
   @Override
   public void makeSpillSubdirs(String id) throws UserException {
     // TODO: use only the healthy spill directories, once health checks implemented (shortly!).
@@ -265,6 +307,67 @@ public class SpillServiceImpl implements SpillService {
     }
   }
 
+  @Override
+  public boolean reserveSpoolSpace(String queryId, long bytes) {
+    final long quota = options.spoolingQuotaPerQuery();
+    final boolean[] reserved = new boolean[1];
+    spooledBytesPerQuery.compute(
+        queryId,
+        (id, spooled) -> {
+          final long current = spooled == null ? 0 : spooled;
+          if (current + bytes > quota) {
+            return spooled;
+          }
+          reserved[0] = true;
+          return current + bytes;
+        });
+    if (!reserved[0]) {
+      logger.debug("Query {} reached its spooling quota of {} bytes", queryId, quota);
+    }
+    return reserved[0];
+  }
+
+  @Override
+  public void releaseSpoolSpace(String queryId, long bytes) {
+    spooledBytesPerQuery.computeIfPresent(
+        queryId, (id, spooled) -> spooled - bytes > 0 ? spooled - bytes : null);
+  }
+
+  @Override
+  public boolean reserveSpillSpace(String queryId, long bytes) {
+    final long queryQuota = options.spillQuotaPerQuery();
+    final long nodeQuota = options.spillQuotaPerNode();
+    final boolean[] reserved = new boolean[1];
+    spilledBytesPerQuery.compute(
+        queryId,
+        (id, spilled) -> {
+          final long current = spilled == null ? 0 : spilled;
+          if (current + bytes > queryQuota) {
+            logger.debug("Query {} reached its spilling quota of {} bytes", queryId, queryQuota);
+            return spilled;
+          }
+          if (spilledBytes.addAndGet(bytes) > nodeQuota) {
+            spilledBytes.addAndGet(-bytes);
+            logger.debug("Query {} hit the node spilling quota of {} bytes", queryId, nodeQuota);
+            return spilled;
+          }
+          reserved[0] = true;
+          return current + bytes;
+        });
+    return reserved[0];
+  }
+
+  @Override
+  public void releaseSpillSpace(String queryId, long bytes) {
+    spilledBytesPerQuery.computeIfPresent(
+        queryId,
+        (id, spilled) -> {
+          final long released = Math.min(spilled, bytes);
+          spilledBytes.addAndGet(-released);
+          return spilled - released > 0 ? spilled - released : null;
+        });
+  }
+
   // checks if all spill directories are empty, used for testing.
   @Override
   public boolean isEmpty() throws IOException {
@@ -282,18 +385,18 @@ public class SpillServiceImpl implements SpillService {
   public SpillDirectory getSpillSubdir(String id) throws UserException {
     ArrayList<String> currentSpillDirs = Lists.newArrayList(spillDirs);
     while (!currentSpillDirs.isEmpty()) {
-      // pick a random spill directory
-      final int index = ThreadLocalRandom.current().nextInt(currentSpillDirs.size());
+      // pick a spill directory. Each spill file is placed on its own, so that the files of a large
+      // spill are spread across the disks
+      final int index = pickSpillDir(currentSpillDirs);
       final String spillDir = currentSpillDirs.get(index);
 
       final Path spillDirPath = new Path(spillDir);
       final Path monitoredPath = monitoredSpillDirectoryMap.get(spillDir);
-      if (isHealthy(spillDirPath) && monitoredPath != null) {
+      if (isHealthy(spillDir) && monitoredPath != null) {
         try {
-          // TODO: track number of spills created in 'spillDir'
           FileSystem fileSystem = spillDirPath.getFileSystem(getSpillingConfig());
           final Path spillSubdir = new Path(monitoredPath, id);
-          return new SpillDirectory(spillSubdir, fileSystem);
+          return new SpillDirectory(spillSubdir, fileSystem, diskLoads.get(spillDir));
         } catch (IOException e) {
           // Ignore this 'spillDir'. Still consider the others
           logger.warn(
@@ -315,8 +418,35 @@ public class SpillServiceImpl implements SpillService {
         .build(logger);
   }
 
-  private boolean isHealthy(Path spillDirPath) {
+  /**
+   * Picks one of the given spill directories at random, with a probability proportional to its free
+   * space (when known for all of them) divided by the number of spill files being written in it.
+   */
+  @VisibleForTesting
+  int pickSpillDir(List<String> candidates) {
+    boolean useFreeSpace = true;
+    for (String spillDir : candidates) {
+      useFreeSpace = useFreeSpace && diskLoads.get(spillDir).hasFreeSpace();
+    }
+    final double[] weights = new double[candidates.size()];
+    double totalWeight = 0;
+    for (int i = 0; i < weights.length; i++) {
+      weights[i] = diskLoads.get(candidates.get(i)).weight(useFreeSpace);
+      totalWeight += weights[i];
+    }
+    double target = ThreadLocalRandom.current().nextDouble() * totalWeight;
+    for (int i = 0; i < weights.length - 1; i++) {
+      target -= weights[i];
+      if (target < 0) {
+        return i;
+      }
+    }
+    return weights.length - 1;
+  }
+
+  private boolean isHealthy(String spillDir) {
     if (healthCheckEnabled) {
+      final Path spillDirPath = new Path(spillDir);
       final File disk = new File(Path.getPathWithoutSchemeAndAuthority(spillDirPath).toString());
       final double totalSpace = (double) disk.getTotalSpace();
       minDiskSpace = options.minDiskSpace();
@@ -329,6 +459,7 @@ public class SpillServiceImpl implements SpillService {
       final long threshold =
           Math.max((long) ((totalSpace / 100.0) * minDiskSpacePercentage), minDiskSpace);
       final long available = disk.getFreeSpace();
+      diskLoads.get(spillDir).freeSpaceMeasured(available);
       if (available < threshold) {
         logger.info(
             "Check isHealthy available space {} is less than threshold {} for spillDirectory {} "
@@ -375,6 +506,41 @@ public class SpillServiceImpl implements SpillService {
     return new ExecutorId(current.getAddress(), current.getFabricPort());
   }
 
+  /** Spill files written in a spill directory, and its free space */
+  private static final class DiskLoad implements SpillDirectory.WriteListener {
+    private final AtomicInteger activeWriters = new AtomicInteger();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    // bytes written since the free space was last measured
+    private final AtomicLong recentBytesWritten = new AtomicLong();
+    private volatile long freeSpace = -1;
+
+    void freeSpaceMeasured(long freeSpace) {
+      recentBytesWritten.set(0);
+      this.freeSpace = freeSpace;
+    }
+
+    boolean hasFreeSpace() {
+      return freeSpace >= 0;
+    }
+
+    double weight(boolean useFreeSpace) {
+      final double capacity = useFreeSpace ? Math.max(freeSpace - recentBytesWritten.get(), 1) : 1;
+      return capacity / (1 + activeWriters.get());
+    }
+
+    @Override
+    public void writeStarted() {
+      activeWriters.incrementAndGet();
+    }
+
+    @Override
+    public void writeFinished(long bytes) {
+      activeWriters.decrementAndGet();
+      bytesWritten.addAndGet(bytes);
+      recentBytesWritten.addAndGet(bytes);
+    }
+  }
+
   class SpillHealthCheckTask implements Runnable {
     private long lastSpillSweep = 0;
 
@@ -383,7 +549,7 @@ public class SpillServiceImpl implements SpillService {
       ArrayList<String> newHealthySpillDirs = Lists.newArrayList();
       for (String spillDir : spillDirs) {
         final Path spillDirPath = new Path(spillDir);
-        if (isHealthy(spillDirPath)) {
+        if (isHealthy(spillDir)) {
           boolean healthy = true;
           if (!monitoredSpillDirectoryMap.containsKey(spillDir)) {
             try {
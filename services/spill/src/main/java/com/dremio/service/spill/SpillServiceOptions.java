@@ -54,4 +54,13 @@ public interface SpillServiceOptions {
    * unresponsive spill drives.
    */
   long spillSweepThreshold();
+
+  /** Maximum number of bytes the exchanges of a single query can spool to disk on this node */
+  long spoolingQuotaPerQuery();
+
+  /** Maximum number of bytes the operators of a single query can spill to disk on this node */
+  long spillQuotaPerQuery();
+
+  /** Maximum number of bytes the operators of all queries can spill to disk on this node */
+  long spillQuotaPerNode();
 }
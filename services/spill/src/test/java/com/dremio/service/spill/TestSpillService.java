@@ -16,7 +16,9 @@
 package com.dremio.service.spill;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -26,6 +28,7 @@ import com.dremio.service.scheduler.Schedule;
 import com.dremio.service.scheduler.SchedulerService;
 import com.google.common.collect.ImmutableList;
 import java.io.File;
+import java.util.List;
 import javax.inject.Provider;
 import org.junit.Rule;
 import org.junit.Test;
@@ -122,4 +125,87 @@ public class TestSpillService {
 
     spillService.close();
   }
+
+  @Test
+  public void testSpillPlacementFavorsIdleDirectories() throws Exception {
+    final DremioConfig config = mock(DremioConfig.class);
+    final List<String> spillDirs =
+        ImmutableList.of(
+            spillParentDir.newFolder().getPath(), spillParentDir.newFolder().getPath());
+    when(config.getStringList(DremioConfig.SPILLING_PATH_STRING)).thenReturn(spillDirs);
+    final NoopScheduler schedulerService = new NoopScheduler();
+    final SpillServiceImpl spillService =
+        new SpillServiceImpl(
+            config,
+            new TestSpillServiceOptions() {
+              @Override
+              public long minDiskSpace() {
+                return 0;
+              }
+
+              @Override
+              public double minDiskSpacePercentage() {
+                return 0;
+              }
+            },
+            () -> schedulerService);
+    spillService.start();
+    spillService.makeSpillSubdirs("test");
+
+    // many spill files being written in the first directory
+    SpillDirectory busy = spillService.getSpillSubdir("test");
+    while (!busy.getSpillDirPath().toUri().getPath().startsWith(spillDirs.get(0) + "/")) {
+      busy = spillService.getSpillSubdir("test");
+    }
+    for (int i = 0; i < 99; i++) {
+      busy.writeStarted();
+    }
+    int busyPicks = 0;
+    for (int i = 0; i < 200; i++) {
+      if (spillService.pickSpillDir(spillDirs) == 0) {
+        busyPicks++;
+      }
+    }
+    assertTrue("busy directory picked " + busyPicks + " times", busyPicks < 20);
+
+    for (int i = 0; i < 99; i++) {
+      busy.writeFinished(0);
+    }
+    spillService.deleteSpillSubdirs("test");
+    spillService.close();
+  }
+
+  @Test
+  public void testSpillQuotas() throws Exception {
+    final DremioConfig config = mock(DremioConfig.class);
+    when(config.getStringList(DremioConfig.SPILLING_PATH_STRING))
+        .thenReturn(ImmutableList.of(spillParentDir.newFolder().getPath()));
+    final SpillService spillService =
+        new SpillServiceImpl(
+            config,
+            new TestSpillServiceOptions() {
+              @Override
+              public long spillQuotaPerQuery() {
+                return 100;
+              }
+
+              @Override
+              public long spillQuotaPerNode() {
+                return 150;
+              }
+            },
+            NoopScheduler::new);
+
+    assertTrue(spillService.reserveSpillSpace("q1", 80));
+    // over the query quota
+    assertFalse(spillService.reserveSpillSpace("q1", 30));
+    assertTrue(spillService.reserveSpillSpace("q2", 60));
+    // over the node quota
+    assertFalse(spillService.reserveSpillSpace("q2", 20));
+
+    spillService.releaseSpillSpace("q1", 80);
+    assertTrue(spillService.reserveSpillSpace("q2", 20));
+    assertTrue(spillService.reserveSpillSpace("q1", 70));
+    assertFalse(spillService.reserveSpillSpace("q1", 1));
+  }
 }